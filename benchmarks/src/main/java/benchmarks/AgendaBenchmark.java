@@ -0,0 +1,83 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.ItemAluguel;
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Consulta "livres de X a Y por categoria" com a agenda cheia de reservas futuras
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AgendaBenchmark {
+
+    private static final long DIA = 24L * 60 * 60 * 1000;
+
+    @Param({"50000"})
+    public int frota;
+
+    // Reservas futuras espalhadas pelos próximos 180 dias
+    @Param({"100000"})
+    public int reservas;
+
+    @Param({"10"})
+    public int dias;
+
+    private DadosSinteticos.Cenario cenario;
+    private DadosSinteticos dados;
+    private long hoje;
+    private Date inicioConsulta;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        cenario = DadosSinteticos.cenario(frota, 1000, 0, 42);
+        dados = new DadosSinteticos(7);
+        hoje = System.currentTimeMillis();
+        for (int i = 0; i < reservas; i++) {
+            Veiculo veiculo = cenario.frota.get(dados.sortear(frota));
+            cenario.aluguelService.criarAluguel(cenario.clientes.get(dados.sortear(cenario.clientes.size())),
+                    new Date(hoje + (1 + dados.sortear(180)) * DIA), 1 + dados.sortear(14),
+                    List.of(new ItemAluguel(veiculo)));
+        }
+        inicioConsulta = new Date(hoje + 30 * DIA);
+    }
+
+    @Benchmark
+    public List<Veiculo> livresNaCategoria() {
+        return cenario.veiculoService.listarDisponiveis(CategoriaVeiculo.ECONOMICO, inicioConsulta, dias);
+    }
+
+    // Reserva e libera um período: checagem de sobreposição e bitsets dos dias
+    // (o aluguel não é salvo, para o repositório não crescer durante a medição)
+    @Benchmark
+    public boolean reservarELiberar() {
+        Veiculo veiculo = cenario.frota.get(dados.sortear(frota));
+        Aluguel aluguel = new Aluguel(cenario.clientes.get(0), 3);
+        aluguel.setDataAluguel(new Date(hoje + (200 + dados.sortear(100)) * DIA));
+        aluguel.adicionarVeiculo(new ItemAluguel(veiculo));
+        boolean reservado = cenario.veiculoService.reservarPeriodo(aluguel, aluguel.getVeiculos());
+        if (reservado) {
+            cenario.veiculoService.liberarPeriodo(aluguel);
+        }
+        return reservado;
+    }
+}
@@ -0,0 +1,154 @@
+package benchmarks;
+
+import entities.Cliente;
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import repositories.ClienteRepository;
+import repositories.VeiculoRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Busca de clientes por nome (nome completo, começo do sobrenome, sobrenome com letras trocadas)
+// e de veículos por modelo, contra a varredura do cadastro que seria a alternativa sem índice.
+// Os sobrenomes são montados de sílabas (dezenas de milhares de distintos), para o vocabulário
+// não ficar pequeno como o de DadosSinteticos. Também mede renomear um cliente (reindexação).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class BuscaBenchmark {
+
+    private static final String[] NOMES = {
+            "Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe", "Gabriela", "Heitor", "Isabela", "João",
+            "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Sofia", "Thiago", "Vitória", "Yuri"
+    };
+    private static final String[] SILABAS = {
+            "ba", "ca", "da", "fe", "go", "lu", "ma", "ne", "pi", "ra", "so", "ta", "vi", "ze", "lho",
+            "nha", "bri", "cor", "tes", "val", "mon", "ri", "dro", "guei", "xa"
+    };
+    private static final int LIMITE = 10;
+    private static final int CONSULTAS = 1024;
+
+    @Param({"2000000"})
+    public int clientes;
+
+    private ClienteRepository clienteRepository;
+    private VeiculoRepository veiculoRepository;
+    private List<Cliente> cadastro;
+    private final String[] exatas = new String[CONSULTAS];
+    private final String[] prefixos = new String[CONSULTAS];
+    private final String[] comErro = new String[CONSULTAS];
+    private final String[] modelos = {"corol", "onix", "hb20", "jeep compas", "civic", "kiks", "argo", "audi"};
+    private Cliente renomeado;
+    private String nomeOriginal;
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom random = new SplittableRandom(42);
+        clienteRepository = new ClienteRepository();
+        List<Cliente> lote = new ArrayList<>(10_000);
+        for (int i = 0; i < clientes; i++) {
+            String nome = NOMES[random.nextInt(NOMES.length)] + " " + sobrenome(random) + " " + sobrenome(random);
+            lote.add(new Cliente(DadosSinteticos.cpf(i), "11999999999", nome));
+            if (lote.size() == 10_000) {
+                clienteRepository.salvarTodos(lote);
+                lote.clear();
+            }
+        }
+        clienteRepository.salvarTodos(lote);
+        cadastro = clienteRepository.listarTodos();
+
+        for (int i = 0; i < CONSULTAS; i++) {
+            String[] partes = cadastro.get(random.nextInt(cadastro.size())).getNome().split(" ");
+            exatas[i] = String.join(" ", partes);
+            prefixos[i] = partes[0] + " " + partes[2].substring(0, Math.min(3, partes[2].length()));
+            char[] letras = partes[1].toCharArray();
+            int troca = random.nextInt(letras.length - 1);
+            char guardada = letras[troca];
+            letras[troca] = letras[troca + 1];
+            letras[troca + 1] = guardada;
+            comErro[i] = partes[0] + " " + new String(letras);
+        }
+
+        veiculoRepository = new VeiculoRepository();
+        DadosSinteticos dados = new DadosSinteticos(42);
+        for (int i = 0; i < 100_000; i++) {
+            veiculoRepository.salvar(dados.veiculo(i));
+        }
+        renomeado = cadastro.get(cadastro.size() / 2);
+        nomeOriginal = renomeado.getNome();
+    }
+
+    private static String sobrenome(SplittableRandom random) {
+        StringBuilder sobrenome = new StringBuilder();
+        int silabas = 2 + random.nextInt(3);
+        for (int i = 0; i < silabas; i++) {
+            sobrenome.append(SILABAS[random.nextInt(SILABAS.length)]);
+        }
+        sobrenome.setCharAt(0, Character.toUpperCase(sobrenome.charAt(0)));
+        return sobrenome.toString();
+    }
+
+    private int proxima() {
+        proxima = (proxima + 1) & (CONSULTAS - 1);
+        return proxima;
+    }
+
+    @Benchmark
+    public List<Cliente> nomeCompleto() {
+        return clienteRepository.buscarPorNome(exatas[proxima()], LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> comecoDoSobrenome() {
+        return clienteRepository.buscarPorNome(prefixos[proxima()], LIMITE);
+    }
+
+    @Benchmark
+    public List<Cliente> sobrenomeComErro() {
+        return clienteRepository.buscarPorNome(comErro[proxima()], LIMITE);
+    }
+
+    @Benchmark
+    public List<Veiculo> modeloDoVeiculo() {
+        return veiculoRepository.buscarPorTexto(modelos[proxima() & 7], LIMITE);
+    }
+
+    // Alternativa sem índice: percorre o cadastro comparando o nome (só acha o nome exato)
+    @Benchmark
+    public List<Cliente> varreduraDoCadastro() {
+        String procurado = exatas[proxima()];
+        List<Cliente> encontrados = new ArrayList<>(LIMITE);
+        for (int i = 0; i < cadastro.size() && encontrados.size() < LIMITE; i++) {
+            Cliente cliente = cadastro.get(i);
+            if (cliente.getNome().equalsIgnoreCase(procurado)) {
+                encontrados.add(cliente);
+            }
+        }
+        return encontrados;
+    }
+
+    // Troca o nome e salva de novo: sai das listas das palavras antigas e entra nas novas
+    @Benchmark
+    public void renomearCliente() {
+        renomeado.setNome((proxima() & 1) == 0 ? nomeOriginal : "Cliente Renomeado " + nomeOriginal);
+        clienteRepository.salvar(renomeado);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import entities.CalculadoraPreco;
+import entities.ItemAluguel;
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import repositories.TabelaPrecos;
+import repositories.VeiculoRepository;
+
+import java.util.concurrent.TimeUnit;
+
+// Preço de N dias para a frota disponível inteira: veículo por veículo (como a listagem do Main
+// fazia) contra a cotação em lote sobre as colunas da TabelaPrecos, no laço escalar e na Vector API.
+// O fork sobe com o módulo jdk.incubator.vector; sem ele, loteVetorial cai no laço escalar.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "--add-modules=jdk.incubator.vector"})
+public class CotacaoBenchmark {
+
+    @Param({"1000", "100000"})
+    public int frota;
+
+    @Param({"10"})
+    public int dias;
+
+    private VeiculoRepository repositorio;
+    private long[] diarias;
+    private long[] totais;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        repositorio = new VeiculoRepository();
+        DadosSinteticos dados = new DadosSinteticos(42);
+        for (int i = 0; i < frota; i++) {
+            repositorio.salvar(dados.veiculo(i));
+        }
+        // Um quinto alugado, para a listagem e a tabela não serem a frota inteira
+        for (Veiculo veiculo : repositorio.listarTodos()) {
+            veiculo.setDisponivel(dados.sortear(5) != 0);
+        }
+        int disponiveis = repositorio.listarDisponiveis().size();
+        diarias = new long[disponiveis];
+        totais = new long[disponiveis];
+        int i = 0;
+        for (Veiculo veiculo : repositorio.listarDisponiveis()) {
+            diarias[i++] = veiculo.getPrecoDiarioCentavos();
+        }
+    }
+
+    // Um total por veículo, percorrendo a visão dos disponíveis
+    @Benchmark
+    public void porVeiculo(Blackhole buraco) {
+        for (Veiculo veiculo : repositorio.listarDisponiveis()) {
+            buraco.consume(CalculadoraPreco.totalCentavos(new ItemAluguel(veiculo).getSubtotalCentavos(), dias));
+        }
+    }
+
+    // Só o laço sobre long[], sem a tabela: escalar contra vetorizado
+    @Benchmark
+    public long[] loteEscalar() {
+        CalculadoraPreco.totaisCentavosEscalar(diarias, diarias.length, dias, totais, 0);
+        return totais;
+    }
+
+    @Benchmark
+    public long[] loteVetorial() {
+        CalculadoraPreco.totaisCentavos(diarias, diarias.length, dias, totais, 0);
+        return totais;
+    }
+
+    // O que a API usa: copia ids e calcula os totais das colunas, sob o lock da tabela
+    @Benchmark
+    public TabelaPrecos.Cotacao cotacaoDoRepositorio() {
+        return repositorio.cotar(null, dias);
+    }
+}
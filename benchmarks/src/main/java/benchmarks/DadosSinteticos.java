@@ -0,0 +1,165 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+import repositories.AluguelRepository;
+import repositories.ClienteRepository;
+import repositories.VeiculoRepository;
+import services.AluguelService;
+import services.ClienteService;
+import services.RelatorioService;
+import services.VeiculoService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Gera frota, clientes e histórico de aluguéis determinísticos (mesma semente, mesmos dados)
+public class DadosSinteticos {
+
+    private static final String[] MODELOS = {
+            "Fiat Uno", "VW Gol", "HB20", "Onix", "Jeep Compass", "BMW X1", "Fiat Argo", "Renault Kwid",
+            "Toyota Corolla", "Honda Civic", "Hyundai Creta", "VW T-Cross", "Nissan Kicks", "Audi A4"
+    };
+    private static final String[] NOMES = {
+            "Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe", "Gabriela", "Heitor", "Isabela", "João"
+    };
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira", "Costa", "Rodrigues", "Almeida", "Nunes"
+    };
+    private static final long DIA = 24L * 60 * 60 * 1000;
+    private static final long AGORA = 1_760_000_000_000L;  // Data fixa para os dados não dependerem do relógio
+
+    private final SplittableRandom random;
+
+    public DadosSinteticos(long semente) {
+        this.random = new SplittableRandom(semente);
+    }
+
+    public Veiculo veiculo(int indice) {
+        CategoriaVeiculo categoria = CategoriaVeiculo.values()[random.nextInt(CategoriaVeiculo.values().length)];
+        double preco = 40 + random.nextInt(160);
+        return new Veiculo(MODELOS[random.nextInt(MODELOS.length)], placa(indice), preco, categoria);
+    }
+
+    public Cliente cliente(int indice) {
+        String nome = NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+        return new Cliente(cpf(indice), String.format("119%08d", indice), nome);
+    }
+
+    // Aluguel de 1 a 3 veículos, iniciado nos últimos dois anos; os não ativos já vêm devolvidos
+    public Aluguel aluguel(Cliente cliente, List<Veiculo> frota, boolean ativo) {
+        Aluguel aluguel = new Aluguel(cliente, 1 + random.nextInt(30));
+        int itens = 1 + random.nextInt(3);
+        for (int i = 0; i < itens; i++) {
+            aluguel.adicionarVeiculo(new ItemAluguel(frota.get(random.nextInt(frota.size()))));
+        }
+        long inicio = AGORA - random.nextLong(730) * DIA;
+        aluguel.setDataAluguel(new Date(inicio));
+        if (!ativo) {
+            long atraso = random.nextInt(10) < 8 ? 0 : 1 + random.nextInt(5);
+            aluguel.setDataDevolucao(new Date(inicio + (aluguel.getDias() + atraso) * DIA));
+            aluguel.calcularMulta();
+            aluguel.setStatus(StatusAluguel.FINALIZADO);
+        }
+        return aluguel;
+    }
+
+    public List<Veiculo> sortearVeiculos(List<Veiculo> frota, int quantidade) {
+        List<Veiculo> sorteados = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            sorteados.add(frota.get(random.nextInt(frota.size())));
+        }
+        return sorteados;
+    }
+
+    public int sortear(int limite) {
+        return random.nextInt(limite);
+    }
+
+    public double sortearFracao() {
+        return random.nextDouble();
+    }
+
+    public static String cpf(int indice) {
+        return String.format("%011d", indice);
+    }
+
+    // Placas no formato antigo (ABC-1234), únicas por índice
+    public static String placa(int indice) {
+        char[] letras = new char[3];
+        int resto = indice / 10_000;
+        for (int i = 2; i >= 0; i--) {
+            letras[i] = (char) ('A' + resto % 26);
+            resto /= 26;
+        }
+        return new String(letras) + String.format("-%04d", indice % 10_000);
+    }
+
+    public static Cenario cenario(int frota, int clientes, int historico, long semente) {
+        return new Cenario(new VeiculoRepository(), new ClienteRepository(), new AluguelRepository(),
+                frota, clientes, historico, semente);
+    }
+
+    // Popula repositórios já existentes (por exemplo, com a persistência ligada)
+    public static Cenario cenario(VeiculoRepository veiculoRepository, ClienteRepository clienteRepository,
+                                  AluguelRepository aluguelRepository, int frota, int clientes,
+                                  int historico, long semente) {
+        return new Cenario(veiculoRepository, clienteRepository, aluguelRepository, frota, clientes,
+                historico, semente);
+    }
+
+    // Repositórios e serviços populados, ligados entre si como no Main
+    public static class Cenario {
+        public final VeiculoRepository veiculoRepository;
+        public final ClienteRepository clienteRepository;
+        public final AluguelRepository aluguelRepository;
+        public final VeiculoService veiculoService;
+        public final ClienteService clienteService;
+        public final AluguelService aluguelService;
+        public final RelatorioService relatorioService;
+        public final List<Veiculo> frota;
+        public final List<Cliente> clientes;
+
+        Cenario(VeiculoRepository veiculoRepository, ClienteRepository clienteRepository,
+                AluguelRepository aluguelRepository, int tamanhoFrota, int quantidadeClientes,
+                int historico, long semente) {
+            this.veiculoRepository = veiculoRepository;
+            this.clienteRepository = clienteRepository;
+            this.aluguelRepository = aluguelRepository;
+            DadosSinteticos dados = new DadosSinteticos(semente);
+            for (int i = 0; i < tamanhoFrota; i++) {
+                veiculoRepository.salvar(dados.veiculo(i));
+            }
+            for (int i = 1; i <= quantidadeClientes; i++) {
+                clienteRepository.salvar(dados.cliente(i));
+            }
+            frota = veiculoRepository.listarTodos();
+            clientes = clienteRepository.listarTodos();
+
+            // Cerca de 1% do histórico ativo, limitado pela frota
+            int ativos = Math.min(historico / 100, tamanhoFrota / 2);
+            for (int i = 0; i < historico; i++) {
+                Cliente cliente = clientes.get(dados.random.nextInt(clientes.size()));
+                Aluguel aluguel = dados.aluguel(cliente, frota, i >= historico - ativos);
+                if (aluguel.getStatus() == StatusAluguel.ATIVO) {
+                    for (ItemAluguel item : aluguel.getVeiculos()) {
+                        item.getVeiculo().setDisponivel(false);
+                    }
+                }
+                aluguelRepository.salvar(aluguel);
+                cliente.adicionarAluguel(aluguel);
+            }
+
+            veiculoService = new VeiculoService(veiculoRepository);
+            clienteService = new ClienteService(clienteRepository);
+            aluguelService = new AluguelService(aluguelRepository, veiculoService);
+            relatorioService = new RelatorioService(aluguelRepository, veiculoRepository);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Teste de estresse da reserva tudo-ou-nada (AluguelService.criarAluguel): dezenas de threads
+// disputando uma frota pequena, cada aluguel com 1 a 3 veículos, devolvendo e alugando de novo.
+// Cada thread marca os veículos que conseguiu num array de donos; um veículo que já tem dono
+// quando outro aluguel o recebe é aluguel em dobro. No fim, com tudo devolvido, a frota inteira
+// tem de estar disponível (recusas não podem deixar veículo preso) e nenhum aluguel ativo.
+// Sai com código 1 se alguma verificação falhar.
+//
+//   java -cp benchmarks/target/benchmarks.jar benchmarks.EstresseReservas [--threads 48] [--frota 6]
+//       [--tentativas 20000] [--semente 42]
+public class EstresseReservas {
+
+    private static final int MAXIMO_MENSAGENS = 20;
+    private static final int MAXIMO_ATIVOS_POR_THREAD = 2;
+
+    private final DadosSinteticos.Cenario cenario;
+    private final AtomicIntegerArray dono;  // Por id de veículo: aluguel que o ocupa (0 = livre)
+    private final LongAdder alugados = new LongAdder();
+    private final LongAdder recusados = new LongAdder();
+    private final LongAdder violacoes = new LongAdder();
+    private final ConcurrentLinkedQueue<String> mensagens = new ConcurrentLinkedQueue<>();
+
+    EstresseReservas(DadosSinteticos.Cenario cenario) {
+        this.cenario = cenario;
+        int maiorId = 0;
+        for (Veiculo veiculo : cenario.frota) {
+            maiorId = Math.max(maiorId, veiculo.getId());
+        }
+        dono = new AtomicIntegerArray(maiorId + 1);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = 48;
+        int frota = 6;
+        int tentativas = 20_000;
+        long semente = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--frota" -> frota = Integer.parseInt(args[i + 1]);
+                case "--tentativas" -> tentativas = Integer.parseInt(args[i + 1]);
+                case "--semente" -> semente = Long.parseLong(args[i + 1]);
+                default -> throw new IllegalArgumentException("opção desconhecida: " + args[i]);
+            }
+        }
+
+        EstresseReservas estresse = new EstresseReservas(DadosSinteticos.cenario(frota, threads, 0, semente));
+        long inicio = System.nanoTime();
+        estresse.executar(threads, tentativas, semente);
+        long nanos = System.nanoTime() - inicio;
+        estresse.conferirFinal();
+
+        System.out.printf("threads=%d frota=%d tentativas=%d semente=%d em %.1f s%n",
+                threads, frota, tentativas, semente, nanos / 1e9);
+        System.out.printf("alugueis=%d recusados=%d violacoes=%d%n",
+                estresse.alugados.sum(), estresse.recusados.sum(), estresse.violacoes.sum());
+        for (String mensagem : estresse.mensagens) {
+            System.out.println("  " + mensagem);
+        }
+        if (estresse.violacoes.sum() > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Threads de plataforma largando juntas, para a disputa acontecer de fato em paralelo
+    void executar(int threads, int tentativas, long semente) throws InterruptedException {
+        SplittableRandom raiz = new SplittableRandom(semente);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> disputantes = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = raiz.split();
+            Cliente cliente = cenario.clientes.get(i % cenario.clientes.size());
+            Thread thread = Thread.ofPlatform().name("reserva-" + i).start(() -> {
+                try {
+                    largada.await();
+                    disputar(cliente, random, tentativas);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    violacao(Thread.currentThread().getName() + " interrompida: " + e);
+                }
+            });
+            disputantes.add(thread);
+        }
+        largada.countDown();
+        for (Thread thread : disputantes) {
+            thread.join();
+        }
+    }
+
+    private void disputar(Cliente cliente, SplittableRandom random, int tentativas) {
+        List<Aluguel> ativos = new ArrayList<>();
+        for (int i = 0; i < tentativas; i++) {
+            if (ativos.size() >= MAXIMO_ATIVOS_POR_THREAD || (!ativos.isEmpty() && random.nextBoolean())) {
+                devolver(ativos.remove(random.nextInt(ativos.size())));
+            } else {
+                Aluguel aluguel = alugar(cliente, random);
+                if (aluguel != null) {
+                    ativos.add(aluguel);
+                }
+            }
+        }
+        for (Aluguel aluguel : ativos) {
+            devolver(aluguel);
+        }
+    }
+
+    private Aluguel alugar(Cliente cliente, SplittableRandom random) {
+        List<Veiculo> frota = cenario.frota;
+        int quantidade = Math.min(frota.size(), 1 + random.nextInt(3));
+        List<ItemAluguel> itens = new ArrayList<>(quantidade);
+        List<Veiculo> escolhidos = new ArrayList<>(quantidade);
+        while (escolhidos.size() < quantidade) {
+            Veiculo veiculo = frota.get(random.nextInt(frota.size()));
+            if (!escolhidos.contains(veiculo)) {
+                escolhidos.add(veiculo);
+                itens.add(new ItemAluguel(veiculo));
+            }
+        }
+        Aluguel aluguel = cenario.aluguelService.criarAluguel(cliente, 1 + random.nextInt(5), itens);
+        if (aluguel == null) {
+            recusados.increment();
+            return null;
+        }
+        alugados.increment();
+        for (Veiculo veiculo : escolhidos) {
+            if (!dono.compareAndSet(veiculo.getId(), 0, aluguel.getId())) {
+                violacao("veículo " + veiculo.getId() + " no aluguel " + aluguel.getId()
+                        + " e também no " + dono.get(veiculo.getId()));
+            }
+            if (veiculo.isDisponivel()) {
+                violacao("veículo " + veiculo.getId() + " alugado no " + aluguel.getId() + " e ainda disponível");
+            }
+        }
+        return aluguel;
+    }
+
+    // Solta a marca antes de devolver: depois da devolução outro já pode alugar o veículo
+    private void devolver(Aluguel aluguel) {
+        for (ItemAluguel item : aluguel.getVeiculos()) {
+            int id = item.getVeiculo().getId();
+            if (!dono.compareAndSet(id, aluguel.getId(), 0)) {
+                violacao("veículo " + id + " do aluguel " + aluguel.getId() + " marcado com " + dono.get(id));
+            }
+        }
+        if (!cenario.aluguelService.finalizarAluguel(aluguel.getId())) {
+            violacao("aluguel " + aluguel.getId() + " não pôde ser devolvido");
+        }
+    }
+
+    void conferirFinal() {
+        for (Veiculo veiculo : cenario.frota) {
+            if (!veiculo.isDisponivel()) {
+                violacao("veículo " + veiculo.getId() + " indisponível sem aluguel ativo");
+            }
+        }
+        int disponiveis = cenario.veiculoService.listarDisponiveis().size();
+        if (disponiveis != cenario.frota.size()) {
+            violacao("índice de disponíveis com " + disponiveis + " de " + cenario.frota.size());
+        }
+        int ativos = cenario.aluguelRepository.contarPorStatus(StatusAluguel.ATIVO);
+        if (ativos != 0) {
+            violacao(ativos + " aluguéis ainda ativos");
+        }
+        int finalizados = cenario.aluguelRepository.contarPorStatus(StatusAluguel.FINALIZADO);
+        if (finalizados != alugados.sum()) {
+            violacao(finalizados + " aluguéis finalizados para " + alugados.sum() + " criados");
+        }
+    }
+
+    private void violacao(String mensagem) {
+        violacoes.increment();
+        if (mensagens.size() < MAXIMO_MENSAGENS) {
+            mensagens.add(mensagem);
+        }
+    }
+}
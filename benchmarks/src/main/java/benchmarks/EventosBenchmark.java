@@ -0,0 +1,102 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.Cliente;
+import entities.Veiculo;
+import eventos.AnelEventos;
+import eventos.EstrategiaEspera;
+import eventos.TipoEvento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.AgregadosRelatorio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Eventos por segundo: aluguéis publicados no anel, com cada consumidor aplicando o evento nos
+// próprios agregados de relatório, contra a atualização direta na thread do aluguel (como os
+// ouvintes síncronos fazem). Com o anel cheio o produtor espera, então a vazão medida é a de
+// ponta a ponta, não só a da publicação.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventosBenchmark {
+
+    @Param({"ceder", "dormir", "bloquear"})
+    public String estrategia;
+
+    @Param({"1", "2"})
+    public int consumidores;
+
+    @Param({"8192"})
+    public int capacidade;
+
+    private Aluguel[] alugueis;
+    private AgregadosRelatorio[] agregados;
+    private AnelEventos anel;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        DadosSinteticos dados = new DadosSinteticos(42);
+        List<Veiculo> frota = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Veiculo veiculo = dados.veiculo(i);
+            veiculo.setId(i + 1);
+            frota.add(veiculo);
+        }
+        alugueis = new Aluguel[4096];
+        for (int i = 0; i < alugueis.length; i++) {
+            Cliente cliente = dados.cliente(i % 1000);
+            alugueis[i] = dados.aluguel(cliente, frota, i % 4 == 0);
+            alugueis[i].setId(i + 1);
+        }
+
+        agregados = new AgregadosRelatorio[consumidores];
+        anel = new AnelEventos(capacidade, EstrategiaEspera.porNome(estrategia));
+        for (int i = 0; i < consumidores; i++) {
+            AgregadosRelatorio destino = agregados[i] = new AgregadosRelatorio();
+            anel.adicionarConsumidor("bench-" + i, (evento, sequencia, fimDoLote) ->
+                    destino.aluguelSalvo(evento.getAluguel(), evento.getStatus(), evento.getMultaCentavos()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        anel.close();
+    }
+
+    private Aluguel proximoAluguel() {
+        Aluguel aluguel = alugueis[proximo];
+        proximo = (proximo + 1) & (alugueis.length - 1);
+        return aluguel;
+    }
+
+    @Benchmark
+    public void publicarNoAnel() {
+        anel.publicarAluguel(TipoEvento.ALUGUEL_CRIADO, proximoAluguel());
+    }
+
+    @Benchmark
+    public void atualizacaoDireta() {
+        Aluguel aluguel = proximoAluguel();
+        for (AgregadosRelatorio destino : agregados) {
+            destino.aluguelSalvo(aluguel);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Ponto de entrada do benchmarks.jar: mesmas opções do JMH, sempre com o profiler de GC
+// ligado para reportar a taxa de alocação (gc.alloc.rate.norm = bytes por operação).
+//
+//   java -jar benchmarks/target/benchmarks.jar                      todos os benchmarks
+//   java -jar benchmarks/target/benchmarks.jar Repositorio -p historico=1000000
+//   java -Xmx16g -jar benchmarks/target/benchmarks.jar Relatorio -p historico=10000000 -jvmArgsAppend -Xmx16g
+public class ExecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linhaDeComando = new CommandLineOptions(args);
+        if (linhaDeComando.shouldHelp()) {
+            linhaDeComando.showHelp();
+            return;
+        }
+        if (linhaDeComando.shouldList()) {
+            new Runner(linhaDeComando).list();
+            return;
+        }
+        Options opcoes = new OptionsBuilder()
+                .parent(linhaDeComando)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opcoes).run();
+    }
+}
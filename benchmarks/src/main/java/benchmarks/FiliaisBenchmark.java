@@ -0,0 +1,126 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import repositories.AluguelRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Rede de filiais: consultas da rede inteira com 1 a 8 threads no ForkJoinPool (o ganho fica
+// limitado pelos núcleos da máquina) e atendentes alterando aluguéis, cada um na sua filial,
+// com todos na mesma filial (filiais=1, um lock só) ou espalhados (filiais=8).
+// Para ver a escala por núcleos, varie também as threads dos atendentes: -t 1, -t 2, -t 4...
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FiliaisBenchmark {
+
+    @Param({"1", "8"})
+    public int filiais;
+
+    @Param({"1", "2", "4", "8"})
+    public int paralelismo;
+
+    @Param({"400000"})
+    public int historico;
+
+    private ForkJoinPool pool;
+    private RedeFiliais rede;
+    private final AtomicInteger proximaFilial = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        pool = new ForkJoinPool(paralelismo);
+        rede = new RedeFiliais(pool);
+        DadosSinteticos dados = new DadosSinteticos(42);
+        List<List<Veiculo>> frotas = new ArrayList<>();
+        for (int f = 0; f < filiais; f++) {
+            frotas.add(new ArrayList<>());
+        }
+        for (int i = 0; i < 8000; i++) {
+            Veiculo veiculo = dados.veiculo(i);
+            veiculo.setFilial(i % filiais);
+            rede.salvar(veiculo);
+            frotas.get(i % filiais).add(veiculo);
+        }
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) {
+            clientes.add(dados.cliente(i));
+        }
+        for (int i = 0; i < historico; i++) {
+            Cliente cliente = clientes.get(dados.sortear(clientes.size()));
+            rede.salvar(dados.aluguel(cliente, frotas.get(i % filiais), false));
+        }
+        // Quase nenhum LUXO livre: a busca precisa passar por várias filiais
+        for (Veiculo veiculo : rede.listarDisponiveis(CategoriaVeiculo.LUXO)) {
+            veiculo.setDisponivel(veiculo.getId() % 997 == 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        pool.shutdown();
+    }
+
+    // Cada thread de atendente fica com um aluguel ativo numa filial, distribuídas em rodízio
+    @State(Scope.Thread)
+    public static class Atendente {
+        private AluguelRepository alugueis;
+        private Aluguel aluguel;
+
+        @Setup(Level.Trial)
+        public void preparar(FiliaisBenchmark bench) {
+            int filial = bench.proximaFilial.getAndIncrement() % bench.filiais;
+            RedeFiliais.Filial dados = bench.rede.filial(filial);
+            alugueis = dados.alugueis();
+            Veiculo veiculo = dados.veiculos().listarTodos().get(0);
+            aluguel = new Aluguel(new DadosSinteticos(filial).cliente(filial), 3);
+            aluguel.adicionarVeiculo(new ItemAluguel(veiculo));
+            alugueis.salvar(aluguel);
+        }
+    }
+
+    @Benchmark
+    public RedeFiliais.Faturamento faturamentoDaRede() {
+        return rede.faturamento();
+    }
+
+    @Benchmark
+    public Veiculo disponivelEmQualquerFilial() {
+        return rede.buscarDisponivel(CategoriaVeiculo.LUXO);
+    }
+
+    // Cada chamada troca o status (e a partição por status) sob o lock da filial
+    @Benchmark
+    @Threads(4)
+    public boolean alterarAluguelNaFilial(Atendente atendente) {
+        StatusAluguel novo = atendente.aluguel.getStatus() == StatusAluguel.ATIVO
+                ? StatusAluguel.RESERVADO : StatusAluguel.ATIVO;
+        return atendente.alugueis.atualizarStatus(atendente.aluguel, novo);
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import repositories.AgendaReservas;
+import repositories.HistoricoColunar;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Varredura analítica do histórico: a mesma consulta (totais e faturamento por categoria dos
+// aluguéis iniciados nos últimos N dias; aluguéis por veículo) percorrendo os objetos Aluguel
+// e percorrendo as colunas do HistoricoColunar.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HistoricoBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int historico;
+
+    // 730 cobre o histórico sintético inteiro
+    @Param({"90", "730"})
+    public int dias;
+
+    private DadosSinteticos.Cenario cenario;
+    private HistoricoColunar colunar;
+    private int diaInicio;
+    private int diaFim;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        cenario = DadosSinteticos.cenario(1000, Math.max(1000, historico / 5), historico, 42);
+        colunar = cenario.relatorioService.getHistorico();
+        diaFim = AgendaReservas.dia(System.currentTimeMillis()) + 1;
+        diaInicio = diaFim - dias;
+    }
+
+    @Benchmark
+    public HistoricoColunar.Resumo resumoObjetos() {
+        int alugueis = 0;
+        long faturamento = 0;
+        long multas = 0;
+        long[] porCategoria = new long[CategoriaVeiculo.values().length];
+        long[] multasPorCategoria = new long[CategoriaVeiculo.values().length];
+        for (Aluguel aluguel : cenario.aluguelService.listarTodosAlugueis()) {
+            int dia = AgendaReservas.dia(aluguel.getDataAluguelMilis());
+            if (dia < diaInicio || dia >= diaFim) {
+                continue;
+            }
+            alugueis++;
+            if (aluguel.getStatus() == StatusAluguel.CANCELADO) {
+                continue;
+            }
+            faturamento += aluguel.calcularTotalCentavos();
+            if (aluguel.getStatus() == StatusAluguel.FINALIZADO) {
+                multas += aluguel.getMultaCentavos();
+                long[] multaAluguel = aluguel.multaPorCategoriaCentavos(aluguel.getMultaCentavos());
+                for (int c = 0; c < multaAluguel.length; c++) {
+                    multasPorCategoria[c] += multaAluguel[c];
+                }
+            }
+            List<ItemAluguel> itens = aluguel.getVeiculos();
+            for (int i = 0; i < itens.size(); i++) {
+                ItemAluguel item = itens.get(i);
+                porCategoria[item.getVeiculo().getCategoria().ordinal()] +=
+                        item.getSubtotalCentavos() * aluguel.getDias();
+            }
+        }
+        return new HistoricoColunar.Resumo(alugueis, faturamento, multas, porCategoria, multasPorCategoria);
+    }
+
+    @Benchmark
+    public HistoricoColunar.Resumo resumoColunar() {
+        return colunar.resumir(diaInicio, diaFim);
+    }
+
+    @Benchmark
+    public int[] alugueisPorVeiculoObjetos() {
+        int[] contagem = new int[64];
+        for (Aluguel aluguel : cenario.aluguelService.listarTodosAlugueis()) {
+            int dia = AgendaReservas.dia(aluguel.getDataAluguelMilis());
+            if (dia < diaInicio || dia >= diaFim) {
+                continue;
+            }
+            for (ItemAluguel item : aluguel.getVeiculos()) {
+                int veiculo = item.getVeiculo().getId();
+                if (veiculo >= contagem.length) {
+                    contagem = Arrays.copyOf(contagem, Math.max(veiculo + 1, contagem.length * 2));
+                }
+                contagem[veiculo]++;
+            }
+        }
+        return contagem;
+    }
+
+    @Benchmark
+    public int[] alugueisPorVeiculoColunar() {
+        return colunar.alugueisPorVeiculo(diaInicio, diaFim);
+    }
+}
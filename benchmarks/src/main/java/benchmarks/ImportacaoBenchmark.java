@@ -0,0 +1,82 @@
+package benchmarks;
+
+import importacao.ImportadorCsv;
+import importacao.ResultadoImportacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repositories.ClienteRepository;
+import repositories.VeiculoRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Importação de CSV em repositórios vazios. O heap é limitado de propósito: o importador
+// precisa caber nele independentemente do tamanho do arquivo (além dos próprios dados importados).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ImportacaoBenchmark {
+
+    @Param({"50000"})
+    public int veiculos;
+
+    @Param({"2000000"})
+    public int clientes;
+
+    private Path frota;
+    private Path cadastro;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        frota = Files.createTempFile("frota", ".csv");
+        cadastro = Files.createTempFile("clientes", ".csv");
+        String[] categorias = {"ECONOMICO", "INTERMEDIARIO", "SUV", "LUXO"};
+        try (BufferedWriter saida = Files.newBufferedWriter(frota, StandardCharsets.UTF_8)) {
+            saida.write("modelo,placa,precoBaseDiaria,categoria\n");
+            for (int i = 0; i < veiculos; i++) {
+                saida.write("Modelo " + (i % 40) + "," + DadosSinteticos.placa(i) + ","
+                        + (40 + i % 160) + ".50," + categorias[i % categorias.length] + "\n");
+            }
+        }
+        try (BufferedWriter saida = Files.newBufferedWriter(cadastro, StandardCharsets.UTF_8)) {
+            saida.write("cpf,nome,telefone\n");
+            for (int i = 1; i <= clientes; i++) {
+                saida.write(DadosSinteticos.cpf(i) + ",\"Cliente " + i + "\",119" + i + "\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        Files.deleteIfExists(frota);
+        Files.deleteIfExists(cadastro);
+    }
+
+    @Benchmark
+    public ResultadoImportacao importarFrota() throws IOException {
+        return new ImportadorCsv(new VeiculoRepository(), new ClienteRepository()).importarVeiculos(frota);
+    }
+
+    @Benchmark
+    public ResultadoImportacao importarClientes() throws IOException {
+        return new ImportadorCsv(new VeiculoRepository(), new ClienteRepository()).importarClientes(cadastro);
+    }
+}
@@ -0,0 +1,91 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.Cliente;
+import repositories.ClienteRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bytes de heap por cliente cadastrado (objeto, CPF, histórico e entrada no índice por CPF),
+// no modelo atual (CPF num long, histórico como int[] de ids) e no anterior (CPF em String,
+// ArrayList<Aluguel>), com o mesmo número de aluguéis por cliente. Os aluguéis em si não entram
+// na conta: são os mesmos objetos nos dois modelos. Mede o heap usado depois de GC, então rode
+// com heap folgado e nada mais no processo.
+//
+//   java -Xmx4g -cp benchmarks/target/benchmarks.jar benchmarks.MemoriaClientes [clientes] [alugueisPorCliente]
+public class MemoriaClientes {
+
+    public static void main(String[] args) throws InterruptedException {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int alugueisPorCliente = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Aluguel[] alugueis = new Aluguel[alugueisPorCliente];
+        for (int i = 0; i < alugueisPorCliente; i++) {
+            alugueis[i] = new Aluguel(null, 1);
+            alugueis[i].setId(i + 1);
+        }
+
+        long antes = heapUsado();
+        List<ClienteAnterior> anteriores = new ArrayList<>();
+        Map<String, ClienteAnterior> anterioresPorCpf = new ConcurrentHashMap<>();
+        DadosSinteticos dados = new DadosSinteticos(42);
+        for (int i = 0; i < clientes; i++) {
+            Cliente gerado = dados.cliente(i);
+            ClienteAnterior cliente = new ClienteAnterior(gerado.getCpf(), gerado.getTelefone(), gerado.getNome());
+            for (Aluguel aluguel : alugueis) {
+                cliente.historicoAlugueis.add(aluguel);
+            }
+            anteriores.add(cliente);
+            anterioresPorCpf.put(cliente.cpf, cliente);
+        }
+        long bytesAnterior = heapUsado() - antes;
+        Reference.reachabilityFence(anteriores);
+        Reference.reachabilityFence(anterioresPorCpf);
+        anteriores = null;
+        anterioresPorCpf = null;
+
+        antes = heapUsado();
+        ClienteRepository repositorio = new ClienteRepository();
+        dados = new DadosSinteticos(42);
+        for (int i = 0; i < clientes; i++) {
+            Cliente cliente = dados.cliente(i);
+            for (Aluguel aluguel : alugueis) {
+                cliente.adicionarAluguel(aluguel);
+            }
+            repositorio.salvar(cliente);
+        }
+        long bytesAtual = heapUsado() - antes;
+        Reference.reachabilityFence(repositorio);
+
+        System.out.printf("clientes=%d alugueisPorCliente=%d%n", clientes, alugueisPorCliente);
+        System.out.printf("anterior (String + ArrayList<Aluguel>): %d bytes/cliente%n", bytesAnterior / clientes);
+        System.out.printf("atual (long + int[] de ids):           %d bytes/cliente%n", bytesAtual / clientes);
+    }
+
+    static long heapUsado() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // Cliente como era antes da compactação; o repositório tinha a lista e o índice pela String do CPF
+    private static final class ClienteAnterior {
+        private final String nome;
+        private final String cpf;
+        private final String telefone;
+        private final List<Aluguel> historicoAlugueis = new ArrayList<>();
+
+        private ClienteAnterior(String cpf, String telefone, String nome) {
+            this.nome = nome;
+            this.cpf = cpf;
+            this.telefone = telefone;
+        }
+    }
+}
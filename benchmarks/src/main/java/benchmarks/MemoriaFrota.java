@@ -0,0 +1,58 @@
+package benchmarks;
+
+import entities.Veiculo;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bytes de heap por veículo (objeto, modelo, placa, a lista e o índice por placa como no
+// VeiculoRepository), no Veiculo compacto e no anterior (VeiculoAnterior). Os outros índices do
+// repositório custam o mesmo nos dois e ficam de fora. Modelo e placa chegam como Strings novas
+// a cada veículo, como vêm do importador de CSV; o anterior guardava essas cópias.
+//
+//   java -Xmx4g -cp benchmarks/target/benchmarks.jar benchmarks.MemoriaFrota [veiculos]
+public class MemoriaFrota {
+
+    public static void main(String[] args) throws InterruptedException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long antes = MemoriaClientes.heapUsado();
+        List<VeiculoAnterior> anteriores = new ArrayList<>();
+        Map<String, VeiculoAnterior> anterioresPorPlaca = new ConcurrentHashMap<>();
+        DadosSinteticos dados = new DadosSinteticos(42);
+        for (int i = 0; i < quantidade; i++) {
+            Veiculo gerado = dados.veiculo(i);
+            VeiculoAnterior veiculo = new VeiculoAnterior(i + 1, new String(gerado.getModelo()), gerado.getPlaca(),
+                    gerado.getPrecoBaseDiaria(), gerado.getCategoria());
+            anteriores.add(veiculo);
+            anterioresPorPlaca.put(veiculo.getPlaca(), veiculo);
+        }
+        long bytesAnterior = MemoriaClientes.heapUsado() - antes;
+        Reference.reachabilityFence(anteriores);
+        Reference.reachabilityFence(anterioresPorPlaca);
+        anteriores = null;
+        anterioresPorPlaca = null;
+
+        antes = MemoriaClientes.heapUsado();
+        List<Veiculo> atuais = new ArrayList<>();
+        Map<String, Veiculo> atuaisPorPlaca = new ConcurrentHashMap<>();
+        dados = new DadosSinteticos(42);
+        for (int i = 0; i < quantidade; i++) {
+            Veiculo gerado = dados.veiculo(i);
+            Veiculo veiculo = new Veiculo(new String(gerado.getModelo()), gerado.getPlaca(),
+                    gerado.getPrecoBaseDiaria(), gerado.getCategoria());
+            atuais.add(veiculo);
+            atuaisPorPlaca.put(veiculo.getPlaca(), veiculo);
+        }
+        long bytesAtual = MemoriaClientes.heapUsado() - antes;
+        Reference.reachabilityFence(atuais);
+        Reference.reachabilityFence(atuaisPorPlaca);
+
+        System.out.printf("veiculos=%d%n", quantidade);
+        System.out.printf("anterior (Strings + diaria calculada a cada chamada): %d bytes/veiculo%n", bytesAnterior / quantidade);
+        System.out.printf("atual (placa int + dicionario de modelos + diaria pronta): %d bytes/veiculo%n", bytesAtual / quantidade);
+    }
+}
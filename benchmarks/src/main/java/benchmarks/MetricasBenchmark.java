@@ -0,0 +1,69 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.Cliente;
+import entities.ItemAluguel;
+import metricas.AluguelServiceInstrumentado;
+import metricas.ClienteServiceInstrumentado;
+import metricas.RegistroMetricas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.AluguelService;
+import services.ClienteService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Custo da instrumentação: o mesmo atendimento (busca do cliente, aluguel e devolução)
+// com os serviços puros e com os medidos. O cenário é recriado a cada iteração para o
+// histórico de aluguéis não crescer sem limite durante a medição.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MetricasBenchmark {
+
+    @Param({"false", "true"})
+    public boolean instrumentado;
+
+    private AluguelService aluguelService;
+    private ClienteService clienteService;
+    private String cpf;
+    private List<ItemAluguel> itens;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        DadosSinteticos.Cenario cenario = DadosSinteticos.cenario(1000, 1000, 0, 42);
+        if (instrumentado) {
+            RegistroMetricas metricas = new RegistroMetricas();
+            aluguelService = new AluguelServiceInstrumentado(cenario.aluguelRepository, cenario.veiculoService,
+                    metricas);
+            clienteService = new ClienteServiceInstrumentado(cenario.clienteRepository, metricas);
+        } else {
+            aluguelService = cenario.aluguelService;
+            clienteService = cenario.clienteService;
+        }
+        cpf = cenario.clientes.get(0).getCpf();
+        itens = List.of(new ItemAluguel(cenario.frota.get(0)));
+    }
+
+    @Benchmark
+    public Aluguel atendimento() {
+        Cliente cliente = clienteService.buscarPorCpf(cpf);
+        Aluguel aluguel = aluguelService.criarAluguel(cliente, 3, itens);
+        aluguelService.finalizarAluguel(aluguel.getId());
+        return aluguel;
+    }
+}
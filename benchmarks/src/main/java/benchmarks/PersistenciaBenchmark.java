@@ -0,0 +1,149 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.ItemAluguel;
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import persistencia.PersistenciaDuravel;
+import repositories.AluguelRepository;
+import repositories.ClienteRepository;
+import repositories.VeiculoRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Modo durável: vazão de escrita com group commit e tempo de inicialização (replay)
+public class PersistenciaBenchmark {
+
+    // Cada operação cria e finaliza um aluguel: 4 registros no log (2 de disponibilidade,
+    // o aluguel e a mudança de status). Rode com -t 1, 4, 16... para ver o group commit agrupar.
+    @State(Scope.Benchmark)
+    public static class Escrita {
+
+        @Param({"true", "false"})
+        public boolean esperarDisco;
+
+        Path diretorio;
+        PersistenciaDuravel persistencia;
+        DadosSinteticos.Cenario cenario;
+        final AtomicInteger proximaThread = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            diretorio = Files.createTempDirectory("wal-escrita");
+            VeiculoRepository veiculos = new VeiculoRepository();
+            ClienteRepository clientes = new ClienteRepository();
+            AluguelRepository alugueis = new AluguelRepository();
+            persistencia = PersistenciaDuravel.abrir(diretorio, veiculos, clientes, alugueis, esperarDisco);
+            cenario = DadosSinteticos.cenario(veiculos, clientes, alugueis, 1024, 1000, 0, 42);
+        }
+
+        @TearDown(Level.Trial)
+        public void encerrar() throws IOException {
+            persistencia.close();
+            apagar(diretorio);
+        }
+    }
+
+    // Cada thread aluga sempre o mesmo veículo, para não haver conflito de reserva
+    @State(Scope.Thread)
+    public static class Atendente {
+        List<ItemAluguel> itens;
+
+        @Setup(Level.Trial)
+        public void preparar(Escrita escrita) {
+            Veiculo veiculo = escrita.cenario.frota.get(escrita.proximaThread.getAndIncrement());
+            itens = List.of(new ItemAluguel(veiculo));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    @Threads(4)
+    public Aluguel escreverAluguel(Escrita escrita, Atendente atendente) {
+        Aluguel aluguel = escrita.cenario.aluguelService.criarAluguel(
+                escrita.cenario.clientes.get(0), 3, atendente.itens);
+        escrita.cenario.aluguelService.finalizarAluguel(aluguel.getId());
+        return aluguel;
+    }
+
+    // Diretório gerado uma vez por trial; cada medição restaura tudo em repositórios novos
+    @State(Scope.Benchmark)
+    public static class Inicializacao {
+
+        @Param({"100000", "1000000"})
+        public int historico;
+
+        // true: restaura do snapshot; false: só do log
+        @Param({"true", "false"})
+        public boolean comSnapshot;
+
+        Path diretorio;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            diretorio = Files.createTempDirectory("wal-inicializacao");
+            VeiculoRepository veiculos = new VeiculoRepository();
+            ClienteRepository clientes = new ClienteRepository();
+            AluguelRepository alugueis = new AluguelRepository();
+            try (PersistenciaDuravel persistencia = PersistenciaDuravel.abrir(diretorio, veiculos, clientes,
+                    alugueis, false)) {
+                DadosSinteticos.cenario(veiculos, clientes, alugueis, 50_000, Math.max(1000, historico / 5),
+                        historico, 42);
+                if (comSnapshot) {
+                    persistencia.gravarSnapshot();
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void encerrar() throws IOException {
+            apagar(diretorio);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+    public AluguelRepository inicializar(Inicializacao inicializacao) throws IOException {
+        AluguelRepository alugueis = new AluguelRepository();
+        PersistenciaDuravel persistencia = PersistenciaDuravel.abrir(inicializacao.diretorio,
+                new VeiculoRepository(), new ClienteRepository(), alugueis, false);
+        persistencia.close();
+        return alugueis;
+    }
+
+    private static void apagar(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : arquivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CalculadoraPreco;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Cálculo de preço de um aluguel: total com descontos e multa por atraso
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrecoBenchmark {
+
+    @Param({"1", "3", "10"})
+    public int veiculos;
+
+    @Param({"5", "12", "20"})
+    public int dias;
+
+    private Aluguel aluguel;
+
+    @Setup
+    public void preparar() {
+        DadosSinteticos dados = new DadosSinteticos(42);
+        aluguel = new Aluguel(new Cliente("00000000001", "11900000001", "Ana"), dias);
+        for (int i = 0; i < veiculos; i++) {
+            Veiculo veiculo = dados.veiculo(i);
+            aluguel.adicionarVeiculo(new ItemAluguel(veiculo));
+        }
+        // Devolvido com 3 dias de atraso, para a multa percorrer o caminho completo
+        long inicio = aluguel.getDataAluguelMilis();
+        aluguel.setDataDevolucao(new Date(inicio + (dias + 3) * 24L * 60 * 60 * 1000));
+    }
+
+    @Benchmark
+    public double calcularTotal() {
+        return aluguel.calcularTotal();
+    }
+
+    @Benchmark
+    public double calcularMulta() {
+        return aluguel.calcularMulta();
+    }
+
+    @Benchmark
+    public long calcularTotalCentavos() {
+        return aluguel.calcularTotalCentavos();
+    }
+
+    // Mesmo cálculo sem o cache do aluguel: percorre os itens a cada chamada
+    @Benchmark
+    public long calcularTotalCentavosSemCache() {
+        long somaDiarias = 0;
+        for (ItemAluguel item : aluguel.getVeiculos()) {
+            somaDiarias += item.getSubtotalCentavos();
+        }
+        return CalculadoraPreco.totalCentavos(somaDiarias, aluguel.getDias());
+    }
+
+    @Benchmark
+    public long calcularMultaCentavos() {
+        return aluguel.calcularMultaCentavos();
+    }
+
+    @Benchmark
+    public double calcularTotalComMulta() {
+        return aluguel.calcularTotalComMulta();
+    }
+}
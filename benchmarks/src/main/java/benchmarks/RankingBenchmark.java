@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.RankingTopK;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Ranking de clientes com milhões de CPFs: exato (contagem de todos) x Space-Saving (memória fixa).
+// As chaves seguem uma distribuição de cauda longa (Pareto): poucos clientes alugam muito.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RankingBenchmark {
+
+    @Param({"exato", "aproximado"})
+    public String modo;
+
+    @Param({"2000000"})
+    public int clientes;
+
+    private RankingTopK<String> ranking;
+    private DadosSinteticos dados;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ranking = modo.equals("exato") ? RankingTopK.exato(20) : RankingTopK.aproximado(20, 1000);
+        dados = new DadosSinteticos(42);
+        for (int i = 0; i < clientes * 2; i++) {
+            ranking.incrementar(sortearCliente(), "cliente");
+        }
+    }
+
+    private long sortearCliente() {
+        return Math.min(clientes - 1, (long) Math.pow(1 - dados.sortearFracao(), -1 / 1.1) - 1);
+    }
+
+    @Benchmark
+    public void incrementar() {
+        ranking.incrementar(sortearCliente(), "cliente");
+    }
+
+    @Benchmark
+    public List<RankingTopK.Posicao<String>> topo() {
+        return ranking.topo();
+    }
+}
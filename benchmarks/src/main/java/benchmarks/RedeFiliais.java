@@ -0,0 +1,176 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.StatusAluguel;
+import entities.Veiculo;
+import repositories.AluguelRepository;
+import repositories.SequenciaIds;
+import repositories.VeiculoRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+// Frota e aluguéis divididos por filial: cada filial tem o próprio VeiculoRepository e
+// AluguelRepository, com os próprios locks, então cadastros e devoluções em filiais diferentes
+// não disputam as mesmas estruturas. Os ids continuam únicos na rede inteira (SequenciaIds em
+// blocos), para o histórico do cliente e a API não dependerem da filial.
+// Consultas da rede inteira (um veículo livre em qualquer filial, o faturamento da empresa)
+// viram uma tarefa por filial num ForkJoinPool, e os resultados são juntados aos pares.
+//
+// Protótipo medido pelo FiliaisBenchmark, por isso fica no módulo de benchmarks: os serviços, a
+// persistência e a API usam um repositório de cada, e a filial do veículo não é gravada no disco.
+// Tem apenas o que o benchmark exercita: cadastro por filial, busca de disponível e faturamento da rede.
+public class RedeFiliais {
+
+    private static final int BLOCO_IDS = 1024;
+
+    private final SequenciaIds idsVeiculos = new SequenciaIds(BLOCO_IDS);
+    private final SequenciaIds idsAlugueis = new SequenciaIds(BLOCO_IDS);
+    private final Map<Integer, Filial> filiais = new ConcurrentHashMap<>();
+    private volatile Filial[] ordenadas = new Filial[0];  // Por código, para dividir entre as tarefas
+    private final ForkJoinPool pool;
+
+    public RedeFiliais() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // pool: onde rodam as consultas da rede inteira (o paralelismo dele limita o das consultas)
+    public RedeFiliais(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Cria a filial na primeira vez que o código aparece
+    public Filial filial(int codigo) {
+        Filial filial = filiais.get(codigo);
+        return filial != null ? filial : criar(codigo);
+    }
+
+    private synchronized Filial criar(int codigo) {
+        Filial existente = filiais.get(codigo);
+        if (existente != null) {
+            return existente;
+        }
+        Filial filial = new Filial(codigo, new VeiculoRepository(idsVeiculos), new AluguelRepository(idsAlugueis));
+        Filial[] novas = Arrays.copyOf(ordenadas, ordenadas.length + 1);
+        novas[novas.length - 1] = filial;
+        Arrays.sort(novas, (a, b) -> Integer.compare(a.codigo(), b.codigo()));
+        ordenadas = novas;  // Publica antes de aparecer no mapa
+        filiais.put(codigo, filial);
+        return filial;
+    }
+
+    // Salva no repositório da filial do veículo; só o lock daquela filial é usado
+    public void salvar(Veiculo veiculo) {
+        filial(veiculo.getFilial()).veiculos().salvar(veiculo);
+    }
+
+    public void salvar(Aluguel aluguel) {
+        filial(aluguel.getFilial()).alugueis().salvar(aluguel);
+    }
+
+    // Um veículo livre da categoria, da filial de menor código que tiver algum; null se não houver nenhum
+    public Veiculo buscarDisponivel(CategoriaVeiculo categoria) {
+        return emCadaFilial(filial -> primeiroDisponivel(filial, categoria), (a, b) -> a != null ? a : b, null);
+    }
+
+    // Livres da categoria na rede inteira, agrupados por filial (na ordem dos códigos)
+    public List<Veiculo> listarDisponiveis(CategoriaVeiculo categoria) {
+        return emCadaFilial(filial -> new ArrayList<>(filial.veiculos().listarDisponiveis(categoria)),
+                (a, b) -> {
+                    a.addAll(b);
+                    return a;
+                }, new ArrayList<>());
+    }
+
+    // Faturamento da empresa: cada filial percorre o próprio histórico (arquivados inclusive)
+    public Faturamento faturamento() {
+        return emCadaFilial(filial -> Faturamento.de(filial.alugueis()), Faturamento::somar, Faturamento.ZERO);
+    }
+
+    // Qualquer um da filial: a lista de disponíveis não tem ordem
+    private static Veiculo primeiroDisponivel(Filial filial, CategoriaVeiculo categoria) {
+        List<Veiculo> livres = filial.veiculos().listarDisponiveis(categoria);
+        return livres.isEmpty() ? null : livres.get(0);
+    }
+
+    // Aplica a consulta em cada filial em paralelo e junta os resultados mantendo a ordem das filiais
+    private <R> R emCadaFilial(Function<Filial, R> consulta, BinaryOperator<R> juntar, R vazio) {
+        Filial[] atuais = ordenadas;
+        if (atuais.length == 0) {
+            return vazio;
+        }
+        return pool.invoke(new Consulta<>(atuais, 0, atuais.length, consulta, juntar));
+    }
+
+    // Divide as filiais ao meio até sobrar uma por tarefa. ForkJoinTask é Serializable, mas a
+    // tarefa nunca é serializada
+    @SuppressWarnings("serial")
+    private static final class Consulta<R> extends RecursiveTask<R> {
+        private final Filial[] filiais;
+        private final int inicio;
+        private final int fim;
+        private final Function<Filial, R> consulta;
+        private final BinaryOperator<R> juntar;
+
+        private Consulta(Filial[] filiais, int inicio, int fim, Function<Filial, R> consulta, BinaryOperator<R> juntar) {
+            this.filiais = filiais;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.consulta = consulta;
+            this.juntar = juntar;
+        }
+
+        @Override
+        protected R compute() {
+            if (fim - inicio == 1) {
+                return consulta.apply(filiais[inicio]);
+            }
+            int meio = (inicio + fim) >>> 1;
+            Consulta<R> esquerda = new Consulta<>(filiais, inicio, meio, consulta, juntar);
+            esquerda.fork();
+            R direita = new Consulta<>(filiais, meio, fim, consulta, juntar).compute();
+            return juntar.apply(esquerda.join(), direita);
+        }
+    }
+
+    public record Filial(int codigo, VeiculoRepository veiculos, AluguelRepository alugueis) {
+    }
+
+    // Mesma regra dos relatórios (AgregadosRelatorio): cancelados não faturam, multas só dos finalizados
+    public record Faturamento(long alugueisCentavos, long multasCentavos, long alugueis) {
+
+        public static final Faturamento ZERO = new Faturamento(0, 0, 0);
+
+        static Faturamento de(AluguelRepository repositorio) {
+            long[] totais = new long[3];
+            repositorio.percorrerTodos(aluguel -> {
+                totais[2]++;
+                StatusAluguel status = aluguel.getStatus();
+                if (status != StatusAluguel.CANCELADO) {
+                    totais[0] += aluguel.calcularTotalCentavos();
+                }
+                if (status == StatusAluguel.FINALIZADO) {
+                    totais[1] += aluguel.getMultaCentavos();
+                }
+            });
+            return new Faturamento(totais[0], totais[1], totais[2]);
+        }
+
+        public Faturamento somar(Faturamento outro) {
+            return new Faturamento(alugueisCentavos + outro.alugueisCentavos, multasCentavos + outro.multasCentavos,
+                    alugueis + outro.alugueis);
+        }
+
+        public long totalCentavos() {
+            return alugueisCentavos + multasCentavos;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import repositories.AgendaReservas;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Relatórios do RelatorioService. A saída vai para um stream nulo: mede-se o cálculo
+// e a formatação, não o terminal. relatorioPeriodo sai das somas diárias do FaturamentoDiario;
+// varreduraPeriodo é a mesma conta percorrendo o histórico inteiro, e varreduraPeriodoCache a
+// varredura pelo cache (sem aluguéis novos durante a medição, sempre o resultado guardado).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RelatorioBenchmark {
+
+    @Param({"1000", "50000"})
+    public int frota;
+
+    // 10000000 também é aceito (-p historico=10000000), mas precisa de um heap bem maior
+    @Param({"1000", "100000", "1000000"})
+    public int historico;
+
+    // Último ano do histórico sintético
+    private static final Date INICIO_PERIODO = new Date(1_728_000_000_000L);
+    private static final Date FIM_PERIODO = new Date(1_760_000_000_000L);
+
+    private DadosSinteticos.Cenario cenario;
+    private PrintStream saidaOriginal;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        cenario = DadosSinteticos.cenario(frota, Math.max(1000, historico / 5), historico, 42);
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        System.setOut(saidaOriginal);
+    }
+
+    @Benchmark
+    public void relatorioFaturamento() {
+        cenario.relatorioService.gerarRelatorioFaturamento();
+    }
+
+    @Benchmark
+    public void relatorioPorCategoria() {
+        cenario.relatorioService.gerarRelatorioPorCategoria();
+    }
+
+    @Benchmark
+    public void relatorioClientesFieis() {
+        cenario.relatorioService.gerarRealatorioClienteFies();
+    }
+
+    @Benchmark
+    public void relatorioVeiculosPopulares() {
+        cenario.relatorioService.gerarRelatorioVeiculosPopulares();
+    }
+
+    @Benchmark
+    public void relatorioPeriodo() {
+        cenario.relatorioService.gerarRelatorioPeriodo(INICIO_PERIODO, FIM_PERIODO);
+    }
+
+    @Benchmark
+    public Object varreduraPeriodo() {
+        return cenario.relatorioService.getHistorico().resumir(AgendaReservas.dia(INICIO_PERIODO.getTime()),
+                AgendaReservas.dia(FIM_PERIODO.getTime()) + 1);
+    }
+
+    @Benchmark
+    public Object varreduraPeriodoCache() {
+        return cenario.relatorioService.resumirPeriodo(INICIO_PERIODO, FIM_PERIODO).join();
+    }
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Consultas dos repositórios e dos serviços que as usam, variando frota e histórico
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepositorioBenchmark {
+
+    @Param({"1000", "50000"})
+    public int frota;
+
+    // 10000000 também é aceito (-p historico=10000000), mas precisa de um heap bem maior
+    @Param({"1000", "100000", "1000000"})
+    public int historico;
+
+    private DadosSinteticos.Cenario cenario;
+    private final SplittableRandom random = new SplittableRandom(7);
+    private int clientes;
+    // Chaves formatadas antes da medição: o String.format não entra no tempo da busca
+    private String[] placas;
+    private String[] cpfs;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        clientes = Math.max(1000, historico / 5);
+        cenario = DadosSinteticos.cenario(frota, clientes, historico, 42);
+        placas = new String[frota];
+        for (int i = 0; i < frota; i++) {
+            placas[i] = DadosSinteticos.placa(i);
+        }
+        cpfs = new String[clientes];
+        for (int i = 0; i < clientes; i++) {
+            cpfs[i] = DadosSinteticos.cpf(i + 1);
+        }
+    }
+
+    @Benchmark
+    public Veiculo buscarVeiculoPorId() {
+        return cenario.veiculoRepository.buscarPorId(1 + random.nextInt(frota));
+    }
+
+    @Benchmark
+    public Veiculo buscarVeiculoPorPlaca() {
+        return cenario.veiculoRepository.buscarPorPlaca(placas[random.nextInt(frota)]);
+    }
+
+    @Benchmark
+    public int listarDisponiveisPorCategoria() {
+        int total = 0;
+        for (Veiculo veiculo : cenario.veiculoService.listarDisponiveis(CategoriaVeiculo.SUV)) {
+            total += veiculo.getId();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Collection<Veiculo> listarDisponiveis() {
+        return cenario.veiculoService.listarDisponiveis();
+    }
+
+    @Benchmark
+    public Aluguel buscarAluguelPorId() {
+        return cenario.aluguelRepository.buscarPorId(1 + random.nextInt(historico));
+    }
+
+    @Benchmark
+    public Collection<Aluguel> listarAlugueisAtivos() {
+        return cenario.aluguelService.listarAlugueisAtivos();
+    }
+
+    @Benchmark
+    public List<Aluguel> listarTodosAlugueis() {
+        return cenario.aluguelService.listarTodosAlugueis();
+    }
+
+    @Benchmark
+    public Cliente buscarClientePorCpf() {
+        return cenario.clienteService.buscarPorCpf(cpfs[random.nextInt(clientes)]);
+    }
+}
@@ -0,0 +1,409 @@
+package benchmarks;
+
+import entities.Aluguel;
+import entities.CalculadoraPreco;
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+import metricas.HistogramaLatencia;
+import services.AgregadosRelatorio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Simulador de carga ponta a ponta: agentes simultâneos chamando ClienteService, AluguelService
+// e RelatorioService direto (sem HTTP), numa mistura configurável de operações, por um tempo ou
+// por um número de operações. Mede vazão e latência por operação e confere invariantes:
+// veículo em dois aluguéis ativos, disponibilidade que não bate com os aluguéis, multa errada,
+// relatório que não bate com o repositório.
+//
+// Cada agente tem o próprio gerador, derivado da semente: com --agentes 1 e --operacoes a
+// execução se repete igual; com mais agentes a sequência de cada um é a mesma, mas a ordem
+// entre eles (e quem ganha a disputa por um veículo) depende do escalonamento.
+//
+//   java -cp benchmarks/target/benchmarks.jar benchmarks.SimuladorCarga [--agentes 32] [--minutos 1 |
+//       --operacoes 1000000] [--semente 42] [--frota 2000] [--clientes 10000] [--historico 50000]
+//       [--mistura cadastro=5,aluguel=40,devolucao=30,atraso=10,relatorio=15]
+public class SimuladorCarga {
+
+    private static final long DIA = CalculadoraPreco.MILIS_POR_DIA;
+    private static final int MAXIMO_ATIVOS_POR_AGENTE = 8;
+    private static final int MAXIMO_MENSAGENS = 20;
+
+    enum Operacao {
+        CADASTRO, ALUGUEL, DEVOLUCAO, ATRASO, RELATORIO;
+
+        String nome() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final DadosSinteticos.Cenario cenario;
+    private final int[] pesos = new int[Operacao.values().length];
+    private int somaPesos;
+    private final AtomicIntegerArray dono;  // Por id de veículo: aluguel ativo que o ocupa (0 = livre)
+    private final Map<Operacao, HistogramaLatencia> latencias = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, LongAdder> recusadas = new EnumMap<>(Operacao.class);
+    private final LongAdder violacoes = new LongAdder();
+    private final ConcurrentLinkedQueue<String> mensagens = new ConcurrentLinkedQueue<>();
+    private final LongAdder multasCobradas = new LongAdder();
+    private final long multasIniciais;
+
+    SimuladorCarga(DadosSinteticos.Cenario cenario, String mistura) {
+        this.cenario = cenario;
+        for (String parte : mistura.split(",")) {
+            String[] chaveValor = parte.trim().split("=");
+            pesos[Operacao.valueOf(chaveValor[0].trim().toUpperCase()).ordinal()] = Integer.parseInt(chaveValor[1].trim());
+        }
+        for (int peso : pesos) {
+            somaPesos += peso;
+        }
+        if (somaPesos <= 0) {
+            throw new IllegalArgumentException("mistura sem operações: " + mistura);
+        }
+        for (Operacao operacao : Operacao.values()) {
+            latencias.put(operacao, new HistogramaLatencia());
+            recusadas.put(operacao, new LongAdder());
+        }
+
+        // O histórico sintético deixa alguns aluguéis ativos sem agente dono: devolve todos antes
+        // de começar, para a frota partir livre e cada aluguel ativo ter um agente responsável
+        for (Aluguel aluguel : new ArrayList<>(cenario.aluguelService.listarAlugueisAtivos())) {
+            cenario.aluguelService.finalizarAluguel(aluguel.getId());
+        }
+        int maiorId = 0;
+        for (Veiculo veiculo : cenario.frota) {
+            maiorId = Math.max(maiorId, veiculo.getId());
+        }
+        dono = new AtomicIntegerArray(maiorId + 1);
+        multasIniciais = cenario.relatorioService.getAgregados().getMultasCentavos();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int agentes = 32;
+        int minutos = 1;
+        long operacoes = 0;
+        long semente = 42;
+        int frota = 2000;
+        int clientes = 10_000;
+        int historico = 50_000;
+        String mistura = "cadastro=5,aluguel=40,devolucao=30,atraso=10,relatorio=15";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--agentes" -> agentes = Integer.parseInt(args[i + 1]);
+                case "--minutos" -> minutos = Integer.parseInt(args[i + 1]);
+                case "--operacoes" -> operacoes = Long.parseLong(args[i + 1]);
+                case "--semente" -> semente = Long.parseLong(args[i + 1]);
+                case "--frota" -> frota = Integer.parseInt(args[i + 1]);
+                case "--clientes" -> clientes = Integer.parseInt(args[i + 1]);
+                case "--historico" -> historico = Integer.parseInt(args[i + 1]);
+                case "--mistura" -> mistura = args[i + 1];
+                default -> throw new IllegalArgumentException("opção desconhecida: " + args[i]);
+            }
+        }
+
+        SimuladorCarga simulador = new SimuladorCarga(
+                DadosSinteticos.cenario(frota, clientes, historico, semente), mistura);
+        long nanos = simulador.executar(agentes, semente, operacoes, minutos * 60_000_000_000L);
+        simulador.conferirFinal();
+
+        System.out.printf("agentes=%d semente=%d frota=%d clientes=%d historico=%d mistura=%s%n",
+                agentes, semente, frota, clientes, historico, mistura);
+        System.out.print(simulador.formatar(nanos));
+        if (simulador.violacoes.sum() > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Roda até cada agente fazer sua parte de 'operacoes' ou, se operacoes = 0, até o tempo acabar.
+    // Retorna a duração em nanossegundos.
+    long executar(int agentes, long semente, long operacoes, long duracaoNanos) throws InterruptedException {
+        SplittableRandom raiz = new SplittableRandom(semente);
+        long inicio = System.nanoTime();
+        long fim = inicio + duracaoNanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < agentes; i++) {
+                long cota = operacoes == 0 ? Long.MAX_VALUE : operacoes / agentes + (i < operacoes % agentes ? 1 : 0);
+                Agente agente = new Agente(i, raiz.split());
+                executor.submit(() -> {
+                    try {
+                        for (long feitas = 0; feitas < cota && (operacoes > 0 || System.nanoTime() < fim); feitas++) {
+                            agente.operar();
+                        }
+                    } catch (RuntimeException e) {
+                        violacao("agente " + agente.numero + " interrompido: " + e);
+                    }
+                });
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private void violacao(String mensagem) {
+        violacoes.increment();
+        if (mensagens.size() < MAXIMO_MENSAGENS) {
+            mensagens.add(mensagem);
+        }
+    }
+
+    // Atendente simulado: cadastra clientes, aluga, devolve (às vezes com atraso) e lê relatórios
+    private final class Agente {
+        private final int numero;
+        private final SplittableRandom random;
+        private final List<Aluguel> ativos = new ArrayList<>();
+        private int cadastrados;
+        private long ultimoTotalAlugueis;
+
+        private Agente(int numero, SplittableRandom random) {
+            this.numero = numero;
+            this.random = random;
+        }
+
+        private void operar() {
+            Operacao operacao = sortear();
+            // Sem aluguel para devolver, aluga; com aluguéis demais, devolve
+            if (operacao == Operacao.DEVOLUCAO && ativos.isEmpty()) {
+                operacao = Operacao.ALUGUEL;
+            } else if (operacao == Operacao.ALUGUEL && ativos.size() >= MAXIMO_ATIVOS_POR_AGENTE) {
+                operacao = Operacao.DEVOLUCAO;
+            }
+            long inicio = System.nanoTime();
+            boolean feita = switch (operacao) {
+                case CADASTRO -> cadastrar();
+                case ALUGUEL -> alugar();
+                case DEVOLUCAO -> devolver();
+                case ATRASO -> devolverComAtraso();
+                case RELATORIO -> lerRelatorio();
+            };
+            latencias.get(operacao).gravar(System.nanoTime() - inicio);
+            if (!feita) {
+                recusadas.get(operacao).increment();
+            }
+        }
+
+        private Operacao sortear() {
+            int sorteio = random.nextInt(somaPesos);
+            for (Operacao operacao : Operacao.values()) {
+                sorteio -= pesos[operacao.ordinal()];
+                if (sorteio < 0) {
+                    return operacao;
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        private boolean cadastrar() {
+            String cpf = String.format("%011d", 10_000_000_000L + numero * 10_000_000L + ++cadastrados);
+            cenario.clienteService.cadastraCliente(cpf, "Cliente Simulado " + numero, "11900000000");
+            if (cenario.clienteService.buscarPorCpf(cpf) == null) {
+                violacao("cliente " + cpf + " cadastrado e não encontrado");
+            }
+            return true;
+        }
+
+        // De 1 a 3 veículos livres de uma categoria, escolhidos perto do começo da lista para
+        // os agentes disputarem os mesmos veículos
+        private List<ItemAluguel> escolherVeiculos() {
+            CategoriaVeiculo categoria = CategoriaVeiculo.values()[random.nextInt(CategoriaVeiculo.values().length)];
+            Collection<Veiculo> livres = cenario.veiculoService.listarDisponiveis(categoria);
+            int pular = random.nextInt(32);
+            int quantidade = 1 + random.nextInt(3);
+            List<ItemAluguel> itens = new ArrayList<>(quantidade);
+            for (Veiculo veiculo : livres) {
+                if (pular-- > 0) {
+                    continue;
+                }
+                itens.add(new ItemAluguel(veiculo));
+                if (itens.size() == quantidade) {
+                    break;
+                }
+            }
+            return itens;
+        }
+
+        private Cliente sortearCliente() {
+            return cenario.clientes.get(random.nextInt(cenario.clientes.size()));
+        }
+
+        private boolean alugar() {
+            List<ItemAluguel> itens = escolherVeiculos();
+            if (itens.isEmpty()) {
+                return false;
+            }
+            Aluguel aluguel = cenario.aluguelService.criarAluguel(sortearCliente(), 1 + random.nextInt(7), itens);
+            if (aluguel == null) {
+                return false;  // Outro agente levou algum dos veículos
+            }
+            ocupar(aluguel);
+            ativos.add(aluguel);
+            return true;
+        }
+
+        private boolean devolver() {
+            Aluguel aluguel = ativos.remove(random.nextInt(ativos.size()));
+            return finalizar(aluguel, 0);
+        }
+
+        // Aluguel que começou no passado, devolvido na hora: a devolução sai com 'atraso' dias.
+        // O serviço não aceita início no passado, então ele entra como um aluguel restaurado do
+        // disco: veículos e período reservados pelo VeiculoService e gravado direto no repositório.
+        private boolean devolverComAtraso() {
+            List<ItemAluguel> itens = escolherVeiculos();
+            if (itens.isEmpty()) {
+                return false;
+            }
+            int dias = 1 + random.nextInt(7);
+            int atraso = 1 + random.nextInt(5);
+            Cliente cliente = sortearCliente();
+            Aluguel aluguel = new Aluguel(cliente, dias);
+            aluguel.setDataAluguel(new Date(System.currentTimeMillis() - (dias + atraso) * DIA));
+            if (!cenario.veiculoService.reservarTodos(itens)) {
+                return false;
+            }
+            if (!cenario.veiculoService.reservarPeriodo(aluguel, itens)) {
+                cenario.veiculoService.liberarTodos(itens);
+                return false;
+            }
+            for (ItemAluguel item : itens) {
+                aluguel.adicionarVeiculo(item);
+            }
+            cenario.aluguelRepository.salvar(aluguel);
+            cliente.adicionarAluguel(aluguel);
+            ocupar(aluguel);
+            return finalizar(aluguel, atraso);
+        }
+
+        private boolean finalizar(Aluguel aluguel, int atraso) {
+            // Solta os veículos antes: assim que o serviço os libera, outro agente já pode ocupá-los
+            for (ItemAluguel item : aluguel.getVeiculos()) {
+                int id = item.getVeiculo().getId();
+                if (!dono.compareAndSet(id, aluguel.getId(), 0)) {
+                    violacao("veículo " + id + " do aluguel " + aluguel.getId() + " estava com o aluguel " + dono.get(id));
+                }
+            }
+            if (!cenario.aluguelService.finalizarAluguel(aluguel.getId())) {
+                violacao("aluguel " + aluguel.getId() + " ativo e não finalizado");
+                return false;
+            }
+            long multa = aluguel.getMultaCentavos();
+            long esperada = atraso == 0 ? 0 : CalculadoraPreco.multaCentavos(aluguel.calcularTotalCentavos(), atraso);
+            if (multa != esperada) {
+                violacao("aluguel " + aluguel.getId() + " com multa " + multa + ", esperada " + esperada);
+            }
+            multasCobradas.add(multa);
+            return true;
+        }
+
+        // Aluguel criado: cada veículo passa a ser dele; se já era de outro, houve aluguel duplo
+        private void ocupar(Aluguel aluguel) {
+            for (ItemAluguel item : aluguel.getVeiculos()) {
+                int id = item.getVeiculo().getId();
+                if (!dono.compareAndSet(id, 0, aluguel.getId())) {
+                    violacao("veículo " + id + " no aluguel " + aluguel.getId() + " e no " + dono.get(id));
+                }
+            }
+        }
+
+        private boolean lerRelatorio() {
+            AgregadosRelatorio agregados = cenario.relatorioService.getAgregados();
+            long total = agregados.getTotalAlugueis();
+            if (total < ultimoTotalAlugueis) {
+                violacao("total de aluguéis voltou de " + ultimoTotalAlugueis + " para " + total);
+            }
+            ultimoTotalAlugueis = total;
+            if (agregados.getFaturamentoCentavos() < 0 || agregados.getMultasCentavos() < 0) {
+                violacao("relatório com valores negativos");
+            }
+            agregados.getVeiculosPopulares();
+            int livres = cenario.veiculoService.listarDisponiveis().size();
+            if (livres < 0 || livres > cenario.frota.size()) {
+                violacao("disponíveis fora da frota: " + livres);
+            }
+            return true;
+        }
+    }
+
+    // Com os agentes parados: frota, aluguéis ativos e relatório precisam bater entre si
+    void conferirFinal() {
+        int ocupados = 0;
+        for (Veiculo veiculo : cenario.frota) {
+            boolean ocupado = dono.get(veiculo.getId()) != 0;
+            if (ocupado) {
+                ocupados++;
+            }
+            if (veiculo.isDisponivel() == ocupado) {
+                violacao("veículo " + veiculo.getId() + (ocupado ? " disponível com aluguel ativo" : " indisponível sem aluguel"));
+            }
+        }
+        int nosAtivos = 0;
+        for (Aluguel aluguel : cenario.aluguelService.listarAlugueisAtivos()) {
+            for (ItemAluguel item : aluguel.getVeiculos()) {
+                nosAtivos++;
+                if (dono.get(item.getVeiculo().getId()) != aluguel.getId()) {
+                    violacao("aluguel ativo " + aluguel.getId() + " sem o veículo " + item.getVeiculo().getId());
+                }
+            }
+        }
+        if (nosAtivos != ocupados) {
+            violacao("veículos ocupados=" + ocupados + ", nos aluguéis ativos=" + nosAtivos);
+        }
+        int livres = cenario.veiculoService.listarDisponiveis().size();
+        if (livres != cenario.frota.size() - ocupados) {
+            violacao("disponíveis=" + livres + ", esperados " + (cenario.frota.size() - ocupados));
+        }
+
+        long[] faturamento = new long[2];
+        cenario.aluguelRepository.percorrerTodos(aluguel -> {
+            faturamento[1]++;
+            if (aluguel.getStatus() != StatusAluguel.CANCELADO) {
+                faturamento[0] += aluguel.calcularTotalCentavos();
+            }
+        });
+        AgregadosRelatorio agregados = cenario.relatorioService.getAgregados();
+        if (agregados.getFaturamentoCentavos() != faturamento[0]) {
+            violacao("faturamento do relatório=" + agregados.getFaturamentoCentavos() + ", do repositório=" + faturamento[0]);
+        }
+        if (agregados.getTotalAlugueis() != faturamento[1]) {
+            violacao("aluguéis no relatório=" + agregados.getTotalAlugueis() + ", no repositório=" + faturamento[1]);
+        }
+        if (agregados.getMultasCentavos() - multasIniciais != multasCobradas.sum()) {
+            violacao("multas no relatório=" + (agregados.getMultasCentavos() - multasIniciais)
+                    + ", cobradas=" + multasCobradas.sum());
+        }
+    }
+
+    String formatar(long nanos) {
+        StringBuilder saida = new StringBuilder();
+        long total = 0;
+        saida.append(String.format("%-10s %10s %10s %10s %10s %10s %10s%n",
+                "operacao", "feitas", "recusadas", "p50 us", "p99 us", "p999 us", "max us"));
+        for (Operacao operacao : Operacao.values()) {
+            HistogramaLatencia latencia = latencias.get(operacao);
+            total += latencia.getContagem();
+            saida.append(String.format("%-10s %10d %10d %10.1f %10.1f %10.1f %10.1f%n", operacao.nome(),
+                    latencia.getContagem(), recusadas.get(operacao).sum(), latencia.percentil(50) / 1e3,
+                    latencia.percentil(99) / 1e3, latencia.percentil(99.9) / 1e3, latencia.getMaximo() / 1e3));
+        }
+        saida.append(String.format("operacoes=%d em %.1f s (%.0f op/s)%n", total, nanos / 1e9, total / (nanos / 1e9)));
+        saida.append(String.format("faturamento=%d centavos, multas da simulacao=%d centavos%n",
+                cenario.relatorioService.getAgregados().getFaturamentoCentavos(), multasCobradas.sum()));
+        saida.append("violacoes de invariantes=").append(violacoes.sum()).append(System.lineSeparator());
+        for (String mensagem : mensagens) {
+            saida.append("  ").append(mensagem).append(System.lineSeparator());
+        }
+        return saida.toString();
+    }
+}
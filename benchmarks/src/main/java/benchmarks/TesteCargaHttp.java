@@ -0,0 +1,130 @@
+package benchmarks;
+
+import api.ServidorHttp;
+import metricas.HistogramaLatencia;
+import metricas.RegistroMetricas;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Teste de carga da API HTTP: N atendentes simultâneos (uma virtual thread cada) repetindo um
+// atendimento típico por um tempo fixo. O servidor sobe no mesmo processo, sobre um cenário
+// sintético, e divide a CPU com os clientes; os números servem para comparar versões.
+//
+//   java -cp benchmarks/target/benchmarks.jar benchmarks.TesteCargaHttp [atendentes] [segundos] [frota] [clientes]
+public class TesteCargaHttp {
+
+    private static final String[] CATEGORIAS = {"ECONOMICO", "INTERMEDIARIO", "SUV", "LUXO"};
+
+    public static void main(String[] args) throws Exception {
+        int atendentes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int frota = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int clientes = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+        DadosSinteticos.Cenario cenario = DadosSinteticos.cenario(frota, clientes, 0, 42);
+        RegistroMetricas metricas = new RegistroMetricas();
+        try (ServidorHttp servidor = new ServidorHttp(0, cenario.veiculoService, cenario.clienteService,
+                cenario.aluguelService, cenario.relatorioService, metricas)) {
+            String base = "http://localhost:" + servidor.getPorta();
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            // Aquecimento curto (JIT), depois a medição
+            executar(cliente, base, atendentes, Math.min(5, segundos), frota, clientes);
+            Resultado resultado = executar(cliente, base, atendentes, segundos, frota, clientes);
+
+            HistogramaLatencia latencia = resultado.latencia;
+            System.out.printf("atendentes=%d segundos=%d frota=%d clientes=%d%n", atendentes, segundos, frota, clientes);
+            System.out.printf("requisicoes=%d (%.0f req/s)%n", latencia.getContagem(),
+                    latencia.getContagem() / (resultado.nanos / 1e9));
+            System.out.printf("latencia ms: media=%.2f p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                    latencia.getMedia() / 1e6, latencia.percentil(50) / 1e6, latencia.percentil(99) / 1e6,
+                    latencia.percentil(99.9) / 1e6, latencia.getMaximo() / 1e6);
+            System.out.printf("status: 2xx=%d 4xx=%d 5xx=%d falhas de conexao=%d%n", resultado.status.get(2),
+                    resultado.status.get(4), resultado.status.get(5), resultado.status.get(0));
+            System.out.println();
+            System.out.print(metricas.formatar());
+        }
+    }
+
+    private record Resultado(HistogramaLatencia latencia, AtomicLongArray status, long nanos) {}
+
+    private static Resultado executar(HttpClient cliente, String base, int atendentes, int segundos,
+                                      int frota, int clientes) throws InterruptedException {
+        HistogramaLatencia latencia = new HistogramaLatencia();
+        AtomicLongArray status = new AtomicLongArray(6);  // Por centena do status; 0 = falha de conexão
+        long inicio = System.nanoTime();
+        long fim = inicio + segundos * 1_000_000_000L;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < atendentes; i++) {
+                SplittableRandom random = new SplittableRandom(i);
+                executor.submit(() -> {
+                    while (System.nanoTime() < fim) {
+                        atender(cliente, base, random, frota, clientes, latencia, status);
+                    }
+                });
+            }
+        }
+        return new Resultado(latencia, status, System.nanoTime() - inicio);
+    }
+
+    // Atendimento: consulta cliente (40%), lista disponíveis (20%), aluga e devolve (30%), relatório (10%)
+    private static void atender(HttpClient cliente, String base, SplittableRandom random, int frota,
+                                int clientes, HistogramaLatencia latencia, AtomicLongArray status) {
+        String cpf = DadosSinteticos.cpf(1 + random.nextInt(clientes));
+        int sorteio = random.nextInt(100);
+        if (sorteio < 40) {
+            enviar(cliente, get(base + "/clientes/" + cpf), latencia, status);
+        } else if (sorteio < 60) {
+            enviar(cliente, get(base + "/veiculos/disponiveis?categoria=" + CATEGORIAS[random.nextInt(4)]),
+                    latencia, status);
+        } else if (sorteio < 90) {
+            String corpo = "{\"cpf\":\"" + cpf + "\",\"dias\":" + (1 + random.nextInt(7))
+                    + ",\"veiculos\":[" + (1 + random.nextInt(frota)) + "]}";
+            HttpResponse<String> resposta = enviar(cliente, post(base + "/alugueis", corpo), latencia, status);
+            if (resposta != null && resposta.statusCode() == 201) {
+                String id = resposta.body().substring(6, resposta.body().indexOf(','));  // {"id":N,...
+                enviar(cliente, post(base + "/alugueis/" + id + "/finalizar", ""), latencia, status);
+            }
+        } else {
+            enviar(cliente, get(base + (random.nextBoolean() ? "/relatorios/faturamento"
+                    : "/relatorios/veiculos-populares")), latencia, status);
+        }
+    }
+
+    private static HttpResponse<String> enviar(HttpClient cliente, HttpRequest requisicao,
+                                               HistogramaLatencia latencia, AtomicLongArray status) {
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<String> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            latencia.gravar(System.nanoTime() - inicio);
+            status.incrementAndGet(Math.min(resposta.statusCode() / 100, 5));
+            return resposta;
+        } catch (Exception e) {
+            latencia.gravar(System.nanoTime() - inicio);
+            status.incrementAndGet(0);
+            return null;
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String corpo) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo)).build();
+    }
+}
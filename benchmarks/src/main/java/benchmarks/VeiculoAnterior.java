@@ -0,0 +1,42 @@
+package benchmarks;
+
+import entities.CalculadoraPreco;
+import entities.CategoriaVeiculo;
+
+// Veiculo como era antes da representação compacta: modelo e placa em String próprias
+// e a diária recalculada com a categoria a cada chamada. Só para comparação nos benchmarks.
+final class VeiculoAnterior {
+
+    private final int id;
+    private final String modelo;
+    private final String placa;
+    private final double precoBaseDiaria;
+    private final CategoriaVeiculo categoria;
+    private volatile boolean disponivel = true;
+    private int totalAlugueis;
+    private Object ouvinte;
+
+    VeiculoAnterior(int id, String modelo, String placa, double precoBaseDiaria, CategoriaVeiculo categoria) {
+        this.id = id;
+        this.modelo = modelo;
+        this.placa = placa;
+        this.precoBaseDiaria = precoBaseDiaria;
+        this.categoria = categoria;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String getModelo() {
+        return modelo;
+    }
+
+    String getPlaca() {
+        return placa;
+    }
+
+    long getPrecoDiarioCentavos() {
+        return CalculadoraPreco.precoDiarioCentavos(precoBaseDiaria, categoria);
+    }
+}
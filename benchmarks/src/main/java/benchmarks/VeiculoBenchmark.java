@@ -0,0 +1,89 @@
+package benchmarks;
+
+import entities.Veiculo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import repositories.VeiculoRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Veiculo compacto contra o anterior (VeiculoAnterior): busca por placa no índice do repositório
+// e a diária da frota inteira, como num laço de cotação. A memória fica no MemoriaFrota.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class VeiculoBenchmark {
+
+    @Param({"1000", "100000"})
+    public int frota;
+
+    private VeiculoRepository repositorio;
+    private List<Veiculo> veiculos;
+    private Map<String, VeiculoAnterior> anterioresPorPlaca;
+    private VeiculoAnterior[] anteriores;
+    private String[] placas;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        DadosSinteticos dados = new DadosSinteticos(42);
+        repositorio = new VeiculoRepository();
+        anterioresPorPlaca = new ConcurrentHashMap<>();
+        anteriores = new VeiculoAnterior[frota];
+        placas = new String[frota];
+        for (int i = 0; i < frota; i++) {
+            Veiculo veiculo = dados.veiculo(i);
+            repositorio.salvar(veiculo);
+            anteriores[i] = new VeiculoAnterior(veiculo.getId(), veiculo.getModelo(), veiculo.getPlaca(),
+                    veiculo.getPrecoBaseDiaria(), veiculo.getCategoria());
+            anterioresPorPlaca.put(anteriores[i].getPlaca(), anteriores[i]);
+            placas[i] = veiculo.getPlaca();
+        }
+        veiculos = repositorio.listarTodos();
+    }
+
+    @Benchmark
+    public Veiculo buscarPorPlaca() {
+        return repositorio.buscarPorPlaca(placas[random.nextInt(frota)]);
+    }
+
+    @Benchmark
+    public VeiculoAnterior buscarPorPlacaAnterior() {
+        return anterioresPorPlaca.get(placas[random.nextInt(frota)]);
+    }
+
+    @Benchmark
+    public long somarDiarias() {
+        long total = 0;
+        for (int i = 0; i < veiculos.size(); i++) {
+            total += veiculos.get(i).getPrecoDiarioCentavos();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long somarDiariasAnterior() {
+        long total = 0;
+        for (VeiculoAnterior veiculo : anteriores) {
+            total += veiculo.getPrecoDiarioCentavos();
+        }
+        return total;
+    }
+}
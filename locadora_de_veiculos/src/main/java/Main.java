@@ -3,25 +3,130 @@ import services.VeiculoService;
 import services.ClienteService;
 import services.AluguelService;
 import services.RelatorioService;
+import services.DetectorAtrasos;
 import entities.Veiculo;
 import entities.Cliente;
 import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.CalculadoraPreco;
+import api.ServidorHttp;
+import eventos.AnelEventos;
+import eventos.EstrategiaEspera;
+import eventos.PublicadorEventos;
+import importacao.ImportadorCsv;
+import metricas.AluguelServiceInstrumentado;
+import metricas.ClienteServiceInstrumentado;
+import metricas.RegistroMetricas;
+import metricas.RelatorioServiceInstrumentado;
+import persistencia.PersistenciaDuravel;
+import repositories.AgendaReservas;
 import repositories.AluguelRepository;
+import repositories.ClienteRepository;
+import repositories.TabelaPrecos;
 import repositories.VeiculoRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
-    public static void main(String[] args){
-        // Inicializa todos os serviços
+
+    private static final int MINUTOS_ENTRE_SNAPSHOTS = 10;
+    private static final int MINUTOS_ENTRE_ARQUIVAMENTOS = 1;
+    private static final int CAPACIDADE_EVENTOS = 8192;
+
+    public static void main(String[] args) throws IOException {
+        // Inicializa todos os serviços (compartilhando os mesmos repositórios)
         AluguelRepository aluguelRepo = new AluguelRepository();
         VeiculoRepository veiculoRepo = new VeiculoRepository();
+        ClienteRepository clienteRepo = new ClienteRepository();
+
+        // Opções: --dados <diretório> (modo durável), --frota <csv> e --clientes <csv> (importação),
+        // --metricas <arquivo> (grava as métricas ao sair), --http <porta> (API em vez do menu)
+        PersistenciaDuravel persistencia = null;
+        Path arquivoMetricas = null;
+        Integer portaHttp = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--metricas")) {
+                arquivoMetricas = Path.of(args[i + 1]);
+            } else if (args[i].equals("--http")) {
+                portaHttp = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--dados")) {
+                long inicio = System.nanoTime();
+                persistencia = PersistenciaDuravel.abrir(Path.of(args[i + 1]), veiculoRepo, clienteRepo, aluguelRepo, true);
+                System.out.printf(" Dados restaurados: %d registros em %d ms%n",
+                        persistencia.getRegistrosReaplicados(), (System.nanoTime() - inicio) / 1_000_000);
+            }
+        }
+        ImportadorCsv importador = new ImportadorCsv(veiculoRepo, clienteRepo);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--frota")) {
+                System.out.println(" Frota importada: " + importador.importarVeiculos(Path.of(args[i + 1])));
+            } else if (args[i].equals("--clientes")) {
+                System.out.println(" Clientes importados: " + importador.importarClientes(Path.of(args[i + 1])));
+            }
+        }
 
-        VeiculoService veiculoService = new VeiculoService();
-        ClienteService clienteService = new ClienteService();
-        AluguelService aluguelService = new AluguelService();
-        RelatorioService relatorioService = new RelatorioService(aluguelRepo, veiculoRepo);
+        // Relatórios atualizados por eventos, fora da thread do aluguel. O log durável e a agenda
+        // de reservas continuam síncronos: o aluguel só é confirmado depois de gravado e reservado.
+        AnelEventos eventos = new AnelEventos(CAPACIDADE_EVENTOS, EstrategiaEspera.bloquear());
+        PublicadorEventos publicador = new PublicadorEventos(eventos);
+        aluguelRepo.adicionarOuvinte(publicador);
+        veiculoRepo.adicionarOuvinte(publicador);
+
+        // Serviços medidos; as métricas ficam no JMX (locadora:*) enquanto o programa roda
+        RegistroMetricas metricas = new RegistroMetricas();
+        VeiculoService veiculoService = new VeiculoService(veiculoRepo);
+        ClienteService clienteService = new ClienteServiceInstrumentado(clienteRepo, metricas);
+        AluguelService aluguelService = new AluguelServiceInstrumentado(aluguelRepo, veiculoService, metricas);
+        RelatorioService relatorioService = new RelatorioServiceInstrumentado(aluguelRepo, veiculoRepo, eventos, metricas);
+        metricas.indicador("veiculos", veiculoRepo::tamanho);
+        metricas.indicador("clientes", clienteRepo::tamanho);
+        metricas.indicador("alugueis", aluguelRepo::tamanho);
+        metricas.indicador("alugueisAtivos", () -> aluguelRepo.contarPorStatus(StatusAluguel.ATIVO));
+        metricas.indicador("alugueisNaMemoria", () -> aluguelRepo.listarTodos().size());
+        metricas.indicador("eventosPendentes", eventos::getPendentes);
+        metricas.indicador("eventosEsperasProdutor", eventos::getEsperasProdutor);
+        metricas.indicador("alugueisAtrasados", () -> aluguelService.getDetectorAtrasos().getQuantidadeAtrasados());
+        metricas.indicador("multasEmAbertoCentavos", () -> aluguelService.getDetectorAtrasos().getMultasCentavos());
+        metricas.publicarJmx();
+
+        agendarVerificacaoAtrasos(aluguelService);
+        agendarLimpezaAgenda(veiculoService);
+        if (persistencia != null) {
+            // Snapshot periódico: leva os finalizados para o arquivo e encurta o log
+            agendarSnapshots(persistencia);
+            // Os finalizados também saem da memória entre um snapshot e outro: é isso que limita o heap.
+            // Sem --dados não há arquivo e todo o histórico fica na memória.
+            agendarArquivamento(aluguelRepo);
+        }
+
+        if (portaHttp != null) {
+            // Vários atendentes ao mesmo tempo pela API; o programa roda até ser interrompido (Ctrl+C)
+            ServidorHttp servidor = new ServidorHttp(portaHttp, veiculoService, clienteService, aluguelService,
+                    relatorioService, metricas);
+            System.out.println(" API HTTP ouvindo na porta " + servidor.getPorta());
+            PersistenciaDuravel persistenciaFinal = persistencia;
+            Path arquivoMetricasFinal = arquivoMetricas;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                servidor.close();
+                eventos.close();
+                try {
+                    encerrar(persistenciaFinal, metricas, arquivoMetricasFinal);
+                } catch (IOException e) {
+                    System.err.println("Falha ao encerrar: " + e.getMessage());
+                }
+            }));
+            return;
+        }
 
         Scanner scanner = new Scanner(System.in);
 
@@ -73,12 +178,77 @@ public class Main {
         } while (opcao != 8);
 
         scanner.close();
+        eventos.close();
+        encerrar(persistencia, metricas, arquivoMetricas);
+    }
+
+    // Prazos vencidos entram no conjunto de atrasados a cada minuto (um tick do detector)
+    private static void agendarVerificacaoAtrasos(AluguelService aluguelService) {
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("atrasos").daemon().factory());
+        // Uma exceção não escapa da tarefa: o agendador cancelaria as execuções seguintes
+        agendador.scheduleAtFixedRate(() -> {
+            try {
+                aluguelService.verificarAtrasos();
+            } catch (RuntimeException e) {
+                System.err.println("Falha ao verificar atrasos: " + e.getMessage());
+            }
+        }, 0, DetectorAtrasos.MILIS_POR_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    // Dias que já passaram saem dos bitsets da agenda uma vez por hora
+    private static void agendarLimpezaAgenda(VeiculoService veiculoService) {
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("agenda").daemon().factory());
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                veiculoService.descartarDiasPassados();
+            } catch (RuntimeException e) {
+                System.err.println("Falha ao limpar a agenda: " + e.getMessage());
+            }
+        }, 1, 1, TimeUnit.HOURS);
+    }
+
+    private static void agendarSnapshots(PersistenciaDuravel persistencia) {
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("snapshot").daemon().factory());
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                persistencia.gravarSnapshot();
+            } catch (IOException e) {
+                System.err.println("Falha no snapshot periódico: " + e.getMessage());
+            }
+        }, MINUTOS_ENTRE_SNAPSHOTS, MINUTOS_ENTRE_SNAPSHOTS, TimeUnit.MINUTES);
+    }
+
+    // Seguro sem snapshot: o log ainda tem os arquivados, e a restauração pula quem já está no arquivo
+    private static void agendarArquivamento(AluguelRepository aluguelRepo) {
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("arquivo").daemon().factory());
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                aluguelRepo.arquivarFinalizados();
+            } catch (RuntimeException e) {
+                System.err.println("Falha ao arquivar finalizados: " + e.getMessage());
+            }
+        }, MINUTOS_ENTRE_ARQUIVAMENTOS, MINUTOS_ENTRE_ARQUIVAMENTOS, TimeUnit.MINUTES);
+    }
+
+    private static void encerrar(PersistenciaDuravel persistencia, RegistroMetricas metricas,
+                                 Path arquivoMetricas) throws IOException {
+        if (arquivoMetricas != null) {
+            metricas.despejar(arquivoMetricas);
+        }
+        if (persistencia != null) {
+            persistencia.gravarSnapshot();
+            persistencia.close();
+        }
     }
 
     // LISTAR VEÍCULOS DISPONÍVEIS
     private static void listarVeiculosDisponiveis(VeiculoService veiculoService) {
         System.out.println("\n===  VEÍCULOS DISPONÍVEIS ===");
-        List<Veiculo> veiculos = veiculoService.listarDisponiveis();
+        Collection<Veiculo> veiculos = veiculoService.listarDisponiveis();
 
         if (veiculos.isEmpty()) {
             System.out.println("Nenhum veículo disponível no momento.");
@@ -94,6 +264,33 @@ public class Main {
         }
     }
 
+    // Disponíveis com o total dos 'dias' já com desconto, cotados todos de uma vez
+    private static void listarVeiculosDisponiveis(VeiculoService veiculoService, int dias) {
+        TabelaPrecos.Cotacao cotacao = veiculoService.cotar(null, dias);
+        if (cotacao == null) {
+            listarVeiculosDisponiveis(veiculoService);
+            return;
+        }
+        System.out.println("\n===  VEÍCULOS DISPONÍVEIS ===");
+        if (cotacao.quantidade() == 0) {
+            System.out.println("Nenhum veículo disponível no momento.");
+            return;
+        }
+        Map<Integer, Long> totais = new TreeMap<>();  // Em ordem de id, como na listagem sem cotação
+        for (int i = 0; i < cotacao.quantidade(); i++) {
+            totais.put(cotacao.veiculos()[i], cotacao.totaisCentavos()[i]);
+        }
+        System.out.printf("ID | Modelo           | Placa     | Categoria     | Preço/Dia | Total %d dias%n", dias);
+        System.out.println("---|------------------|-----------|--------------|-----------|--------------");
+        for (Map.Entry<Integer, Long> total : totais.entrySet()) {
+            Veiculo veiculo = veiculoService.buscarPorId(total.getKey());
+            System.out.printf("%-2d | %-16s | %-9s | %-12s | R$ %-6.2f | R$ %.2f%n",
+                    veiculo.getId(), veiculo.getModelo(), veiculo.getPlaca(),
+                    veiculo.getCategoria().getDescricao(), veiculo.getPrecoDiario(),
+                    CalculadoraPreco.emReais(total.getValue()));
+        }
+    }
+
     //  CADASTRAR CLIENTE
     private static void cadastrarCliente(ClienteService clienteService, Scanner scanner) {
         System.out.println("\n===  CADASTRAR CLIENTE ===");
@@ -108,13 +305,11 @@ public class Main {
         System.out.print("Telefone: ");
         String telefone = scanner.nextLine();
 
-        // Verifica se CPF já existe
-        if (clienteService.buscarPorCpf(cpf) != null) {
+        // Não substitui um cliente que já tenha este CPF
+        if (clienteService.cadastrarClienteNovo(cpf, nome, telefone) == null) {
             System.out.println(" Cliente já cadastrado com este CPF!");
             return;
         }
-
-        clienteService.cadastraCliente(cpf, nome, telefone);
         System.out.println(" Cliente cadastrado com sucesso!");
     }
 
@@ -137,13 +332,17 @@ public class Main {
         // 2. Quantos dias
         System.out.print("Quantos dias de aluguel: ");
         int dias = scanner.nextInt();
+        if (dias <= 0 || dias > AgendaReservas.DURACAO_MAXIMA_DIAS) {
+            System.out.println(" A quantidade de dias deve estar entre 1 e " + AgendaReservas.DURACAO_MAXIMA_DIAS + ".");
+            return;
+        }
 
         // 3. Escolher veículos
         List<ItemAluguel> veiculosAlugados = new ArrayList<>();
         boolean continuar = true;
 
         while (continuar) {
-            listarVeiculosDisponiveis(veiculoService);
+            listarVeiculosDisponiveis(veiculoService, dias);
 
             System.out.print("\nDigite o ID do veículo: ");
             int veiculoId = scanner.nextInt();
@@ -164,6 +363,10 @@ public class Main {
         // 4. Criar aluguel
         if (!veiculosAlugados.isEmpty()) {
             Aluguel aluguel = aluguelService.criarAluguel(cliente, dias, veiculosAlugados);
+            if (aluguel == null) {
+                System.out.println(" Um dos veículos foi alugado por outro atendente. Aluguel cancelado.");
+                return;
+            }
             System.out.printf("\n Aluguel criado com sucesso!%n");
             System.out.printf(" Número do Aluguel: %d%n", aluguel.getId());
             System.out.printf(" Cliente: %s%n", cliente.getNome());
@@ -182,7 +385,7 @@ public class Main {
     // 📋 LISTAR ALUGUÉIS ATIVOS
     private static void listarAlugueisAtivos(AluguelService aluguelService) {
         System.out.println("\n===  ALUGUÉIS ATIVOS ===");
-        List<Aluguel> alugueis = aluguelService.listarAlugueisAtivos();
+        Collection<Aluguel> alugueis = aluguelService.listarAlugueisAtivos();
 
         if (alugueis.isEmpty()) {
             System.out.println("Nenhum aluguel ativo no momento.");
@@ -198,6 +401,11 @@ public class Main {
                 System.out.printf("%s ", item.getVeiculo().getModelo());
             }
             System.out.printf("%n Total: R$ %.2f%n", aluguel.calcularTotal());
+            DetectorAtrasos.Atraso atraso = aluguelService.getDetectorAtrasos().buscar(aluguel.getId());
+            if (atraso != null) {
+                System.out.printf(" Atrasado: %d dia(s), multa até agora R$ %.2f%n",
+                        atraso.diasAtraso(), CalculadoraPreco.emReais(atraso.multaCentavos()));
+            }
         }
     }
 
@@ -205,7 +413,7 @@ public class Main {
     private static void finalizarAluguel(AluguelService aluguelService, Scanner scanner) {
         System.out.println("\n===  FINALIZAR ALUGUEL ===");
 
-        List<Aluguel> alugueisAtivos = aluguelService.listarAlugueisAtivos();
+        Collection<Aluguel> alugueisAtivos = aluguelService.listarAlugueisAtivos();
         if (alugueisAtivos.isEmpty()) {
             System.out.println("Nenhum aluguel ativo para finalizar.");
             return;
@@ -236,6 +444,7 @@ public class Main {
         System.out.println("2 - Veículos Mais Alugados");
         System.out.println("3 - Faturamento por Categoria");
         System.out.println("4 - Clientes Mais Fiéis");
+        System.out.println("5 - Faturamento dos Últimos Dias");
 
         Scanner scanner = new Scanner(System.in);
         int opcao = scanner.nextInt();
@@ -253,6 +462,13 @@ public class Main {
             case 4:
                 relatorioService.gerarRealatorioClienteFies();
                 break;
+            case 5:
+                System.out.print("Quantos dias? ");
+                int dias = scanner.nextInt();
+                Date hoje = new Date();
+                relatorioService.gerarRelatorioPeriodo(
+                        new Date(hoje.getTime() - (dias - 1) * CalculadoraPreco.MILIS_POR_DIA), hoje);
+                break;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package api;
+
+// Escreve JSON direto num StringBuilder, sem montar mapas intermediários.
+// Controla as vírgulas com uma pilha de bits: um bit por nível aberto (até 64 níveis).
+public class EscritorJson {
+
+    private final StringBuilder texto;
+    private long primeiroNoNivel = 1;  // Bit do nível atual: ainda não escreveu nada nele
+
+    public EscritorJson() {
+        this(new StringBuilder(256));
+    }
+
+    public EscritorJson(StringBuilder texto) {
+        this.texto = texto;
+    }
+
+    public EscritorJson abrirObjeto() {
+        separar();
+        texto.append('{');
+        primeiroNoNivel = (primeiroNoNivel << 1) | 1;
+        return this;
+    }
+
+    public EscritorJson fecharObjeto() {
+        primeiroNoNivel >>>= 1;
+        texto.append('}');
+        return this;
+    }
+
+    public EscritorJson abrirLista() {
+        separar();
+        texto.append('[');
+        primeiroNoNivel = (primeiroNoNivel << 1) | 1;
+        return this;
+    }
+
+    public EscritorJson fecharLista() {
+        primeiroNoNivel >>>= 1;
+        texto.append(']');
+        return this;
+    }
+
+    // Nome do próximo campo; o valor vem em seguida (valor, abrirObjeto ou abrirLista)
+    public EscritorJson nome(String nome) {
+        separar();
+        texto.append('"');
+        escapar(nome);
+        texto.append("\":");
+        primeiroNoNivel |= 1;  // O valor do campo não leva vírgula
+        return this;
+    }
+
+    public EscritorJson campo(String nome, String valor) {
+        return nome(nome).valor(valor);
+    }
+
+    public EscritorJson campo(String nome, long valor) {
+        return nome(nome).valor(valor);
+    }
+
+    public EscritorJson campo(String nome, boolean valor) {
+        return nome(nome).valor(valor);
+    }
+
+    // Valor monetário em reais com duas casas, a partir de centavos
+    public EscritorJson campoCentavos(String nome, long centavos) {
+        nome(nome);
+        separar();
+        if (centavos < 0) {
+            texto.append('-');
+            centavos = -centavos;
+        }
+        long centavosResto = centavos % 100;
+        texto.append(centavos / 100).append('.');
+        if (centavosResto < 10) {
+            texto.append('0');
+        }
+        texto.append(centavosResto);
+        return this;
+    }
+
+    public EscritorJson valor(String valor) {
+        separar();
+        if (valor == null) {
+            texto.append("null");
+        } else {
+            texto.append('"');
+            escapar(valor);
+            texto.append('"');
+        }
+        return this;
+    }
+
+    public EscritorJson valor(long valor) {
+        separar();
+        texto.append(valor);
+        return this;
+    }
+
+    public EscritorJson valor(boolean valor) {
+        separar();
+        texto.append(valor);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return texto.toString();
+    }
+
+    private void separar() {
+        if ((primeiroNoNivel & 1) != 0) {
+            primeiroNoNivel &= ~1L;
+        } else {
+            texto.append(',');
+        }
+    }
+
+    private void escapar(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> texto.append("\\\"");
+                case '\\' -> texto.append("\\\\");
+                case '\n' -> texto.append("\\n");
+                case '\r' -> texto.append("\\r");
+                case '\t' -> texto.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        texto.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        texto.append(c);
+                    }
+                }
+            }
+        }
+    }
+}
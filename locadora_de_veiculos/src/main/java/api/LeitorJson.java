@@ -0,0 +1,207 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Parser JSON mínimo para os corpos das requisições: objetos viram Map, listas viram List,
+// números inteiros viram Long (os demais, Double), e texto, true/false e null como em Java.
+// Entrada inválida gera IllegalArgumentException (respondida como 400).
+public class LeitorJson {
+
+    // Objetos e listas aninhados além disto são recusados: cada nível é uma chamada recursiva
+    static final int PROFUNDIDADE_MAXIMA = 64;
+
+    private final String texto;
+    private int posicao;
+    private int profundidade;
+
+    private LeitorJson(String texto) {
+        this.texto = texto;
+    }
+
+    public static Object ler(String texto) {
+        LeitorJson leitor = new LeitorJson(texto);
+        Object valor = leitor.valor();
+        leitor.pularEspacos();
+        if (leitor.posicao != texto.length()) {
+            throw leitor.erro("conteúdo depois do fim");
+        }
+        return valor;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> lerObjeto(String texto) {
+        Object valor = ler(texto);
+        if (!(valor instanceof Map)) {
+            throw new IllegalArgumentException("Esperado um objeto JSON");
+        }
+        return (Map<String, Object>) valor;
+    }
+
+    private Object valor() {
+        pularEspacos();
+        if (posicao >= texto.length()) {
+            throw erro("fim inesperado");
+        }
+        char c = texto.charAt(posicao);
+        switch (c) {
+            case '{':
+                return objeto();
+            case '[':
+                return lista();
+            case '"':
+                return texto();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return numero();
+                }
+                throw erro("caractere inesperado '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> objeto() {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        entrar();
+        pularEspacos();
+        if (consumir('}')) {
+            profundidade--;
+            return objeto;
+        }
+        do {
+            pularEspacos();
+            if (posicao >= texto.length() || texto.charAt(posicao) != '"') {
+                throw erro("esperado nome de campo");
+            }
+            String nome = texto();
+            pularEspacos();
+            if (!consumir(':')) {
+                throw erro("esperado ':'");
+            }
+            objeto.put(nome, valor());
+            pularEspacos();
+        } while (consumir(','));
+        if (!consumir('}')) {
+            throw erro("esperado '}'");
+        }
+        profundidade--;
+        return objeto;
+    }
+
+    private List<Object> lista() {
+        List<Object> lista = new ArrayList<>();
+        entrar();
+        pularEspacos();
+        if (consumir(']')) {
+            profundidade--;
+            return lista;
+        }
+        do {
+            lista.add(valor());
+            pularEspacos();
+        } while (consumir(','));
+        if (!consumir(']')) {
+            throw erro("esperado ']'");
+        }
+        profundidade--;
+        return lista;
+    }
+
+    private void entrar() {
+        if (++profundidade > PROFUNDIDADE_MAXIMA) {
+            throw erro("mais de " + PROFUNDIDADE_MAXIMA + " níveis aninhados");
+        }
+        posicao++;
+    }
+
+    private String texto() {
+        posicao++;  // Aspas de abertura
+        StringBuilder valor = new StringBuilder();
+        while (posicao < texto.length()) {
+            char c = texto.charAt(posicao++);
+            if (c == '"') {
+                return valor.toString();
+            }
+            if (c != '\\') {
+                valor.append(c);
+                continue;
+            }
+            if (posicao >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicao++);
+            switch (escape) {
+                case 'n' -> valor.append('\n');
+                case 'r' -> valor.append('\r');
+                case 't' -> valor.append('\t');
+                case 'b' -> valor.append('\b');
+                case 'f' -> valor.append('\f');
+                case 'u' -> {
+                    if (posicao + 4 > texto.length()) {
+                        throw erro("escape \\u incompleto");
+                    }
+                    valor.append((char) Integer.parseInt(texto, posicao, posicao + 4, 16));
+                    posicao += 4;
+                }
+                default -> valor.append(escape);  // \" \\ \/
+            }
+        }
+        throw erro("texto sem aspas de fechamento");
+    }
+
+    private Object numero() {
+        int inicio = posicao;
+        boolean decimal = false;
+        if (texto.charAt(posicao) == '-') {
+            posicao++;
+        }
+        while (posicao < texto.length()) {
+            char c = texto.charAt(posicao);
+            if (c == '.' || c == 'e' || c == 'E' || c == '+' || (c == '-' && decimal)) {
+                decimal = true;
+            } else if (c < '0' || c > '9') {
+                break;
+            }
+            posicao++;
+        }
+        String numero = texto.substring(inicio, posicao);
+        try {
+            return decimal ? (Object) Double.parseDouble(numero) : (Object) Long.parseLong(numero);
+        } catch (NumberFormatException e) {
+            throw erro("número inválido " + numero);
+        }
+    }
+
+    private Object literal(String palavra, Object valor) {
+        if (!texto.startsWith(palavra, posicao)) {
+            throw erro("valor inválido");
+        }
+        posicao += palavra.length();
+        return valor;
+    }
+
+    private boolean consumir(char esperado) {
+        if (posicao < texto.length() && texto.charAt(posicao) == esperado) {
+            posicao++;
+            return true;
+        }
+        return false;
+    }
+
+    private void pularEspacos() {
+        while (posicao < texto.length() && Character.isWhitespace(texto.charAt(posicao))) {
+            posicao++;
+        }
+    }
+
+    private IllegalArgumentException erro(String mensagem) {
+        return new IllegalArgumentException("JSON inválido na posição " + posicao + ": " + mensagem);
+    }
+}
@@ -0,0 +1,583 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.Veiculo;
+import metricas.MetricasOperacao;
+import metricas.RegistroMetricas;
+import repositories.AgendaReservas;
+import repositories.TabelaPrecos;
+import services.AluguelService;
+import services.ClienteService;
+import services.DetectorAtrasos;
+import services.RankingTopK;
+import services.RelatorioService;
+import services.VeiculoService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// API HTTP/JSON sobre os serviços, no HttpServer do próprio JDK. Cada requisição roda numa
+// virtual thread: o atendimento pode bloquear (disco, lock) sem segurar uma thread do sistema,
+// então centenas de atendentes simultâneos não precisam de um pool dimensionado à mão.
+//
+//   GET  /veiculos[?inicio=0&quantidade=100]
+//   GET  /veiculos/disponiveis[?categoria=SUV[&inicio=2026-01-10&dias=3]]
+//   GET  /veiculos/busca?q=corola[&quantidade=10]   (modelo ou placa, aceita erro de digitação)
+//   GET  /veiculos/cotacao?dias=10[&categoria=SUV]  (total de N dias de cada disponível)
+//   POST /clientes                      {"cpf":"...","nome":"...","telefone":"..."}
+//   GET  /clientes?nome=ana sil[&quantidade=10]
+//   GET  /clientes/{cpf}
+//   GET  /clientes/{cpf}/alugueis         (histórico, incluindo os arquivados)
+//   POST /alugueis                      {"cpf":"...","dias":3,"veiculos":[1,2],"inicio":"2026-01-10"}
+//   GET  /alugueis[?inicio=0&quantidade=100]
+//   GET  /alugueis/ativos
+//   GET  /alugueis/{id}
+//   POST /alugueis/{id}/finalizar | /retirar | /cancelar
+//   GET  /relatorios/faturamento | /categorias | /veiculos-populares | /clientes-fieis
+//   GET  /relatorios/periodo?inicio=2026-01-01&fim=2026-01-31
+public class ServidorHttp implements Closeable {
+
+    private static final int MAXIMO_PAGINA = 1000;
+    private static final int MAXIMO_CORPO = 64 << 10;  // Bytes; acima disto a requisição recebe 413
+
+    // Rotas com métricas próprias; caminhos fora daqui (digitados pelo cliente) caem todos em "404"
+    private static final Set<String> ROTAS = Set.of(
+            "GET /veiculos", "GET /veiculos/disponiveis", "GET /veiculos/busca", "GET /veiculos/cotacao",
+            "GET /clientes", "POST /clientes", "GET /clientes/{cpf}", "GET /clientes/{cpf}/alugueis",
+            "GET /alugueis", "POST /alugueis", "GET /alugueis/ativos", "GET /alugueis/atrasados",
+            "GET /alugueis/{id}", "POST /alugueis/{id}/finalizar", "POST /alugueis/{id}/retirar",
+            "POST /alugueis/{id}/cancelar", "GET /relatorios/faturamento", "GET /relatorios/categorias",
+            "GET /relatorios/veiculos-populares", "GET /relatorios/periodo", "GET /relatorios/clientes-fieis");
+    private static final String ROTA_DESCONHECIDA = "404";
+
+    private final VeiculoService veiculoService;
+    private final ClienteService clienteService;
+    private final AluguelService aluguelService;
+    private final RelatorioService relatorioService;
+    private final RegistroMetricas metricas;
+    private final Map<String, MetricasOperacao> metricasPorRota = new HashMap<>();
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+
+    public ServidorHttp(int porta, VeiculoService veiculoService, ClienteService clienteService,
+                        AluguelService aluguelService, RelatorioService relatorioService,
+                        RegistroMetricas metricas) throws IOException {
+        this.veiculoService = veiculoService;
+        this.clienteService = clienteService;
+        this.aluguelService = aluguelService;
+        this.relatorioService = relatorioService;
+        this.metricas = metricas;
+        this.servidor = HttpServer.create(new InetSocketAddress(porta), 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(executor);
+        servidor.createContext("/", this::atender);
+        servidor.start();
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(1);
+        executor.close();
+    }
+
+    private record Resposta(int status, String corpo) {}
+
+    private static class CorpoExcessivo extends RuntimeException {
+        CorpoExcessivo() {
+            super("Corpo da requisição maior que " + MAXIMO_CORPO + " bytes");
+        }
+    }
+
+    private void atender(HttpExchange troca) throws IOException {
+        long inicio = System.nanoTime();
+        String rota = ROTA_DESCONHECIDA;
+        Resposta resposta;
+        try {
+            String[] partes = partes(troca.getRequestURI().getRawPath());
+            rota = rota(troca.getRequestMethod(), partes);
+            resposta = rotear(troca, partes);
+        } catch (CorpoExcessivo e) {
+            resposta = erro(413, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            resposta = erro(400, e.getMessage());
+        } catch (RuntimeException e) {
+            resposta = erro(500, e.toString());
+        }
+        try (troca) {
+            byte[] corpo = resposta.corpo().getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            troca.sendResponseHeaders(resposta.status(), corpo.length == 0 ? -1 : corpo.length);
+            if (corpo.length > 0) {
+                try (OutputStream saida = troca.getResponseBody()) {
+                    saida.write(corpo);
+                }
+            }
+        } finally {
+            if (metricas != null) {
+                metrica(rota).registrar(System.nanoTime() - inicio, resposta.status() < 400);
+            }
+        }
+    }
+
+    private Resposta rotear(HttpExchange troca, String[] partes) throws IOException {
+        String metodo = troca.getRequestMethod();
+        boolean get = metodo.equals("GET");
+        boolean post = metodo.equals("POST");
+        if (partes.length == 1 && partes[0].equals("veiculos") && get) {
+            Map<String, String> parametros = parametros(troca.getRequestURI().getRawQuery());
+            EscritorJson json = new EscritorJson().abrirLista();
+            for (Veiculo veiculo : veiculoService.listarPagina(inicioPagina(parametros), quantidadePagina(parametros))) {
+                veiculo(json, veiculo);
+            }
+            return new Resposta(200, json.fecharLista().toString());
+        }
+        if (partes.length == 2 && partes[0].equals("veiculos") && partes[1].equals("disponiveis") && get) {
+            return listarDisponiveis(parametros(troca.getRequestURI().getRawQuery()));
+        }
+        if (partes.length == 2 && partes[0].equals("veiculos") && partes[1].equals("busca") && get) {
+            Map<String, String> parametros = parametros(troca.getRequestURI().getRawQuery());
+            EscritorJson json = new EscritorJson().abrirLista();
+            for (Veiculo veiculo : veiculoService.buscarPorTexto(obrigatorio(parametros, "q"),
+                    quantidadePagina(parametros, 10))) {
+                veiculo(json, veiculo);
+            }
+            return new Resposta(200, json.fecharLista().toString());
+        }
+        if (partes.length == 2 && partes[0].equals("veiculos") && partes[1].equals("cotacao") && get) {
+            return cotar(parametros(troca.getRequestURI().getRawQuery()));
+        }
+        if (partes.length >= 1 && partes[0].equals("clientes")) {
+            if (partes.length == 1 && get) {
+                Map<String, String> parametros = parametros(troca.getRequestURI().getRawQuery());
+                EscritorJson json = new EscritorJson().abrirLista();
+                for (Cliente cliente : clienteService.buscarPorNome(obrigatorio(parametros, "nome"),
+                        quantidadePagina(parametros, 10))) {
+                    cliente(json, cliente);
+                }
+                return new Resposta(200, json.fecharLista().toString());
+            }
+            if (partes.length == 1 && post) {
+                return cadastrarCliente(LeitorJson.lerObjeto(corpo(troca)));
+            }
+            if (partes.length == 2 && get) {
+                Cliente cliente = clienteService.buscarPorCpf(partes[1]);
+                return cliente == null ? erro(404, "Cliente não encontrado")
+                        : new Resposta(200, cliente(new EscritorJson(), cliente).toString());
+            }
+            if (partes.length == 3 && partes[2].equals("alugueis") && get) {
+                Cliente cliente = clienteService.buscarPorCpf(partes[1]);
+                return cliente == null ? erro(404, "Cliente não encontrado")
+                        : new Resposta(200, alugueis(aluguelService.listarHistoricoCliente(cliente)));
+            }
+        }
+        if (partes.length >= 1 && partes[0].equals("alugueis")) {
+            if (partes.length == 1 && get) {
+                Map<String, String> parametros = parametros(troca.getRequestURI().getRawQuery());
+                return new Resposta(200, alugueis(aluguelService.listarPagina(inicioPagina(parametros),
+                        quantidadePagina(parametros))));
+            }
+            if (partes.length == 1 && post) {
+                return criarAluguel(LeitorJson.lerObjeto(corpo(troca)));
+            }
+            if (partes.length == 2 && partes[1].equals("ativos") && get) {
+                return new Resposta(200, alugueis(aluguelService.listarAlugueisAtivos()));
+            }
+            if (partes.length == 2 && partes[1].equals("atrasados") && get) {
+                return new Resposta(200, atrasados(aluguelService.listarAtrasados()));
+            }
+            if (partes.length >= 2 && !partes[1].equals("ativos") && !partes[1].equals("atrasados")) {
+                Aluguel aluguel = aluguelService.buscarPorId(inteiro(partes[1], "id"));
+                if (aluguel == null) {
+                    return erro(404, "Aluguel não encontrado");
+                }
+                if (partes.length == 2 && get) {
+                    return new Resposta(200, aluguel(new EscritorJson(), aluguel).toString());
+                }
+                if (partes.length == 3 && post) {
+                    return alterarAluguel(aluguel, partes[2]);
+                }
+            }
+        }
+        if (partes.length == 2 && partes[0].equals("relatorios") && get) {
+            return relatorio(partes[1], parametros(troca.getRequestURI().getRawQuery()));
+        }
+        return erro(404, "Rota não encontrada: " + metodo + " /" + String.join("/", partes));
+    }
+
+    private Resposta listarDisponiveis(Map<String, String> parametros) {
+        String nomeCategoria = parametros.get("categoria");
+        Collection<Veiculo> veiculos;
+        if (nomeCategoria == null) {
+            veiculos = veiculoService.listarDisponiveis();
+        } else {
+            CategoriaVeiculo categoria = categoria(nomeCategoria);
+            String inicio = parametros.get("inicio");
+            veiculos = inicio == null ? veiculoService.listarDisponiveis(categoria)
+                    : veiculoService.listarDisponiveis(categoria, data(inicio),
+                    inteiro(parametros.getOrDefault("dias", "1"), "dias"));
+        }
+        EscritorJson json = new EscritorJson(new StringBuilder(64 + veiculos.size() * 96)).abrirLista();
+        for (Veiculo veiculo : veiculos) {
+            veiculo(json, veiculo);
+        }
+        return new Resposta(200, json.fecharLista().toString());
+    }
+
+    // Linhas curtas (id e total): a lista cobre a frota disponível inteira, sem paginação
+    private Resposta cotar(Map<String, String> parametros) {
+        String nomeCategoria = parametros.get("categoria");
+        TabelaPrecos.Cotacao cotacao = veiculoService.cotar(nomeCategoria == null ? null : categoria(nomeCategoria),
+                inteiro(obrigatorio(parametros, "dias"), "dias"));
+        if (cotacao == null) {
+            throw new IllegalArgumentException("dias deve ser pelo menos 1");
+        }
+        EscritorJson json = new EscritorJson(new StringBuilder(64 + cotacao.quantidade() * 32))
+                .abrirObjeto().campo("dias", cotacao.dias()).nome("veiculos").abrirLista();
+        for (int i = 0; i < cotacao.quantidade(); i++) {
+            json.abrirObjeto()
+                    .campo("id", cotacao.veiculos()[i])
+                    .campoCentavos("total", cotacao.totaisCentavos()[i])
+                    .fecharObjeto();
+        }
+        return new Resposta(200, json.fecharLista().fecharObjeto().toString());
+    }
+
+    private Resposta cadastrarCliente(Map<String, Object> corpo) {
+        Cliente cliente = clienteService.cadastrarClienteNovo(texto(corpo, "cpf"), texto(corpo, "nome"),
+                texto(corpo, "telefone"));
+        if (cliente == null) {
+            return erro(409, "CPF já cadastrado");
+        }
+        return new Resposta(201, cliente(new EscritorJson(), cliente).toString());
+    }
+
+    private Resposta criarAluguel(Map<String, Object> corpo) {
+        Cliente cliente = clienteService.buscarPorCpf(texto(corpo, "cpf"));
+        if (cliente == null) {
+            return erro(404, "Cliente não encontrado");
+        }
+        // Conferido ainda em long: o cast sozinho faria 4294967297 virar 1
+        long dias = numero(corpo, "dias");
+        if (dias <= 0 || dias > AgendaReservas.DURACAO_MAXIMA_DIAS) {
+            throw new IllegalArgumentException("dias deve estar entre 1 e " + AgendaReservas.DURACAO_MAXIMA_DIAS);
+        }
+        if (!(corpo.get("veiculos") instanceof List<?> ids) || ids.isEmpty()) {
+            throw new IllegalArgumentException("veiculos deve ser uma lista de ids");
+        }
+        List<ItemAluguel> itens = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            if (!(id instanceof Long idVeiculo)) {
+                throw new IllegalArgumentException("id de veículo inválido: " + id);
+            }
+            Veiculo veiculo = veiculoService.buscarPorId(idVeiculo.intValue());
+            if (veiculo == null) {
+                return erro(404, "Veículo " + id + " não encontrado");
+            }
+            itens.add(new ItemAluguel(veiculo));
+        }
+        Object inicio = corpo.get("inicio");
+        Aluguel aluguel = inicio == null
+                ? aluguelService.criarAluguel(cliente, (int) dias, itens)
+                : aluguelService.criarAluguel(cliente, data(inicio.toString()), (int) dias, itens);
+        if (aluguel == null) {
+            return erro(409, "Veículo indisponível no período");
+        }
+        return new Resposta(201, aluguel(new EscritorJson(), aluguel).toString());
+    }
+
+    private Resposta alterarAluguel(Aluguel aluguel, String acao) {
+        boolean sucesso;
+        switch (acao) {
+            case "finalizar" -> sucesso = aluguelService.finalizarAluguel(aluguel.getId());
+            case "retirar" -> sucesso = aluguelService.retirarAluguel(aluguel.getId());
+            case "cancelar" -> sucesso = aluguelService.cancelarReserva(aluguel.getId());
+            default -> {
+                return erro(404, "Ação desconhecida: " + acao);
+            }
+        }
+        return sucesso ? new Resposta(200, aluguel(new EscritorJson(), aluguel).toString())
+                : erro(409, "Aluguel está " + aluguel.getStatus());
+    }
+
+    private Resposta relatorio(String nome, Map<String, String> parametros) {
+        EscritorJson json = new EscritorJson();
+        switch (nome) {
+            case "faturamento" -> {
+                RelatorioService.Faturamento faturamento = relatorioService.faturamento();
+                json.abrirObjeto()
+                        .campoCentavos("faturamento", faturamento.alugueisCentavos())
+                        .campoCentavos("multas", faturamento.multasCentavos())
+                        .campoCentavos("liquido", faturamento.liquidoCentavos())
+                        .campo("alugueis", faturamento.alugueis())
+                        .fecharObjeto();
+            }
+            case "categorias" -> {
+                RelatorioService.Faturamento faturamento = relatorioService.faturamento();
+                json.abrirObjeto();
+                for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+                    json.campoCentavos(categoria.name(), faturamento.porCategoriaCentavos().get(categoria));
+                }
+                json.fecharObjeto();
+            }
+            case "veiculos-populares" -> {
+                json.abrirLista();
+                for (RankingTopK.Posicao<Veiculo> posicao : relatorioService.veiculosPopulares().posicoes()) {
+                    json.abrirObjeto().nome("veiculo");
+                    veiculo(json, posicao.item()).campo("alugueis", posicao.contagem()).fecharObjeto();
+                }
+                json.fecharLista();
+            }
+            case "periodo" -> {
+                String inicio = parametros.get("inicio");
+                String fim = parametros.get("fim");
+                if (inicio == null || fim == null) {
+                    throw new IllegalArgumentException("Informe inicio e fim (AAAA-MM-DD)");
+                }
+                RelatorioService.Faturamento periodo = relatorioService.faturamento(data(inicio), data(fim));
+                json.abrirObjeto()
+                        .campoCentavos("faturamento", periodo.alugueisCentavos())
+                        .campoCentavos("multas", periodo.multasCentavos())
+                        .campo("alugueis", periodo.alugueis())
+                        .nome("categorias").abrirObjeto();
+                for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+                    json.campoCentavos(categoria.name(), periodo.porCategoriaCentavos().get(categoria));
+                }
+                json.fecharObjeto().nome("multasCategorias").abrirObjeto();
+                for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+                    json.campoCentavos(categoria.name(), periodo.multasPorCategoriaCentavos().get(categoria));
+                }
+                json.fecharObjeto().fecharObjeto();
+            }
+            case "clientes-fieis" -> {
+                json.abrirLista();
+                for (RankingTopK.Posicao<Cliente> posicao : relatorioService.clientesFieis().posicoes()) {
+                    json.abrirObjeto().nome("cliente");
+                    cliente(json, posicao.item()).campo("alugueis", posicao.contagem())
+                            .campo("erro", posicao.erro()).fecharObjeto();
+                }
+                json.fecharLista();
+            }
+            default -> {
+                return erro(404, "Relatório desconhecido: " + nome);
+            }
+        }
+        return new Resposta(200, json.toString());
+    }
+
+    private static EscritorJson veiculo(EscritorJson json, Veiculo veiculo) {
+        return json.abrirObjeto()
+                .campo("id", veiculo.getId())
+                .campo("modelo", veiculo.getModelo())
+                .campo("placa", veiculo.getPlaca())
+                .campo("categoria", veiculo.getCategoria().name())
+                .campoCentavos("precoDiario", veiculo.getPrecoDiarioCentavos())
+                .campo("disponivel", veiculo.isDisponivel())
+                .fecharObjeto();
+    }
+
+    private static EscritorJson cliente(EscritorJson json, Cliente cliente) {
+        return json.abrirObjeto()
+                .campo("cpf", cliente.getCpf())
+                .campo("nome", cliente.getNome())
+                .campo("telefone", cliente.getTelefone())
+                .fecharObjeto();
+    }
+
+    private static EscritorJson aluguel(EscritorJson json, Aluguel aluguel) {
+        json.abrirObjeto()
+                .campo("id", aluguel.getId())
+                .campo("cpf", aluguel.getCliente().getCpf())
+                .campo("status", aluguel.getStatus().name())
+                .campo("dias", aluguel.getDias())
+                .campo("dataAluguel", aluguel.getDataAluguelMilis())
+                .campo("dataDevolucao", aluguel.getDataDevolucaoMilis())
+                .campoCentavos("total", aluguel.calcularTotalCentavos())
+                .campoCentavos("multa", aluguel.getMultaCentavos())
+                .nome("veiculos").abrirLista();
+        for (ItemAluguel item : aluguel.getVeiculos()) {
+            json.valor(item.getVeiculo().getId());
+        }
+        return json.fecharLista().fecharObjeto();
+    }
+
+    private static String alugueis(Collection<Aluguel> alugueis) {
+        EscritorJson json = new EscritorJson(new StringBuilder(64 + alugueis.size() * 200)).abrirLista();
+        for (Aluguel aluguel : alugueis) {
+            aluguel(json, aluguel);
+        }
+        return json.fecharLista().toString();
+    }
+
+    // Multa que seria cobrada se o aluguel fosse devolvido agora
+    private static String atrasados(List<DetectorAtrasos.Atraso> atrasados) {
+        EscritorJson json = new EscritorJson(new StringBuilder(64 + atrasados.size() * 100)).abrirLista();
+        for (DetectorAtrasos.Atraso atraso : atrasados) {
+            json.abrirObjeto()
+                    .campo("id", atraso.aluguel().getId())
+                    .campo("cpf", atraso.aluguel().getCliente().getCpf())
+                    .campo("diasAtraso", atraso.diasAtraso())
+                    .campoCentavos("multa", atraso.multaCentavos())
+                    .fecharObjeto();
+        }
+        return json.fecharLista().toString();
+    }
+
+    private static Resposta erro(int status, String mensagem) {
+        return new Resposta(status, new EscritorJson().abrirObjeto().campo("erro", mensagem).fecharObjeto().toString());
+    }
+
+    private MetricasOperacao metrica(String rota) {
+        if (!ROTAS.contains(rota)) {
+            rota = ROTA_DESCONHECIDA;
+        }
+        synchronized (metricasPorRota) {
+            return metricasPorRota.computeIfAbsent(rota, r -> metricas.operacao("http." + r));
+        }
+    }
+
+    // Nome da rota para as métricas, com ids e CPFs trocados por {id}/{cpf}
+    private static String rota(String metodo, String[] partes) {
+        StringBuilder rota = new StringBuilder(metodo).append(' ');
+        for (int i = 0; i < partes.length; i++) {
+            rota.append('/');
+            if (i == 1 && partes[0].equals("clientes")) {
+                rota.append("{cpf}");
+            } else if (i == 1 && partes[0].equals("alugueis") && !partes[1].equals("ativos")
+                    && !partes[1].equals("atrasados")) {
+                rota.append("{id}");
+            } else {
+                rota.append(partes[i]);
+            }
+        }
+        return rota.toString();
+    }
+
+    private static String[] partes(String caminho) {
+        String limpo = caminho.replaceAll("^/+|/+$", "");
+        if (limpo.isEmpty()) {
+            return new String[0];
+        }
+        String[] partes = limpo.split("/+");
+        for (int i = 0; i < partes.length; i++) {
+            partes[i] = URLDecoder.decode(partes[i], StandardCharsets.UTF_8);
+        }
+        return partes;
+    }
+
+    private static Map<String, String> parametros(String consulta) {
+        Map<String, String> parametros = new HashMap<>();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    private static String corpo(HttpExchange troca) throws IOException {
+        // Lê no máximo um byte além do limite, sem acumular o resto de um corpo grande demais
+        byte[] bytes = troca.getRequestBody().readNBytes(MAXIMO_CORPO + 1);
+        if (bytes.length > MAXIMO_CORPO) {
+            throw new CorpoExcessivo();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String texto(Map<String, Object> corpo, String campo) {
+        Object valor = corpo.get(campo);
+        if (!(valor instanceof String texto) || texto.isBlank()) {
+            throw new IllegalArgumentException("Campo obrigatório: " + campo);
+        }
+        return texto;
+    }
+
+    private static long numero(Map<String, Object> corpo, String campo) {
+        if (!(corpo.get(campo) instanceof Long numero)) {
+            throw new IllegalArgumentException("Campo numérico obrigatório: " + campo);
+        }
+        return numero;
+    }
+
+    private static int inteiro(String texto, String campo) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(campo + " inválido: " + texto);
+        }
+    }
+
+    // Listagens completas são paginadas: no máximo MAXIMO_PAGINA itens por resposta
+    private static int inicioPagina(Map<String, String> parametros) {
+        int inicio = inteiro(parametros.getOrDefault("inicio", "0"), "inicio");
+        if (inicio < 0) {
+            throw new IllegalArgumentException("inicio inválido: " + inicio);
+        }
+        return inicio;
+    }
+
+    private static int quantidadePagina(Map<String, String> parametros) {
+        return quantidadePagina(parametros, 100);
+    }
+
+    private static int quantidadePagina(Map<String, String> parametros, int padrao) {
+        int quantidade = inteiro(parametros.getOrDefault("quantidade", String.valueOf(padrao)), "quantidade");
+        if (quantidade <= 0 || quantidade > MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("quantidade deve estar entre 1 e " + MAXIMO_PAGINA);
+        }
+        return quantidade;
+    }
+
+    private static String obrigatorio(Map<String, String> parametros, String nome) {
+        String valor = parametros.get(nome);
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("Parâmetro obrigatório: " + nome);
+        }
+        return valor;
+    }
+
+    private static CategoriaVeiculo categoria(String nome) {
+        try {
+            return CategoriaVeiculo.valueOf(nome.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Categoria inválida: " + nome);
+        }
+    }
+
+    // Data no formato 2026-01-10, meia-noite UTC (a agenda conta dias em UTC)
+    private static Date data(String texto) {
+        try {
+            return Date.from(LocalDate.parse(texto).atStartOfDay(ZoneOffset.UTC).toInstant());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Data inválida (use AAAA-MM-DD): " + texto);
+        }
+    }
+}
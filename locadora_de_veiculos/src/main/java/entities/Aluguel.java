@@ -1,7 +1,7 @@
 package entities;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 
 // Classe que representa um Aluguel de veículos
@@ -10,11 +10,17 @@ public class Aluguel {
     private int id ;  // Identificador único do aluguel
     private Cliente cliente;  // Cliente que realizou o aluguel
     private List<ItemAluguel> veiculos;  // Lista de veículos alugados
+    private List<ItemAluguel> veiculosSomenteLeitura;  // Visão exposta, para o total em cache não ficar desatualizado
     private int dias;  // Quantidade de dias do aluguel
     private StatusAluguel status;  // Status atual do aluguel (ATIVO, FINALIZADO, etc.)
-    private Date dataAluguel ;  // Data em que o aluguel foi realizado
-    private Date dataDevolucao;  // Data em que o veículo foi devolvido
-    private double multa;  // Valor da multa por atraso na devolução
+    private long dataAluguel;  // Data em que o aluguel foi realizado (milissegundos desde 1970)
+    private long dataDevolucao = SEM_DATA;  // Data em que o veículo foi devolvido
+    private long multaCentavos;  // Valor da multa por atraso na devolução
+    private long totalCentavos = SEM_TOTAL;  // Total em cache; recalculado só quando itens ou dias mudam
+    private int filial;  // Filial do aluguel: a do primeiro veículo
+
+    private static final long SEM_DATA = Long.MIN_VALUE;
+    private static final long SEM_TOTAL = -1;
 
     // Métodos getters e setters - permitem acesso controlado aos atributos privados
 
@@ -38,14 +44,29 @@ public class Aluguel {
         this.cliente = cliente;
     }
 
-    // Retorna a lista de veículos alugados
+    // Retorna a lista de veículos alugados (somente leitura; use adicionarVeiculo)
     public List<ItemAluguel> getVeiculos() {
-        return veiculos;
+        return veiculosSomenteLeitura;
     }
 
     // Define a lista de veículos alugados
     public void setVeiculos(List<ItemAluguel> veiculos) {
-        this.veiculos = veiculos;
+        this.veiculos = new ArrayList<>(veiculos);
+        this.veiculosSomenteLeitura = Collections.unmodifiableList(this.veiculos);
+        this.totalCentavos = SEM_TOTAL;
+        if (!this.veiculos.isEmpty()) {
+            this.filial = this.veiculos.get(0).getVeiculo().getFilial();
+        }
+    }
+
+    // Retorna a filial onde o aluguel foi feito
+    public int getFilial() {
+        return filial;
+    }
+
+    // Define a filial do aluguel (por padrão, a do primeiro veículo adicionado)
+    public void setFilial(int filial) {
+        this.filial = filial;
     }
 
     // Retorna a quantidade de dias do aluguel
@@ -56,6 +77,7 @@ public class Aluguel {
     // Define a quantidade de dias do aluguel
     public void setDias(int dias) {
         this.dias = dias;
+        this.totalCentavos = SEM_TOTAL;
     }
 
     // Retorna o status atual do aluguel
@@ -70,32 +92,49 @@ public class Aluguel {
 
     // Retorna a data em que o aluguel foi realizado
     public Date getDataAluguel() {
+        return new Date(dataAluguel);
+    }
+
+    public long getDataAluguelMilis() {
         return dataAluguel;
     }
 
     // Define a data do aluguel
     public void setDataAluguel(Date dataAluguel) {
-        this.dataAluguel = dataAluguel;
+        this.dataAluguel = dataAluguel.getTime();
     }
 
-    // Retorna a data de devolução do veículo
+    // Retorna a data de devolução do veículo (null se ainda não devolvido)
     public Date getDataDevolucao() {
-        return dataDevolucao;
+        return dataDevolucao == SEM_DATA ? null : new Date(dataDevolucao);
+    }
+
+    // Milissegundos da devolução, ou -1 se ainda não devolvido
+    public long getDataDevolucaoMilis() {
+        return dataDevolucao == SEM_DATA ? -1 : dataDevolucao;
     }
 
-    // Define a data de devolução do veículo (CORREÇÃO: faltou 'this.')
+    // Define a data de devolução do veículo
     public void setDataDevolucao(Date dataDevolucao) {
-        this.dataDevolucao = dataDevolucao;  // Correção: adicionar 'this.'
+        this.dataDevolucao = dataDevolucao == null ? SEM_DATA : dataDevolucao.getTime();
     }
 
     // Retorna o valor da multa
     public double getMulta() {
-        return multa;
+        return CalculadoraPreco.emReais(multaCentavos);
+    }
+
+    public long getMultaCentavos() {
+        return multaCentavos;
     }
 
     // Define o valor da multa
     public void setMulta(double multa) {
-        this.multa = multa;
+        this.multaCentavos = CalculadoraPreco.emCentavos(multa);
+    }
+
+    public void setMultaCentavos(long multaCentavos) {
+        this.multaCentavos = multaCentavos;
     }
 
     // Construtor da classe Aluguel - inicializa um novo objeto Aluguel
@@ -103,65 +142,82 @@ public class Aluguel {
         this.cliente = cliente;  // Associa o cliente passado como parâmetro ao aluguel
         this.dias = dias ;  // Define a quantidade de dias do aluguel
         this.veiculos = new ArrayList<>(); // Cria uma lista vazia para armazenar os veículos alugados
+        this.veiculosSomenteLeitura = Collections.unmodifiableList(this.veiculos);
         this.status = StatusAluguel.ATIVO; // Define o status inicial do aluguel como ATIVO
-        this.dataAluguel = new Date(); // Registra a data/hora atual como data do aluguel
-        this.multa = 0.0; // Inicializa o valor da multa como zero
+        this.dataAluguel = System.currentTimeMillis(); // Registra a data/hora atual como data do aluguel
+        this.multaCentavos = 0; // Inicializa o valor da multa como zero
     }
 
     //Método para adicionar um veículo ao aluguel atual
     public void adicionarVeiculo(ItemAluguel veiculo){
+        if (veiculos.isEmpty()) {
+            filial = veiculo.getVeiculo().getFilial();  // O aluguel fica na filial do primeiro veículo
+        }
         veiculos.add(veiculo);  // Adiciona o veículo à lista de veículos do aluguel
         veiculo.getVeiculo().incrementarAluguel();  // Incrementa o contador de aluguéis do veículo
+        totalCentavos = SEM_TOTAL;  // O total muda com o novo veículo
     }
 
     // Calcula o valor total do aluguel aplicando descontos progressivos
     public double calcularTotal() {
-        double total = 0;
-        // Soma o subtotal de todos os veículos alugados
-        for (ItemAluguel item : veiculos) {
-            total += item.getSubtotal();
+        return CalculadoraPreco.emReais(calcularTotalCentavos());
+    }
+
+    // Total em centavos: diárias dos veículos × dias, com desconto para aluguéis longos.
+    // Fica em cache até mudar a lista de veículos ou os dias (a diária de cada item é a da criação).
+    public long calcularTotalCentavos() {
+        long total = totalCentavos;
+        if (total == SEM_TOTAL) {
+            long somaDiarias = 0;
+            // Soma o subtotal de todos os veículos alugados
+            for (int i = 0; i < veiculos.size(); i++) {
+                somaDiarias += veiculos.get(i).getSubtotalCentavos();
+            }
+            total = CalculadoraPreco.totalCentavos(somaDiarias, dias);
+            totalCentavos = total;
         }
-
-        total = total * dias;  // Multiplica pelo número de dias
-
-        // Aplica descontos progressivos conforme a quantidade de dias
-        if (dias > 7 && dias <= 15) {
-            total *= 0.9; // Aplica 10% de desconto para aluguéis entre 8 e 15 dias
-        } else if (dias > 15) {
-            total *= 0.8; // Aplica 20% de desconto para aluguéis acima de 15 dias
-        }
-
         return total;
     }
 
     // Calcula o valor da multa por atraso na devolução
     public double calcularMulta() {
-        if (dataDevolucao == null) return 0.0;  // Se não há data de devolução, não há multa
-
-        // Calcula a data prevista para devolução (data do aluguel + dias contratados)
-        Calendar dataPrevista = Calendar.getInstance();
-        dataPrevista.setTime(dataAluguel);
-        dataPrevista.add(Calendar.DAY_OF_MONTH, dias);
-
-        // Obtém a data real de devolução
-        Calendar dataReal = Calendar.getInstance();
-        dataReal.setTime(dataDevolucao);
-
-        // Verifica se houve atraso na devolução
-        if (dataReal.after(dataPrevista)) {
-            // Calcula a diferença em milissegundos entre as datas
-            long diff = dataReal.getTimeInMillis() - dataPrevista.getTimeInMillis();
-            // Converte milissegundos para dias de atraso
-            int diasAtraso = (int) (diff / (1000 * 60 * 60 * 24));
-            // Calcula a multa: 10% do valor total por dia de atraso
-            this.multa = diasAtraso * (calcularTotal() * 0.1);
-            return this.multa;
+        return CalculadoraPreco.emReais(calcularMultaCentavos());
+    }
+
+    // Multa em centavos: 10% do total por dia de atraso em relação a início + dias contratados
+    public long calcularMultaCentavos() {
+        if (dataDevolucao == SEM_DATA) return 0;  // Se não há data de devolução, não há multa
+
+        long diasAtraso = CalculadoraPreco.diasAtraso(dataAluguel, dias, dataDevolucao);
+        if (diasAtraso > 0) {
+            this.multaCentavos = CalculadoraPreco.multaCentavos(calcularTotalCentavos(), diasAtraso);
+            return this.multaCentavos;
+        }
+        return 0;  // Sem atraso, sem multa
+    }
+
+    // Multa rateada entre as categorias dos veículos pela diária de cada um (índice = ordinal de
+    // CategoriaVeiculo); as partes somam exatamente a multa
+    public long[] multaPorCategoriaCentavos(long multaCentavos) {
+        long somaDiarias = 0;
+        for (int i = 0; i < veiculos.size(); i++) {
+            somaDiarias += veiculos.get(i).getSubtotalCentavos();
+        }
+        long[] porCategoria = new long[CategoriaVeiculo.values().length];
+        long acumulado = 0;
+        long rateado = 0;
+        for (int i = 0; i < veiculos.size(); i++) {
+            ItemAluguel item = veiculos.get(i);
+            acumulado += item.getSubtotalCentavos();
+            long ate = CalculadoraPreco.rateioCentavos(multaCentavos, acumulado, somaDiarias);
+            porCategoria[item.getVeiculo().getCategoria().ordinal()] += ate - rateado;
+            rateado = ate;
         }
-        return 0.0;  // Sem atraso, sem multa
+        return porCategoria;
     }
 
     // Calcula o valor total final incluindo a multa (se houver)
     public double calcularTotalComMulta() {
-        return calcularTotal() + calcularMulta();
+        return CalculadoraPreco.emReais(calcularTotalCentavos() + calcularMultaCentavos());
     }
-}
\ No newline at end of file
+}
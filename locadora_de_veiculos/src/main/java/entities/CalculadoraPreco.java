@@ -0,0 +1,95 @@
+package entities;
+
+// Regras de preço em centavos (long), sem double nem Calendar: não aloca e somas de milhões
+// de aluguéis não acumulam erro de arredondamento.
+public final class CalculadoraPreco {
+
+    public static final long MILIS_POR_DIA = 24L * 60 * 60 * 1000;
+
+    // A Vector API é módulo incubado: só existe na JVM se foi pedido na linha de comando.
+    // Sem ele, PrecoVetorial nunca é carregada.
+    private static final boolean VETORIAL = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private CalculadoraPreco() {
+    }
+
+    // Diária com o multiplicador da categoria, arredondada para o centavo mais próximo
+    public static long precoDiarioCentavos(double precoBaseDiaria, CategoriaVeiculo categoria) {
+        return Math.round(precoBaseDiaria * categoria.getMultiplicadorPercentual());
+    }
+
+    // Soma das diárias × dias, com 10% de desconto de 8 a 15 dias e 20% acima de 15 dias
+    public static long totalCentavos(long somaDiariasCentavos, int dias) {
+        long total = somaDiariasCentavos * dias;
+        int percentual = percentualCobrado(dias);
+        return percentual == 100 ? total : arredondar(total * percentual, 100);
+    }
+
+    // Parte do valor cobrada depois do desconto por duração, em %
+    public static int percentualCobrado(int dias) {
+        if (dias > 7 && dias <= 15) {
+            return 90;
+        } else if (dias > 15) {
+            return 80;
+        }
+        return 100;
+    }
+
+    // Cotação em lote: destino[posicao + i] = totalCentavos(diariasCentavos[i], dias) para i < quantidade.
+    // Usa a Vector API quando a JVM sobe com --add-modules jdk.incubator.vector; senão, o laço escalar.
+    public static void totaisCentavos(long[] diariasCentavos, int quantidade, int dias, long[] destino, int posicao) {
+        int feitos = VETORIAL && dias > 0 ? PrecoVetorial.totaisCentavos(diariasCentavos, quantidade, dias,
+                percentualCobrado(dias), destino, posicao) : 0;
+        if (feitos < 0) {
+            feitos = 0;  // Valores grandes demais para a conta em double: refaz tudo no escalar
+        }
+        for (int i = feitos; i < quantidade; i++) {
+            destino[posicao + i] = totalCentavos(diariasCentavos[i], dias);
+        }
+    }
+
+    // Mesma cotação sempre no laço escalar (para comparar com a vetorizada)
+    public static void totaisCentavosEscalar(long[] diariasCentavos, int quantidade, int dias, long[] destino, int posicao) {
+        for (int i = 0; i < quantidade; i++) {
+            destino[posicao + i] = totalCentavos(diariasCentavos[i], dias);
+        }
+    }
+
+    public static boolean isVetorial() {
+        return VETORIAL;
+    }
+
+    // Dias completos de atraso: devolução depois de início + dias contratados (0 se no prazo)
+    public static long diasAtraso(long inicioMilis, int dias, long devolucaoMilis) {
+        long prevista = inicioMilis + dias * MILIS_POR_DIA;
+        if (devolucaoMilis <= prevista) {
+            return 0;
+        }
+        return (devolucaoMilis - prevista) / MILIS_POR_DIA;
+    }
+
+    // 10% do total por dia de atraso
+    public static long multaCentavos(long totalCentavos, long diasAtraso) {
+        return arredondar(totalCentavos * diasAtraso, 10);
+    }
+
+    // Parte do valor proporcional a 'acumulado' de 'total', arredondada para baixo. Rateando pelas
+    // diferenças entre acumulados seguidos (começando de 0) as partes somam exatamente o valor;
+    // com total zero o valor inteiro fica na primeira parte
+    public static long rateioCentavos(long valorCentavos, long acumulado, long total) {
+        return total == 0 ? valorCentavos : valorCentavos * acumulado / total;
+    }
+
+    public static double emReais(long centavos) {
+        return centavos / 100.0;
+    }
+
+    public static long emCentavos(double reais) {
+        return Math.round(reais * 100);
+    }
+
+    // Divisão arredondando metade para cima (valores não negativos)
+    private static long arredondar(long valor, long divisor) {
+        return (valor + divisor / 2) / divisor;
+    }
+}
@@ -8,10 +8,12 @@ public enum CategoriaVeiculo {
 
 
     private double mutiplicadorPreco;
+    private int multiplicadorPercentual;  // Mesmo multiplicador em inteiro (1.2 -> 120), para contas em centavos
     private String descricao;
 
     CategoriaVeiculo(double mutiplicadorPreco,String descricao){
         this.mutiplicadorPreco = mutiplicadorPreco;
+        this.multiplicadorPercentual = (int) Math.round(mutiplicadorPreco * 100);
         this.descricao = descricao;
     }
 
@@ -19,6 +21,10 @@ public enum CategoriaVeiculo {
         return mutiplicadorPreco;
     }
 
+    public int getMultiplicadorPercentual(){
+        return multiplicadorPercentual;
+    }
+
     public String getDescricao(){
         return descricao;
     }
@@ -1,13 +1,23 @@
 package entities;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 public class Cliente {
 
+    private static final int[] SEM_ALUGUEIS = new int[0];
+
+    // Bits do CPF compactado: 0-56 os dígitos como número, 57-61 quantos dígitos (guarda os zeros
+    // à esquerda) e 62 se veio com a máscara 000.000.000-00. Zero = não coube (fica em cpfTexto).
+    private static final long MASCARA_VALOR = (1L << 57) - 1;
+    private static final int MAXIMO_DIGITOS = 17;  // 10^17 - 1 ainda cabe em 57 bits
+    private static final long COM_MASCARA = 1L << 62;
+
     private String nome;
-    private String cpf;
+    private long cpfCompactado;
+    private String cpfTexto;  // Só para CPFs que não cabem no long (letras, outra pontuação)
     private String telefone;
-    private List<Aluguel> historicoAlugueis;
+    private int[] idsAlugueis = SEM_ALUGUEIS;  // Histórico por id; os objetos ficam no AluguelRepository
+    private int quantidadeAlugueis;
+    private int numero;  // Ordem de cadastro, dada pelo ClienteRepository (0 antes de salvar)
 
     public String getNome() {
         return nome;
@@ -17,12 +27,88 @@ public class Cliente {
         this.nome = nome;
     }
 
+    // Remontado a partir do long; volta exatamente o texto cadastrado
     public String getCpf() {
-        return cpf;
+        return cpfTexto != null ? cpfTexto : expandirCpf(cpfCompactado);
     }
 
     public void setCpf(String cpf) {
-        this.cpf = cpf;
+        this.cpfCompactado = compactarCpf(cpf);
+        this.cpfTexto = cpfCompactado == 0 ? cpf : null;
+    }
+
+    // 0 se o CPF não coube no formato compactado
+    public long getCpfCompactado() {
+        return cpfCompactado;
+    }
+
+    // O mesmo que chaveCpf(getCpf()), sem montar a String
+    public long getChaveCpf() {
+        return cpfTexto != null ? chaveCpf(cpfTexto) : cpfCompactado & MASCARA_VALOR;
+    }
+
+    // Só dígitos (até 17) ou a máscara 000.000.000-00; qualquer outro texto retorna 0
+    public static long compactarCpf(String cpf) {
+        int tamanho = cpf.length();
+        boolean mascara = tamanho == 14 && cpf.charAt(3) == '.' && cpf.charAt(7) == '.' && cpf.charAt(11) == '-';
+        long valor = 0;
+        int digitos = 0;
+        for (int i = 0; i < tamanho; i++) {
+            if (mascara && (i == 3 || i == 7 || i == 11)) {
+                continue;
+            }
+            char c = cpf.charAt(i);
+            if (c < '0' || c > '9' || ++digitos > MAXIMO_DIGITOS) {
+                return 0;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        if (digitos == 0) {
+            return 0;
+        }
+        return valor | (long) digitos << 57 | (mascara ? COM_MASCARA : 0);
+    }
+
+    public static String expandirCpf(long compactado) {
+        long valor = compactado & MASCARA_VALOR;
+        int digitos = (int) (compactado >>> 57) & 0x1F;
+        boolean mascara = (compactado & COM_MASCARA) != 0;
+        char[] texto = new char[mascara ? digitos + 3 : digitos];
+        for (int i = texto.length - 1; i >= 0; i--) {
+            if (mascara && (i == 3 || i == 7 || i == 11)) {
+                texto[i] = i == 11 ? '-' : '.';
+                continue;
+            }
+            texto[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+        return new String(texto);
+    }
+
+    // CPF como número (só os dígitos), para usar como chave sem String.
+    // Formatado ou não, o mesmo CPF dá a mesma chave.
+    public static long chaveCpf(String cpf) {
+        long chave = 0;
+        int digitos = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                chave = chave * 10 + (c - '0');
+                digitos++;
+            }
+        }
+        if (digitos == 0 || digitos > 18) {
+            return cpf.hashCode();  // Não é um CPF numérico; melhor esforço
+        }
+        return chave;
+    }
+
+    public int getNumero() {
+        return numero;
+    }
+
+    public void setNumero(int numero) {
+        this.numero = numero;
     }
 
     public String getTelefone() {
@@ -33,23 +119,45 @@ public class Cliente {
         this.telefone = telefone;
     }
 
-    public List<Aluguel> getHistoricoAlugueis() {
-        return historicoAlugueis;
+    // Campos atribuídos direto, sem o setter: subclasses não veem o objeto pela metade
+    public Cliente(String cpf, String telefone, String nome){
+        this.nome = nome;
+        this.cpfCompactado = compactarCpf(cpf);
+        this.cpfTexto = cpfCompactado == 0 ? cpf : null;
+        this.telefone = telefone;
     }
 
-    public void setHistoricoAlugueis(List<Aluguel> historicoAlugueis) {
-        this.historicoAlugueis = historicoAlugueis;
+
+    // O aluguel precisa já ter id (salvo no repositório)
+    public synchronized void adicionarAluguel(Aluguel aluguel){
+        if (aluguel.getId() == 0) {
+            throw new IllegalArgumentException("Aluguel sem id: salve no repositório antes");
+        }
+        if (quantidadeAlugueis == idsAlugueis.length) {
+            idsAlugueis = Arrays.copyOf(idsAlugueis, Math.max(4, quantidadeAlugueis + (quantidadeAlugueis >> 1)));
+        }
+        idsAlugueis[quantidadeAlugueis++] = aluguel.getId();
     }
 
-    public Cliente(String cpf, String telefone, String nome){
-        this.nome = nome;
-        this.cpf = cpf;
-        this.telefone = telefone;
-        this.historicoAlugueis = new ArrayList<>();
+    // Usado quando o aluguel sai da memória (vai para o arquivo de finalizados)
+    public synchronized void removerAluguel(Aluguel aluguel){
+        int id = aluguel.getId();
+        for (int i = 0; i < quantidadeAlugueis; i++) {
+            if (idsAlugueis[i] == id) {
+                System.arraycopy(idsAlugueis, i + 1, idsAlugueis, i, quantidadeAlugueis - i - 1);
+                quantidadeAlugueis--;
+                return;
+            }
+        }
     }
 
+    // Ids do histórico que está na memória, do mais antigo para o mais recente
+    // (AluguelRepository.listarPorCliente resolve os objetos)
+    public synchronized int[] copiarIdsAlugueis(){
+        return Arrays.copyOf(idsAlugueis, quantidadeAlugueis);
+    }
 
-    public void adicionarAluguel(Aluguel aluguel){
-        historicoAlugueis.add(aluguel);
+    public synchronized int getQuantidadeAlugueis(){
+        return quantidadeAlugueis;
     }
 }
@@ -0,0 +1,47 @@
+package entities;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Nomes de modelo compartilhados pela frota inteira: cada veículo guarda só o código (int) e
+// mil "Fiat Uno" viram uma String só. Os códigos nunca mudam nem são reaproveitados;
+// o dicionário só cresce, com um item por modelo distinto (poucos, mesmo em frotas grandes).
+public final class DicionarioModelos {
+
+    private static final Map<String, Integer> codigos = new ConcurrentHashMap<>();
+    private static volatile String[] nomes = new String[64];
+    private static int quantidade;
+
+    private DicionarioModelos() {
+    }
+
+    public static int codigo(String modelo) {
+        Integer codigo = codigos.get(modelo);
+        return codigo != null ? codigo : registrar(modelo);
+    }
+
+    private static synchronized int registrar(String modelo) {
+        Integer existente = codigos.get(modelo);
+        if (existente != null) {
+            return existente;
+        }
+        String[] atuais = nomes;
+        if (quantidade == atuais.length) {
+            atuais = Arrays.copyOf(atuais, atuais.length * 2);
+        }
+        int codigo = quantidade++;
+        atuais[codigo] = modelo;
+        nomes = atuais;  // Publica o nome antes do código ficar visível no mapa
+        codigos.put(modelo, codigo);
+        return codigo;
+    }
+
+    public static String nome(int codigo) {
+        return nomes[codigo];
+    }
+
+    public static int tamanho() {
+        return codigos.size();
+    }
+}
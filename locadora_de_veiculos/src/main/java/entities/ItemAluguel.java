@@ -2,9 +2,17 @@ package entities;
 
 public class ItemAluguel {
      private Veiculo veiculo;
+     // Diária do veículo quando o item foi criado: mudar o preço depois não mexe no aluguel
+     private final long diariaCentavos;
 
      public ItemAluguel(Veiculo veiculo){
+         this(veiculo, veiculo.getPrecoDiarioCentavos());
+     }
+
+     // Item restaurado do disco, com a diária gravada no aluguel
+     public ItemAluguel(Veiculo veiculo, long diariaCentavos){
          this.veiculo = veiculo;
+         this.diariaCentavos = diariaCentavos;
      }
 
     public Veiculo getVeiculo() {
@@ -12,7 +20,11 @@ public class ItemAluguel {
     }
 
     public double getSubtotal(){
-         return veiculo.getPrecoDiario();
+         return CalculadoraPreco.emReais(diariaCentavos);
      }
 
+    public long getSubtotalCentavos(){
+        return diariaCentavos;
+    }
+
 }
@@ -0,0 +1,13 @@
+package entities;
+
+// Notificado quando muda algo do veículo: o repositório atualiza os índices e repassa aos ouvintes
+public interface OuvinteVeiculo {
+
+    // Disponibilidade, categoria ou preço
+    void veiculoAlterado(Veiculo veiculo);
+
+    // A placa mudou: o índice por placa ainda está na chave anterior
+    void placaAlterada(Veiculo veiculo, String placaAnterior);
+
+    void modeloAlterado(Veiculo veiculo);
+}
@@ -0,0 +1,73 @@
+package entities;
+
+// Placa num int, nos dois formatos brasileiros: antigo (ABC1234 / ABC-1234) e Mercosul (ABC1D23).
+// São 3 letras, um dígito, um dígito ou letra (a posição que o Mercosul trocou) e dois dígitos,
+// numa base mista que cabe em 31 bits; um bit a mais guarda o hífen, para o texto voltar igual.
+// Zero = não é placa nesses formatos (minúsculas, outra pontuação): quem usa guarda o texto.
+public final class Placa {
+
+    public static final int INVALIDA = 0;
+
+    private Placa() {
+    }
+
+    public static int codificar(String placa) {
+        boolean hifen = placa.length() == 8 && placa.charAt(3) == '-';
+        if (placa.length() != (hifen ? 8 : 7)) {
+            return INVALIDA;
+        }
+        int base = hifen ? 1 : 0;
+        int codigo = 0;
+        for (int i = 0; i < 3; i++) {
+            int letra = placa.charAt(i) - 'A';
+            if (letra < 0 || letra >= 26) {
+                return INVALIDA;
+            }
+            codigo = codigo * 26 + letra;
+        }
+        int primeiro = digito(placa.charAt(3 + base));
+        int meio = digitoOuLetra(placa.charAt(4 + base));
+        int penultimo = digito(placa.charAt(5 + base));
+        int ultimo = digito(placa.charAt(6 + base));
+        if (primeiro < 0 || meio < 0 || penultimo < 0 || ultimo < 0 || (hifen && meio >= 10)) {
+            return INVALIDA;  // Mercosul não leva hífen
+        }
+        codigo = ((codigo * 10 + primeiro) * 36 + meio) * 100 + penultimo * 10 + ultimo;
+        return (codigo << 1 | base) + 1;
+    }
+
+    public static String decodificar(int codigo) {
+        int valor = codigo - 1;
+        boolean hifen = (valor & 1) != 0;
+        valor >>>= 1;
+        char[] texto = new char[hifen ? 8 : 7];
+        int base = hifen ? 1 : 0;
+        texto[6 + base] = (char) ('0' + valor % 10);
+        texto[5 + base] = (char) ('0' + valor / 10 % 10);
+        valor /= 100;
+        int meio = valor % 36;
+        texto[4 + base] = meio < 10 ? (char) ('0' + meio) : (char) ('A' + meio - 10);
+        valor /= 36;
+        texto[3 + base] = (char) ('0' + valor % 10);
+        valor /= 10;
+        for (int i = 2; i >= 0; i--) {
+            texto[i] = (char) ('A' + valor % 26);
+            valor /= 26;
+        }
+        if (hifen) {
+            texto[3] = '-';
+        }
+        return new String(texto);
+    }
+
+    private static int digito(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    private static int digitoOuLetra(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return 10 + c - 'A';
+        }
+        return digito(c);
+    }
+}
@@ -0,0 +1,42 @@
+package entities;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Laço vetorizado da cotação em lote (CalculadoraPreco.totaisCentavos). Só é carregada quando o
+// módulo jdk.incubator.vector está na JVM.
+// Não há divisão inteira em SIMD, então o arredondamento (total × percentual + 50) / 100 é feito
+// em double: a conta é exata enquanto o numerador fica abaixo de 2^49 (o double representa todos
+// os inteiros até 2^53, e o quociente ainda tem precisão de sobra para truncar no inteiro certo).
+final class PrecoVetorial {
+
+    private static final VectorSpecies<Long> ESPECIE = LongVector.SPECIES_PREFERRED;
+    private static final long LIMITE_EXATO = 1L << 49;
+
+    private PrecoVetorial() {
+    }
+
+    // Preenche a parte múltipla do tamanho do vetor e retorna quantos preencheu (o resto fica para
+    // o laço escalar), ou -1 se alguma diária for grande demais para a conta em double ser exata
+    static int totaisCentavos(long[] diariasCentavos, int quantidade, int dias, int percentual,
+                              long[] destino, int posicao) {
+        int limite = ESPECIE.loopBound(quantidade);
+        double fator = (double) dias * percentual;
+        LongVector maior = LongVector.zero(ESPECIE);
+        for (int i = 0; i < limite; i += ESPECIE.length()) {
+            LongVector diaria = LongVector.fromArray(ESPECIE, diariasCentavos, i);
+            maior = maior.max(diaria);
+            DoubleVector total = (DoubleVector) diaria.convert(VectorOperators.L2D, 0);
+            total = total.mul(fator).add(50).div(100);
+            // D2L trunca, o que para valores não negativos é o arredondamento para baixo da divisão
+            ((LongVector) total.convert(VectorOperators.D2L, 0)).intoArray(destino, posicao + i);
+        }
+        long maiorDiaria = maior.reduceLanes(VectorOperators.MAX);
+        if (maiorDiaria > (LIMITE_EXATO - 50) / Math.max(1, (long) dias * percentual)) {
+            return -1;
+        }
+        return limite;
+    }
+}
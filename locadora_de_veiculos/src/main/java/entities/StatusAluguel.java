@@ -4,5 +4,6 @@ package entities;
     public enum StatusAluguel {
         ATIVO,      // Aluguel em andamento
         FINALIZADO, // Devolvido sem problemas
-        CANCELADO   // Cancelado antes de usar
+        CANCELADO,  // Cancelado antes de usar
+        RESERVADO   // Agendado para uma data futura, veículo ainda não retirado
     }
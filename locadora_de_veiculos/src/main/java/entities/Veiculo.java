@@ -1,14 +1,32 @@
 package entities;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Representação compacta: modelo como código do DicionarioModelos, placa codificada num int
+// (Placa) e a diária com a categoria já calculada, refeita só quando preço base ou categoria mudam.
 public class Veiculo {
 
     private int id;
-    private String modelo;
-    private String placa;
+    private int codigoModelo;
+    private int codigoPlaca;
+    private String placaTexto;  // Só para placas fora dos formatos de Placa
     private double precoBaseDiaria;
+    private long precoDiarioCentavos;
     private CategoriaVeiculo categoria;
-    private boolean disponivel;
+    private volatile boolean disponivel;  // Alterado por CAS na reserva
     private int totalAlugueis;
+    private int filial;  // Filial onde o veículo fica (0 numa locadora de uma filial só)
+    private OuvinteVeiculo ouvinte;  // Repositório que indexa este veículo
+
+    private static final VarHandle DISPONIVEL;
+    static {
+        try {
+            DISPONIVEL = MethodHandles.lookup().findVarHandle(Veiculo.class, "disponivel", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public int getId() {
         return id;
@@ -19,19 +37,41 @@ public class Veiculo {
     }
 
     public String getModelo() {
-        return modelo;
+        return DicionarioModelos.nome(codigoModelo);
     }
 
     public void setModelo(String modelo) {
-        this.modelo = modelo;
+        int codigo = DicionarioModelos.codigo(modelo);
+        if (codigo != codigoModelo) {
+            this.codigoModelo = codigo;
+            OuvinteVeiculo atual = ouvinte;
+            if (atual != null) {
+                atual.modeloAlterado(this);
+            }
+        }
+    }
+
+    public int getCodigoModelo() {
+        return codigoModelo;
     }
 
     public String getPlaca() {
-        return placa;
+        return placaTexto != null ? placaTexto : Placa.decodificar(codigoPlaca);
     }
 
     public void setPlaca(String placa) {
-        this.placa = placa;
+        String anterior = getPlaca();
+        this.codigoPlaca = Placa.codificar(placa);
+        this.placaTexto = codigoPlaca == Placa.INVALIDA ? placa : null;
+        OuvinteVeiculo atual = ouvinte;
+        if (atual != null && !anterior.equals(getPlaca())) {
+            atual.placaAlterada(this, anterior);
+        }
+    }
+
+    // Placa.INVALIDA se a placa não está num dos formatos codificáveis
+    public int getCodigoPlaca() {
+        return codigoPlaca;
     }
 
     public double getPrecoBaseDiaria() {
@@ -39,7 +79,11 @@ public class Veiculo {
     }
 
     public void setPrecoBaseDiaria(double precoBaseDiaria) {
-        this.precoBaseDiaria = precoBaseDiaria;
+        if (this.precoBaseDiaria != precoBaseDiaria) {
+            this.precoBaseDiaria = precoBaseDiaria;
+            recalcularPreco();
+            notificarOuvinte();  // A TabelaPrecos guarda a diária de cada disponível
+        }
     }
 
     public CategoriaVeiculo getCategoria() {
@@ -47,7 +91,11 @@ public class Veiculo {
     }
 
     public void setCategoria(CategoriaVeiculo categoria) {
-        this.categoria = categoria;
+        if (this.categoria != categoria) {
+            this.categoria = categoria;
+            recalcularPreco();
+            notificarOuvinte();
+        }
     }
 
     public boolean isDisponivel() {
@@ -55,7 +103,32 @@ public class Veiculo {
     }
 
     public void setDisponivel(boolean disponivel) {
-        this.disponivel = disponivel;
+        if ((boolean) DISPONIVEL.getAndSet(this, disponivel) != disponivel) {
+            notificarOuvinte();
+        }
+    }
+
+    // Tenta reservar o veículo: só uma thread consegue passar de disponível para indisponível
+    public boolean reservar() {
+        if (DISPONIVEL.compareAndSet(this, true, false)) {
+            notificarOuvinte();
+            return true;
+        }
+        return false;
+    }
+
+    // Devolve o veículo para a frota disponível
+    public void liberar() {
+        setDisponivel(true);
+    }
+
+    public int getFilial() {
+        return filial;
+    }
+
+    // Antes de salvar: o repositório da filial é escolhido por este valor (RedeFiliais, nos benchmarks)
+    public void setFilial(int filial) {
+        this.filial = filial;
     }
 
     public int getTotalAlugueis() {
@@ -66,25 +139,43 @@ public class Veiculo {
         this.totalAlugueis = totalAlugueis;
     }
 
+    // Campos atribuídos direto, sem os setters: subclasses não veem o objeto pela metade
     public Veiculo(String modelo, String placa, double precoBaseDiaria, CategoriaVeiculo categoria){
-        this.modelo = modelo;
-        this.placa = placa;
+        this.codigoModelo = DicionarioModelos.codigo(modelo);
+        this.codigoPlaca = Placa.codificar(placa);
+        this.placaTexto = codigoPlaca == Placa.INVALIDA ? placa : null;
         this.precoBaseDiaria = precoBaseDiaria;
         this.categoria = categoria;
+        recalcularPreco();
         this.disponivel = true;
         this.totalAlugueis = 0;
     }
-    // Calcula preço COM a categoria
+    // Preço COM a categoria, o mesmo valor em centavos que é cobrado
     public double getPrecoDiario(){
-        return precoBaseDiaria * categoria.getMutiplicadorPreco();
+        return CalculadoraPreco.emReais(precoDiarioCentavos);
+    }
+    // Mesmo preço em centavos, usado nos cálculos de total e multa
+    public long getPrecoDiarioCentavos(){
+        return precoDiarioCentavos;
+    }
+
+    private void recalcularPreco(){
+        this.precoDiarioCentavos = CalculadoraPreco.precoDiarioCentavos(precoBaseDiaria, categoria);
     }
     // Incrementa quando é alugado
     public void incrementarAluguel(){
         this.totalAlugueis++;
     }
 
+    public void setOuvinte(OuvinteVeiculo ouvinte) {
+        this.ouvinte = ouvinte;
+    }
 
-
-
-
+    // Mantém os índices de disponibilidade do repositório sincronizados
+    private void notificarOuvinte(){
+        OuvinteVeiculo atual = ouvinte;
+        if (atual != null) {
+            atual.veiculoAlterado(this);
+        }
+    }
 }
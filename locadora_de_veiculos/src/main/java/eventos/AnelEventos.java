@@ -0,0 +1,266 @@
+package eventos;
+
+import entities.Aluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Anel de eventos pré-alocado (no estilo do Disruptor): os produtores escrevem nas posições
+// em sequência e cada consumidor anda no próprio ritmo, atrás do produtor, lendo em lotes.
+// Nada é alocado por evento e nenhum lock é tomado no caminho normal.
+//
+// Sequências: 'reservado' é a última posição reservada por um produtor; cada processador guarda
+// a última que já consumiu. Um produtor só reusa uma posição quando todos os consumidores já
+// passaram dela: se o mais lento estiver uma volta inteira atrás, o produtor espera
+// (contrapressão), em vez de sobrescrever evento ou crescer uma fila sem limite.
+// A reserva é por incremento atômico, então vários produtores podem publicar ao mesmo tempo;
+// cada posição publicada recebe o número da volta, e o consumidor só avança até a primeira lacuna.
+// Reservar (só o incremento) e publicar (esperar espaço, preencher, marcar) podem ser feitos em
+// momentos diferentes: o PublicadorEventos reserva dentro do lock do repositório, para a ordem
+// das sequências ser a ordem das alterações, e só espera e publica depois de soltá-lo.
+public class AnelEventos implements Closeable {
+
+    private final Evento[] eventos;
+    private final int mascara;
+    private final int bitsIndice;
+    private final AtomicIntegerArray voltaPublicada;  // Volta (sequência >>> bitsIndice) publicada em cada posição
+    private final AtomicLong reservado = new AtomicLong(-1);
+    private final EstrategiaEspera estrategia;
+    private final LongAdder esperasProdutor = new LongAdder();
+
+    private volatile ProcessadorEventos[] processadores = new ProcessadorEventos[0];
+    private volatile long minimoConsumido = -1;  // Cache do consumidor mais lento, para o produtor
+
+    // capacidade: potência de 2 (quantos eventos cabem entre o produtor e o consumidor mais lento)
+    public AnelEventos(int capacidade, EstrategiaEspera estrategia) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade deve ser potência de 2: " + capacidade);
+        }
+        this.eventos = new Evento[capacidade];
+        for (int i = 0; i < capacidade; i++) {
+            eventos[i] = new Evento();
+        }
+        this.mascara = capacidade - 1;
+        this.bitsIndice = Integer.numberOfTrailingZeros(capacidade);
+        this.voltaPublicada = new AtomicIntegerArray(capacidade);
+        for (int i = 0; i < capacidade; i++) {
+            voltaPublicada.set(i, -1);
+        }
+        this.estrategia = estrategia;
+    }
+
+    public void publicarAluguel(TipoEvento tipo, Aluguel aluguel) {
+        publicarAluguel(reservar(), tipo, aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+    }
+
+    public void publicarDisponibilidade(Veiculo veiculo, boolean disponivel) {
+        publicarDisponibilidade(reservar(), veiculo, disponivel);
+    }
+
+    // Reserva a próxima sequência sem esperar (pode ser chamado com locks). Toda sequência
+    // reservada precisa ser publicada: os consumidores param na primeira lacuna.
+    public long reservar() {
+        return reservado.incrementAndGet();
+    }
+
+    // Publica numa sequência já reservada, esperando a posição ser consumida por todos (não
+    // chamar com locks que um consumidor ou outro produtor possa precisar)
+    public void publicarAluguel(long sequencia, TipoEvento tipo, Aluguel aluguel, StatusAluguel status,
+                                long multaCentavos) {
+        aguardarEspaco(sequencia);
+        eventos[(int) sequencia & mascara].preencherAluguel(tipo, aluguel, status, multaCentavos);
+        publicar(sequencia);
+    }
+
+    public void publicarDisponibilidade(long sequencia, Veiculo veiculo, boolean disponivel) {
+        aguardarEspaco(sequencia);
+        eventos[(int) sequencia & mascara].preencherVeiculo(veiculo, disponivel);
+        publicar(sequencia);
+    }
+
+    // Espera até a posição da sequência ter sido consumida por todos na volta anterior
+    private void aguardarEspaco(long sequencia) {
+        long precisaConsumido = sequencia - eventos.length;
+        if (precisaConsumido > minimoConsumido) {
+            long minimo;
+            int tentativa = 0;
+            while (precisaConsumido > (minimo = calcularMinimoConsumido())) {
+                if (tentativa++ == 0) {
+                    esperasProdutor.increment();
+                }
+                esperarEspaco(tentativa);
+            }
+            minimoConsumido = minimo;
+        }
+    }
+
+    private static void esperarEspaco(int tentativa) {
+        if (tentativa < 100) {
+            Thread.onSpinWait();
+        } else if (tentativa < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(10_000);
+        }
+    }
+
+    private void publicar(long sequencia) {
+        voltaPublicada.set((int) sequencia & mascara, (int) (sequencia >>> bitsIndice));
+        estrategia.sinalizar();
+    }
+
+    private long calcularMinimoConsumido() {
+        ProcessadorEventos[] atuais = processadores;
+        if (atuais.length == 0) {
+            return Long.MAX_VALUE;  // Sem consumidores, nada segura o produtor
+        }
+        long minimo = Long.MAX_VALUE;
+        for (ProcessadorEventos processador : atuais) {
+            minimo = Math.min(minimo, processador.sequencia.get());
+        }
+        return minimo;
+    }
+
+    // Maior sequência publicada sem lacunas entre 'de' e 'ate'; de - 1 se 'de' ainda não foi publicada
+    private long maiorPublicada(long de, long ate) {
+        for (long sequencia = de; sequencia <= ate; sequencia++) {
+            if (voltaPublicada.get((int) sequencia & mascara) != (int) (sequencia >>> bitsIndice)) {
+                return sequencia - 1;
+            }
+        }
+        return ate;
+    }
+
+    // Registra um consumidor numa thread própria; ele recebe os eventos publicados daqui em diante
+    public synchronized ProcessadorEventos adicionarConsumidor(String nome, ConsumidorEventos consumidor) {
+        ProcessadorEventos processador = new ProcessadorEventos(nome, consumidor, reservado.get());
+        ProcessadorEventos[] novos = Arrays.copyOf(processadores, processadores.length + 1);
+        novos[novos.length - 1] = processador;
+        processadores = novos;
+        minimoConsumido = -1;
+        processador.thread.start();
+        return processador;
+    }
+
+    public long getReservado() {
+        return reservado.get();
+    }
+
+    // Eventos publicados que o consumidor mais lento ainda não processou
+    public long getPendentes() {
+        long minimo = calcularMinimoConsumido();
+        return minimo == Long.MAX_VALUE ? 0 : reservado.get() - minimo;
+    }
+
+    // Quantas publicações tiveram que esperar por espaço (anel cheio)
+    public long getEsperasProdutor() {
+        return esperasProdutor.sum();
+    }
+
+    public int getCapacidade() {
+        return eventos.length;
+    }
+
+    // Para os processadores depois de consumirem o que já foi publicado
+    @Override
+    public void close() {
+        ProcessadorEventos[] atuais = processadores;
+        for (ProcessadorEventos processador : atuais) {
+            processador.executando = false;
+        }
+        estrategia.sinalizar();
+        for (ProcessadorEventos processador : atuais) {
+            try {
+                processador.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Laço de um consumidor: lê tudo o que estiver publicado, entrega em lote e só então
+    // avança a própria sequência (uma escrita volátil por lote, não por evento)
+    public class ProcessadorEventos implements Runnable {
+
+        private final String nome;
+        private final ConsumidorEventos consumidor;
+        private final AtomicLong sequencia;
+        private final Thread thread;
+        private final LongAdder processados = new LongAdder();
+        private final LongAdder lotes = new LongAdder();
+        private final LongAdder falhas = new LongAdder();
+        private volatile boolean executando = true;
+
+        private ProcessadorEventos(String nome, ConsumidorEventos consumidor, long inicial) {
+            this.nome = nome;
+            this.consumidor = consumidor;
+            this.sequencia = new AtomicLong(inicial);
+            this.thread = Thread.ofPlatform().name("eventos-" + nome).daemon().unstarted(this);
+        }
+
+        @Override
+        public void run() {
+            long proxima = sequencia.get() + 1;
+            int tentativa = 0;
+            while (true) {
+                long disponivel = maiorPublicada(proxima, reservado.get());
+                if (disponivel < proxima) {
+                    if (!executando) {
+                        return;
+                    }
+                    estrategia.aguardar(tentativa++);
+                    continue;
+                }
+                tentativa = 0;
+                for (long atual = proxima; atual <= disponivel; atual++) {
+                    try {
+                        consumidor.aoEvento(eventos[(int) atual & mascara], atual, atual == disponivel);
+                    } catch (RuntimeException e) {
+                        // Um evento com erro não pode travar o anel para os outros consumidores
+                        falhas.increment();
+                        System.err.println("Consumidor " + nome + " falhou no evento " + atual + ": " + e);
+                    }
+                }
+                processados.add(disponivel - proxima + 1);
+                lotes.increment();
+                sequencia.setRelease(disponivel);
+                proxima = disponivel + 1;
+            }
+        }
+
+        // Espera este consumidor processar até a sequência dada (leitura dos próprios escritos)
+        public void aguardar(long alvo) {
+            int tentativa = 0;
+            while (sequencia.get() < alvo && thread.isAlive()) {
+                esperarEspaco(++tentativa);
+            }
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public long getSequencia() {
+            return sequencia.get();
+        }
+
+        public long getProcessados() {
+            return processados.sum();
+        }
+
+        public long getLotes() {
+            return lotes.sum();
+        }
+
+        public long getFalhas() {
+            return falhas.sum();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package eventos;
+
+// Processa os eventos em lotes: fimDoLote marca o último evento disponível naquela leitura do anel
+// (bom momento para descarregar o que foi acumulado). Roda sempre na thread do seu processador.
+@FunctionalInterface
+public interface ConsumidorEventos {
+
+    void aoEvento(Evento evento, long sequencia, boolean fimDoLote);
+}
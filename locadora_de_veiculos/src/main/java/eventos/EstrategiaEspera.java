@@ -0,0 +1,106 @@
+package eventos;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Como um processador espera quando o anel está vazio. É a troca entre latência e CPU:
+//   girar    - laço ocupado; menor latência, mas prende um núcleo inteiro por consumidor
+//   ceder    - gira um pouco e depois cede a CPU (Thread.yield)
+//   dormir   - gira, cede e então dorme 100 µs por vez; quase não gasta CPU parado
+//   bloquear - dorme numa Condition e o produtor acorda quem estiver esperando
+// 'tentativa' conta quantas vezes seguidas o processador não encontrou evento.
+public interface EstrategiaEspera {
+
+    void aguardar(int tentativa);
+
+    // Chamado pelo produtor depois de publicar
+    default void sinalizar() {}
+
+    static EstrategiaEspera girar() {
+        return tentativa -> Thread.onSpinWait();
+    }
+
+    static EstrategiaEspera ceder() {
+        return tentativa -> {
+            if (tentativa < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        };
+    }
+
+    static EstrategiaEspera dormir() {
+        return tentativa -> {
+            if (tentativa < 100) {
+                Thread.onSpinWait();
+            } else if (tentativa < 200) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(100_000);
+            }
+        };
+    }
+
+    static EstrategiaEspera bloquear() {
+        return new Bloqueante();
+    }
+
+    static EstrategiaEspera porNome(String nome) {
+        return switch (nome) {
+            case "girar" -> girar();
+            case "ceder" -> ceder();
+            case "dormir" -> dormir();
+            case "bloquear" -> bloquear();
+            default -> throw new IllegalArgumentException("Estratégia de espera desconhecida: " + nome);
+        };
+    }
+
+    // O produtor só paga o lock quando há alguém dormindo. Um sinal que chegue entre o consumidor
+    // ver o anel vazio e começar a dormir se perde; o timeout de 1 ms limita esse atraso.
+    final class Bloqueante implements EstrategiaEspera {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition publicado = lock.newCondition();
+        private final AtomicInteger esperando = new AtomicInteger();
+        private long geracao;
+
+        @Override
+        public void aguardar(int tentativa) {
+            if (tentativa < 100) {
+                Thread.onSpinWait();
+                return;
+            }
+            esperando.incrementAndGet();
+            lock.lock();
+            try {
+                long atual = geracao;
+                long restante = TimeUnit.MILLISECONDS.toNanos(1);
+                while (geracao == atual && restante > 0) {
+                    restante = publicado.awaitNanos(restante);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+                esperando.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void sinalizar() {
+            if (esperando.get() > 0) {
+                lock.lock();
+                try {
+                    geracao++;
+                    publicado.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
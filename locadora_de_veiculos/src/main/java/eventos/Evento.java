@@ -0,0 +1,60 @@
+package eventos;
+
+import entities.Aluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+
+// Posição do anel, reaproveitada a cada volta: publicar um evento não aloca nada.
+// O estado que muda (status, multa, disponibilidade) é copiado no momento da publicação,
+// porque o consumidor pode processar o evento depois que o objeto já mudou de novo.
+public final class Evento {
+
+    private TipoEvento tipo;
+    private Aluguel aluguel;
+    private Veiculo veiculo;
+    private StatusAluguel status;
+    private long multaCentavos;
+    private boolean disponivel;
+
+    void preencherAluguel(TipoEvento tipo, Aluguel aluguel, StatusAluguel status, long multaCentavos) {
+        this.tipo = tipo;
+        this.aluguel = aluguel;
+        this.veiculo = null;
+        this.status = status;
+        this.multaCentavos = multaCentavos;
+        this.disponivel = false;
+    }
+
+    void preencherVeiculo(Veiculo veiculo, boolean disponivel) {
+        this.tipo = TipoEvento.DISPONIBILIDADE_ALTERADA;
+        this.aluguel = null;
+        this.veiculo = veiculo;
+        this.status = null;
+        this.multaCentavos = 0;
+        this.disponivel = disponivel;
+    }
+
+    public TipoEvento getTipo() {
+        return tipo;
+    }
+
+    public Aluguel getAluguel() {
+        return aluguel;
+    }
+
+    public Veiculo getVeiculo() {
+        return veiculo;
+    }
+
+    public StatusAluguel getStatus() {
+        return status;
+    }
+
+    public long getMultaCentavos() {
+        return multaCentavos;
+    }
+
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+}
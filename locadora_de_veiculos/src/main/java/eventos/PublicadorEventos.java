@@ -0,0 +1,101 @@
+package eventos;
+
+import entities.Aluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+import repositories.OuvinteRepositorio;
+
+import java.util.Arrays;
+
+// Transforma as alterações dos repositórios em eventos no anel. Na thread da requisição fica só
+// a cópia para uma posição pré-alocada; agregados, histórico e outros consumidores rodam depois.
+//
+// As notificações chegam com o lock do repositório (ou do veículo) tomado. Ali só se reserva a
+// sequência e se guarda o estado do momento; a espera por espaço no anel (contrapressão) e a
+// publicação ficam para alteracoesConcluidas, já sem locks, para um consumidor atrasado não
+// segurar quem disputa o repositório. Reservar dentro do lock mantém a ordem dos eventos igual
+// à das alterações.
+public class PublicadorEventos implements OuvinteRepositorio {
+
+    private final AnelEventos anel;
+    private final ThreadLocal<Pendentes> pendentes = ThreadLocal.withInitial(Pendentes::new);
+
+    public PublicadorEventos(AnelEventos anel) {
+        this.anel = anel;
+    }
+
+    @Override
+    public void aluguelSalvo(Aluguel aluguel) {
+        pendentes.get().aluguel(anel.reservar(), TipoEvento.ALUGUEL_CRIADO, aluguel);
+    }
+
+    @Override
+    public void aluguelAlterado(Aluguel aluguel) {
+        pendentes.get().aluguel(anel.reservar(), aluguel.getStatus() == StatusAluguel.FINALIZADO
+                ? TipoEvento.ALUGUEL_FINALIZADO : TipoEvento.ALUGUEL_ALTERADO, aluguel);
+    }
+
+    @Override
+    public void veiculoAlterado(Veiculo veiculo) {
+        pendentes.get().veiculo(anel.reservar(), veiculo, veiculo.isDisponivel());
+    }
+
+    @Override
+    public void alteracoesConcluidas() {
+        pendentes.get().publicar(anel);
+    }
+
+    // Eventos reservados pela thread e ainda não publicados, em colunas reaproveitadas
+    // (em geral um ou dois por alteração)
+    private static final class Pendentes {
+        private long[] sequencias = new long[4];
+        private TipoEvento[] tipos = new TipoEvento[4];
+        private Object[] objetos = new Object[4];  // Aluguel ou Veiculo, conforme o tipo
+        private StatusAluguel[] status = new StatusAluguel[4];
+        private long[] multasCentavos = new long[4];
+        private boolean[] disponiveis = new boolean[4];
+        private int quantidade;
+
+        void aluguel(long sequencia, TipoEvento tipo, Aluguel aluguel) {
+            int i = proxima(sequencia, tipo, aluguel);
+            status[i] = aluguel.getStatus();
+            multasCentavos[i] = aluguel.getMultaCentavos();
+        }
+
+        void veiculo(long sequencia, Veiculo veiculo, boolean disponivel) {
+            int i = proxima(sequencia, TipoEvento.DISPONIBILIDADE_ALTERADA, veiculo);
+            disponiveis[i] = disponivel;
+        }
+
+        private int proxima(long sequencia, TipoEvento tipo, Object objeto) {
+            if (quantidade == sequencias.length) {
+                int capacidade = quantidade * 2;
+                sequencias = Arrays.copyOf(sequencias, capacidade);
+                tipos = Arrays.copyOf(tipos, capacidade);
+                objetos = Arrays.copyOf(objetos, capacidade);
+                status = Arrays.copyOf(status, capacidade);
+                multasCentavos = Arrays.copyOf(multasCentavos, capacidade);
+                disponiveis = Arrays.copyOf(disponiveis, capacidade);
+            }
+            int i = quantidade++;
+            sequencias[i] = sequencia;
+            tipos[i] = tipo;
+            objetos[i] = objeto;
+            return i;
+        }
+
+        // Na ordem das sequências; limpa as referências para não segurar aluguéis e veículos
+        void publicar(AnelEventos anel) {
+            for (int i = 0; i < quantidade; i++) {
+                if (tipos[i] == TipoEvento.DISPONIBILIDADE_ALTERADA) {
+                    anel.publicarDisponibilidade(sequencias[i], (Veiculo) objetos[i], disponiveis[i]);
+                } else {
+                    anel.publicarAluguel(sequencias[i], tipos[i], (Aluguel) objetos[i], status[i], multasCentavos[i]);
+                }
+                objetos[i] = null;
+                status[i] = null;
+            }
+            quantidade = 0;
+        }
+    }
+}
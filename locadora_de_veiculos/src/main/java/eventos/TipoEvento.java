@@ -0,0 +1,8 @@
+package eventos;
+
+public enum TipoEvento {
+    ALUGUEL_CRIADO,          // Salvo no repositório (novo ou restaurado)
+    ALUGUEL_FINALIZADO,      // Devolvido; status FINALIZADO e multa já calculada
+    ALUGUEL_ALTERADO,        // Outra troca de status (retirada de reserva, cancelamento)
+    DISPONIBILIDADE_ALTERADA // Veículo ficou disponível ou indisponível
+}
@@ -0,0 +1,158 @@
+package importacao;
+
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.Veiculo;
+import repositories.ClienteRepository;
+import repositories.VeiculoRepository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Importação em massa de frota e clientes a partir de CSV.
+//   veículos: modelo,placa,precoBaseDiaria,categoria   (categoria = ECONOMICO, INTERMEDIARIO, SUV ou LUXO)
+//   clientes: cpf,nome,telefone
+// Linhas com placa/CPF já cadastrados (no repositório ou antes no mesmo arquivo) são rejeitadas.
+// As linhas válidas são gravadas em lotes; só um lote fica em memória por vez.
+public class ImportadorCsv {
+
+    public static final int LOTE_PADRAO = 10_000;
+
+    private final VeiculoRepository veiculoRepository;
+    private final ClienteRepository clienteRepository;
+    private final char separador;
+    private final int tamanhoLote;
+
+    public ImportadorCsv(VeiculoRepository veiculoRepository, ClienteRepository clienteRepository) {
+        this(veiculoRepository, clienteRepository, ',', LOTE_PADRAO);
+    }
+
+    public ImportadorCsv(VeiculoRepository veiculoRepository, ClienteRepository clienteRepository,
+                         char separador, int tamanhoLote) {
+        this.veiculoRepository = veiculoRepository;
+        this.clienteRepository = clienteRepository;
+        this.separador = separador;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public ResultadoImportacao importarVeiculos(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            return importarVeiculos(canal);
+        }
+    }
+
+    public ResultadoImportacao importarVeiculos(ReadableByteChannel canal) throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        List<Veiculo> lote = new ArrayList<>(tamanhoLote);
+        Set<String> placasNoLote = new HashSet<>();
+        CategoriaVeiculo[] categorias = CategoriaVeiculo.values();
+        long inicio = System.nanoTime();
+
+        new LeitorCsv(separador).ler(canal, linha -> {
+            if (linha.numeroLinha() == 1 && linha.igualIgnorandoCaixa(0, "modelo")) {
+                return;  // Cabeçalho
+            }
+            resultado.linhaLida();
+            try {
+                String placa = linha.texto(1);
+                if (placa.isEmpty() || linha.vazio(0)) {
+                    resultado.rejeitar(linha.numeroLinha(), "modelo e placa são obrigatórios");
+                    return;
+                }
+                CategoriaVeiculo categoria = null;
+                for (CategoriaVeiculo candidata : categorias) {
+                    if (linha.igualIgnorandoCaixa(3, candidata.name())) {
+                        categoria = candidata;
+                        break;
+                    }
+                }
+                if (categoria == null) {
+                    resultado.rejeitar(linha.numeroLinha(), "categoria inválida: " + linha.texto(3));
+                    return;
+                }
+                double preco = linha.centavos(2) / 100.0;
+                String modelo = linha.texto(0);
+                // Só com a linha inteira lida: uma linha rejeitada não pode tomar a placa de outra
+                if (veiculoRepository.buscarPorPlaca(placa) != null || !placasNoLote.add(placa)) {
+                    resultado.rejeitar(linha.numeroLinha(), "placa já cadastrada: " + placa);
+                    return;
+                }
+                lote.add(new Veiculo(modelo, placa, preco, categoria));
+            } catch (IllegalArgumentException e) {
+                resultado.rejeitar(linha.numeroLinha(), e.getMessage());
+                return;
+            }
+            if (lote.size() == tamanhoLote) {
+                gravarVeiculos(lote, placasNoLote, resultado);
+            }
+        });
+        gravarVeiculos(lote, placasNoLote, resultado);
+        resultado.duracao(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    public ResultadoImportacao importarClientes(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            return importarClientes(canal);
+        }
+    }
+
+    public ResultadoImportacao importarClientes(ReadableByteChannel canal) throws IOException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        List<Cliente> lote = new ArrayList<>(tamanhoLote);
+        Set<String> cpfsNoLote = new HashSet<>();
+        long inicio = System.nanoTime();
+
+        new LeitorCsv(separador).ler(canal, linha -> {
+            if (linha.numeroLinha() == 1 && linha.igualIgnorandoCaixa(0, "cpf")) {
+                return;  // Cabeçalho
+            }
+            resultado.linhaLida();
+            try {
+                String cpf = linha.texto(0);
+                if (cpf.isEmpty() || linha.vazio(1)) {
+                    resultado.rejeitar(linha.numeroLinha(), "cpf e nome são obrigatórios");
+                    return;
+                }
+                String nome = linha.texto(1);
+                String telefone = linha.vazio(2) ? "" : linha.texto(2);
+                if (clienteRepository.BuscarPorCpf(cpf) != null || !cpfsNoLote.add(cpf)) {
+                    resultado.rejeitar(linha.numeroLinha(), "CPF já cadastrado: " + cpf);
+                    return;
+                }
+                lote.add(new Cliente(cpf, telefone, nome));
+            } catch (IllegalArgumentException e) {
+                resultado.rejeitar(linha.numeroLinha(), e.getMessage());
+                return;
+            }
+            if (lote.size() == tamanhoLote) {
+                gravarClientes(lote, cpfsNoLote, resultado);
+            }
+        });
+        gravarClientes(lote, cpfsNoLote, resultado);
+        resultado.duracao(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    // Depois de gravado, o índice do repositório passa a cobrir as duplicatas do lote
+    private void gravarVeiculos(List<Veiculo> lote, Set<String> placasNoLote, ResultadoImportacao resultado) {
+        veiculoRepository.salvarTodos(lote);
+        resultado.importados(lote.size());
+        lote.clear();
+        placasNoLote.clear();
+    }
+
+    private void gravarClientes(List<Cliente> lote, Set<String> cpfsNoLote, ResultadoImportacao resultado) {
+        clienteRepository.salvarTodos(lote);
+        resultado.importados(lote.size());
+        lote.clear();
+        cpfsNoLote.clear();
+    }
+}
@@ -0,0 +1,246 @@
+package importacao;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Leitor de CSV em streaming sobre um canal NIO. Os campos da linha atual ficam como
+// intervalos de bytes no buffer: só vira String o campo que o chamador pedir como texto,
+// e números são convertidos direto dos bytes. A memória usada não depende do tamanho do arquivo.
+public class LeitorCsv {
+
+    private static final int TAMANHO_BUFFER = 256 * 1024;
+    private static final int TAMANHO_MAXIMO_LINHA = 1 << 20;
+
+    public interface ProcessadorLinha {
+        void linha(LeitorCsv linha);
+    }
+
+    private final byte separador;
+    private ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_BUFFER);
+    private byte[] bytes = buffer.array();
+    private int[] inicio = new int[16];
+    private int[] fim = new int[16];
+    private boolean[] escapado = new boolean[16];  // Campo entre aspas com "" dentro
+    private int campos;
+    private long numeroLinha;
+
+    public LeitorCsv(char separador) {
+        this.separador = (byte) separador;
+    }
+
+    // Lê o canal até o fim chamando o processador uma vez por linha não vazia
+    public void ler(ReadableByteChannel canal, ProcessadorLinha processador) throws IOException {
+        buffer.clear();
+        buffer.flip();
+        boolean fimDoArquivo = false;
+        while (true) {
+            int fimLinha = procurarFimLinha();
+            if (fimLinha < 0) {
+                if (fimDoArquivo) {
+                    if (buffer.hasRemaining()) {
+                        processar(buffer.limit(), processador);  // Última linha sem quebra
+                    }
+                    return;
+                }
+                fimDoArquivo = !carregar(canal);
+                continue;
+            }
+            processar(fimLinha, processador);
+            buffer.position(fimLinha + 1);
+        }
+    }
+
+    public int campos() {
+        return campos;
+    }
+
+    public long numeroLinha() {
+        return numeroLinha;
+    }
+
+    public boolean vazio(int campo) {
+        return campo >= campos || fim[campo] <= inicio[campo];
+    }
+
+    public String texto(int campo) {
+        verificar(campo);
+        String valor = new String(bytes, inicio[campo], fim[campo] - inicio[campo], StandardCharsets.UTF_8);
+        return escapado[campo] ? valor.replace("\"\"", "\"") : valor;
+    }
+
+    // Inteiro sem sinal, ignorando qualquer caractere que não seja dígito (ex.: CPF com pontos)
+    public long digitos(int campo) {
+        verificar(campo);
+        long valor = 0;
+        int quantidade = 0;
+        for (int i = inicio[campo]; i < fim[campo]; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                valor = valor * 10 + (b - '0');
+                quantidade++;
+            }
+        }
+        if (quantidade == 0) {
+            throw new IllegalArgumentException("Campo " + (campo + 1) + " sem dígitos");
+        }
+        return valor;
+    }
+
+    // Valor monetário ("50", "50.5", "50,00") convertido para centavos
+    public long centavos(int campo) {
+        verificar(campo);
+        long valor = 0;
+        int casasDecimais = -1;
+        for (int i = inicio[campo]; i < fim[campo]; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                if (casasDecimais >= 2) {
+                    continue;  // Além do centavo, trunca
+                }
+                valor = valor * 10 + (b - '0');
+                if (casasDecimais >= 0) {
+                    casasDecimais++;
+                }
+            } else if ((b == '.' || b == ',') && casasDecimais < 0) {
+                casasDecimais = 0;
+            } else {
+                throw new IllegalArgumentException("Valor inválido no campo " + (campo + 1) + ": " + texto(campo));
+            }
+        }
+        for (int i = Math.max(casasDecimais, 0); i < 2; i++) {
+            valor *= 10;
+        }
+        return valor;
+    }
+
+    // Compara o campo com um texto ASCII sem diferenciar maiúsculas, sem criar String
+    public boolean igualIgnorandoCaixa(int campo, String ascii) {
+        verificar(campo);
+        int tamanho = fim[campo] - inicio[campo];
+        if (tamanho != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            int a = bytes[inicio[campo] + i] | 0x20;
+            int b = ascii.charAt(i) | 0x20;
+            if (a != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void verificar(int campo) {
+        if (campo >= campos) {
+            throw new IllegalArgumentException("Linha com " + campos + " campos, esperado pelo menos " + (campo + 1));
+        }
+    }
+
+    // Posição do '\n' que termina a linha atual, respeitando aspas; -1 se ainda não chegou
+    private int procurarFimLinha() {
+        boolean entreAspas = false;
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            byte b = bytes[i];
+            if (b == '"') {
+                entreAspas = !entreAspas;
+            } else if (b == '\n' && !entreAspas) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean carregar(ReadableByteChannel canal) throws IOException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            // Linha maior que o buffer
+            if (buffer.capacity() >= TAMANHO_MAXIMO_LINHA) {
+                throw new IOException("Linha " + (numeroLinha + 1) + " maior que " + TAMANHO_MAXIMO_LINHA + " bytes");
+            }
+            ByteBuffer maior = ByteBuffer.allocate(buffer.capacity() * 2);
+            maior.put(buffer);
+            maior.flip();
+            buffer = maior;
+            bytes = maior.array();
+        }
+        buffer.compact();
+        int lidos = canal.read(buffer);
+        buffer.flip();
+        return lidos >= 0;
+    }
+
+    // Separa os campos de [posição, fimLinha) e entrega ao processador
+    private void processar(int fimLinha, ProcessadorLinha processador) {
+        numeroLinha++;
+        int limite = fimLinha;
+        if (limite > buffer.position() && bytes[limite - 1] == '\r') {
+            limite--;
+        }
+        if (limite == buffer.position()) {
+            return;  // Linha vazia
+        }
+        campos = 0;
+        int i = buffer.position();
+        while (true) {
+            if (campos == inicio.length) {
+                crescer();
+            }
+            if (i < limite && bytes[i] == '"') {
+                int j = i + 1;
+                boolean temEscape = false;
+                while (j < limite) {
+                    if (bytes[j] == '"') {
+                        if (j + 1 < limite && bytes[j + 1] == '"') {
+                            temEscape = true;
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                inicio[campos] = i + 1;
+                fim[campos] = j;
+                escapado[campos] = temEscape;
+                i = j + 1;
+                while (i < limite && bytes[i] != separador) {
+                    i++;
+                }
+            } else {
+                int j = i;
+                while (j < limite && bytes[j] != separador) {
+                    j++;
+                }
+                inicio[campos] = i;
+                fim[campos] = j;
+                escapado[campos] = false;
+                aparar(campos);
+                i = j;
+            }
+            campos++;
+            if (i >= limite) {
+                break;
+            }
+            i++;  // Pula o separador
+        }
+        processador.linha(this);
+    }
+
+    private void aparar(int campo) {
+        while (inicio[campo] < fim[campo] && bytes[inicio[campo]] == ' ') {
+            inicio[campo]++;
+        }
+        while (fim[campo] > inicio[campo] && bytes[fim[campo] - 1] == ' ') {
+            fim[campo]--;
+        }
+    }
+
+    private void crescer() {
+        int tamanho = inicio.length * 2;
+        inicio = Arrays.copyOf(inicio, tamanho);
+        fim = Arrays.copyOf(fim, tamanho);
+        escapado = Arrays.copyOf(escapado, tamanho);
+    }
+}
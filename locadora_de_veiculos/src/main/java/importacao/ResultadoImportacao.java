@@ -0,0 +1,66 @@
+package importacao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Resumo de uma importação: quantas linhas entraram, quantas foram rejeitadas e em quanto tempo
+public class ResultadoImportacao {
+
+    private static final int MAXIMO_ERROS_GUARDADOS = 20;
+
+    private long linhas;
+    private long importados;
+    private long rejeitados;
+    private long duracaoNanos;
+    private final List<String> erros = new ArrayList<>();
+
+    void linhaLida() {
+        linhas++;
+    }
+
+    void importados(int quantidade) {
+        importados += quantidade;
+    }
+
+    // Guarda só os primeiros erros, para a memória não crescer com o arquivo
+    void rejeitar(long numeroLinha, String motivo) {
+        rejeitados++;
+        if (erros.size() < MAXIMO_ERROS_GUARDADOS) {
+            erros.add("Linha " + numeroLinha + ": " + motivo);
+        }
+    }
+
+    void duracao(long nanos) {
+        this.duracaoNanos = nanos;
+    }
+
+    public long getLinhas() {
+        return linhas;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    public long getRejeitados() {
+        return rejeitados;
+    }
+
+    public long getDuracaoNanos() {
+        return duracaoNanos;
+    }
+
+    public List<String> getErros() {
+        return erros;
+    }
+
+    public double getLinhasPorSegundo() {
+        return duracaoNanos == 0 ? 0 : linhas * 1_000_000_000.0 / duracaoNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d linhas, %d importados, %d rejeitados em %d ms (%.0f linhas/s)",
+                linhas, importados, rejeitados, duracaoNanos / 1_000_000, getLinhasPorSegundo());
+    }
+}
@@ -0,0 +1,106 @@
+package metricas;
+
+import entities.Aluguel;
+import entities.Cliente;
+import entities.ItemAluguel;
+import repositories.AluguelRepository;
+import services.AluguelService;
+import services.VeiculoService;
+
+import java.util.Date;
+import java.util.List;
+
+// AluguelService medido: cada operação grava latência e resultado no registro de métricas
+public class AluguelServiceInstrumentado extends AluguelService {
+
+    private final MetricasOperacao criar;
+    private final MetricasOperacao agendar;
+    private final MetricasOperacao retirar;
+    private final MetricasOperacao cancelar;
+    private final MetricasOperacao finalizar;
+    private final MetricasOperacao listarAtivos;
+
+    public AluguelServiceInstrumentado(AluguelRepository aluguelRepository, VeiculoService veiculoService,
+                                       RegistroMetricas metricas) {
+        super(aluguelRepository, veiculoService);
+        criar = metricas.operacao("aluguel.criar");
+        agendar = metricas.operacao("aluguel.agendar");
+        retirar = metricas.operacao("aluguel.retirar");
+        cancelar = metricas.operacao("aluguel.cancelar");
+        finalizar = metricas.operacao("aluguel.finalizar");
+        listarAtivos = metricas.operacao("aluguel.listarAtivos");
+    }
+
+    @Override
+    public Aluguel criarAluguel(Cliente cliente, int dias, List<ItemAluguel> veiculos) {
+        long inicio = System.nanoTime();
+        Aluguel aluguel = null;
+        try {
+            aluguel = super.criarAluguel(cliente, dias, veiculos);
+            return aluguel;
+        } finally {
+            criar.registrar(System.nanoTime() - inicio, aluguel != null);
+        }
+    }
+
+    @Override
+    public Aluguel criarAluguel(Cliente cliente, Date inicioReserva, int dias, List<ItemAluguel> veiculos) {
+        long inicio = System.nanoTime();
+        Aluguel aluguel = null;
+        try {
+            aluguel = super.criarAluguel(cliente, inicioReserva, dias, veiculos);
+            return aluguel;
+        } finally {
+            agendar.registrar(System.nanoTime() - inicio, aluguel != null);
+        }
+    }
+
+    @Override
+    public boolean retirarAluguel(int aluguelId) {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            sucesso = super.retirarAluguel(aluguelId);
+            return sucesso;
+        } finally {
+            retirar.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public boolean cancelarReserva(int aluguelId) {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            sucesso = super.cancelarReserva(aluguelId);
+            return sucesso;
+        } finally {
+            cancelar.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public boolean finalizarAluguel(int aluguelId) {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            sucesso = super.finalizarAluguel(aluguelId);
+            return sucesso;
+        } finally {
+            finalizar.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public List<Aluguel> listarAlugueisAtivos() {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            List<Aluguel> ativos = super.listarAlugueisAtivos();
+            sucesso = true;
+            return ativos;
+        } finally {
+            listarAtivos.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package metricas;
+
+import entities.Cliente;
+import repositories.ClienteRepository;
+import services.ClienteService;
+
+import java.util.List;
+
+// ClienteService medido. Busca sem resultado não conta como erro, só exceção.
+public class ClienteServiceInstrumentado extends ClienteService {
+
+    private final MetricasOperacao cadastrar;
+    private final MetricasOperacao buscar;
+    private final MetricasOperacao buscarNome;
+
+    public ClienteServiceInstrumentado(ClienteRepository clienteRepository, RegistroMetricas metricas) {
+        super(clienteRepository);
+        cadastrar = metricas.operacao("cliente.cadastrar");
+        buscar = metricas.operacao("cliente.buscarPorCpf");
+        buscarNome = metricas.operacao("cliente.buscarPorNome");
+    }
+
+    @Override
+    public void cadastraCliente(String cpf, String nome, String telefone) {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            super.cadastraCliente(cpf, nome, telefone);
+            sucesso = true;
+        } finally {
+            cadastrar.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    // CPF repetido não é erro de operação: sucesso só depende de não haver exceção
+    @Override
+    public Cliente cadastrarClienteNovo(String cpf, String nome, String telefone) {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            Cliente cliente = super.cadastrarClienteNovo(cpf, nome, telefone);
+            sucesso = true;
+            return cliente;
+        } finally {
+            cadastrar.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public Cliente buscarPorCpf(String cpf) {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            Cliente cliente = super.buscarPorCpf(cpf);
+            sucesso = true;
+            return cliente;
+        } finally {
+            buscar.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public List<Cliente> buscarPorNome(String nome, int limite) {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            List<Cliente> clientes = super.buscarPorNome(nome, limite);
+            sucesso = true;
+            return clientes;
+        } finally {
+            buscarNome.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Histograma de latências em nanossegundos com faixa dinâmica alta (1 ns até horas), no estilo HDR:
+// faixas em potências de 2, cada uma dividida em 32 baldes lineares, então o erro relativo de
+// qualquer percentil fica abaixo de ~3%. Gravar é um incremento atômico num array fixo: sem lock
+// e sem alocação. A leitura percorre os baldes sem parar quem grava (o retrato pode ser levemente
+// inconsistente entre contagem e baldes, o que não importa para percentis).
+public class HistogramaLatencia {
+
+    private static final int BITS_SUB_BALDE = 5;
+    private static final int SUB_BALDES = 1 << BITS_SUB_BALDE;
+    private static final int BALDES = (64 - BITS_SUB_BALDE) * SUB_BALDES;
+
+    private final AtomicLongArray baldes = new AtomicLongArray(BALDES);
+    private final LongAdder contagem = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public void gravar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        baldes.getAndIncrement(indice(nanos));
+        contagem.increment();
+        soma.add(nanos);
+        long atual = maximo.get();
+        while (nanos > atual && !maximo.compareAndSet(atual, nanos)) {
+            atual = maximo.get();
+        }
+    }
+
+    public long getContagem() {
+        return contagem.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double getMedia() {
+        long n = contagem.sum();
+        return n == 0 ? 0 : (double) soma.sum() / n;
+    }
+
+    // Valor (limite superior do balde) abaixo do qual estão 'percentil'% das gravações
+    public long percentil(double percentil) {
+        long[] copia = new long[BALDES];
+        long total = 0;
+        for (int i = 0; i < BALDES; i++) {
+            copia[i] = baldes.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < BALDES; i++) {
+            acumulado += copia[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    public void zerar() {
+        for (int i = 0; i < BALDES; i++) {
+            baldes.set(i, 0);
+        }
+        contagem.reset();
+        soma.reset();
+        maximo.set(0);
+    }
+
+    // Até 63 o valor é o próprio índice; acima disso, (expoente, 5 bits seguintes ao mais alto)
+    static int indice(long valor) {
+        if (valor < 2 * SUB_BALDES) {
+            return (int) valor;
+        }
+        int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUB_BALDE;
+        return deslocamento * SUB_BALDES + (int) (valor >>> deslocamento);
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUB_BALDES) {
+            return indice;
+        }
+        int deslocamento = indice / SUB_BALDES - 1;
+        long mantissa = indice - (long) deslocamento * SUB_BALDES;
+        return ((mantissa + 1) << deslocamento) - 1;
+    }
+}
@@ -0,0 +1,68 @@
+package metricas;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Valores lidos na hora (tamanho dos repositórios, aluguéis ativos...). Como o conjunto
+// só é conhecido em tempo de execução, o MBean é dinâmico: um atributo por indicador.
+class Indicadores implements DynamicMBean {
+
+    private final Map<String, LongSupplier> indicadores;
+
+    Indicadores(Map<String, LongSupplier> indicadores) {
+        this.indicadores = indicadores;
+    }
+
+    @Override
+    public Object getAttribute(String nome) throws AttributeNotFoundException {
+        LongSupplier indicador = indicadores.get(nome);
+        if (indicador == null) {
+            throw new AttributeNotFoundException(nome);
+        }
+        return indicador.getAsLong();
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Indicadores são somente leitura");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] nomes) {
+        AttributeList lista = new AttributeList();
+        for (String nome : nomes) {
+            LongSupplier indicador = indicadores.get(nome);
+            if (indicador != null) {
+                lista.add(new Attribute(nome, indicador.getAsLong()));
+            }
+        }
+        return lista;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String acao, Object[] parametros, String[] assinatura) {
+        throw new UnsupportedOperationException(acao);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] atributos = indicadores.keySet().stream()
+                .sorted()
+                .map(nome -> new MBeanAttributeInfo(nome, "long", nome, true, false, false))
+                .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "Indicadores da locadora", atributos,
+                null, new MBeanOperationInfo[0], null);
+    }
+}
@@ -0,0 +1,72 @@
+package metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Contagem, erros e latência de uma operação. Erro é exceção ou operação recusada
+// (por exemplo, aluguel com veículo já reservado); a latência entra nos dois casos.
+public class MetricasOperacao implements MetricasOperacaoMBean {
+
+    private final String nome;
+    private final HistogramaLatencia latencia = new HistogramaLatencia();
+    private final LongAdder erros = new LongAdder();
+
+    MetricasOperacao(String nome) {
+        this.nome = nome;
+    }
+
+    public void registrar(long nanos, boolean sucesso) {
+        latencia.gravar(nanos);
+        if (!sucesso) {
+            erros.increment();
+        }
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public HistogramaLatencia getLatencia() {
+        return latencia;
+    }
+
+    @Override
+    public long getContagem() {
+        return latencia.getContagem();
+    }
+
+    @Override
+    public long getErros() {
+        return erros.sum();
+    }
+
+    @Override
+    public double getMediaMicros() {
+        return latencia.getMedia() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencia.percentil(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencia.percentil(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencia.percentil(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaximoMicros() {
+        return latencia.getMaximo() / 1000.0;
+    }
+
+    @Override
+    public void zerar() {
+        latencia.zerar();
+        erros.reset();
+    }
+}
@@ -0,0 +1,21 @@
+package metricas;
+
+// Atributos publicados no JMX para cada operação (latências em microssegundos)
+public interface MetricasOperacaoMBean {
+
+    long getContagem();
+
+    long getErros();
+
+    double getMediaMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaximoMicros();
+
+    void zerar();
+}
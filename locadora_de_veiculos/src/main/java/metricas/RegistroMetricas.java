@@ -0,0 +1,74 @@
+package metricas;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Ponto central das métricas: uma MetricasOperacao por nome de operação e os indicadores
+// (valores lidos sob demanda). Pode publicar tudo no JMX e gravar um retrato em arquivo.
+public class RegistroMetricas {
+
+    public static final String DOMINIO_JMX = "locadora";
+
+    private final Map<String, MetricasOperacao> operacoes = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> indicadores = new ConcurrentHashMap<>();
+
+    public MetricasOperacao operacao(String nome) {
+        return operacoes.computeIfAbsent(nome, MetricasOperacao::new);
+    }
+
+    public void indicador(String nome, LongSupplier valor) {
+        indicadores.put(nome, valor);
+    }
+
+    // Publica as operações já criadas e os indicadores (locadora:tipo=Operacao,nome=...)
+    public void publicarJmx() {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (MetricasOperacao operacao : operacoes.values()) {
+                ObjectName nome = new ObjectName(DOMINIO_JMX + ":tipo=Operacao,nome=" + operacao.getNome());
+                if (!servidor.isRegistered(nome)) {
+                    servidor.registerMBean(operacao, nome);
+                }
+            }
+            ObjectName nome = new ObjectName(DOMINIO_JMX + ":tipo=Indicadores");
+            if (!servidor.isRegistered(nome)) {
+                servidor.registerMBean(new Indicadores(indicadores), nome);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao publicar métricas no JMX", e);
+        }
+    }
+
+    public void despejar(Path arquivo) throws IOException {
+        try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            saida.write(formatar());
+        }
+    }
+
+    public String formatar() {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format("%-40s %10s %8s %10s %10s %10s %10s %10s%n", "operacao", "contagem", "erros",
+                "media(us)", "p50(us)", "p99(us)", "p999(us)", "max(us)"));
+        for (MetricasOperacao operacao : new TreeMap<>(operacoes).values()) {
+            texto.append(String.format("%-40s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n", operacao.getNome(),
+                    operacao.getContagem(), operacao.getErros(), operacao.getMediaMicros(),
+                    operacao.getP50Micros(), operacao.getP99Micros(), operacao.getP999Micros(),
+                    operacao.getMaximoMicros()));
+        }
+        for (Map.Entry<String, LongSupplier> indicador : new TreeMap<>(indicadores).entrySet()) {
+            texto.append(String.format("%-40s %10d%n", indicador.getKey(), indicador.getValue().getAsLong()));
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package metricas;
+
+import eventos.AnelEventos;
+import repositories.AluguelRepository;
+import repositories.VeiculoRepository;
+import services.RelatorioService;
+
+import java.util.Date;
+
+// RelatorioService medido: tempo de cálculo e impressão de cada relatório
+public class RelatorioServiceInstrumentado extends RelatorioService {
+
+    private final MetricasOperacao faturamento;
+    private final MetricasOperacao veiculosPopulares;
+    private final MetricasOperacao porCategoria;
+    private final MetricasOperacao clientesFieis;
+    private final MetricasOperacao periodo;
+
+    public RelatorioServiceInstrumentado(AluguelRepository aluguelRepo, VeiculoRepository veiculoRepo,
+                                         RegistroMetricas metricas) {
+        this(aluguelRepo, veiculoRepo, null, metricas);
+    }
+
+    public RelatorioServiceInstrumentado(AluguelRepository aluguelRepo, VeiculoRepository veiculoRepo,
+                                         AnelEventos anel, RegistroMetricas metricas) {
+        super(aluguelRepo, veiculoRepo, false, anel);
+        faturamento = metricas.operacao("relatorio.faturamento");
+        veiculosPopulares = metricas.operacao("relatorio.veiculosPopulares");
+        porCategoria = metricas.operacao("relatorio.porCategoria");
+        clientesFieis = metricas.operacao("relatorio.clientesFieis");
+        periodo = metricas.operacao("relatorio.periodo");
+    }
+
+    @Override
+    public void gerarRelatorioFaturamento() {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            super.gerarRelatorioFaturamento();
+            sucesso = true;
+        } finally {
+            faturamento.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public void gerarRelatorioVeiculosPopulares() {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            super.gerarRelatorioVeiculosPopulares();
+            sucesso = true;
+        } finally {
+            veiculosPopulares.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public void gerarRelatorioPorCategoria() {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            super.gerarRelatorioPorCategoria();
+            sucesso = true;
+        } finally {
+            porCategoria.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public void gerarRealatorioClienteFies() {
+        long inicio = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            super.gerarRealatorioClienteFies();
+            sucesso = true;
+        } finally {
+            clientesFieis.registrar(System.nanoTime() - inicio, sucesso);
+        }
+    }
+
+    @Override
+    public void gerarRelatorioPeriodo(Date inicio, Date fim) {
+        long comeco = System.nanoTime();
+        boolean sucesso = false;
+        try {
+            super.gerarRelatorioPeriodo(inicio, fim);
+            sucesso = true;
+        } finally {
+            periodo.registrar(System.nanoTime() - comeco, sucesso);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package persistencia;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+import repositories.AluguelRepository;
+import repositories.ArquivoAlugueis;
+import repositories.ClienteRepository;
+import repositories.OuvinteRepositorio;
+import repositories.VeiculoRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Modo durável dos repositórios: toda alteração vira um registro no WriteAheadLog.
+// Na inicialização carrega o último snapshot e reaplica os segmentos de log posteriores a ele.
+public class PersistenciaDuravel implements OuvinteRepositorio, Closeable {
+
+    private static final byte VEICULO_SALVO = 1;
+    private static final byte VEICULO_ALTERADO = 2;  // Só em logs antigos: alterações agora gravam VEICULO_SALVO
+    private static final byte CLIENTE_SALVO = 3;
+    private static final byte ALUGUEL_SALVO_SEM_DIARIAS = 4;  // Só em logs antigos: itens sem a diária
+    private static final byte ALUGUEL_ALTERADO = 5;
+    private static final byte FIM_SNAPSHOT = 6;
+    private static final byte ALUGUEL_SALVO = 7;
+
+    private final Path diretorio;
+    private final VeiculoRepository veiculoRepository;
+    private final ClienteRepository clienteRepository;
+    private final AluguelRepository aluguelRepository;
+    private final WriteAheadLog log;
+    private final ArquivoAlugueis arquivo;
+    private final boolean esperarDisco;
+    private final ThreadLocal<ByteBuffer> rascunho = ThreadLocal.withInitial(() -> ByteBuffer.allocate(64 * 1024));
+    // Posição do log que a thread ainda precisa ver no disco (esperada em alteracoesConcluidas)
+    private final ThreadLocal<long[]> pendente = ThreadLocal.withInitial(() -> new long[1]);
+
+    private long registrosReaplicados;
+
+    // Abre o diretório, restaura o estado nos repositórios (vazios) e passa a registrar as alterações.
+    // Com esperarDisco, cada operação só retorna depois do fsync que a inclui (esperado já fora
+    // dos locks do repositório).
+    // Os aluguéis finalizados vão para o arquivo mapeado em <diretorio>/arquivo a cada snapshot;
+    // eles não voltam para a memória na restauração.
+    public static PersistenciaDuravel abrir(Path diretorio, VeiculoRepository veiculoRepository,
+                                            ClienteRepository clienteRepository,
+                                            AluguelRepository aluguelRepository,
+                                            boolean esperarDisco) throws IOException {
+        Files.createDirectories(diretorio);
+        ArquivoAlugueis arquivo = ArquivoAlugueis.abrir(diretorio.resolve("arquivo"), clienteRepository,
+                veiculoRepository);
+        aluguelRepository.usarArquivo(arquivo);
+        Restauracao restauracao = new Restauracao(veiculoRepository, clienteRepository, aluguelRepository);
+
+        List<Long> snapshots = WriteAheadLog.listarNumeros(diretorio, "snapshot-", ".snap");
+        long primeiroSegmento = 0;
+        if (!snapshots.isEmpty()) {
+            primeiroSegmento = snapshots.get(snapshots.size() - 1);
+            WriteAheadLog.percorrer(arquivoSnapshot(diretorio, primeiroSegmento), restauracao);
+            if (!restauracao.snapshotCompleto) {
+                throw new IOException("Snapshot incompleto: " + arquivoSnapshot(diretorio, primeiroSegmento));
+            }
+        }
+        long ultimoSegmento = primeiroSegmento;
+        for (long segmento : WriteAheadLog.listarSegmentos(diretorio)) {
+            if (segmento >= primeiroSegmento) {
+                WriteAheadLog.percorrer(WriteAheadLog.arquivoSegmento(diretorio, segmento), restauracao);
+            }
+            ultimoSegmento = Math.max(ultimoSegmento, segmento);
+        }
+
+        // Sempre começa um segmento novo, para não continuar depois de um fim corrompido
+        WriteAheadLog log = new WriteAheadLog(diretorio, ultimoSegmento + 1);
+        PersistenciaDuravel persistencia = new PersistenciaDuravel(diretorio, veiculoRepository,
+                clienteRepository, aluguelRepository, log, arquivo, esperarDisco);
+        persistencia.registrosReaplicados = restauracao.registros;
+        veiculoRepository.adicionarOuvinte(persistencia);
+        clienteRepository.adicionarOuvinte(persistencia);
+        aluguelRepository.adicionarOuvinte(persistencia);
+        return persistencia;
+    }
+
+    private PersistenciaDuravel(Path diretorio, VeiculoRepository veiculoRepository,
+                                ClienteRepository clienteRepository, AluguelRepository aluguelRepository,
+                                WriteAheadLog log, ArquivoAlugueis arquivo, boolean esperarDisco) {
+        this.diretorio = diretorio;
+        this.veiculoRepository = veiculoRepository;
+        this.clienteRepository = clienteRepository;
+        this.aluguelRepository = aluguelRepository;
+        this.log = log;
+        this.arquivo = arquivo;
+        this.esperarDisco = esperarDisco;
+    }
+
+    public long getRegistrosReaplicados() {
+        return registrosReaplicados;
+    }
+
+    @Override
+    public void veiculoSalvo(Veiculo veiculo) {
+        registrar(VEICULO_SALVO, codificarVeiculo(rascunho(), veiculo));
+    }
+
+    // O veículo inteiro: preço, placa e modelo também chegam por aqui
+    @Override
+    public void veiculoAlterado(Veiculo veiculo) {
+        registrar(VEICULO_SALVO, codificarVeiculo(rascunho(), veiculo));
+    }
+
+    @Override
+    public void clienteSalvo(Cliente cliente) {
+        registrar(CLIENTE_SALVO, codificarCliente(rascunho(), cliente));
+    }
+
+    @Override
+    public void aluguelSalvo(Aluguel aluguel) {
+        registrar(ALUGUEL_SALVO, codificarAluguel(rascunho(), aluguel));
+    }
+
+    @Override
+    public void aluguelAlterado(Aluguel aluguel) {
+        ByteBuffer dados = rascunho();
+        dados.putInt(aluguel.getId());
+        registrar(ALUGUEL_ALTERADO, codificarEstadoAluguel(dados, aluguel));
+    }
+
+    @Override
+    public void alteracoesConcluidas() {
+        if (esperarDisco) {
+            long[] posicao = pendente.get();
+            if (posicao[0] > 0) {
+                long alvo = posicao[0];
+                posicao[0] = 0;
+                log.sincronizar(alvo);
+            }
+        }
+    }
+
+    // Ainda sob o lock do repositório: só acrescenta, para o log ficar na ordem das alterações
+    private void registrar(byte tipo, ByteBuffer dados) {
+        dados.flip();
+        long posicao = log.anexar(tipo, dados);
+        if (esperarDisco) {
+            long[] atual = pendente.get();
+            atual[0] = Math.max(atual[0], posicao);
+        }
+    }
+
+    private ByteBuffer rascunho() {
+        ByteBuffer buffer = rascunho.get();
+        buffer.clear();
+        return buffer;
+    }
+
+    // Grava o estado atual num snapshot e apaga os segmentos que ele torna desnecessários.
+    // As escritas continuam durante o snapshot: elas vão para o segmento novo, que é reaplicado
+    // por cima do snapshot na próxima inicialização (os registros reaplicam estado, são idempotentes).
+    // Antes, os finalizados vão para o arquivo, que é sincronizado: o snapshot só leva o resto.
+    public synchronized void gravarSnapshot() throws IOException {
+        aluguelRepository.arquivarFinalizados();
+        arquivo.sincronizar();
+        long segmento = log.rotacionar();
+        Path temporario = diretorio.resolve(String.format("snapshot-%08d.tmp", segmento));
+        CRC32C crc = new CRC32C();
+        ByteBuffer saida = ByteBuffer.allocateDirect(1 << 20);
+        ByteBuffer dados = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Aluguéis primeiro: todo cliente e veículo citado por eles já estará nas listas seguintes
+            List<Aluguel> alugueis = aluguelRepository.listarTodos();
+            List<Cliente> clientes = clienteRepository.listarTodos();
+            List<Veiculo> veiculos = veiculoRepository.listarTodos();
+            for (Veiculo veiculo : veiculos) {
+                dados.clear();
+                gravarNoSnapshot(canal, saida, VEICULO_SALVO, codificarVeiculo(dados, veiculo), crc);
+            }
+            for (Cliente cliente : clientes) {
+                dados.clear();
+                gravarNoSnapshot(canal, saida, CLIENTE_SALVO, codificarCliente(dados, cliente), crc);
+            }
+            for (Aluguel aluguel : alugueis) {
+                dados.clear();
+                gravarNoSnapshot(canal, saida, ALUGUEL_SALVO, codificarAluguel(dados, aluguel), crc);
+            }
+            dados.clear();
+            gravarNoSnapshot(canal, saida, FIM_SNAPSHOT, dados, crc);
+            saida.flip();
+            while (saida.hasRemaining()) {
+                canal.write(saida);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, arquivoSnapshot(diretorio, segmento), StandardCopyOption.ATOMIC_MOVE);
+
+        for (long antigo : WriteAheadLog.listarSegmentos(diretorio)) {
+            if (antigo < segmento) {
+                Files.deleteIfExists(WriteAheadLog.arquivoSegmento(diretorio, antigo));
+            }
+        }
+        for (long antigo : WriteAheadLog.listarNumeros(diretorio, "snapshot-", ".snap")) {
+            if (antigo < segmento) {
+                Files.deleteIfExists(arquivoSnapshot(diretorio, antigo));
+            }
+        }
+    }
+
+    private static void gravarNoSnapshot(FileChannel canal, ByteBuffer saida, byte tipo,
+                                         ByteBuffer dados, CRC32C crc) throws IOException {
+        dados.flip();
+        if (saida.remaining() < WriteAheadLog.CABECALHO + dados.remaining()) {
+            saida.flip();
+            while (saida.hasRemaining()) {
+                canal.write(saida);
+            }
+            saida.clear();
+        }
+        WriteAheadLog.enquadrar(saida, tipo, dados, crc);
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+        arquivo.close();
+    }
+
+    private static Path arquivoSnapshot(Path diretorio, long segmento) {
+        return diretorio.resolve(String.format("snapshot-%08d.snap", segmento));
+    }
+
+    // Codificação dos registros
+
+    private static ByteBuffer codificarVeiculo(ByteBuffer dados, Veiculo veiculo) {
+        dados.putInt(veiculo.getId());
+        putString(dados, veiculo.getModelo());
+        putString(dados, veiculo.getPlaca());
+        dados.putDouble(veiculo.getPrecoBaseDiaria());
+        dados.put((byte) veiculo.getCategoria().ordinal());
+        dados.put((byte) (veiculo.isDisponivel() ? 1 : 0));
+        return dados;
+    }
+
+    private static ByteBuffer codificarCliente(ByteBuffer dados, Cliente cliente) {
+        putString(dados, cliente.getCpf());
+        putString(dados, cliente.getNome());
+        putString(dados, cliente.getTelefone());
+        return dados;
+    }
+
+    private static ByteBuffer codificarAluguel(ByteBuffer dados, Aluguel aluguel) {
+        dados.putInt(aluguel.getId());
+        putString(dados, aluguel.getCliente().getCpf());
+        dados.putInt(aluguel.getDias());
+        dados.putLong(aluguel.getDataAluguelMilis());
+        List<ItemAluguel> itens = aluguel.getVeiculos();
+        dados.putInt(itens.size());
+        for (ItemAluguel item : itens) {
+            dados.putInt(item.getVeiculo().getId());
+            dados.putLong(item.getSubtotalCentavos());
+        }
+        return codificarEstadoAluguel(dados, aluguel);
+    }
+
+    // Parte mutável do aluguel (status, devolução e multa)
+    private static ByteBuffer codificarEstadoAluguel(ByteBuffer dados, Aluguel aluguel) {
+        dados.put((byte) aluguel.getStatus().ordinal());
+        dados.putLong(aluguel.getDataDevolucaoMilis());
+        dados.putLong(aluguel.getMultaCentavos());
+        return dados;
+    }
+
+    private static void putString(ByteBuffer dados, String valor) {
+        byte[] bytes = valor == null ? new byte[0] : valor.getBytes(StandardCharsets.UTF_8);
+        dados.putShort((short) bytes.length);
+        dados.put(bytes);
+    }
+
+    private static String getString(ByteBuffer dados) {
+        int tamanho = dados.getShort() & 0xFFFF;
+        String valor = new String(dados.array(), dados.arrayOffset() + dados.position(), tamanho,
+                StandardCharsets.UTF_8);
+        dados.position(dados.position() + tamanho);
+        return valor;
+    }
+
+    // Reaplica registros nos repositórios. Roda antes de abrir() registrar o ouvinte,
+    // então nada do que é reaplicado volta para o log.
+    private static class Restauracao implements WriteAheadLog.LeitorRegistro {
+
+        private final VeiculoRepository veiculoRepository;
+        private final ClienteRepository clienteRepository;
+        private final AluguelRepository aluguelRepository;
+        private final byte[] bytes = new byte[64 * 1024];
+        private boolean snapshotCompleto;
+        private long registros;
+
+        Restauracao(VeiculoRepository veiculoRepository, ClienteRepository clienteRepository,
+                    AluguelRepository aluguelRepository) {
+            this.veiculoRepository = veiculoRepository;
+            this.clienteRepository = clienteRepository;
+            this.aluguelRepository = aluguelRepository;
+        }
+
+        @Override
+        public void registro(byte tipo, ByteBuffer direto) {
+            // Copia para um array para decodificar as strings sem alocar buffers intermediários
+            int tamanho = direto.remaining();
+            ByteBuffer dados = ByteBuffer.wrap(tamanho <= bytes.length ? bytes : new byte[tamanho], 0, tamanho);
+            direto.get(dados.array(), 0, tamanho);
+            registros++;
+            switch (tipo) {
+                case VEICULO_SALVO -> restaurarVeiculo(dados);
+                case VEICULO_ALTERADO -> {
+                    Veiculo veiculo = veiculoRepository.buscarPorId(dados.getInt());
+                    if (veiculo != null) {
+                        veiculo.setDisponivel(dados.get() == 1);
+                        veiculo.setCategoria(CategoriaVeiculo.values()[dados.get()]);
+                    }
+                }
+                case CLIENTE_SALVO -> restaurarCliente(dados);
+                case ALUGUEL_SALVO -> restaurarAluguel(dados, true);
+                case ALUGUEL_SALVO_SEM_DIARIAS -> restaurarAluguel(dados, false);
+                case ALUGUEL_ALTERADO -> {
+                    int id = dados.getInt();
+                    Aluguel aluguel = aluguelRepository.estaArquivado(id) ? null : aluguelRepository.buscarPorId(id);
+                    if (aluguel != null) {
+                        aplicarAlteracao(aluguel, dados);
+                    }
+                }
+                case FIM_SNAPSHOT -> snapshotCompleto = true;
+                default -> throw new IllegalStateException("Tipo de registro desconhecido: " + tipo);
+            }
+        }
+
+        private void restaurarVeiculo(ByteBuffer dados) {
+            int id = dados.getInt();
+            String modelo = getString(dados);
+            String placa = getString(dados);
+            double preco = dados.getDouble();
+            CategoriaVeiculo categoria = CategoriaVeiculo.values()[dados.get()];
+            boolean disponivel = dados.get() == 1;
+
+            Veiculo veiculo = veiculoRepository.buscarPorId(id);
+            if (veiculo == null) {
+                veiculo = new Veiculo(modelo, placa, preco, categoria);
+                veiculo.setId(id);
+            } else {
+                veiculo.setModelo(modelo);
+                veiculo.setPlaca(placa);
+                veiculo.setPrecoBaseDiaria(preco);
+                veiculo.setCategoria(categoria);
+            }
+            veiculo.setDisponivel(disponivel);
+            veiculoRepository.salvar(veiculo);
+        }
+
+        private void restaurarCliente(ByteBuffer dados) {
+            String cpf = getString(dados);
+            String nome = getString(dados);
+            String telefone = getString(dados);
+            Cliente cliente = clienteRepository.BuscarPorCpf(cpf);
+            if (cliente == null) {
+                clienteRepository.salvar(new Cliente(cpf, telefone, nome));
+            } else {
+                cliente.setNome(nome);
+                cliente.setTelefone(telefone);
+            }
+        }
+
+        // Logs antigos não têm a diária dos itens: fica a diária atual do veículo
+        private void restaurarAluguel(ByteBuffer dados, boolean comDiarias) {
+            int id = dados.getInt();
+            if (aluguelRepository.estaArquivado(id) || aluguelRepository.buscarPorId(id) != null) {
+                return; // Já veio do arquivo ou do snapshot
+            }
+            String cpf = getString(dados);
+            Cliente cliente = clienteRepository.BuscarPorCpf(cpf);
+            if (cliente == null) {
+                throw new IllegalStateException("Aluguel " + id + " referencia cliente inexistente: " + cpf);
+            }
+            Aluguel aluguel = new Aluguel(cliente, dados.getInt());
+            aluguel.setId(id);
+            aluguel.setDataAluguel(new Date(dados.getLong()));
+            int quantidade = dados.getInt();
+            for (int i = 0; i < quantidade; i++) {
+                Veiculo veiculo = veiculoRepository.buscarPorId(dados.getInt());
+                if (veiculo == null) {
+                    throw new IllegalStateException("Aluguel " + id + " referencia veículo inexistente");
+                }
+                aluguel.adicionarVeiculo(comDiarias ? new ItemAluguel(veiculo, dados.getLong()) : new ItemAluguel(veiculo));
+            }
+            aplicarAlteracao(aluguel, dados);
+            aluguelRepository.salvar(aluguel);
+            cliente.adicionarAluguel(aluguel);
+        }
+
+        private void aplicarAlteracao(Aluguel aluguel, ByteBuffer dados) {
+            StatusAluguel status = StatusAluguel.values()[dados.get()];
+            long devolucao = dados.getLong();
+            aluguel.setDataDevolucao(devolucao < 0 ? null : new Date(devolucao));
+            aluguel.setMultaCentavos(dados.getLong());
+            if (aluguelRepository.buscarPorId(aluguel.getId()) == aluguel) {
+                aluguelRepository.atualizarStatus(aluguel, status);
+            } else {
+                aluguel.setStatus(status);
+            }
+        }
+    }
+}
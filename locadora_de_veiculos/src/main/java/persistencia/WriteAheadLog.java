@@ -0,0 +1,329 @@
+package persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Log de escrita antecipada, só de acréscimo, dividido em segmentos (wal-00000001.log, ...).
+// Cada registro é [tamanho][crc][tipo][dados]. As threads que escrevem só copiam o registro
+// para um buffer em memória; uma thread gravadora escreve o buffer acumulado e faz um único
+// fsync para todos eles (group commit). Quem precisa de durabilidade espera pela posição.
+// Locks explícitos (e não synchronized/wait): uma virtual thread esperando o disco solta a
+// thread do sistema em vez de ficar presa a ela.
+public class WriteAheadLog implements Closeable {
+
+    static final int CABECALHO = 4 + 4 + 1;
+    private static final int CAPACIDADE_BUFFER = 1 << 20;
+    // Maior registro aceito (tipo + dados). Na leitura, um tamanho acima disso é lixo de um fim cortado
+    static final int MAXIMO_REGISTRO = 16 << 20;
+
+    private final Path diretorio;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition mudou = lock.newCondition();  // Buffer trocado, posição durável ou fechamento
+    private final Thread gravador;
+
+    private FileChannel canal;  // Só a thread gravadora e rotacionar() usam, sob lockCanal
+    private final ReentrantLock lockCanal = new ReentrantLock();
+    private long segmento;
+
+    private ByteBuffer ativo = ByteBuffer.allocateDirect(CAPACIDADE_BUFFER);
+    private ByteBuffer emEscrita = ByteBuffer.allocateDirect(CAPACIDADE_BUFFER);
+    private final CRC32C crc = new CRC32C();
+    private long posicaoEscrita;   // Bytes já acrescentados (protegido por lock)
+    private long posicaoDuravel;   // Bytes já gravados com fsync (protegido por lock)
+    private boolean fechado;
+    private IOException falha;
+
+    public WriteAheadLog(Path diretorio, long segmento) throws IOException {
+        this.diretorio = diretorio;
+        this.segmento = segmento;
+        Files.createDirectories(diretorio);
+        this.canal = abrirSegmento(segmento);
+        this.gravador = new Thread(this::gravar, "wal-gravador");
+        this.gravador.setDaemon(true);
+        this.gravador.start();
+    }
+
+    // Acrescenta um registro e retorna a posição que precisa ficar durável para ele
+    public long anexar(byte tipo, ByteBuffer dados) {
+        if (dados.remaining() + 1 > MAXIMO_REGISTRO) {
+            throw new IllegalArgumentException("Registro de " + dados.remaining() + " bytes passa do máximo do log");
+        }
+        int tamanho = CABECALHO + dados.remaining();
+        lock.lock();
+        try {
+            verificarAberto();
+            while (ativo.remaining() < tamanho) {
+                if (ativo.position() == 0) {
+                    // Registro maior que o buffer inteiro
+                    ativo = ByteBuffer.allocateDirect(Math.max(tamanho, ativo.capacity() * 2));
+                    break;
+                }
+                mudou.signalAll();
+                aguardar();
+                verificarAberto();
+            }
+            enquadrar(ativo, tipo, dados, crc);
+            posicaoEscrita += tamanho;
+            mudou.signalAll();
+            return posicaoEscrita;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bloqueia até que tudo até 'posicao' esteja no disco
+    public void sincronizar(long posicao) {
+        lock.lock();
+        try {
+            while (posicaoDuravel < posicao && falha == null && !fechado) {
+                aguardar();
+            }
+            if (falha != null) {
+                throw new UncheckedIOException("Falha ao gravar o log", falha);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Fecha o segmento atual e passa a escrever no próximo. Retorna o número do novo segmento.
+    public long rotacionar() throws IOException {
+        sincronizar(posicaoEscrita());
+        lockCanal.lock();
+        try {
+            canal.force(false);
+            canal.close();
+            segmento++;
+            canal = abrirSegmento(segmento);
+            return segmento;
+        } finally {
+            lockCanal.unlock();
+        }
+    }
+
+    public long getSegmento() {
+        lockCanal.lock();
+        try {
+            return segmento;
+        } finally {
+            lockCanal.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sincronizar(posicaoEscrita());
+        lock.lock();
+        try {
+            fechado = true;
+            mudou.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            gravador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lockCanal.lock();
+        try {
+            canal.close();
+        } finally {
+            lockCanal.unlock();
+        }
+    }
+
+    private long posicaoEscrita() {
+        lock.lock();
+        try {
+            return posicaoEscrita;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void gravar() {
+        while (true) {
+            long alvo;
+            lock.lock();
+            try {
+                while (ativo.position() == 0 && !fechado) {
+                    aguardar();
+                }
+                if (ativo.position() == 0) {
+                    return;
+                }
+                // Troca os buffers: quem chegar agora acumula para o próximo fsync
+                ByteBuffer cheio = ativo;
+                ativo = emEscrita;
+                emEscrita = cheio;
+                alvo = posicaoEscrita;
+                mudou.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                emEscrita.flip();
+                lockCanal.lock();
+                try {
+                    while (emEscrita.hasRemaining()) {
+                        canal.write(emEscrita);
+                    }
+                    canal.force(false);
+                } finally {
+                    lockCanal.unlock();
+                }
+                emEscrita.clear();
+            } catch (IOException e) {
+                lock.lock();
+                try {
+                    falha = e;
+                    fechado = true;
+                    mudou.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try {
+                posicaoDuravel = alvo;
+                mudou.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void verificarAberto() {
+        if (falha != null) {
+            throw new UncheckedIOException("Falha ao gravar o log", falha);
+        }
+        if (fechado) {
+            throw new IllegalStateException("Log fechado");
+        }
+    }
+
+    // Com o lock
+    private void aguardar() {
+        try {
+            mudou.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando o log", e);
+        }
+    }
+
+    private FileChannel abrirSegmento(long numero) throws IOException {
+        return FileChannel.open(arquivoSegmento(diretorio, numero),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Formato comum ao log e ao snapshot
+    static void enquadrar(ByteBuffer destino, byte tipo, ByteBuffer dados, CRC32C crc) {
+        int inicioDados = dados.position();
+        crc.reset();
+        crc.update(tipo);
+        crc.update(dados);
+        dados.position(inicioDados);
+        destino.putInt(dados.remaining() + 1);
+        destino.putInt((int) crc.getValue());
+        destino.put(tipo);
+        destino.put(dados);
+    }
+
+    public interface LeitorRegistro {
+        void registro(byte tipo, ByteBuffer dados);
+    }
+
+    // Lê os registros em ordem, parando no primeiro registro incompleto ou corrompido
+    // (o fim de um segmento que estava sendo escrito numa queda). Retorna quantos leu.
+    public static long percorrer(Path arquivo, LeitorRegistro leitor) throws IOException {
+        long lidos = 0;
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CAPACIDADE_BUFFER);
+        try (FileChannel entrada = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            buffer.limit(0);
+            while (true) {
+                if (buffer.remaining() < 8 && !carregar(entrada, buffer)) {
+                    return lidos;
+                }
+                if (buffer.remaining() < 8) {
+                    return lidos;
+                }
+                int tamanho = buffer.getInt(buffer.position());
+                int esperado = buffer.getInt(buffer.position() + 4);
+                // Bytes do arquivo a partir deste registro: um tamanho que não cabe neles (ou acima
+                // do máximo) é de um registro cortado, e nada é alocado para ele
+                long restantes = entrada.size() - entrada.position() + buffer.remaining();
+                if (tamanho <= 0 || tamanho > MAXIMO_REGISTRO || tamanho + 8L > restantes) {
+                    return lidos;
+                }
+                if (buffer.capacity() < tamanho + 8) {
+                    ByteBuffer maior = ByteBuffer.allocateDirect(tamanho + 8);
+                    maior.put(buffer);
+                    maior.flip();
+                    buffer = maior;
+                }
+                while (buffer.remaining() < tamanho + 8) {
+                    if (!carregar(entrada, buffer)) {
+                        return lidos;
+                    }
+                }
+                int inicio = buffer.position() + 8;
+                ByteBuffer registro = buffer.slice(inicio, tamanho);
+                crc.reset();
+                crc.update(registro);
+                if ((int) crc.getValue() != esperado) {
+                    return lidos;
+                }
+                leitor.registro(buffer.get(inicio), buffer.slice(inicio + 1, tamanho - 1));
+                buffer.position(inicio + tamanho);
+                lidos++;
+            }
+        }
+    }
+
+    private static boolean carregar(FileChannel entrada, ByteBuffer buffer) throws IOException {
+        buffer.compact();
+        int lidos = entrada.read(buffer);
+        buffer.flip();
+        return lidos > 0;
+    }
+
+    static Path arquivoSegmento(Path diretorio, long numero) {
+        return diretorio.resolve(String.format("wal-%08d.log", numero));
+    }
+
+    // Números dos segmentos existentes, em ordem
+    static List<Long> listarSegmentos(Path diretorio) throws IOException {
+        return listarNumeros(diretorio, "wal-", ".log");
+    }
+
+    static List<Long> listarNumeros(Path diretorio, String prefixo, String sufixo) throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        if (!Files.isDirectory(diretorio)) {
+            return numeros;
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(prefixo) && n.endsWith(sufixo))
+                    .forEach(n -> numeros.add(Long.parseLong(
+                            n.substring(prefixo.length(), n.length() - sufixo.length()))));
+        }
+        numeros.sort(null);
+        return numeros;
+    }
+}
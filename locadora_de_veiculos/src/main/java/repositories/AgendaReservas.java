@@ -0,0 +1,256 @@
+package repositories;
+
+import entities.Aluguel;
+import entities.CalculadoraPreco;
+import entities.CategoriaVeiculo;
+import entities.ItemAluguel;
+import entities.Veiculo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Calendário de reservas da frota. Cada veículo tem seus períodos ordenados pelo dia de início
+// (sem sobreposição), o que deixa a checagem de conflito em O(log n). Para a consulta
+// "quais veículos da categoria estão livres de X a Y" há também um bitset por dia com os
+// veículos ocupados: a consulta é um AND/OR de palavras de 64 bits, sem olhar aluguel por aluguel.
+// Dias são contados desde 1970 (UTC); um período vai de inicio (inclusive) a fim (exclusive).
+// Os períodos de um veículo e os bits dele nos dias mudam juntos, sob o lock do veículo
+// (PeriodosVeiculo); os bitsets, compartilhados entre veículos, ficam também sob o lock da agenda.
+public class AgendaReservas implements OuvinteRepositorio {
+
+    // Até quantos dias à frente se aceita reservar
+    public static final int ANTECEDENCIA_MAXIMA_DIAS = 730;
+    // Duração máxima de um aluguel; cada dia reservado ocupa uma palavra no bitset do dia
+    public static final int DURACAO_MAXIMA_DIAS = 365;
+
+    private final VeiculoRepository veiculoRepository;
+    private final IndicePorId<PeriodosVeiculo> porVeiculo = new IndicePorId<>();
+
+    // Protegidos pelo lock da agenda
+    private final Map<Integer, long[]> ocupadosPorDia = new HashMap<>();
+    private final Map<CategoriaVeiculo, long[]> veiculosPorCategoria = new EnumMap<>(CategoriaVeiculo.class);
+
+    public AgendaReservas(VeiculoRepository veiculoRepository) {
+        this.veiculoRepository = veiculoRepository;
+        for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+            veiculosPorCategoria.put(categoria, new long[0]);
+        }
+        veiculoRepository.adicionarOuvinte(this);
+        for (Veiculo veiculo : veiculoRepository.listarTodos()) {
+            veiculoSalvo(veiculo);
+        }
+    }
+
+    public static int dia(long milis) {
+        return (int) Math.floorDiv(milis, CalculadoraPreco.MILIS_POR_DIA);
+    }
+
+    // Período pedido por um cliente (reserva nova ou consulta): de 1 a DURACAO_MAXIMA_DIAS dias,
+    // começando de hoje até ANTECEDENCIA_MAXIMA_DIAS à frente. Aluguéis já existentes (restaurados do disco) podem ter
+    // começado antes e não passam por aqui.
+    public static void validarPeriodo(long inicioMilis, int dias) {
+        if (dias <= 0 || dias > DURACAO_MAXIMA_DIAS) {
+            throw new IllegalArgumentException("dias deve estar entre 1 e " + DURACAO_MAXIMA_DIAS + ": " + dias);
+        }
+        int hoje = dia(System.currentTimeMillis());
+        if (dia(inicioMilis) < hoje) {
+            throw new IllegalArgumentException("o período não pode começar no passado");
+        }
+        if (dia(inicioMilis) > hoje + ANTECEDENCIA_MAXIMA_DIAS) {
+            throw new IllegalArgumentException("o período deve começar em até " + ANTECEDENCIA_MAXIMA_DIAS + " dias");
+        }
+    }
+
+    // Reserva o período do aluguel (dataAluguel + dias) em todos os veículos, ou em nenhum.
+    // Mesmo esquema do reservarTodos: reserva um a um e desfaz os anteriores se algum conflitar.
+    public boolean reservar(Aluguel aluguel, List<ItemAluguel> itens) {
+        if (aluguel.getDias() <= 0) {
+            throw new IllegalArgumentException("dias deve ser positivo: " + aluguel.getDias());
+        }
+        int inicio = dia(aluguel.getDataAluguelMilis());
+        int fim = inicio + aluguel.getDias();
+        for (int i = 0; i < itens.size(); i++) {
+            if (!reservar(itens.get(i).getVeiculo().getId(), inicio, fim, aluguel)) {
+                for (int j = i - 1; j >= 0; j--) {
+                    int id = itens.get(j).getVeiculo().getId();
+                    remover(porVeiculo.buscar(id), id, inicio, fim, aluguel);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Retira o período do aluguel da agenda (devolução ou cancelamento); os dias voltam a ficar livres
+    public void liberar(Aluguel aluguel) {
+        int inicio = dia(aluguel.getDataAluguelMilis());
+        int fim = inicio + aluguel.getDias();
+        for (ItemAluguel item : aluguel.getVeiculos()) {
+            int id = item.getVeiculo().getId();
+            PeriodosVeiculo periodos = porVeiculo.buscar(id);
+            if (periodos != null) {
+                remover(periodos, id, inicio, fim, aluguel);
+            }
+        }
+    }
+
+    private boolean reservar(int veiculoId, int inicio, int fim, Aluguel aluguel) {
+        PeriodosVeiculo periodos = periodos(veiculoId);
+        synchronized (periodos) {
+            if (!periodos.reservar(inicio, fim, aluguel)) {
+                return false;
+            }
+            marcar(veiculoId, inicio, fim, true);
+            return true;
+        }
+    }
+
+    private void remover(PeriodosVeiculo periodos, int veiculoId, int inicio, int fim, Aluguel aluguel) {
+        synchronized (periodos) {
+            if (periodos.remover(inicio, aluguel)) {
+                marcar(veiculoId, inicio, fim, false);
+            }
+        }
+    }
+
+    public boolean estaLivre(int veiculoId, int inicio, int fim) {
+        PeriodosVeiculo periodos = porVeiculo.buscar(veiculoId);
+        return periodos == null || periodos.estaLivre(inicio, fim);
+    }
+
+    // Veículos da categoria sem nenhuma reserva em [inicio, fim), em ordem de id
+    public List<Veiculo> listarLivres(CategoriaVeiculo categoria, int inicio, int fim) {
+        long[] livres;
+        synchronized (this) {
+            livres = veiculosPorCategoria.get(categoria).clone();
+            for (int dia = inicio; dia < fim; dia++) {
+                long[] ocupados = ocupadosPorDia.get(dia);
+                if (ocupados == null) {
+                    continue;
+                }
+                int palavras = Math.min(livres.length, ocupados.length);
+                for (int i = 0; i < palavras; i++) {
+                    livres[i] &= ~ocupados[i];
+                }
+            }
+        }
+        List<Veiculo> resultado = new ArrayList<>();
+        for (int i = 0; i < livres.length; i++) {
+            long palavra = livres[i];
+            while (palavra != 0) {
+                int id = (i << 6) + Long.numberOfTrailingZeros(palavra);
+                palavra &= palavra - 1;
+                Veiculo veiculo = veiculoRepository.buscarPorId(id);
+                if (veiculo != null) {
+                    resultado.add(veiculo);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // Descarta os bitsets de dias que já passaram (os períodos por veículo continuam)
+    public synchronized void descartarAntesDe(int dia) {
+        ocupadosPorDia.keySet().removeIf(d -> d < dia);
+    }
+
+    @Override
+    public void veiculoSalvo(Veiculo veiculo) {
+        atualizarCategoria(veiculo);
+    }
+
+    @Override
+    public void veiculoAlterado(Veiculo veiculo) {
+        atualizarCategoria(veiculo);
+    }
+
+    private synchronized void atualizarCategoria(Veiculo veiculo) {
+        int id = veiculo.getId();
+        if (testar(veiculosPorCategoria.get(veiculo.getCategoria()), id)) {
+            return;  // Só mudou a disponibilidade
+        }
+        for (Map.Entry<CategoriaVeiculo, long[]> entrada : veiculosPorCategoria.entrySet()) {
+            long[] bits = entrada.getValue();
+            if (entrada.getKey() == veiculo.getCategoria()) {
+                bits = garantir(bits, id);
+                bits[id >>> 6] |= 1L << id;
+                entrada.setValue(bits);
+            } else if (testar(bits, id)) {
+                bits[id >>> 6] &= ~(1L << id);
+            }
+        }
+    }
+
+    // Chamado com o lock do veículo (ordem dos locks: veículo, depois agenda)
+    private synchronized void marcar(int id, int inicio, int fim, boolean ocupado) {
+        for (int dia = inicio; dia < fim; dia++) {
+            long[] bits = ocupadosPorDia.get(dia);
+            if (ocupado) {
+                bits = garantir(bits == null ? new long[0] : bits, id);
+                bits[id >>> 6] |= 1L << id;
+                ocupadosPorDia.put(dia, bits);
+            } else if (bits != null && testar(bits, id)) {
+                bits[id >>> 6] &= ~(1L << id);
+            }
+        }
+    }
+
+    private PeriodosVeiculo periodos(int veiculoId) {
+        PeriodosVeiculo periodos = porVeiculo.buscar(veiculoId);
+        if (periodos == null) {
+            synchronized (porVeiculo) {
+                periodos = porVeiculo.buscar(veiculoId);
+                if (periodos == null) {
+                    periodos = new PeriodosVeiculo();
+                    porVeiculo.colocar(veiculoId, periodos);
+                }
+            }
+        }
+        return periodos;
+    }
+
+    private static boolean testar(long[] bits, int id) {
+        int palavra = id >>> 6;
+        return palavra < bits.length && (bits[palavra] & (1L << id)) != 0;
+    }
+
+    private static long[] garantir(long[] bits, int id) {
+        int palavras = (id >>> 6) + 1;
+        return bits.length >= palavras ? bits : Arrays.copyOf(bits, Math.max(palavras, bits.length * 2));
+    }
+
+    // Períodos de um veículo, indexados pelo dia de início. Como não se sobrepõem,
+    // basta olhar o último período que começa antes do fim pedido.
+    private static class PeriodosVeiculo {
+        private final TreeMap<Integer, Periodo> porInicio = new TreeMap<>();
+
+        synchronized boolean estaLivre(int inicio, int fim) {
+            Map.Entry<Integer, Periodo> anterior = porInicio.lowerEntry(fim);
+            return anterior == null || anterior.getValue().fim <= inicio;
+        }
+
+        synchronized boolean reservar(int inicio, int fim, Aluguel aluguel) {
+            if (!estaLivre(inicio, fim)) {
+                return false;
+            }
+            porInicio.put(inicio, new Periodo(fim, aluguel));
+            return true;
+        }
+
+        synchronized boolean remover(int inicio, Aluguel aluguel) {
+            Periodo periodo = porInicio.get(inicio);
+            if (periodo == null || periodo.aluguel != aluguel) {
+                return false;
+            }
+            porInicio.remove(inicio);
+            return true;
+        }
+    }
+
+    private record Periodo(int fim, Aluguel aluguel) {}
+}
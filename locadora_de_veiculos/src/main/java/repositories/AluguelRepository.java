@@ -1,35 +1,284 @@
 package repositories;
 import entities.Aluguel;
+import entities.Cliente;
+import entities.StatusAluguel;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 
 public class AluguelRepository {
 
-    private List<Aluguel> alugueis = new ArrayList<>();
-    private int nextId = 1;
+    private final ListaSegmentada<Aluguel> alugueis = new ListaSegmentada<>(Aluguel::getId);
+    private final SequenciaIds.Cursor ids;
+
+    // Índice por id e partição por status: consultar os ativos não depende do tamanho do histórico
+    private final IndicePorId<Aluguel> porId = new IndicePorId<>();
+    private final Map<StatusAluguel, ListaSegmentada<Aluguel>> porStatus =
+            new EnumMap<>(StatusAluguel.class);
+    private final AtomicIntegerArray contagemPorStatus = new AtomicIntegerArray(StatusAluguel.values().length);
+    private final List<OuvinteRepositorio> ouvintes = new CopyOnWriteArrayList<>();
+    private volatile ArquivoAlugueis arquivo;  // Finalizados fora do heap (opcional)
+    // Escritas e mudanças para o arquivo; lock explícito para não prender a thread do sistema
+    // quando uma virtual thread espera por ele
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public AluguelRepository(){
+        this(new SequenciaIds(1));
+    }
+
+    // Numeração compartilhada com outros repositórios (filiais de uma mesma rede)
+    public AluguelRepository(SequenciaIds sequencia){
+        this.ids = sequencia.cursor();
+        for (StatusAluguel status : StatusAluguel.values()) {
+            porStatus.put(status, new ListaSegmentada<>(Aluguel::getId));
+        }
+    }
 
     public void salvar(Aluguel aluguel){
+        lock.lock();
+        try {
+            salvarSemLock(aluguel);
+        } finally {
+            lock.unlock();
+            concluir();
+        }
+    }
+
+    private void salvarSemLock(Aluguel aluguel){
 
         if (aluguel.getId()==0){
-            aluguel.setId(nextId++);
+            aluguel.setId(ids.proximo());
+        } else {
+            ids.usado(aluguel.getId());
+        }
+        Aluguel anterior = porId.colocar(aluguel.getId(), aluguel);
+        if (anterior == null) {
+            alugueis.adicionar(aluguel);
+        } else {
+            alugueis.substituir(aluguel);
+            porStatus.get(anterior.getStatus()).remover(anterior.getId());
+            contagemPorStatus.decrementAndGet(anterior.getStatus().ordinal());
+        }
+        porStatus.get(aluguel.getStatus()).colocar(aluguel);
+        contagemPorStatus.incrementAndGet(aluguel.getStatus().ordinal());
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            ouvinte.aluguelSalvo(aluguel);
         }
-        alugueis.add(aluguel);
     }
+    // Passa a usar o arquivo de finalizados: o que já está nele conta como histórico
+    // (buscarPorId, listarPorCliente, percorrerTodos e as contagens) sem voltar para a memória
+    public void usarArquivo(ArquivoAlugueis arquivo){
+        lock.lock();
+        try {
+            this.arquivo = arquivo;
+            ids.usado(arquivo.getMaiorId());
+            contagemPorStatus.addAndGet(StatusAluguel.FINALIZADO.ordinal(), arquivo.tamanho());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Move os finalizados da memória para o arquivo, em lote; retorna quantos foram.
+    // O estado deles não muda, então os ouvintes não são avisados.
+    public int arquivarFinalizados(){
+        lock.lock();
+        try {
+            ArquivoAlugueis atual = arquivo;
+            if (atual == null) {
+                return 0;
+            }
+            ListaSegmentada<Aluguel> finalizados = porStatus.get(StatusAluguel.FINALIZADO);
+            int quantidade = 0;
+            for (Aluguel aluguel : finalizados.retrato()) {
+                atual.gravar(aluguel);
+                porId.remover(aluguel.getId());
+                aluguel.getCliente().removerAluguel(aluguel);
+                quantidade++;
+            }
+            finalizados.removerSe(aluguel -> true);
+            if (quantidade > 0) {
+                alugueis.removerSe(aluguel -> porId.buscar(aluguel.getId()) != aluguel);
+            }
+            return quantidade;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean estaArquivado(int id){
+        ArquivoAlugueis atual = arquivo;
+        return atual != null && atual.contem(id);
+    }
+
+    // Retrato somente leitura dos aluguéis na memória (sem os arquivados), sem cópia (ver ListaSegmentada)
     public List<Aluguel> listarTodos(){
-        return new ArrayList<>(alugueis);
+        return alugueis.retrato();
+    }
+
+    public List<Aluguel> listarPagina(int inicio, int quantidade){
+        return alugueis.retrato().pagina(inicio, quantidade);
+    }
+
+    // Todo o histórico: primeiro os da memória (retrato), depois os arquivados (lidos do arquivo).
+    // Nessa ordem, um aluguel arquivado no meio da varredura está no retrato ou já no arquivo
+    // (arquivarFinalizados grava no arquivo antes de tirar da memória); se estiver nos dois, a
+    // cópia do arquivo é pulada pelo id.
+    public void percorrerTodos(Consumer<Aluguel> consumidor){
+        ArquivoAlugueis atual = arquivo;
+        List<Aluguel> memoria = listarTodos();
+        BitSet vistos = atual == null ? null : new BitSet();
+        for (Aluguel aluguel : memoria) {
+            if (vistos != null) {
+                vistos.set(aluguel.getId());
+            }
+            consumidor.accept(aluguel);
+        }
+        if (atual != null) {
+            atual.percorrer(aluguel -> {
+                if (!vistos.get(aluguel.getId())) {
+                    consumidor.accept(aluguel);
+                }
+            });
+        }
     }
 
+    // Histórico do cliente, arquivados inclusive, do mais antigo para o mais recente.
+    // Com o lock, nenhum aluguel está no meio da mudança para o arquivo.
+    public List<Aluguel> listarPorCliente(Cliente cliente){
+        lock.lock();
+        try {
+            ArquivoAlugueis atual = arquivo;
+            List<Aluguel> historico = atual == null ? new ArrayList<>() : atual.listarPorCliente(cliente.getCpf());
+            for (int id : cliente.copiarIdsAlugueis()) {
+                Aluguel aluguel = porId.buscar(id);
+                if (aluguel != null) {
+                    historico.add(aluguel);
+                }
+            }
+            return historico;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Retrato dos aluguéis num status, sem cópia (ver ListaSegmentada): quem recebe não vê a lista
+    // mudar depois. Sem ordem definida; FINALIZADO mostra só os que ainda estão na memória
+    public List<Aluguel> listarPorStatus(StatusAluguel status){
+        return porStatus.get(status).retrato();
+    }
+
+    // Quantidade num status em O(1) (o size() da partição percorre a lista inteira); conta os arquivados
+    public int contarPorStatus(StatusAluguel status){
+        return contagemPorStatus.get(status.ordinal());
+    }
+
+    // Os arquivados são lidos do arquivo: cada busca devolve uma cópia nova, só para leitura
     public Aluguel buscarPorId(int id){
-        for(Aluguel aluguel: alugueis){
-            if(aluguel.getId() == id ){
-                return aluguel;
+        Aluguel aluguel = porId.buscar(id);
+        if (aluguel == null) {
+            ArquivoAlugueis atual = arquivo;
+            if (atual != null) {
+                aluguel = atual.buscar(id);
             }
+        }
+        return aluguel;
+    }
 
+    // Troca o status e move o aluguel de partição; retorna false se já estava nesse status
+    public boolean atualizarStatus(Aluguel aluguel, StatusAluguel novoStatus){
+        lock.lock();
+        try {
+            return atualizarStatusSemLock(aluguel, novoStatus);
+        } finally {
+            lock.unlock();
+            concluir();
         }
-        return null;
     }
 
+    // Devolução: data e multa só são gravadas por quem passa o aluguel de ATIVO a FINALIZADO, com o
+    // lock; uma devolução concorrente que perdeu não mexe no aluguel que os ouvintes já registraram
+    public boolean finalizar(Aluguel aluguel, Date devolucao){
+        lock.lock();
+        try {
+            if (aluguel.getStatus() != StatusAluguel.ATIVO) {
+                return false;
+            }
+            aluguel.setDataDevolucao(devolucao);
+            aluguel.calcularMulta();
+            return atualizarStatusSemLock(aluguel, StatusAluguel.FINALIZADO);
+        } finally {
+            lock.unlock();
+            concluir();
+        }
+    }
 
+    private boolean atualizarStatusSemLock(Aluguel aluguel, StatusAluguel novoStatus){
+        StatusAluguel atual = aluguel.getStatus();
+        if (atual == novoStatus) {
+            return false;
+        }
+        aluguel.setStatus(novoStatus);
+        if (porId.buscar(aluguel.getId()) == aluguel) {
+            porStatus.get(novoStatus).colocar(aluguel);
+            porStatus.get(atual).remover(aluguel.getId());
+            contagemPorStatus.decrementAndGet(atual.ordinal());
+            contagemPorStatus.incrementAndGet(novoStatus.ordinal());
+        }
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            ouvinte.aluguelAlterado(aluguel);
+        }
+        return true;
+    }
+
+    // Com o lock, como listarPorCliente: no meio de arquivarFinalizados um aluguel já gravado no
+    // arquivo ainda está na memória e contaria duas vezes
+    public int tamanho(){
+        lock.lock();
+        try {
+            ArquivoAlugueis atual = arquivo;
+            return porId.tamanho() + (atual == null ? 0 : atual.tamanho());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void adicionarOuvinte(OuvinteRepositorio ouvinte){
+        ouvintes.add(ouvinte);
+    }
+
+    // Barreira: retorna depois que as alterações já em andamento notificaram os ouvintes
+    // (quem registrou um ouvinte e depois percorreu o histórico sabe que não falta nada)
+    public void aguardarAlteracoes(){
+        lock.lock();  // As notificações acontecem com o lock; adquiri-lo basta
+        lock.unlock();
+    }
+
+    // Já sem o lock: os ouvintes terminam o que precisa esperar (fsync, por exemplo). Todos
+    // são chamados mesmo se um falhar: o publicador de eventos tem sequências a publicar.
+    private void concluir(){
+        RuntimeException erro = null;
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            try {
+                ouvinte.alteracoesConcluidas();
+            } catch (RuntimeException e) {
+                if (erro == null) {
+                    erro = e;
+                } else {
+                    erro.addSuppressed(e);
+                }
+            }
+        }
+        if (erro != null) {
+            throw erro;
+        }
+    }
 
 }
@@ -0,0 +1,403 @@
+package repositories;
+
+import entities.Aluguel;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Arquivo dos aluguéis finalizados, fora do heap. Um aluguel finalizado não muda mais, então
+// em vez de ficar como objetos na memória ele vira um registro binário compacto em arquivos
+// mapeados (segmentos de 64 MB, só acréscimo). O índice id -> posição também é um arquivo mapeado
+// (8 bytes por id), e cada registro aponta para o registro anterior do mesmo cliente, o que dá o
+// histórico do cliente sem índice por aluguel no heap. Na memória fica só a posição do último
+// registro de cada cliente.
+//
+// Registro: tamanho (int), CRC32C do conteúdo (int) e o conteúdo:
+//   id, anterior do cliente (long), dias, data do aluguel, devolução, multa, status,
+//   CPF (short + UTF-8), quantidade de veículos (short), os ids dos veículos e a diária de cada
+//   um (long; registros antigos terminam nos ids e ficam com a diária atual do veículo).
+// Leituras não usam lock: a posição entra no índice (escrita com release) só depois do registro.
+// Buscas devolvem um Aluguel novo a cada chamada, montado com o cliente e os veículos atuais.
+public class ArquivoAlugueis implements Closeable {
+
+    private static final int TAMANHO_SEGMENTO = 64 << 20;
+    private static final int IDS_POR_BLOCO = 1 << 20;  // 8 MB de índice por bloco
+    private static final int CABECALHO = 8;
+    private static final VarHandle POSICOES =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path diretorio;
+    private final ClienteRepository clienteRepository;
+    private final VeiculoRepository veiculoRepository;
+    private final FileChannel canalIndice;
+    private final Map<Long, Long> ultimoPorCliente = new ConcurrentHashMap<>();
+    private final ByteBuffer rascunho = ByteBuffer.allocate(64 * 1024);
+    private final CRC32C crc = new CRC32C();
+
+    private volatile MappedByteBuffer[] segmentos = new MappedByteBuffer[0];
+    private volatile MappedByteBuffer[] blocosIndice = new MappedByteBuffer[0];
+    private volatile long fim;  // Próxima posição livre: segmento * TAMANHO_SEGMENTO + deslocamento
+    private volatile int quantidade;
+    private int maiorId;
+
+    private ArquivoAlugueis(Path diretorio, ClienteRepository clienteRepository,
+                            VeiculoRepository veiculoRepository, FileChannel canalIndice) {
+        this.diretorio = diretorio;
+        this.clienteRepository = clienteRepository;
+        this.veiculoRepository = veiculoRepository;
+        this.canalIndice = canalIndice;
+    }
+
+    // Abre (ou cria) o arquivo no diretório. Percorre os registros uma vez para refazer o índice e
+    // o último registro de cada cliente; um registro incompleto (queda no meio da escrita) encerra
+    // o arquivo ali, e o que vier depois é descartado.
+    public static ArquivoAlugueis abrir(Path diretorio, ClienteRepository clienteRepository,
+                                        VeiculoRepository veiculoRepository) throws IOException {
+        Files.createDirectories(diretorio);
+        FileChannel canalIndice = FileChannel.open(diretorio.resolve("indice.idx"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ArquivoAlugueis arquivo = new ArquivoAlugueis(diretorio, clienteRepository, veiculoRepository, canalIndice);
+        long blocos = (canalIndice.size() + IDS_POR_BLOCO * 8L - 1) / (IDS_POR_BLOCO * 8L);
+        for (int i = 0; i < blocos; i++) {
+            arquivo.mapearBlocoIndice(i);
+        }
+        List<Integer> numeros;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            numeros = arquivos.map(p -> p.getFileName().toString())
+                    .filter(nome -> nome.startsWith("arquivo-") && nome.endsWith(".seg"))
+                    .map(nome -> Integer.parseInt(nome.substring(8, nome.length() - 4)))
+                    .sorted().toList();
+        }
+        for (int i = 0; i < numeros.size() && numeros.get(i) == i; i++) {
+            arquivo.mapearSegmento(i);
+        }
+        arquivo.recuperar();
+        return arquivo;
+    }
+
+    private void recuperar() throws IOException {
+        MappedByteBuffer[] segmentos = this.segmentos;
+        for (int s = 0; s < segmentos.length; s++) {
+            MappedByteBuffer segmento = segmentos[s];
+            int deslocamento = 0;
+            while (deslocamento + CABECALHO <= TAMANHO_SEGMENTO) {
+                int tamanho = segmento.getInt(deslocamento);
+                if (tamanho == 0) {
+                    break;  // Fim do segmento
+                }
+                if (tamanho < 0 || deslocamento + CABECALHO + tamanho > TAMANHO_SEGMENTO
+                        || crc(segmento, deslocamento + CABECALHO, tamanho) != segmento.getInt(deslocamento + 4)) {
+                    truncar(s, deslocamento);
+                    return;
+                }
+                long posicao = (long) s * TAMANHO_SEGMENTO + deslocamento;
+                int id = segmento.getInt(deslocamento + CABECALHO);
+                indexar(id, posicao);
+                ultimoPorCliente.put(chaveCpf(segmento, deslocamento), posicao);
+                maiorId = Math.max(maiorId, id);
+                quantidade++;
+                deslocamento += CABECALHO + tamanho;
+                fim = posicao + CABECALHO + tamanho;
+            }
+            if (s + 1 < segmentos.length) {
+                fim = (long) (s + 1) * TAMANHO_SEGMENTO;
+            }
+        }
+    }
+
+    // Descarta do deslocamento em diante: zera o resto do segmento e apaga os seguintes
+    private void truncar(int segmento, int deslocamento) throws IOException {
+        MappedByteBuffer atual = segmentos[segmento];
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = deslocamento; i < TAMANHO_SEGMENTO; i += zeros.length) {
+            atual.put(i, zeros, 0, Math.min(zeros.length, TAMANHO_SEGMENTO - i));
+        }
+        atual.force();
+        for (int s = segmento + 1; s < segmentos.length; s++) {
+            Files.deleteIfExists(arquivoSegmento(s));
+        }
+        segmentos = Arrays.copyOf(segmentos, segmento + 1);
+        fim = (long) segmento * TAMANHO_SEGMENTO + deslocamento;
+    }
+
+    // Grava um aluguel finalizado. Um id já arquivado é ignorado (false).
+    public synchronized boolean gravar(Aluguel aluguel) {
+        if (aluguel.getStatus() != StatusAluguel.FINALIZADO) {
+            throw new IllegalArgumentException("Só aluguéis finalizados vão para o arquivo: " + aluguel.getId());
+        }
+        if (contem(aluguel.getId())) {
+            return false;
+        }
+        long chave = aluguel.getCliente().getChaveCpf();
+        Long anterior = ultimoPorCliente.get(chave);
+        ByteBuffer dados = rascunho.clear();
+        dados.putInt(0).putInt(0);
+        dados.putInt(aluguel.getId());
+        dados.putLong(anterior == null ? -1 : anterior);
+        dados.putInt(aluguel.getDias());
+        dados.putLong(aluguel.getDataAluguelMilis());
+        dados.putLong(aluguel.getDataDevolucaoMilis());
+        dados.putLong(aluguel.getMultaCentavos());
+        dados.put((byte) aluguel.getStatus().ordinal());
+        byte[] cpf = aluguel.getCliente().getCpf().getBytes(StandardCharsets.UTF_8);
+        dados.putShort((short) cpf.length).put(cpf);
+        List<ItemAluguel> itens = aluguel.getVeiculos();
+        dados.putShort((short) itens.size());
+        for (ItemAluguel item : itens) {
+            dados.putInt(item.getVeiculo().getId());
+        }
+        for (ItemAluguel item : itens) {
+            dados.putLong(item.getSubtotalCentavos());
+        }
+        int tamanho = dados.position() - CABECALHO;
+        crc.reset();
+        crc.update(dados.array(), CABECALHO, tamanho);
+        dados.putInt(0, tamanho).putInt(4, (int) crc.getValue());
+
+        long posicao = reservar(CABECALHO + tamanho);
+        MappedByteBuffer segmento = segmentos[(int) (posicao / TAMANHO_SEGMENTO)];
+        int deslocamento = (int) (posicao % TAMANHO_SEGMENTO);
+        // Conteúdo primeiro, tamanho por último: um leitor da recuperação nunca vê meio registro válido
+        segmento.put(deslocamento + 4, dados.array(), 4, CABECALHO + tamanho - 4);
+        segmento.putInt(deslocamento, tamanho);
+        fim = posicao + CABECALHO + tamanho;
+        indexar(aluguel.getId(), posicao);
+        ultimoPorCliente.put(chave, posicao);
+        maiorId = Math.max(maiorId, aluguel.getId());
+        quantidade++;
+        return true;
+    }
+
+    // Posição para um registro do tamanho dado; registros não atravessam segmentos
+    private long reservar(int tamanho) {
+        long posicao = fim;
+        int segmento = (int) (posicao / TAMANHO_SEGMENTO);
+        if (posicao % TAMANHO_SEGMENTO + tamanho > TAMANHO_SEGMENTO) {
+            segmentos[segmento].force();  // O segmento cheio não muda mais
+            segmento++;
+            posicao = (long) segmento * TAMANHO_SEGMENTO;
+        }
+        try {
+            while (segmento >= segmentos.length) {
+                mapearSegmento(segmentos.length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao criar segmento do arquivo de aluguéis", e);
+        }
+        return posicao;
+    }
+
+    public Aluguel buscar(int id) {
+        long posicao = posicao(id);
+        return posicao < 0 ? null : ler(posicao);
+    }
+
+    public boolean contem(int id) {
+        return posicao(id) >= 0;
+    }
+
+    // Histórico arquivado do cliente, do mais antigo para o mais recente
+    public List<Aluguel> listarPorCliente(String cpf) {
+        List<Aluguel> historico = new ArrayList<>();
+        Long ultimo = ultimoPorCliente.get(Cliente.chaveCpf(cpf));
+        long posicao = ultimo == null ? -1 : ultimo;
+        while (posicao >= 0) {
+            Aluguel aluguel = ler(posicao);
+            if (aluguel.getCliente().getCpf().equals(cpf)) {  // A chave numérica pode repetir para CPFs não numéricos
+                historico.add(aluguel);
+            }
+            posicao = segmento(posicao).getLong(deslocamento(posicao) + CABECALHO + 4);
+        }
+        Collections.reverse(historico);
+        return historico;
+    }
+
+    // Lê todos os registros na ordem em que foram arquivados
+    public void percorrer(Consumer<Aluguel> consumidor) {
+        long limite = fim;
+        long posicao = 0;
+        while (posicao < limite) {
+            int deslocamento = deslocamento(posicao);
+            int tamanho = deslocamento + CABECALHO > TAMANHO_SEGMENTO ? 0 : segmento(posicao).getInt(deslocamento);
+            if (tamanho == 0) {
+                posicao = (posicao / TAMANHO_SEGMENTO + 1) * TAMANHO_SEGMENTO;
+                continue;
+            }
+            consumidor.accept(ler(posicao));
+            posicao += CABECALHO + tamanho;
+        }
+    }
+
+    private Aluguel ler(long posicao) {
+        MappedByteBuffer segmento = segmento(posicao);
+        int deslocamento = deslocamento(posicao);
+        int tamanho = segmento.getInt(deslocamento);
+        byte[] bytes = new byte[tamanho];
+        segmento.get(deslocamento + CABECALHO, bytes);
+        ByteBuffer dados = ByteBuffer.wrap(bytes);
+
+        int id = dados.getInt();
+        dados.getLong();  // Anterior do cliente
+        int dias = dados.getInt();
+        long dataAluguel = dados.getLong();
+        long devolucao = dados.getLong();
+        long multa = dados.getLong();
+        StatusAluguel status = StatusAluguel.values()[dados.get()];
+        int tamanhoCpf = dados.getShort() & 0xFFFF;
+        String cpf = new String(bytes, dados.position(), tamanhoCpf, StandardCharsets.UTF_8);
+        dados.position(dados.position() + tamanhoCpf);
+        Cliente cliente = clienteRepository.BuscarPorCpf(cpf);
+        if (cliente == null) {
+            throw new IllegalStateException("Aluguel arquivado " + id + " referencia cliente inexistente: " + cpf);
+        }
+        int quantidadeItens = dados.getShort() & 0xFFFF;
+        Veiculo[] veiculos = new Veiculo[quantidadeItens];
+        for (int i = 0; i < quantidadeItens; i++) {
+            veiculos[i] = veiculoRepository.buscarPorId(dados.getInt());
+            if (veiculos[i] == null) {
+                throw new IllegalStateException("Aluguel arquivado " + id + " referencia veículo inexistente");
+            }
+        }
+        boolean comDiarias = dados.remaining() >= quantidadeItens * 8;
+        List<ItemAluguel> itens = new ArrayList<>(quantidadeItens);
+        for (Veiculo veiculo : veiculos) {
+            itens.add(comDiarias ? new ItemAluguel(veiculo, dados.getLong()) : new ItemAluguel(veiculo));
+        }
+
+        Aluguel aluguel = new Aluguel(cliente, dias);
+        aluguel.setId(id);
+        aluguel.setVeiculos(itens);  // Sem adicionarVeiculo: não conta o aluguel de novo no veículo
+        aluguel.setDataAluguel(new Date(dataAluguel));
+        aluguel.setDataDevolucao(devolucao < 0 ? null : new Date(devolucao));
+        aluguel.setMultaCentavos(multa);
+        aluguel.setStatus(status);
+        return aluguel;
+    }
+
+    // Posição do registro do id, ou -1. Confere o id gravado: depois de uma recuperação o índice
+    // pode ter sobras apontando para uma região descartada ou reescrita.
+    private long posicao(int id) {
+        MappedByteBuffer[] blocos = blocosIndice;
+        int bloco = id / IDS_POR_BLOCO;
+        if (id <= 0 || bloco >= blocos.length) {
+            return -1;
+        }
+        long posicao = (long) POSICOES.getAcquire(blocos[bloco], (id % IDS_POR_BLOCO) * 8) - 1;
+        if (posicao < 0 || posicao >= fim || segmento(posicao).getInt(deslocamento(posicao) + CABECALHO) != id) {
+            return -1;
+        }
+        return posicao;
+    }
+
+    private void indexar(int id, long posicao) {
+        int bloco = id / IDS_POR_BLOCO;
+        try {
+            while (bloco >= blocosIndice.length) {
+                mapearBlocoIndice(blocosIndice.length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao crescer o índice do arquivo de aluguéis", e);
+        }
+        POSICOES.setRelease(blocosIndice[bloco], (id % IDS_POR_BLOCO) * 8, posicao + 1);
+    }
+
+    private void mapearSegmento(int numero) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivoSegmento(numero), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAMANHO_SEGMENTO);
+            MappedByteBuffer[] novos = Arrays.copyOf(segmentos, numero + 1);
+            novos[numero] = segmento;
+            segmentos = novos;
+        }
+    }
+
+    private void mapearBlocoIndice(int numero) throws IOException {
+        MappedByteBuffer bloco = canalIndice.map(FileChannel.MapMode.READ_WRITE,
+                (long) numero * IDS_POR_BLOCO * 8, IDS_POR_BLOCO * 8L);
+        MappedByteBuffer[] novos = Arrays.copyOf(blocosIndice, numero + 1);
+        novos[numero] = bloco;
+        blocosIndice = novos;
+    }
+
+    private Path arquivoSegmento(int numero) {
+        return diretorio.resolve(String.format("arquivo-%05d.seg", numero));
+    }
+
+    private MappedByteBuffer segmento(long posicao) {
+        return segmentos[(int) (posicao / TAMANHO_SEGMENTO)];
+    }
+
+    private static int deslocamento(long posicao) {
+        return (int) (posicao % TAMANHO_SEGMENTO);
+    }
+
+    private int crc(MappedByteBuffer segmento, int deslocamento, int tamanho) {
+        crc.reset();
+        crc.update(segmento.slice(deslocamento, tamanho));
+        return (int) crc.getValue();
+    }
+
+    // Chave do CPF gravado no registro que começa no deslocamento
+    private static long chaveCpf(MappedByteBuffer segmento, int deslocamento) {
+        int inicioCpf = deslocamento + CABECALHO + 4 + 8 + 4 + 8 + 8 + 8 + 1;
+        int tamanho = segmento.getShort(inicioCpf) & 0xFFFF;
+        byte[] cpf = new byte[tamanho];
+        segmento.get(inicioCpf + 2, cpf);
+        return Cliente.chaveCpf(new String(cpf, StandardCharsets.UTF_8));
+    }
+
+    public int tamanho() {
+        return quantidade;
+    }
+
+    public synchronized int getMaiorId() {
+        return maiorId;
+    }
+
+    // Bytes ocupados pelos registros (fora do heap)
+    public long getBytes() {
+        return fim;
+    }
+
+    // Garante em disco tudo o que foi gravado até aqui
+    public synchronized void sincronizar() {
+        MappedByteBuffer[] atuais = segmentos;
+        if (atuais.length > 0) {
+            atuais[atuais.length - 1].force();
+        }
+        for (MappedByteBuffer bloco : blocosIndice) {
+            bloco.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sincronizar();
+        canalIndice.close();
+    }
+}
@@ -1,27 +1,139 @@
 package repositories;
 import entities.Cliente;
 
-import java.util.List;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ClienteRepository {
 
-    private List<Cliente> clientes = new ArrayList<>();
+    private final ListaSegmentada<Cliente> clientes = new ListaSegmentada<>(Cliente::getNumero);
+    // Pelo CPF compactado (Cliente.getCpfCompactado); os que não cabem no long ficam pelo texto
+    private final Map<Long, Cliente> porCpf = new ConcurrentHashMap<>();
+    private final Map<String, Cliente> porCpfTexto = new ConcurrentHashMap<>();
+    private final List<OuvinteRepositorio> ouvintes = new CopyOnWriteArrayList<>();
+    private final IndiceTexto porNome = new IndiceTexto();  // Documento = número do cliente
+    private final ReentrantLock lock = new ReentrantLock();  // Explícito: não prende a thread do sistema
 
     public void salvar(Cliente cliente){
-        clientes.add(cliente);
+        lock.lock();
+        try {
+            salvarSemLock(cliente);
+        } finally {
+            lock.unlock();
+            concluir();
+        }
     }
 
-    public Cliente BuscarPorCpf(String cpf){
-        for (Cliente cliente : clientes) {
-            if (cliente.getCpf().equals(cpf)) {
-                return cliente;
+    // Salva um lote inteiro adquirindo o lock uma vez só (importação em massa)
+    public void salvarTodos(List<Cliente> lote){
+        lock.lock();
+        try {
+            for (Cliente cliente : lote) {
+                salvarSemLock(cliente);
+            }
+        } finally {
+            lock.unlock();
+            concluir();
+        }
+    }
+
+    // Cadastro novo: grava só se o CPF ainda não existe, numa operação só (sem a janela entre
+    // buscar e salvar). Retorna false se o CPF já estava cadastrado.
+    public boolean adicionar(Cliente cliente){
+        lock.lock();
+        try {
+            long compactado = cliente.getCpfCompactado();
+            Cliente existente = compactado != 0 ? porCpf.putIfAbsent(compactado, cliente)
+                    : porCpfTexto.putIfAbsent(cliente.getCpf(), cliente);
+            if (existente != null) {
+                return false;
             }
+            registrar(cliente, null);
+            return true;
+        } finally {
+            lock.unlock();
+            concluir();
         }
-        return null;
     }
 
+    private void salvarSemLock(Cliente cliente){
+        long compactado = cliente.getCpfCompactado();
+        Cliente anterior = compactado != 0 ? porCpf.put(compactado, cliente) : porCpfTexto.put(cliente.getCpf(), cliente);
+        registrar(cliente, anterior);
+    }
+
+    // Com o lock, depois de o índice por CPF já apontar para o cliente
+    private void registrar(Cliente cliente, Cliente anterior){
+        if (anterior == null) {
+            cliente.setNumero(clientes.tamanho() + 1);
+            clientes.adicionar(cliente);
+        } else if (anterior != cliente) {
+            cliente.setNumero(anterior.getNumero());
+            clientes.substituir(cliente);
+        }
+        porNome.indexar(cliente.getNumero(), cliente.getNome());
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            ouvinte.clienteSalvo(cliente);
+        }
+    }
+
+    public Cliente BuscarPorCpf(String cpf){
+        long compactado = Cliente.compactarCpf(cpf);
+        return compactado != 0 ? porCpf.get(compactado) : porCpfTexto.get(cpf);
+    }
+
+    // Até 'limite' clientes pelo nome: palavras inteiras, começos de palavra ou com erro de digitação.
+    // Nome trocado com setNome só é reindexado ao salvar de novo.
+    public List<Cliente> buscarPorNome(String consulta, int limite){
+        int[] numeros = porNome.buscar(consulta, limite);
+        // Retrato depois da busca: o cliente entra na lista antes de ser indexado pelo nome, então
+        // todo número achado já está nele (tirado antes, um cadastro no meio ficaria de fora)
+        List<Cliente> todos = clientes.retrato();
+        List<Cliente> encontrados = new ArrayList<>(numeros.length);
+        for (int numero : numeros) {
+            encontrados.add(todos.get(numero - 1));  // O número é a posição na lista (nunca há remoção)
+        }
+        return encontrados;
+    }
+
+    // Retrato somente leitura, sem cópia (ver ListaSegmentada)
     public List<Cliente> listarTodos() {
-        return new ArrayList<>(clientes);
+        return clientes.retrato();
+    }
+
+    public List<Cliente> listarPagina(int inicio, int quantidade) {
+        return clientes.retrato().pagina(inicio, quantidade);
+    }
+
+    public int tamanho() {
+        return porCpf.size() + porCpfTexto.size();
+    }
+
+    public void adicionarOuvinte(OuvinteRepositorio ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    // Já sem o lock: os ouvintes terminam o que precisa esperar (fsync, por exemplo). Todos
+    // são chamados mesmo se um falhar: o publicador de eventos tem sequências a publicar.
+    private void concluir() {
+        RuntimeException erro = null;
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            try {
+                ouvinte.alteracoesConcluidas();
+            } catch (RuntimeException e) {
+                if (erro == null) {
+                    erro = e;
+                } else {
+                    erro.addSuppressed(e);
+                }
+            }
+        }
+        if (erro != null) {
+            throw erro;
+        }
     }
 }
@@ -0,0 +1,191 @@
+package repositories;
+
+import entities.Aluguel;
+import entities.CategoriaVeiculo;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+
+import java.time.LocalDate;
+
+// Faturamento, multas, quantidade de aluguéis e faturamento e multas por categoria, somados por dia
+// de início do aluguel, em árvores de Fenwick (somas de prefixo): o total de qualquer
+// intervalo de dias sai em O(log dias), sem percorrer o histórico. Mesmas regras do
+// AgregadosRelatorio e do HistoricoColunar.resumir: cancelados não faturam, multas só dos
+// finalizados (rateadas entre as categorias pela diária de cada veículo) e a categoria soma
+// diária × dias. Como no AgregadosRelatorio, cada evento aplica só a diferença (o repositório
+// notifica quando o status muda), então não há estado por aluguel: a memória cresce com os dias
+// cobertos, não com o histórico.
+//
+// As árvores cobrem do primeiro dia visto em diante; uma data fora da faixa dobra a faixa
+// (para o lado da data) e remonta a árvore em O(dias). Datas antes de 1970 ou a partir de 2100
+// (só chegam por dados restaurados ou importados; reservas novas são limitadas na AgendaReservas)
+// contam no primeiro ou no último dia aceito, para uma data como o ano 1 ou 9999 não levar as
+// árvores a milhões de dias.
+public class FaturamentoDiario implements OuvinteRepositorio {
+
+    private static final int CATEGORIAS = CategoriaVeiculo.values().length;
+    // Séries de cada árvore: as três primeiras, depois faturamento e multas de cada categoria (pelo ordinal)
+    private static final int FATURAMENTO = 0;
+    private static final int MULTAS = 1;
+    private static final int ALUGUEIS = 2;
+    private static final int FATURAMENTO_CATEGORIA = 3;
+    private static final int MULTAS_CATEGORIA = FATURAMENTO_CATEGORIA + CATEGORIAS;
+    private static final int SERIES = MULTAS_CATEGORIA + CATEGORIAS;
+    private static final int CAPACIDADE_INICIAL = 512;
+    private static final int PRIMEIRO_DIA = 0;  // 01/01/1970
+    private static final int ULTIMO_DIA = (int) LocalDate.of(2100, 1, 1).toEpochDay() - 1;
+
+    private final Arvore arvore = new Arvore();
+
+    @Override
+    public void aluguelSalvo(Aluguel aluguel) {
+        aluguelSalvo(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+    }
+
+    // Status e multa do momento do evento (o aluguel pode já ter mudado quando o evento é processado)
+    public synchronized void aluguelSalvo(Aluguel aluguel, StatusAluguel status, long multaCentavos) {
+        int posicao = arvore.posicao(dia(aluguel));
+        arvore.somar(ALUGUEIS, posicao, 1);
+        if (status != StatusAluguel.CANCELADO) {
+            faturar(arvore, posicao, aluguel, 1);
+        }
+        if (status == StatusAluguel.FINALIZADO) {
+            multar(arvore, posicao, aluguel, multaCentavos);
+        }
+    }
+
+    @Override
+    public void aluguelAlterado(Aluguel aluguel) {
+        aluguelAlterado(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+    }
+
+    public synchronized void aluguelAlterado(Aluguel aluguel, StatusAluguel status, long multaCentavos) {
+        if (status != StatusAluguel.FINALIZADO && status != StatusAluguel.CANCELADO) {
+            return;
+        }
+        int posicao = arvore.posicao(dia(aluguel));
+        if (status == StatusAluguel.FINALIZADO) {
+            multar(arvore, posicao, aluguel, multaCentavos);
+        } else {
+            faturar(arvore, posicao, aluguel, -1);  // Reserva cancelada não fatura
+        }
+    }
+
+    private static void faturar(Arvore arvore, int posicao, Aluguel aluguel, int sinal) {
+        arvore.somar(FATURAMENTO, posicao, sinal * aluguel.calcularTotalCentavos());
+        for (ItemAluguel item : aluguel.getVeiculos()) {
+            arvore.somar(FATURAMENTO_CATEGORIA + item.getVeiculo().getCategoria().ordinal(), posicao,
+                    sinal * item.getSubtotalCentavos() * aluguel.getDias());
+        }
+    }
+
+    private static void multar(Arvore arvore, int posicao, Aluguel aluguel, long multaCentavos) {
+        arvore.somar(MULTAS, posicao, multaCentavos);
+        long[] porCategoria = aluguel.multaPorCategoriaCentavos(multaCentavos);
+        for (int c = 0; c < CATEGORIAS; c++) {
+            if (porCategoria[c] != 0) {
+                arvore.somar(MULTAS_CATEGORIA + c, posicao, porCategoria[c]);
+            }
+        }
+    }
+
+    private static int dia(Aluguel aluguel) {
+        return Math.clamp(AgendaReservas.dia(aluguel.getDataAluguelMilis()), PRIMEIRO_DIA, ULTIMO_DIA);
+    }
+
+    // Aluguéis iniciados em [diaInicio, diaFim)
+    public synchronized HistoricoColunar.Resumo resumir(int diaInicio, int diaFim) {
+        long[] totais = new long[SERIES];
+        arvore.acumular(diaInicio, diaFim, totais);
+        long[] porCategoria = new long[CATEGORIAS];
+        long[] multasPorCategoria = new long[CATEGORIAS];
+        System.arraycopy(totais, FATURAMENTO_CATEGORIA, porCategoria, 0, CATEGORIAS);
+        System.arraycopy(totais, MULTAS_CATEGORIA, multasPorCategoria, 0, CATEGORIAS);
+        return new HistoricoColunar.Resumo((int) totais[ALUGUEIS], totais[FATURAMENTO], totais[MULTAS],
+                porCategoria, multasPorCategoria);
+    }
+
+    // Uma árvore de Fenwick por série sobre os dias [primeiroDia, primeiroDia + capacidade); o dia d
+    // fica no índice d - primeiroDia + 1 (o índice 0 não é usado)
+    private static final class Arvore {
+        private long[][] series;
+        private int primeiroDia;
+        private int capacidade;
+
+        // Índice do dia, aumentando a faixa se preciso
+        private int posicao(int dia) {
+            if (series == null) {
+                capacidade = CAPACIDADE_INICIAL;
+                primeiroDia = dia - CAPACIDADE_INICIAL / 2;
+                series = new long[SERIES][capacidade + 1];
+            }
+            if (dia < primeiroDia || dia >= primeiroDia + capacidade) {
+                crescer(dia);
+            }
+            return dia - primeiroDia + 1;
+        }
+
+        private void crescer(int dia) {
+            int novoPrimeiro = primeiroDia;
+            int novaCapacidade = capacidade;
+            while (dia < novoPrimeiro || dia >= novoPrimeiro + novaCapacidade) {
+                if (dia < novoPrimeiro) {
+                    novoPrimeiro -= novaCapacidade;
+                }
+                novaCapacidade *= 2;
+            }
+            int deslocamento = primeiroDia - novoPrimeiro;
+            for (int s = 0; s < SERIES; s++) {
+                long[] antiga = series[s];
+                // Desfaz as somas parciais (valor de cada dia), copia na nova faixa e refaz
+                for (int i = capacidade; i >= 1; i--) {
+                    int pai = i + (i & -i);
+                    if (pai <= capacidade) {
+                        antiga[pai] -= antiga[i];
+                    }
+                }
+                long[] nova = new long[novaCapacidade + 1];
+                System.arraycopy(antiga, 1, nova, 1 + deslocamento, capacidade);
+                for (int i = 1; i <= novaCapacidade; i++) {
+                    int pai = i + (i & -i);
+                    if (pai <= novaCapacidade) {
+                        nova[pai] += nova[i];
+                    }
+                }
+                series[s] = nova;
+            }
+            primeiroDia = novoPrimeiro;
+            capacidade = novaCapacidade;
+        }
+
+        private void somar(int serie, int posicao, long valor) {
+            long[] arvore = series[serie];
+            for (int i = posicao; i <= capacidade; i += i & -i) {
+                arvore[i] += valor;
+            }
+        }
+
+        // Soma dos dias anteriores a 'dia' (os fora da faixa valem zero)
+        private long prefixo(int serie, int dia) {
+            long[] arvore = series[serie];
+            long total = 0;
+            for (int i = (int) Math.max(0, Math.min(capacidade, (long) dia - primeiroDia)); i > 0; i -= i & -i) {
+                total += arvore[i];
+            }
+            return total;
+        }
+
+        private long intervalo(int serie, int diaInicio, int diaFim) {
+            if (series == null || diaFim <= diaInicio) {
+                return 0;
+            }
+            return prefixo(serie, diaFim) - prefixo(serie, diaInicio);
+        }
+
+        private void acumular(int diaInicio, int diaFim, long[] totais) {
+            for (int s = 0; s < SERIES; s++) {
+                totais[s] += intervalo(s, diaInicio, diaFim);
+            }
+        }
+    }
+}
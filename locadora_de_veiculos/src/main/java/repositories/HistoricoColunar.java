@@ -0,0 +1,309 @@
+package repositories;
+
+import entities.Aluguel;
+import entities.CalculadoraPreco;
+import entities.CategoriaVeiculo;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Histórico de aluguéis em colunas de tipos primitivos, para consultas analíticas (períodos,
+// somas por categoria, contagem por veículo) sem percorrer o grafo de objetos de cada Aluguel.
+// Uma linha por aluguel, na ordem em que foram salvos; os veículos de cada linha ficam
+// contíguos nas colunas de itens: os itens da linha i vão de primeiroItem[i] a primeiroItem[i + 1].
+// Os valores (diárias e total) ficam travados no momento em que o aluguel foi salvo.
+//
+// Escrita: um escritor por vez (métodos synchronized). Leitura sem lock: as colunas e a
+// quantidade de linhas ficam juntas num objeto imutável (Colunas), publicado inteiro pelo campo
+// volátil 'colunas' ao fim de toda alteração. Quem lê o campo uma vez vê arrays e quantidade do
+// mesmo momento, mesmo que o escritor troque os arrays ao crescer. Status e multa alterados
+// durante uma varredura podem ou não ser vistos por ela.
+public class HistoricoColunar implements OuvinteRepositorio {
+
+    private static final byte SUBSTITUIDO = -1;  // Linha de um aluguel salvo de novo com o mesmo id
+    private static final int CATEGORIAS = CategoriaVeiculo.values().length;
+
+    private volatile Colunas colunas = new Colunas(1024, 1024);
+    // Só o escritor usa
+    private int[] linhaPorId = new int[1024];  // Linha + 1 de cada id (0 = ausente)
+    private int itens;
+
+    @Override
+    public void aluguelSalvo(Aluguel aluguel) {
+        aluguelSalvo(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+    }
+
+    // Status e multa do momento do evento (o aluguel pode já ter mudado quando o evento é processado)
+    public synchronized void aluguelSalvo(Aluguel aluguel, StatusAluguel status, long multaCentavos) {
+        int id = aluguel.getId();
+        List<ItemAluguel> itensAluguel = aluguel.getVeiculos();
+        Colunas c = garantirCapacidade(colunas, itens + itensAluguel.size(), id);
+        int linha = c.linhas;
+        if (linhaPorId[id] != 0) {
+            c.status[linhaPorId[id] - 1] = SUBSTITUIDO;
+        }
+
+        c.clientes[linha] = aluguel.getCliente().getChaveCpf();
+        c.inicioDia[linha] = AgendaReservas.dia(aluguel.getDataAluguelMilis());
+        c.dias[linha] = aluguel.getDias();
+        c.status[linha] = (byte) status.ordinal();
+        c.totalCentavos[linha] = aluguel.calcularTotalCentavos();
+        c.multaCentavos[linha] = multaCentavos;
+        for (int i = 0; i < itensAluguel.size(); i++) {
+            ItemAluguel item = itensAluguel.get(i);
+            c.veiculos[itens] = item.getVeiculo().getId();
+            c.categorias[itens] = (byte) item.getVeiculo().getCategoria().ordinal();
+            c.diariaCentavos[itens] = item.getSubtotalCentavos();
+            itens++;
+        }
+        c.primeiroItem[linha + 1] = itens;
+        linhaPorId[id] = linha + 1;
+        colunas = new Colunas(c, linha + 1);  // Publica a linha
+    }
+
+    @Override
+    public void aluguelAlterado(Aluguel aluguel) {
+        aluguelAlterado(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+    }
+
+    public synchronized void aluguelAlterado(Aluguel aluguel, StatusAluguel status, long multaCentavos) {
+        int id = aluguel.getId();
+        if (id >= linhaPorId.length || linhaPorId[id] == 0) {
+            return;
+        }
+        Colunas c = colunas;
+        int linha = linhaPorId[id] - 1;
+        c.status[linha] = (byte) status.ordinal();
+        c.multaCentavos[linha] = multaCentavos;
+        colunas = new Colunas(c, c.linhas);  // Publica a alteração
+    }
+
+    // Colunas com espaço para mais uma linha e os itens dela; arrays novos (ainda não publicados)
+    // quando precisam crescer
+    private Colunas garantirCapacidade(Colunas c, int quantidadeItens, int id) {
+        if (id >= linhaPorId.length) {
+            linhaPorId = Arrays.copyOf(linhaPorId, Math.max(id + 1, linhaPorId.length * 2));
+        }
+        int quantidadeLinhas = c.linhas + 1;
+        if (quantidadeLinhas <= c.dias.length && quantidadeItens <= c.veiculos.length) {
+            return c;
+        }
+        return new Colunas(c, Math.max(quantidadeLinhas, c.dias.length + (c.dias.length >> 1)),
+                Math.max(quantidadeItens, c.veiculos.length + (c.veiculos.length >> 1)));
+    }
+
+    // Totais dos aluguéis iniciados em [diaInicio, diaFim). Mesmas regras do AgregadosRelatorio:
+    // cancelados não faturam, multas só dos finalizados e a categoria soma diária × dias. A multa
+    // de cada categoria segue o rateio do Aluguel.multaPorCategoriaCentavos, feito aqui nas colunas.
+    public Resumo resumir(int diaInicio, int diaFim) {
+        Colunas c = colunas;
+        int n = c.linhas;
+        int[] inicioDia = c.inicioDia;
+        int[] dias = c.dias;
+        byte[] status = c.status;
+        long[] totalCentavos = c.totalCentavos;
+        long[] multaCentavos = c.multaCentavos;
+        int[] primeiroItem = c.primeiroItem;
+        byte[] categorias = c.categorias;
+        long[] diariaCentavos = c.diariaCentavos;
+        byte cancelado = (byte) StatusAluguel.CANCELADO.ordinal();
+        byte finalizado = (byte) StatusAluguel.FINALIZADO.ordinal();
+
+        int alugueis = 0;
+        long faturamento = 0;
+        long multas = 0;
+        long[] porCategoria = new long[CATEGORIAS];
+        long[] multasPorCategoria = new long[CATEGORIAS];
+        for (int i = 0; i < n; i++) {
+            int dia = inicioDia[i];
+            byte s = status[i];
+            if (dia < diaInicio || dia >= diaFim || s == SUBSTITUIDO) {
+                continue;
+            }
+            alugueis++;
+            if (s == cancelado) {
+                continue;
+            }
+            faturamento += totalCentavos[i];
+            long d = dias[i];
+            long somaDiarias = 0;
+            for (int j = primeiroItem[i], fim = primeiroItem[i + 1]; j < fim; j++) {
+                porCategoria[categorias[j]] += diariaCentavos[j] * d;
+                somaDiarias += diariaCentavos[j];
+            }
+            if (s == finalizado) {
+                long multa = multaCentavos[i];
+                multas += multa;
+                long acumulado = 0;
+                long rateado = 0;
+                for (int j = primeiroItem[i], fim = primeiroItem[i + 1]; j < fim; j++) {
+                    acumulado += diariaCentavos[j];
+                    long ate = CalculadoraPreco.rateioCentavos(multa, acumulado, somaDiarias);
+                    multasPorCategoria[categorias[j]] += ate - rateado;
+                    rateado = ate;
+                }
+            }
+        }
+        return new Resumo(alugueis, faturamento, multas, porCategoria, multasPorCategoria);
+    }
+
+    // Quantas vezes cada veículo foi alugado em [diaInicio, diaFim); o índice é o id do veículo
+    public int[] alugueisPorVeiculo(int diaInicio, int diaFim) {
+        Colunas c = colunas;
+        int n = c.linhas;
+        int[] inicioDia = c.inicioDia;
+        byte[] status = c.status;
+        int[] primeiroItem = c.primeiroItem;
+        int[] veiculos = c.veiculos;
+        int[] contagem = new int[64];
+        for (int i = 0; i < n; i++) {
+            int dia = inicioDia[i];
+            if (dia < diaInicio || dia >= diaFim || status[i] == SUBSTITUIDO) {
+                continue;
+            }
+            for (int j = primeiroItem[i], fim = primeiroItem[i + 1]; j < fim; j++) {
+                int veiculo = veiculos[j];
+                if (veiculo >= contagem.length) {
+                    contagem = Arrays.copyOf(contagem, Math.max(veiculo + 1, contagem.length * 2));
+                }
+                contagem[veiculo]++;
+            }
+        }
+        return contagem;
+    }
+
+    // Faturamento por dia de início, de diaInicio até diaInicio + quantidadeDias - 1
+    public long[] faturamentoPorDia(int diaInicio, int quantidadeDias) {
+        Colunas c = colunas;
+        int n = c.linhas;
+        int[] inicioDia = c.inicioDia;
+        byte[] status = c.status;
+        long[] totalCentavos = c.totalCentavos;
+        byte cancelado = (byte) StatusAluguel.CANCELADO.ordinal();
+        long[] porDia = new long[quantidadeDias];
+        for (int i = 0; i < n; i++) {
+            int posicao = inicioDia[i] - diaInicio;
+            byte s = status[i];
+            if (posicao >= 0 && posicao < quantidadeDias && s != SUBSTITUIDO && s != cancelado) {
+                porDia[posicao] += totalCentavos[i];
+            }
+        }
+        return porDia;
+    }
+
+    // Aluguéis do cliente (pela chave do CPF) em todo o histórico
+    public int contarPorCliente(long chaveCpf) {
+        Colunas c = colunas;
+        int n = c.linhas;
+        long[] clientes = c.clientes;
+        byte[] status = c.status;
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            if (clientes[i] == chaveCpf && status[i] != SUBSTITUIDO) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // Linhas gravadas, incluindo as substituídas
+    public int getLinhas() {
+        return colunas.linhas;
+    }
+
+    // Os arrays e quantas linhas deles valem, publicados juntos. Os arrays são compartilhados entre
+    // publicações sucessivas enquanto não crescem: o escritor só grava além de 'linhas' (linha nova)
+    // ou status e multa de linhas existentes, e publica outro Colunas em seguida.
+    private static final class Colunas {
+        // Por aluguel
+        final long[] clientes;       // Cliente.getChaveCpf
+        final int[] inicioDia;       // Dias desde 1970 (UTC)
+        final int[] dias;
+        final byte[] status;         // Ordinal de StatusAluguel
+        final long[] totalCentavos;
+        final long[] multaCentavos;
+        final int[] primeiroItem;
+        // Por veículo alugado
+        final int[] veiculos;
+        final byte[] categorias;
+        final long[] diariaCentavos;
+        final int linhas;
+
+        Colunas(int capacidadeLinhas, int capacidadeItens) {
+            clientes = new long[capacidadeLinhas];
+            inicioDia = new int[capacidadeLinhas];
+            dias = new int[capacidadeLinhas];
+            status = new byte[capacidadeLinhas];
+            totalCentavos = new long[capacidadeLinhas];
+            multaCentavos = new long[capacidadeLinhas];
+            primeiroItem = new int[capacidadeLinhas + 1];
+            veiculos = new int[capacidadeItens];
+            categorias = new byte[capacidadeItens];
+            diariaCentavos = new long[capacidadeItens];
+            linhas = 0;
+        }
+
+        // Mesmos arrays, outra quantidade de linhas
+        Colunas(Colunas c, int linhas) {
+            clientes = c.clientes;
+            inicioDia = c.inicioDia;
+            dias = c.dias;
+            status = c.status;
+            totalCentavos = c.totalCentavos;
+            multaCentavos = c.multaCentavos;
+            primeiroItem = c.primeiroItem;
+            veiculos = c.veiculos;
+            categorias = c.categorias;
+            diariaCentavos = c.diariaCentavos;
+            this.linhas = linhas;
+        }
+
+        // Cópias maiores dos arrays (só os que precisam crescer)
+        Colunas(Colunas c, int capacidadeLinhas, int capacidadeItens) {
+            boolean linhasCrescem = capacidadeLinhas > c.dias.length;
+            clientes = linhasCrescem ? Arrays.copyOf(c.clientes, capacidadeLinhas) : c.clientes;
+            inicioDia = linhasCrescem ? Arrays.copyOf(c.inicioDia, capacidadeLinhas) : c.inicioDia;
+            dias = linhasCrescem ? Arrays.copyOf(c.dias, capacidadeLinhas) : c.dias;
+            status = linhasCrescem ? Arrays.copyOf(c.status, capacidadeLinhas) : c.status;
+            totalCentavos = linhasCrescem ? Arrays.copyOf(c.totalCentavos, capacidadeLinhas) : c.totalCentavos;
+            multaCentavos = linhasCrescem ? Arrays.copyOf(c.multaCentavos, capacidadeLinhas) : c.multaCentavos;
+            primeiroItem = linhasCrescem ? Arrays.copyOf(c.primeiroItem, capacidadeLinhas + 1) : c.primeiroItem;
+            boolean itensCrescem = capacidadeItens > c.veiculos.length;
+            veiculos = itensCrescem ? Arrays.copyOf(c.veiculos, capacidadeItens) : c.veiculos;
+            categorias = itensCrescem ? Arrays.copyOf(c.categorias, capacidadeItens) : c.categorias;
+            diariaCentavos = itensCrescem ? Arrays.copyOf(c.diariaCentavos, capacidadeItens) : c.diariaCentavos;
+            linhas = c.linhas;
+        }
+    }
+
+    // Faturamento e multas por categoria indexados pelo ordinal de CategoriaVeiculo. Os arrays são
+    // copiados na entrada e na saída: um Resumo guardado em cache não muda nas mãos de quem o recebe.
+    public record Resumo(int alugueis, long faturamentoCentavos, long multasCentavos,
+                         long[] faturamentoPorCategoria, long[] multasPorCategoria) {
+
+        public Resumo {
+            faturamentoPorCategoria = faturamentoPorCategoria.clone();
+            multasPorCategoria = multasPorCategoria.clone();
+        }
+
+        @Override
+        public long[] faturamentoPorCategoria() {
+            return faturamentoPorCategoria.clone();
+        }
+
+        @Override
+        public long[] multasPorCategoria() {
+            return multasPorCategoria.clone();
+        }
+
+        public long getFaturamentoCentavos(CategoriaVeiculo categoria) {
+            return faturamentoPorCategoria[categoria.ordinal()];
+        }
+
+        public long getMultasCentavos(CategoriaVeiculo categoria) {
+            return multasPorCategoria[categoria.ordinal()];
+        }
+    }
+}
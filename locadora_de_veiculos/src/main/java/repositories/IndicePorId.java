@@ -0,0 +1,83 @@
+package repositories;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Índice por id: como os ids são sequenciais, o próprio id é a posição (página id >>> 10,
+// posição id & 1023). Só existem as páginas das faixas de ids em uso: numa rede de filiais
+// (RedeFiliais, no módulo de benchmarks), cada filial indexa apenas os próprios blocos de ids e não paga pelos das outras.
+// Crescer copia só o array de páginas, não os elementos.
+// Escritas são serializadas; leituras não usam lock e nunca veem um array pela metade.
+public class IndicePorId<T> {
+
+    private static final int BITS_PAGINA = 10;
+    private static final int TAMANHO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA = TAMANHO_PAGINA - 1;
+
+    private volatile AtomicReferenceArray<AtomicReferenceArray<T>> paginas;
+    private volatile int tamanho;
+
+    public IndicePorId(){
+        this(16);
+    }
+
+    public IndicePorId(int capacidadeInicial){
+        this.paginas = new AtomicReferenceArray<>(Math.max((capacidadeInicial + MASCARA) >>> BITS_PAGINA, 1));
+    }
+
+    public T buscar(int id){
+        AtomicReferenceArray<AtomicReferenceArray<T>> atual = paginas;
+        if (id <= 0 || (id >>> BITS_PAGINA) >= atual.length()) {
+            return null;
+        }
+        AtomicReferenceArray<T> pagina = atual.get(id >>> BITS_PAGINA);
+        return pagina == null ? null : pagina.get(id & MASCARA);
+    }
+
+    public synchronized T colocar(int id, T elemento){
+        if (id <= 0) {
+            throw new IllegalArgumentException("Id deve ser positivo: " + id);
+        }
+        AtomicReferenceArray<AtomicReferenceArray<T>> atual = paginas;
+        int numeroPagina = id >>> BITS_PAGINA;
+        if (numeroPagina >= atual.length()) {
+            // Cresce copiando as referências das páginas para um array novo e só então publica
+            int novaCapacidade = Math.max(numeroPagina + 1, atual.length() * 2);
+            AtomicReferenceArray<AtomicReferenceArray<T>> novo = new AtomicReferenceArray<>(novaCapacidade);
+            for (int i = 0; i < atual.length(); i++) {
+                novo.lazySet(i, atual.get(i));
+            }
+            paginas = novo;
+            atual = novo;
+        }
+        AtomicReferenceArray<T> pagina = atual.get(numeroPagina);
+        if (pagina == null) {
+            pagina = new AtomicReferenceArray<>(TAMANHO_PAGINA);
+            atual.set(numeroPagina, pagina);
+        }
+        T anterior = pagina.getAndSet(id & MASCARA, elemento);
+        if (anterior == null) {
+            tamanho++;
+        }
+        return anterior;
+    }
+
+    public synchronized T remover(int id){
+        AtomicReferenceArray<AtomicReferenceArray<T>> atual = paginas;
+        if (id <= 0 || (id >>> BITS_PAGINA) >= atual.length()) {
+            return null;
+        }
+        AtomicReferenceArray<T> pagina = atual.get(id >>> BITS_PAGINA);
+        if (pagina == null) {
+            return null;
+        }
+        T anterior = pagina.getAndSet(id & MASCARA, null);
+        if (anterior != null) {
+            tamanho--;
+        }
+        return anterior;
+    }
+
+    public int tamanho(){
+        return tamanho;
+    }
+}
@@ -0,0 +1,569 @@
+package repositories;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Busca por texto sem varrer o cadastro: nomes de clientes, modelo e placa de veículos.
+// Cada documento (um número positivo dado por quem indexa) vira palavras normalizadas
+// (minúsculas, sem acento; hífen e ponto são removidos, então "ABC-1234" vira "abc1234").
+// Cada palavra distinta tem a lista ordenada dos documentos que a contêm, e as palavras ficam
+// numa trie, que responde tanto por prefixo quanto por aproximação: descer a trie carregando a
+// linha da distância de edição acha as palavras a até 1 ou 2 erros de digitação (troca de
+// letras vizinhas conta 1) e abandona um ramo assim que nenhum caminho por ele fica tão perto.
+//
+// Na busca, cada palavra digitada casa com palavras do índice por igualdade (3 pontos),
+// aproximação (1) e, só a última (a que ainda está sendo digitada), também por prefixo (2).
+// O documento precisa casar com todas, e a pontuação é a soma. A palavra com menos documentos
+// conduz a busca, faixa de pontos por faixa, em ordem de documento: assim que os N melhores não
+// podem mais ser superados, a busca para, sem passar pelo resto da lista.
+//
+// Escritas (indexar, remover) são exclusivas; buscas rodam em paralelo entre si.
+public class IndiceTexto {
+
+    private static final int EXATO = 3;
+    private static final int PREFIXO = 2;
+    private static final int APROXIMADO = 1;
+    private static final int MAXIMO_EXPANSOES = 64;  // Palavras do índice por palavra digitada
+    private static final int MINIMO_APROXIMADO = 4;  // Palavras mais curtas só casam exato ou por prefixo
+    private static final int MAXIMO_CURSORES = 8;  // Até aqui, conferir pelas listas; acima, pelas palavras do documento
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Termo> termos = new HashMap<>();
+    private final No raiz = new No();
+    private final IndicePorId<Termo[]> porDocumento = new IndicePorId<>();
+
+    // Indexa o documento, ou reindexa se o texto mudou (texto igual ao indexado não mexe em nada)
+    public void indexar(int documento, String texto) {
+        List<String> palavras = palavras(texto);
+        lock.writeLock().lock();
+        try {
+            Termo[] anteriores = porDocumento.buscar(documento);
+            if (anteriores != null && mesmasPalavras(anteriores, palavras)) {
+                return;
+            }
+            if (anteriores != null) {
+                for (Termo termo : anteriores) {
+                    termo.remover(documento);
+                }
+            }
+            Termo[] novos = new Termo[palavras.size()];
+            for (int i = 0; i < novos.length; i++) {
+                novos[i] = termo(palavras.get(i));
+                novos[i].adicionar(documento);
+            }
+            porDocumento.colocar(documento, novos);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(int documento) {
+        lock.writeLock().lock();
+        try {
+            Termo[] anteriores = porDocumento.remover(documento);
+            if (anteriores != null) {
+                for (Termo termo : anteriores) {
+                    termo.remover(documento);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Até 'limite' documentos, do mais para o menos parecido (no empate, o de menor número)
+    public int[] buscar(String consulta, int limite) {
+        List<String> palavras = palavras(consulta);
+        if (palavras.isEmpty() || limite <= 0) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            Candidatos[] porPalavra = new Candidatos[palavras.size()];
+            int condutora = 0;
+            for (int i = 0; i < porPalavra.length; i++) {
+                porPalavra[i] = candidatos(palavras.get(i), i == porPalavra.length - 1);
+                if (porPalavra[i].quantidade == 0) {
+                    return new int[0];
+                }
+                if (porPalavra[i].documentos < porPalavra[condutora].documentos) {
+                    condutora = i;
+                }
+            }
+            int maximoOutras = 0;
+            for (int i = 0; i < porPalavra.length; i++) {
+                if (i != condutora) {
+                    maximoOutras += porPalavra[i].pontos[0];
+                }
+            }
+            return percorrer(porPalavra, condutora, maximoOutras, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getPalavrasDistintas() {
+        lock.readLock().lock();
+        try {
+            return termos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDocumentos() {
+        return porDocumento.tamanho();
+    }
+
+    private int[] percorrer(Candidatos[] porPalavra, int condutora, int maximoOutras, int limite) {
+        Candidatos guia = porPalavra[condutora];
+        Melhores melhores = new Melhores(limite);
+        int inicioFaixa = 0;
+        while (inicioFaixa < guia.quantidade) {
+            int faixa = guia.pontos[inicioFaixa];
+            int fimFaixa = inicioFaixa;
+            while (fimFaixa < guia.quantidade && guia.pontos[fimFaixa] == faixa) {
+                fimFaixa++;
+            }
+            int teto = faixa + maximoOutras;  // Melhor pontuação possível daqui em diante
+            if (melhores.cheio() && melhores.piorPontos() > teto) {
+                break;
+            }
+            for (Candidatos candidatos : porPalavra) {
+                candidatos.reiniciarCursores();
+            }
+            Intercalacao listas = new Intercalacao(guia.termos, inicioFaixa, fimFaixa);
+            int documento;
+            while ((documento = listas.proximo()) != 0) {
+                if (melhores.cheio() && (melhores.piorPontos() > teto
+                        || (melhores.piorPontos() == teto && melhores.piorDocumento() < documento))) {
+                    return melhores.documentos();  // Nada mais à frente entra entre os N melhores
+                }
+                Termo[] doDocumento = null;
+                int pontos = 0;
+                boolean visto = false;
+                for (int i = 0; i < porPalavra.length && pontos >= 0; i++) {
+                    int melhor;
+                    if (porPalavra[i].quantidade <= MAXIMO_CURSORES) {
+                        melhor = porPalavra[i].melhorPontuacao(documento);
+                    } else {
+                        if (doDocumento == null) {
+                            doDocumento = porDocumento.buscar(documento);
+                        }
+                        melhor = porPalavra[i].melhorPontuacao(doDocumento);
+                    }
+                    if (i == condutora && melhor > faixa) {
+                        visto = true;  // Já passou por uma faixa anterior
+                    }
+                    pontos = melhor == 0 ? -1 : pontos + melhor;
+                }
+                if (pontos > 0 && !visto) {
+                    melhores.oferecer(documento, pontos);
+                }
+            }
+            inicioFaixa = fimFaixa;
+        }
+        return melhores.documentos();
+    }
+
+    // Palavras do índice que casam com a digitada: exata, por prefixo (mais curtas primeiro)
+    // e aproximadas, nessa ordem
+    private Candidatos candidatos(String palavra, boolean prefixo) {
+        Candidatos candidatos = new Candidatos();
+        Termo exato = termos.get(palavra);
+        if (exato != null && exato.quantidade > 0) {
+            candidatos.adicionar(exato, EXATO);
+        }
+        if (prefixo) {
+            No no = raiz;
+            for (int i = 0; i < palavra.length() && no != null; i++) {
+                no = no.filho(palavra.charAt(i));
+            }
+            if (no != null) {
+                ArrayDeque<No> fila = new ArrayDeque<>();
+                fila.add(no);
+                while (!fila.isEmpty() && candidatos.quantidade < MAXIMO_EXPANSOES) {
+                    No atual = fila.poll();
+                    if (atual.termo != null && atual.termo != exato && atual.termo.quantidade > 0) {
+                        candidatos.adicionar(atual.termo, PREFIXO);
+                    }
+                    for (int i = 0; i < atual.quantidade; i++) {
+                        fila.add(atual.filhos[i]);
+                    }
+                }
+            }
+        }
+        if (palavra.length() >= MINIMO_APROXIMADO && candidatos.quantidade < MAXIMO_EXPANSOES) {
+            int erros = palavra.length() >= 8 ? 2 : 1;
+            int[] primeira = new int[palavra.length() + 1];
+            for (int j = 0; j < primeira.length; j++) {
+                primeira[j] = j;
+            }
+            for (int i = 0; i < raiz.quantidade; i++) {
+                aproximados(raiz.filhos[i], raiz.letras[i], (char) 0, palavra, primeira, null, erros, candidatos);
+            }
+        }
+        return candidatos;
+    }
+
+    // Uma linha da distância de edição por nível da trie (a de cima e a de dois acima, para a troca
+    // de vizinhas). Se o menor valor da linha passa do limite, nenhuma palavra abaixo fica perto.
+    private void aproximados(No no, char letra, char letraAnterior, String palavra, int[] linhaAcima,
+                             int[] linhaDoisAcima, int erros, Candidatos candidatos) {
+        int[] linha = new int[linhaAcima.length];
+        linha[0] = linhaAcima[0] + 1;
+        int menor = linha[0];
+        for (int j = 1; j < linha.length; j++) {
+            int custo = palavra.charAt(j - 1) == letra ? 0 : 1;
+            int valor = Math.min(Math.min(linhaAcima[j] + 1, linha[j - 1] + 1), linhaAcima[j - 1] + custo);
+            if (linhaDoisAcima != null && j > 1 && palavra.charAt(j - 1) == letraAnterior
+                    && palavra.charAt(j - 2) == letra) {
+                valor = Math.min(valor, linhaDoisAcima[j - 2] + 1);
+            }
+            linha[j] = valor;
+            menor = Math.min(menor, valor);
+        }
+        if (no.termo != null && linha[linha.length - 1] <= erros && no.termo.quantidade > 0
+                && !candidatos.contem(no.termo)) {
+            if (candidatos.quantidade == MAXIMO_EXPANSOES) {
+                return;
+            }
+            candidatos.adicionar(no.termo, APROXIMADO);
+        }
+        if (menor > erros) {
+            return;
+        }
+        for (int i = 0; i < no.quantidade && candidatos.quantidade < MAXIMO_EXPANSOES; i++) {
+            aproximados(no.filhos[i], no.letras[i], letra, palavra, linha, linhaAcima, erros, candidatos);
+        }
+    }
+
+    private Termo termo(String palavra) {
+        Termo termo = termos.get(palavra);
+        if (termo == null) {
+            termo = new Termo(palavra);
+            termos.put(palavra, termo);
+            No no = raiz;
+            for (int i = 0; i < palavra.length(); i++) {
+                no = no.criarFilho(palavra.charAt(i));
+            }
+            no.termo = termo;
+        }
+        return termo;
+    }
+
+    private static boolean mesmasPalavras(Termo[] termos, List<String> palavras) {
+        if (termos.length != palavras.size()) {
+            return false;
+        }
+        for (int i = 0; i < termos.length; i++) {
+            if (!termos[i].texto.equals(palavras.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Palavras distintas do texto, na ordem em que aparecem
+    static List<String> palavras(String texto) {
+        List<String> palavras = new ArrayList<>(4);
+        if (texto == null) {
+            return palavras;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 127) {
+                texto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        StringBuilder palavra = new StringBuilder();
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = i < texto.length() ? texto.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                palavra.append(Character.toLowerCase(c));
+            } else if (c == '-' || c == '.' || Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;  // Junta "T-Cross", "ABC-1234"; tira o acento que a normalização separou
+            } else if (palavra.length() > 0) {
+                String pronta = palavra.toString();
+                if (!palavras.contains(pronta)) {
+                    palavras.add(pronta);
+                }
+                palavra.setLength(0);
+            }
+        }
+        return palavras;
+    }
+
+    // Palavra distinta do índice com a lista ordenada dos documentos que a contêm
+    private static final class Termo {
+        private final String texto;
+        private int[] documentos = new int[2];
+        private int quantidade;
+
+        private Termo(String texto) {
+            this.texto = texto;
+        }
+
+        // Documentos novos têm número maior, então quase sempre é um acréscimo no fim
+        private void adicionar(int documento) {
+            int posicao = Arrays.binarySearch(documentos, 0, quantidade, documento);
+            if (posicao >= 0) {
+                return;
+            }
+            posicao = -posicao - 1;
+            if (quantidade == documentos.length) {
+                documentos = Arrays.copyOf(documentos, quantidade + (quantidade >> 1) + 2);
+            }
+            System.arraycopy(documentos, posicao, documentos, posicao + 1, quantidade - posicao);
+            documentos[posicao] = documento;
+            quantidade++;
+        }
+
+        private void remover(int documento) {
+            int posicao = Arrays.binarySearch(documentos, 0, quantidade, documento);
+            if (posicao >= 0) {
+                System.arraycopy(documentos, posicao + 1, documentos, posicao, quantidade - posicao - 1);
+                quantidade--;
+            }
+        }
+
+    }
+
+    // Nó da trie: filhos ordenados pela letra
+    private static final class No {
+        private char[] letras = new char[0];
+        private No[] filhos = new No[0];
+        private int quantidade;
+        private Termo termo;
+
+        private No filho(char letra) {
+            int posicao = Arrays.binarySearch(letras, 0, quantidade, letra);
+            return posicao >= 0 ? filhos[posicao] : null;
+        }
+
+        private No criarFilho(char letra) {
+            int posicao = Arrays.binarySearch(letras, 0, quantidade, letra);
+            if (posicao >= 0) {
+                return filhos[posicao];
+            }
+            posicao = -posicao - 1;
+            if (quantidade == letras.length) {
+                letras = Arrays.copyOf(letras, quantidade + 2);
+                filhos = Arrays.copyOf(filhos, quantidade + 2);
+            }
+            System.arraycopy(letras, posicao, letras, posicao + 1, quantidade - posicao);
+            System.arraycopy(filhos, posicao, filhos, posicao + 1, quantidade - posicao);
+            No novo = new No();
+            letras[posicao] = letra;
+            filhos[posicao] = novo;
+            quantidade++;
+            return novo;
+        }
+    }
+
+    // Palavras do índice que casam com uma palavra digitada, em ordem decrescente de pontos
+    private static final class Candidatos {
+        private Termo[] termos = new Termo[4];
+        private int[] pontos = new int[4];
+        private int quantidade;
+        private long documentos;  // Soma das listas: quanto trabalho dá conduzir a busca por esta palavra
+        private Map<Termo, Integer> pontosPorTermo;  // Montado na primeira consulta (Termo compara por identidade)
+        private int[] cursores;  // Posição em cada lista, para palavras com poucas candidatas
+
+        private void adicionar(Termo termo, int valor) {
+            if (quantidade == termos.length) {
+                termos = Arrays.copyOf(termos, quantidade * 2);
+                pontos = Arrays.copyOf(pontos, quantidade * 2);
+            }
+            termos[quantidade] = termo;
+            pontos[quantidade++] = valor;
+            documentos += termo.quantidade;
+        }
+
+        private boolean contem(Termo termo) {
+            for (int i = 0; i < quantidade; i++) {
+                if (termos[i] == termo) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void reiniciarCursores() {
+            if (quantidade <= MAXIMO_CURSORES) {
+                cursores = new int[quantidade];
+            }
+        }
+
+        // Pontos da melhor palavra que contém o documento; 0 se nenhuma. Os documentos chegam em
+        // ordem crescente dentro de uma faixa, então cada lista é percorrida uma vez só, aos saltos,
+        // sem ir atrás das palavras de cada documento espalhadas pela memória.
+        private int melhorPontuacao(int documento) {
+            for (int i = 0; i < quantidade; i++) {
+                Termo termo = termos[i];
+                int posicao = avancar(termo.documentos, cursores[i], termo.quantidade, documento);
+                cursores[i] = posicao;
+                if (posicao < termo.quantidade && termo.documentos[posicao] == documento) {
+                    return pontos[i];
+                }
+            }
+            return 0;
+        }
+
+        // Primeira posição a partir de 'inicio' com valor >= documento: saltos de 1, 2, 4... e busca binária
+        private static int avancar(int[] documentos, int inicio, int fim, int documento) {
+            if (inicio >= fim || documentos[inicio] >= documento) {
+                return inicio;
+            }
+            int anterior = inicio;
+            int salto = 1;
+            int posicao = inicio + 1;
+            while (posicao < fim && documentos[posicao] < documento) {
+                anterior = posicao;
+                salto <<= 1;
+                posicao = anterior + salto;
+            }
+            int encontrada = Arrays.binarySearch(documentos, anterior + 1, Math.min(posicao, fim), documento);
+            return encontrada >= 0 ? encontrada : -encontrada - 1;
+        }
+
+        // Pontos da melhor palavra do documento que casa com a digitada; 0 se nenhuma
+        private int melhorPontuacao(Termo[] doDocumento) {
+            if (pontosPorTermo == null) {
+                pontosPorTermo = new HashMap<>(quantidade * 2);
+                for (int i = quantidade - 1; i >= 0; i--) {
+                    pontosPorTermo.put(termos[i], pontos[i]);
+                }
+            }
+            int melhor = 0;
+            for (Termo termo : doDocumento) {
+                Integer valor = pontosPorTermo.get(termo);
+                if (valor != null && valor > melhor) {
+                    melhor = valor;
+                }
+            }
+            return melhor;
+        }
+    }
+
+    // Listas de documentos de uma faixa intercaladas em ordem crescente, sem repetir documento:
+    // um heap com a posição atual de cada lista, para cada passo tocar só a lista que andou
+    private static final class Intercalacao {
+        private final Termo[] termos;
+        private final int[] heapDocumento;
+        private final int[] heapTermo;
+        private final int[] posicoes;
+        private int tamanho;
+
+        private Intercalacao(Termo[] candidatos, int inicio, int fim) {
+            termos = Arrays.copyOfRange(candidatos, inicio, fim);
+            heapDocumento = new int[termos.length];
+            heapTermo = new int[termos.length];
+            posicoes = new int[termos.length];
+            for (int i = 0; i < termos.length; i++) {
+                if (termos[i].quantidade > 0) {
+                    heapDocumento[tamanho] = termos[i].documentos[0];
+                    heapTermo[tamanho++] = i;
+                }
+            }
+            for (int i = tamanho / 2 - 1; i >= 0; i--) {
+                descer(i);
+            }
+        }
+
+        // Próximo documento, ou 0 quando as listas acabam
+        private int proximo() {
+            if (tamanho == 0) {
+                return 0;
+            }
+            int documento = heapDocumento[0];
+            while (tamanho > 0 && heapDocumento[0] == documento) {
+                int termo = heapTermo[0];
+                int posicao = ++posicoes[termo];
+                if (posicao < termos[termo].quantidade) {
+                    heapDocumento[0] = termos[termo].documentos[posicao];
+                } else {
+                    tamanho--;
+                    heapDocumento[0] = heapDocumento[tamanho];
+                    heapTermo[0] = heapTermo[tamanho];
+                }
+                descer(0);
+            }
+            return documento;
+        }
+
+        private void descer(int posicao) {
+            while (true) {
+                int menor = posicao;
+                int esquerda = 2 * posicao + 1;
+                if (esquerda < tamanho && heapDocumento[esquerda] < heapDocumento[menor]) {
+                    menor = esquerda;
+                }
+                if (esquerda + 1 < tamanho && heapDocumento[esquerda + 1] < heapDocumento[menor]) {
+                    menor = esquerda + 1;
+                }
+                if (menor == posicao) {
+                    return;
+                }
+                int documento = heapDocumento[posicao];
+                int termo = heapTermo[posicao];
+                heapDocumento[posicao] = heapDocumento[menor];
+                heapTermo[posicao] = heapTermo[menor];
+                heapDocumento[menor] = documento;
+                heapTermo[menor] = termo;
+                posicao = menor;
+            }
+        }
+    }
+
+    // Os N melhores até agora, do melhor para o pior (mais pontos; no empate, menor documento)
+    private static final class Melhores {
+        private final int[] documentos;
+        private final int[] pontos;
+        private int quantidade;
+
+        private Melhores(int limite) {
+            this.documentos = new int[limite];
+            this.pontos = new int[limite];
+        }
+
+        private boolean cheio() {
+            return quantidade == documentos.length;
+        }
+
+        private int piorPontos() {
+            return pontos[quantidade - 1];
+        }
+
+        private int piorDocumento() {
+            return documentos[quantidade - 1];
+        }
+
+        private void oferecer(int documento, int valor) {
+            int posicao = quantidade;
+            while (posicao > 0 && (pontos[posicao - 1] < valor
+                    || (pontos[posicao - 1] == valor && documentos[posicao - 1] > documento))) {
+                posicao--;
+            }
+            if (posicao == documentos.length) {
+                return;
+            }
+            int mover = Math.min(quantidade, documentos.length - 1) - posicao;
+            System.arraycopy(documentos, posicao, documentos, posicao + 1, mover);
+            System.arraycopy(pontos, posicao, pontos, posicao + 1, mover);
+            documentos[posicao] = documento;
+            pontos[posicao] = valor;
+            quantidade = Math.min(quantidade + 1, documentos.length);
+        }
+
+        private int[] documentos() {
+            return Arrays.copyOf(documentos, quantidade);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package repositories;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+// Lista só de acréscimos (e substituições raras) que entrega retratos de leitura sem copiar nada.
+// Os elementos ficam em segmentos de 1024 posições. Um retrato é o par (segmentos, tamanho)
+// publicado na última escrita: acrescentar só escreve em posições além do tamanho de qualquer
+// retrato já entregue, e substituir copia apenas o segmento afetado (copy-on-write) e publica
+// um novo array de segmentos. Assim o leitor nunca bloqueia o escritor, nunca vê a lista mudar
+// no meio da leitura e não aloca nada proporcional ao tamanho.
+// Escrita: um escritor por vez (o lock do repositório que usa a lista).
+// Remoções em lote (removerSe) remontam a lista; remover um só troca o último para o lugar dele,
+// copiando no máximo dois segmentos, então a ordem de inserção só vale enquanto nada sai.
+// A posição de cada elemento fica indexada pelo id (páginas de int, como no IndicePorId), então
+// substituir acha o elemento sem percorrer a lista. Só o escritor usa esse índice.
+public class ListaSegmentada<T> {
+
+    private static final int BITS_SEGMENTO = 10;
+    private static final int TAMANHO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA = TAMANHO_SEGMENTO - 1;
+
+    private final ToIntFunction<? super T> id;
+    private volatile Visao<T> atual = new Visao<>(new Object[0][], 0);
+    private int[][] posicoes = new int[1][];  // Por id: posição + 1 (0 = ausente)
+
+    public ListaSegmentada(ToIntFunction<? super T> id) {
+        this.id = id;
+    }
+
+    public void adicionar(T elemento) {
+        Visao<T> visao = atual;
+        Object[][] segmentos = visao.segmentos;
+        int tamanho = visao.tamanho;
+        int segmento = tamanho >>> BITS_SEGMENTO;
+        if (segmento == segmentos.length) {
+            segmentos = Arrays.copyOf(segmentos, Math.max(4, segmentos.length * 2));
+        }
+        if (segmentos[segmento] == null) {
+            segmentos[segmento] = new Object[TAMANHO_SEGMENTO];
+        }
+        segmentos[segmento][tamanho & MASCARA] = elemento;
+        guardarPosicao(id.applyAsInt(elemento), tamanho);
+        atual = new Visao<>(segmentos, tamanho + 1);
+    }
+
+    // Troca o elemento de mesmo id por 'novo', na mesma posição; false se o id não estiver na lista
+    public boolean substituir(T novo) {
+        Visao<T> visao = atual;
+        int posicao = posicao(id.applyAsInt(novo));
+        if (posicao < 0) {
+            return false;
+        }
+        Object[][] segmentos = visao.segmentos.clone();
+        int segmento = posicao >>> BITS_SEGMENTO;
+        segmentos[segmento] = segmentos[segmento].clone();
+        segmentos[segmento][posicao & MASCARA] = novo;
+        atual = new Visao<>(segmentos, visao.tamanho);
+        return true;
+    }
+
+    // Coloca o elemento: substitui o de mesmo id ou acrescenta no fim; nada muda se já estiver lá
+    public void colocar(T elemento) {
+        int posicao = posicao(id.applyAsInt(elemento));
+        if (posicao >= 0 && atual.get(posicao) == elemento) {
+            return;
+        }
+        if (!substituir(elemento)) {
+            adicionar(elemento);
+        }
+    }
+
+    // Remove o elemento com o id 'chave' trazendo o último para a posição dele; false se não estiver.
+    // O segmento do último é sempre copiado: o próximo acréscimo escreve de novo naquela posição,
+    // que os retratos já entregues ainda leem.
+    @SuppressWarnings("unchecked")
+    public boolean remover(int chave) {
+        Visao<T> visao = atual;
+        int posicao = posicao(chave);
+        if (posicao < 0) {
+            return false;
+        }
+        guardarPosicao(chave, -1);
+        int ultima = visao.tamanho - 1;
+        Object[][] segmentos = visao.segmentos.clone();
+        int segmentoUltima = ultima >>> BITS_SEGMENTO;
+        segmentos[segmentoUltima] = segmentos[segmentoUltima].clone();
+        if (posicao != ultima) {
+            int segmento = posicao >>> BITS_SEGMENTO;
+            if (segmento != segmentoUltima) {
+                segmentos[segmento] = segmentos[segmento].clone();
+            }
+            T ultimo = (T) segmentos[segmentoUltima][ultima & MASCARA];
+            segmentos[segmento][posicao & MASCARA] = ultimo;
+            guardarPosicao(id.applyAsInt(ultimo), posicao);
+        }
+        segmentos[segmentoUltima][ultima & MASCARA] = null;
+        atual = new Visao<>(segmentos, ultima);
+        return true;
+    }
+
+    // Remove os elementos que atendem ao filtro, remontando os segmentos numa lista nova (O(n)).
+    // Retratos já entregues continuam com o conteúdo antigo. Retorna quantos saíram.
+    public int removerSe(Predicate<? super T> filtro) {
+        Visao<T> visao = atual;
+        Object[][] segmentos = new Object[Math.max(4, visao.segmentos.length)][];
+        int tamanho = 0;
+        for (int i = 0; i < visao.tamanho; i++) {
+            T elemento = visao.get(i);
+            if (filtro.test(elemento)) {
+                guardarPosicao(id.applyAsInt(elemento), -1);
+                continue;
+            }
+            guardarPosicao(id.applyAsInt(elemento), tamanho);
+            int segmento = tamanho >>> BITS_SEGMENTO;
+            if (segmentos[segmento] == null) {
+                segmentos[segmento] = new Object[TAMANHO_SEGMENTO];
+            }
+            segmentos[segmento][tamanho & MASCARA] = elemento;
+            tamanho++;
+        }
+        atual = new Visao<>(segmentos, tamanho);
+        return visao.tamanho - tamanho;
+    }
+
+    private int posicao(int chave) {
+        int pagina = chave >>> BITS_SEGMENTO;
+        if (chave < 0 || pagina >= posicoes.length || posicoes[pagina] == null) {
+            return -1;
+        }
+        return posicoes[pagina][chave & MASCARA] - 1;
+    }
+
+    // posicao -1 apaga
+    private void guardarPosicao(int chave, int posicao) {
+        if (chave < 0) {
+            throw new IllegalArgumentException("Id negativo: " + chave);
+        }
+        int pagina = chave >>> BITS_SEGMENTO;
+        if (pagina >= posicoes.length) {
+            posicoes = Arrays.copyOf(posicoes, Math.max(pagina + 1, posicoes.length * 2));
+        }
+        if (posicoes[pagina] == null) {
+            posicoes[pagina] = new int[TAMANHO_SEGMENTO];
+        }
+        posicoes[pagina][chave & MASCARA] = posicao + 1;
+    }
+
+    // Retrato consistente do conteúdo atual; O(1), sem cópia
+    public Visao<T> retrato() {
+        return atual;
+    }
+
+    public int tamanho() {
+        return atual.tamanho;
+    }
+
+    // Lista somente leitura de tamanho fixo. pagina() e subList() também não copiam.
+    public static final class Visao<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] segmentos;
+        private final int tamanho;
+
+        private Visao(Object[][] segmentos, int tamanho) {
+            this.segmentos = segmentos;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int indice) {
+            if (indice < 0 || indice >= tamanho) {
+                throw new IndexOutOfBoundsException("Índice " + indice + ", tamanho " + tamanho);
+            }
+            return (T) segmentos[indice >>> BITS_SEGMENTO][indice & MASCARA];
+        }
+
+        @Override
+        public int size() {
+            return tamanho;
+        }
+
+        // Página [inicio, inicio + quantidade) limitada ao fim; vazia se inicio passar do fim
+        public List<T> pagina(int inicio, int quantidade) {
+            if (inicio < 0 || quantidade < 0) {
+                throw new IllegalArgumentException("Página inválida: inicio=" + inicio + ", quantidade=" + quantidade);
+            }
+            int de = Math.min(inicio, tamanho);
+            return subList(de, (int) Math.min((long) de + quantidade, tamanho));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package repositories;
+
+import entities.Aluguel;
+import entities.Cliente;
+import entities.Veiculo;
+
+// Recebe cada alteração feita nos repositórios (persistência, agregados de relatório, etc.).
+// As chamadas acontecem na thread que fez a alteração, logo depois dela.
+public interface OuvinteRepositorio {
+
+    default void veiculoSalvo(Veiculo veiculo) {}
+
+    // Disponibilidade, categoria, preço, placa ou modelo mudou
+    default void veiculoAlterado(Veiculo veiculo) {}
+
+    default void clienteSalvo(Cliente cliente) {}
+
+    default void aluguelSalvo(Aluguel aluguel) {}
+
+    // Status, data de devolução ou multa mudou
+    default void aluguelAlterado(Aluguel aluguel) {}
+
+    // Chamado na mesma thread depois que o repositório soltou os locks da alteração: esperas
+    // (como o fsync do log ou a contrapressão do anel de eventos) ficam aqui, sem bloquear quem
+    // disputa o mesmo lock
+    default void alteracoesConcluidas() {}
+}
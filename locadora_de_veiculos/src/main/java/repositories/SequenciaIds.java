@@ -0,0 +1,47 @@
+package repositories;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Numeração de ids compartilhada por vários repositórios (as filiais do RedeFiliais, no módulo de benchmarks), para um id
+// valer na rede inteira. Cada repositório tira blocos de ids consecutivos pelo seu Cursor: o
+// contador compartilhado só é tocado uma vez por bloco e os ids de uma filial ficam agrupados,
+// o que mantém o IndicePorId de cada uma com poucas páginas.
+// Com bloco de 1 é a numeração 1, 2, 3... de um repositório sozinho.
+public class SequenciaIds {
+
+    private final AtomicInteger proximo = new AtomicInteger(1);
+    private final int tamanhoBloco;
+
+    public SequenciaIds(int tamanhoBloco) {
+        if (tamanhoBloco < 1) {
+            throw new IllegalArgumentException("Tamanho do bloco deve ser positivo: " + tamanhoBloco);
+        }
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // Sem lock próprio: cada cursor é usado sob o lock do repositório dono
+    public final class Cursor {
+        private int proximoId;
+        private int fimBloco;
+
+        public int proximo() {
+            if (proximoId == fimBloco) {
+                proximoId = proximo.getAndAdd(tamanhoBloco);
+                fimBloco = proximoId + tamanhoBloco;
+            }
+            return proximoId++;
+        }
+
+        // Id que veio de fora (restauração, arquivo): a numeração continua depois dele
+        public void usado(int id) {
+            proximo.accumulateAndGet(id + 1, Math::max);
+            if (id >= proximoId && id < fimBloco) {
+                proximoId = id + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package repositories;
+
+import entities.CalculadoraPreco;
+import entities.CategoriaVeiculo;
+import entities.Veiculo;
+
+import java.util.Arrays;
+
+// Diárias dos veículos disponíveis em colunas (id e diária em centavos, um par de arrays por
+// categoria), para cotar "N dias" da frota livre inteira numa passada só sobre long[]
+// (CalculadoraPreco.totaisCentavos), sem visitar veículo por veículo.
+// Mantida pelo VeiculoRepository junto com os índices de disponibilidade. Para remover, o último
+// da coluna vai para o lugar do removido: a ordem dentro da coluna é qualquer.
+// Uma troca de preço base chega pelo ouvinte do veículo (VeiculoRepository.veiculoAlterado).
+public class TabelaPrecos {
+
+    private static final CategoriaVeiculo[] CATEGORIAS = CategoriaVeiculo.values();
+
+    private final Coluna[] colunas = new Coluna[CATEGORIAS.length];
+    private int[] posicoes = new int[1024];  // Por id: posição na coluna + 1 (0 = fora da tabela)
+    private byte[] categorias = new byte[1024];  // Por id: coluna em que o veículo está
+
+    public TabelaPrecos() {
+        for (int i = 0; i < colunas.length; i++) {
+            colunas[i] = new Coluna();
+        }
+    }
+
+    // Coloca, move ou tira o veículo conforme disponibilidade, categoria e diária atuais
+    synchronized void atualizar(Veiculo veiculo) {
+        int id = veiculo.getId();
+        if (id >= posicoes.length) {
+            int tamanho = Math.max(id + 1, posicoes.length * 2);
+            posicoes = Arrays.copyOf(posicoes, tamanho);
+            categorias = Arrays.copyOf(categorias, tamanho);
+        }
+        int categoria = veiculo.getCategoria().ordinal();
+        if (posicoes[id] != 0 && (!veiculo.isDisponivel() || categorias[id] != categoria)) {
+            remover(id);
+        }
+        if (!veiculo.isDisponivel()) {
+            return;
+        }
+        Coluna coluna = colunas[categoria];
+        if (posicoes[id] == 0) {
+            posicoes[id] = coluna.adicionar(id) + 1;
+            categorias[id] = (byte) categoria;
+        }
+        coluna.diarias[posicoes[id] - 1] = veiculo.getPrecoDiarioCentavos();
+    }
+
+    private void remover(int id) {
+        Coluna coluna = colunas[categorias[id]];
+        int posicao = posicoes[id] - 1;
+        int ultimo = coluna.ids[coluna.tamanho - 1];
+        coluna.ids[posicao] = ultimo;
+        coluna.diarias[posicao] = coluna.diarias[coluna.tamanho - 1];
+        posicoes[ultimo] = posicao + 1;
+        coluna.tamanho--;
+        posicoes[id] = 0;
+    }
+
+    // Total de 'dias' de cada veículo disponível da categoria (null = todas)
+    public synchronized Cotacao cotar(CategoriaVeiculo categoria, int dias) {
+        int quantidade = 0;
+        for (int i = 0; i < colunas.length; i++) {
+            if (categoria == null || categoria.ordinal() == i) {
+                quantidade += colunas[i].tamanho;
+            }
+        }
+        int[] veiculos = new int[quantidade];
+        long[] totais = new long[quantidade];
+        int posicao = 0;
+        for (int i = 0; i < colunas.length; i++) {
+            if (categoria == null || categoria.ordinal() == i) {
+                Coluna coluna = colunas[i];
+                System.arraycopy(coluna.ids, 0, veiculos, posicao, coluna.tamanho);
+                CalculadoraPreco.totaisCentavos(coluna.diarias, coluna.tamanho, dias, totais, posicao);
+                posicao += coluna.tamanho;
+            }
+        }
+        return new Cotacao(dias, veiculos, totais);
+    }
+
+    private static final class Coluna {
+        private int[] ids = new int[64];
+        private long[] diarias = new long[64];
+        private int tamanho;
+
+        private int adicionar(int id) {
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+                diarias = Arrays.copyOf(diarias, tamanho * 2);
+            }
+            ids[tamanho] = id;
+            return tamanho++;
+        }
+    }
+
+    // veiculos[i] custa totaisCentavos[i] por 'dias' dias (descontos por duração já aplicados)
+    public record Cotacao(int dias, int[] veiculos, long[] totaisCentavos) {
+
+        public int quantidade() {
+            return veiculos.length;
+        }
+    }
+}
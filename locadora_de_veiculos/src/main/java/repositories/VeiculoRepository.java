@@ -1,40 +1,270 @@
 package repositories;
+import entities.CategoriaVeiculo;
+import entities.OuvinteVeiculo;
 import entities.Veiculo;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class VeiculoRepository {
+public class VeiculoRepository implements OuvinteVeiculo {
 
-    private List<Veiculo> veiculos = new ArrayList<>();
-    private int nextId = 1;
+    private static final int TRAVAS_VEICULOS = 64;  // Potência de 2
+
+    private final ListaSegmentada<Veiculo> veiculos = new ListaSegmentada<>(Veiculo::getId);
+    private final SequenciaIds.Cursor ids;
+
+    // Índices: id e placa para busca direta, e disponíveis por categoria. Os disponíveis ficam em
+    // listas segmentadas: listar é um retrato sem cópia, e quem muda a lista segura travaDisponiveis
+    private final IndicePorId<Veiculo> porId = new IndicePorId<>();
+    private final Map<String, Veiculo> porPlaca = new ConcurrentHashMap<>();
+    private final ListaSegmentada<Veiculo> disponiveis = new ListaSegmentada<>(Veiculo::getId);
+    private final Map<CategoriaVeiculo, ListaSegmentada<Veiculo>> disponiveisPorCategoria =
+            new EnumMap<>(CategoriaVeiculo.class);
+    private final List<OuvinteRepositorio> ouvintes = new CopyOnWriteArrayList<>();
+    private final IndiceTexto porTexto = new IndiceTexto();  // Modelo e placa; documento = id
+    private final TabelaPrecos precos = new TabelaPrecos();  // Diárias dos disponíveis, para cotação em lote
+    // Locks explícitos (uma virtual thread esperando não prende a thread do sistema): o do
+    // repositório para salvar, e um por grupo de veículos (pelo id) para as alterações de cada um
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock[] travasVeiculos = new ReentrantLock[TRAVAS_VEICULOS];
+    private final ReentrantLock travaDisponiveis = new ReentrantLock();
+
+    public VeiculoRepository(){
+        this(new SequenciaIds(1));
+    }
+
+    // Numeração compartilhada com outros repositórios (filiais de uma mesma rede)
+    public VeiculoRepository(SequenciaIds sequencia){
+        this.ids = sequencia.cursor();
+        for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+            disponiveisPorCategoria.put(categoria, new ListaSegmentada<>(Veiculo::getId));
+        }
+        for (int i = 0; i < TRAVAS_VEICULOS; i++) {
+            travasVeiculos[i] = new ReentrantLock();
+        }
+    }
 
     public void salvar(Veiculo veiculo){
+        lock.lock();
+        try {
+            salvarSemLock(veiculo);
+        } finally {
+            lock.unlock();
+            concluir();
+        }
+    }
+
+    // Salva um lote inteiro adquirindo o lock uma vez só (importação em massa)
+    public void salvarTodos(List<Veiculo> lote){
+        lock.lock();
+        try {
+            for (Veiculo veiculo : lote) {
+                salvarSemLock(veiculo);
+            }
+        } finally {
+            lock.unlock();
+            concluir();
+        }
+    }
+
+    private void salvarSemLock(Veiculo veiculo){
         if(veiculo.getId()==0){
-            veiculo.setId(nextId++);
+            veiculo.setId(ids.proximo());
+        } else {
+            ids.usado(veiculo.getId());
+        }
+
+        Veiculo anterior = porId.colocar(veiculo.getId(), veiculo);
+        if (anterior == null) {
+            veiculos.adicionar(veiculo);
+        } else {
+            // Salvar de novo substitui o registro e reindexa a placa
+            veiculos.substituir(veiculo);
+            // Pela placa atual: trocas de placa já reindexaram (placaAlterada)
+            removerPlaca(anterior.getPlaca(), anterior);
+            anterior.setOuvinte(null);
+        }
+        indexarPlaca(veiculo);
+
+        indexarTexto(veiculo);
+        veiculo.setOuvinte(this);
+        atualizarIndices(veiculo);
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            ouvinte.veiculoSalvo(veiculo);
         }
-        veiculos.add(veiculo);
     }
 
+    // Retrato somente leitura, sem cópia: não muda mesmo que a frota mude depois
     public List<Veiculo> listarTodos() {
-        return new ArrayList<>(veiculos);
+        return veiculos.retrato();
+    }
+
+    public List<Veiculo> listarPagina(int inicio, int quantidade) {
+        return veiculos.retrato().pagina(inicio, quantidade);
     }
 
+    // Retrato dos disponíveis agora, sem cópia: quem recebe não vê a lista mudar depois.
+    // Sem ordem definida (um veículo que sai dá o lugar ao último da lista)
     public List<Veiculo> listarDisponiveis() {
-        List<Veiculo> disponiveis = new ArrayList<>();
-        for (Veiculo veiculo : veiculos) {
-            if (veiculo.isDisponivel()) {
-                disponiveis.add(veiculo);
+        return disponiveis.retrato();
+    }
+
+    // Retrato só da categoria, sem varrer a frota
+    public List<Veiculo> listarDisponiveis(CategoriaVeiculo categoria) {
+        return disponiveisPorCategoria.get(categoria).retrato();
+    }
+
+    public Veiculo buscarPorId(int id) {
+        return porId.buscar(id);
+    }
+
+    public Veiculo buscarPorPlaca(String placa) {
+        return porPlaca.get(placa);
+    }
+
+    // Até 'limite' veículos por modelo ou placa ("onix", "corol", "abc1d", "ABC-1234"),
+    // tolerando erros de digitação
+    public List<Veiculo> buscarPorTexto(String consulta, int limite) {
+        int[] ids = porTexto.buscar(consulta, limite);
+        List<Veiculo> encontrados = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Veiculo veiculo = porId.buscar(id);
+            if (veiculo != null) {
+                encontrados.add(veiculo);
             }
         }
-        return disponiveis;
+        return encontrados;
     }
 
-    public Veiculo buscarPorId(int id) {
-        for (Veiculo veiculo : veiculos) {
-            if (veiculo.getId() == id) {
-                return veiculo;
+    // Preço de 'dias' dias de cada disponível da categoria (null = todas), numa passada só
+    public TabelaPrecos.Cotacao cotar(CategoriaVeiculo categoria, int dias) {
+        return precos.cotar(categoria, dias);
+    }
+
+    public int tamanho() {
+        return porId.tamanho();
+    }
+
+    public void adicionarOuvinte(OuvinteRepositorio ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    // Já sem o lock: os ouvintes terminam o que precisa esperar (fsync, por exemplo). Todos
+    // são chamados mesmo se um falhar: o publicador de eventos tem sequências a publicar.
+    private void concluir() {
+        RuntimeException erro = null;
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            try {
+                ouvinte.alteracoesConcluidas();
+            } catch (RuntimeException e) {
+                if (erro == null) {
+                    erro = e;
+                } else {
+                    erro.addSuppressed(e);
+                }
+            }
+        }
+        if (erro != null) {
+            throw erro;
+        }
+    }
+
+    // Chamado pelo próprio veículo quando muda disponibilidade, categoria ou preço.
+    // O lock é por veículo: a última notificação sempre lê o estado final,
+    // e os ouvintes recebem as alterações de um mesmo veículo na ordem em que aconteceram.
+    @Override
+    public void veiculoAlterado(Veiculo veiculo) {
+        ReentrantLock trava = trava(veiculo);
+        trava.lock();
+        try {
+            atualizarIndices(veiculo);
+            notificarAlteracao(veiculo);
+        } finally {
+            trava.unlock();
+            concluir();
+        }
+    }
+
+    @Override
+    public void placaAlterada(Veiculo veiculo, String placaAnterior) {
+        ReentrantLock trava = trava(veiculo);
+        trava.lock();
+        try {
+            removerPlaca(placaAnterior, veiculo);
+            indexarPlaca(veiculo);
+            indexarTexto(veiculo);
+            notificarAlteracao(veiculo);
+        } finally {
+            trava.unlock();
+            concluir();
+        }
+    }
+
+    @Override
+    public void modeloAlterado(Veiculo veiculo) {
+        ReentrantLock trava = trava(veiculo);
+        trava.lock();
+        try {
+            indexarTexto(veiculo);
+            notificarAlteracao(veiculo);
+        } finally {
+            trava.unlock();
+            concluir();
+        }
+    }
+
+    private void notificarAlteracao(Veiculo veiculo) {
+        for (OuvinteRepositorio ouvinte : ouvintes) {
+            ouvinte.veiculoAlterado(veiculo);
+        }
+    }
+
+    private ReentrantLock trava(Veiculo veiculo) {
+        return travasVeiculos[veiculo.getId() & (TRAVAS_VEICULOS - 1)];
+    }
+
+    private void indexarTexto(Veiculo veiculo) {
+        porTexto.indexar(veiculo.getId(), veiculo.getModelo() + ' ' + veiculo.getPlaca());
+    }
+
+    private void indexarPlaca(Veiculo veiculo) {
+        porPlaca.put(veiculo.getPlaca(), veiculo);
+    }
+
+    // Só se a chave ainda aponta para este veículo (outro pode ter assumido a placa)
+    private void removerPlaca(String placa, Veiculo veiculo) {
+        porPlaca.remove(placa, veiculo);
+    }
+
+    private void atualizarIndices(Veiculo veiculo) {
+        ReentrantLock trava = trava(veiculo);
+        trava.lock();
+        try {
+            travaDisponiveis.lock();
+            try {
+                for (Map.Entry<CategoriaVeiculo, ListaSegmentada<Veiculo>> entrada
+                        : disponiveisPorCategoria.entrySet()) {
+                    if (veiculo.isDisponivel() && entrada.getKey() == veiculo.getCategoria()) {
+                        entrada.getValue().colocar(veiculo);
+                    } else {
+                        entrada.getValue().remover(veiculo.getId());
+                    }
+                }
+                if (veiculo.isDisponivel()) {
+                    disponiveis.colocar(veiculo);
+                } else {
+                    disponiveis.remover(veiculo.getId());
+                }
+            } finally {
+                travaDisponiveis.unlock();
             }
+            precos.atualizar(veiculo);
+        } finally {
+            trava.unlock();
         }
-        return null;
     }
 }
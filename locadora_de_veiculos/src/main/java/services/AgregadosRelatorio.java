@@ -0,0 +1,144 @@
+package services;
+import entities.Aluguel;
+import entities.CalculadoraPreco;
+import entities.CategoriaVeiculo;
+import entities.Cliente;
+import entities.ItemAluguel;
+import entities.StatusAluguel;
+import entities.Veiculo;
+import repositories.OuvinteRepositorio;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Totais dos relatórios mantidos a cada aluguel criado ou finalizado, em vez de varrer o histórico.
+// Os contadores (LongAdder, em centavos) aceitam escritas concorrentes sem disputa por um único valor.
+public class AgregadosRelatorio implements OuvinteRepositorio {
+
+    private final LongAdder faturamentoCentavos = new LongAdder();
+    private final LongAdder multasCentavos = new LongAdder();
+    private final LongAdder totalAlugueis = new LongAdder();
+    private final Map<CategoriaVeiculo, LongAdder> faturamentoPorCategoria = new EnumMap<>(CategoriaVeiculo.class);
+    private final Map<CategoriaVeiculo, LongAdder> multasPorCategoria = new EnumMap<>(CategoriaVeiculo.class);
+    private final RankingTopK<Veiculo> veiculosPopulares;
+    private final RankingTopK<Cliente> clientesFieis;
+
+    public AgregadosRelatorio(){
+        this(20, false);
+    }
+
+    // rankingAproximado: clientes no modo Space-Saving, com memória fixa mesmo com milhões de CPFs
+    public AgregadosRelatorio(int tamanhoRanking, boolean rankingAproximado){
+        veiculosPopulares = RankingTopK.exato(tamanhoRanking);
+        clientesFieis = rankingAproximado
+                ? RankingTopK.aproximado(tamanhoRanking, tamanhoRanking * 50)
+                : RankingTopK.exato(tamanhoRanking);
+        for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+            faturamentoPorCategoria.put(categoria, new LongAdder());
+            multasPorCategoria.put(categoria, new LongAdder());
+        }
+    }
+
+    @Override
+    public void aluguelSalvo(Aluguel aluguel) {
+        aluguelSalvo(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+    }
+
+    // Status e multa passados à parte: quem processa um evento depois usa os valores do momento do evento
+    public void aluguelSalvo(Aluguel aluguel, StatusAluguel status, long multaCentavos) {
+        totalAlugueis.increment();
+        if (status != StatusAluguel.CANCELADO) {
+            faturar(aluguel, 1);
+        }
+        Cliente cliente = aluguel.getCliente();
+        // Pelo número de cadastro, único por cliente: a chave do CPF junta CPFs com os mesmos
+        // dígitos (ou, fora do formato numérico, o mesmo hash)
+        clientesFieis.incrementar(cliente.getNumero(), cliente);
+        for (ItemAluguel item : aluguel.getVeiculos()) {
+            Veiculo veiculo = item.getVeiculo();
+            veiculosPopulares.incrementar(veiculo.getId(), veiculo);
+        }
+        if (status == StatusAluguel.FINALIZADO) {
+            multar(aluguel, multaCentavos);
+        }
+    }
+
+    @Override
+    public void aluguelAlterado(Aluguel aluguel) {
+        aluguelAlterado(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+    }
+
+    public void aluguelAlterado(Aluguel aluguel, StatusAluguel status, long multaCentavos) {
+        // O repositório só notifica quando o status muda, então cada multa entra uma vez
+        if (status == StatusAluguel.FINALIZADO) {
+            multar(aluguel, multaCentavos);
+        } else if (status == StatusAluguel.CANCELADO) {
+            faturar(aluguel, -1);  // Reserva cancelada não fatura
+        }
+    }
+
+    private void faturar(Aluguel aluguel, int sinal) {
+        faturamentoCentavos.add(sinal * aluguel.calcularTotalCentavos());
+        for (ItemAluguel item : aluguel.getVeiculos()) {
+            faturamentoPorCategoria.get(item.getVeiculo().getCategoria())
+                    .add(sinal * item.getSubtotalCentavos() * aluguel.getDias());
+        }
+    }
+
+    // Rateada entre as categorias pela diária de cada veículo (Aluguel.multaPorCategoriaCentavos)
+    private void multar(Aluguel aluguel, long multaCentavos) {
+        this.multasCentavos.add(multaCentavos);
+        long[] porCategoria = aluguel.multaPorCategoriaCentavos(multaCentavos);
+        for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+            if (porCategoria[categoria.ordinal()] != 0) {
+                multasPorCategoria.get(categoria).add(porCategoria[categoria.ordinal()]);
+            }
+        }
+    }
+
+    public double getFaturamento() {
+        return CalculadoraPreco.emReais(faturamentoCentavos.sum());
+    }
+
+    public long getFaturamentoCentavos() {
+        return faturamentoCentavos.sum();
+    }
+
+    public double getMultas() {
+        return CalculadoraPreco.emReais(multasCentavos.sum());
+    }
+
+    public long getMultasCentavos() {
+        return multasCentavos.sum();
+    }
+
+    public long getTotalAlugueis() {
+        return totalAlugueis.sum();
+    }
+
+    public double getFaturamento(CategoriaVeiculo categoria) {
+        return CalculadoraPreco.emReais(faturamentoPorCategoria.get(categoria).sum());
+    }
+
+    public long getFaturamentoCentavos(CategoriaVeiculo categoria) {
+        return faturamentoPorCategoria.get(categoria).sum();
+    }
+
+    public long getMultasCentavos(CategoriaVeiculo categoria) {
+        return multasPorCategoria.get(categoria).sum();
+    }
+
+    public List<RankingTopK.Posicao<Veiculo>> getVeiculosPopulares() {
+        return veiculosPopulares.topo();
+    }
+
+    public List<RankingTopK.Posicao<Cliente>> getClientesFieis() {
+        return clientesFieis.topo();
+    }
+
+    public boolean isRankingClientesAproximado() {
+        return clientesFieis.isAproximado();
+    }
+}
@@ -3,9 +3,9 @@ import entities.Aluguel;
 import entities.Cliente;
 import entities.ItemAluguel;
 import entities.StatusAluguel;
+import repositories.AgendaReservas;
 import repositories.AluguelRepository;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -14,49 +14,149 @@ import java.util.List;
 public class AluguelService {
     private AluguelRepository aluguelRepository;
     private VeiculoService veiculoService;
+    private final DetectorAtrasos atrasos;
 
     public AluguelService(){
-        this.aluguelRepository = new AluguelRepository();
-        this.veiculoService = new VeiculoService();
+        this(new AluguelRepository(), new VeiculoService());
+    }
+
+    public AluguelService(AluguelRepository aluguelRepository, VeiculoService veiculoService){
+        this.aluguelRepository = aluguelRepository;
+        this.veiculoService = veiculoService;
+        // Agenda começa com o que ainda ocupa veículos (por exemplo, restaurado do disco).
+        // Aluguéis antigos de 0 dias (de antes da validação) não ocupam período nenhum.
+        for (StatusAluguel status : new StatusAluguel[]{StatusAluguel.ATIVO, StatusAluguel.RESERVADO}) {
+            for (Aluguel aluguel : aluguelRepository.listarPorStatus(status)) {
+                if (aluguel.getDias() > 0) {
+                    veiculoService.reservarPeriodo(aluguel, aluguel.getVeiculos());
+                }
+            }
+        }
+        this.atrasos = DetectorAtrasos.criar(aluguelRepository);
     }
 
     //estudar essa parte não entendi muito falta comprender a logica
 
+    // Retorna null se algum veículo já tiver sido alugado por outro atendente
+    // ou se já houver reserva para ele dentro do período; IllegalArgumentException se dias fora de 1..DURACAO_MAXIMA_DIAS
     public Aluguel criarAluguel(Cliente cliente, int dias, List<ItemAluguel> veiculos){
+        AgendaReservas.validarPeriodo(System.currentTimeMillis(), dias);
+        // Torna todos os veículos INDISPONÍVEIS de uma vez (tudo ou nada)
+        if (!veiculoService.reservarTodos(veiculos)) {
+            return null;
+        }
         Aluguel aluguel = new Aluguel(cliente , dias);
+        if (!veiculoService.reservarPeriodo(aluguel, veiculos)) {
+            veiculoService.liberarTodos(veiculos);
+            return null;
+        }
+        return registrar(aluguel, veiculos);
+    }
+
+    // Reserva antecipada: ocupa o período na agenda, mas o veículo só fica indisponível
+    // na retirada. Retorna null se algum veículo já tiver reserva que se sobreponha;
+    // IllegalArgumentException se dias fora de 1..DURACAO_MAXIMA_DIAS ou se o início já passou.
+    public Aluguel criarAluguel(Cliente cliente, Date inicio, int dias, List<ItemAluguel> veiculos){
+        AgendaReservas.validarPeriodo(inicio.getTime(), dias);
+        Aluguel aluguel = new Aluguel(cliente , dias);
+        aluguel.setDataAluguel(inicio);
+        aluguel.setStatus(StatusAluguel.RESERVADO);
+        if (!veiculoService.reservarPeriodo(aluguel, veiculos)) {
+            return null;
+        }
+        return registrar(aluguel, veiculos);
+    }
+
+    private Aluguel registrar(Aluguel aluguel, List<ItemAluguel> veiculos){
         for (ItemAluguel item : veiculos) {
             aluguel.adicionarVeiculo(item);
-            // Torna veículo INDISPONÍVEL
-            veiculoService.atualizarDisponibilidade(item.getVeiculo().getId(), false);
         }
-        cliente.adicionarAluguel(aluguel); // Adiciona ao histórico
         aluguelRepository.salvar(aluguel);
+        aluguel.getCliente().adicionarAluguel(aluguel); // Adiciona ao histórico (pelo id, já atribuído)
         return aluguel;
     }
-    // FINALIZAR aluguel (devolução)
-    public void finalizarAluguel(int aluguelId){
+
+    // Retirada de uma reserva: o aluguel passa a ATIVO. Retorna false se não for uma reserva
+    // ou se algum veículo ainda não tiver sido devolvido.
+    public boolean retirarAluguel(int aluguelId){
         Aluguel aluguel = aluguelRepository.buscarPorId(aluguelId);
-        if(aluguel != null){
-            aluguel.setStatus(StatusAluguel.FINALIZADO);
-            aluguel.setDataAluguel(new Date());
-            aluguel.calcularMulta();
+        if (aluguel == null || aluguel.getStatus() != StatusAluguel.RESERVADO) {
+            return false;
+        }
+        if (!veiculoService.reservarTodos(aluguel.getVeiculos())) {
+            return false;
+        }
+        if (!aluguelRepository.atualizarStatus(aluguel, StatusAluguel.ATIVO)) {
+            veiculoService.liberarTodos(aluguel.getVeiculos()); // Cancelada ou retirada por outro atendente
+            return false;
+        }
+        return true;
+    }
+
+    // Cancela uma reserva ainda não retirada e libera o período na agenda
+    public boolean cancelarReserva(int aluguelId){
+        Aluguel aluguel = aluguelRepository.buscarPorId(aluguelId);
+        if (aluguel == null || aluguel.getStatus() != StatusAluguel.RESERVADO) {
+            return false;
+        }
+        if (!aluguelRepository.atualizarStatus(aluguel, StatusAluguel.CANCELADO)) {
+            return false;
+        }
+        veiculoService.liberarPeriodo(aluguel);
+        return true;
+    }
+
+    // FINALIZAR aluguel (devolução); retorna false se não estava ativo ou outro atendente finalizou antes
+    public boolean finalizarAluguel(int aluguelId){
+        Aluguel aluguel = aluguelRepository.buscarPorId(aluguelId);
+        if(aluguel != null && aluguel.getStatus() == StatusAluguel.ATIVO){
+            // Data e multa são gravadas junto com a troca de status, só por quem a faz
+            if (!aluguelRepository.finalizar(aluguel, new Date())) {
+                return false; // Outro atendente já finalizou este aluguel
+            }
 
             for(ItemAluguel item : aluguel.getVeiculos()){
                 veiculoService.atualizarDisponibilidade(item.getVeiculo().getId(),true);
             }
+            // Devolução antecipada libera o resto do período para novas reservas
+            veiculoService.liberarPeriodo(aluguel);
+            return true;
         }
+        return false;
     }
+    public Aluguel buscarPorId(int aluguelId){
+        return aluguelRepository.buscarPorId(aluguelId);
+    }
+
+    // Cópia dos ativos no momento da chamada
     public List<Aluguel>listarAlugueisAtivos(){
-        List<Aluguel> ativos = new ArrayList<>();
-        for(Aluguel aluguel: aluguelRepository.listarTodos()){
-            if(aluguel.getStatus()==StatusAluguel.ATIVO){
-                ativos.add(aluguel);
-            }
-        }
-        return ativos;
+        return aluguelRepository.listarPorStatus(StatusAluguel.ATIVO);
     }
 
     public List<Aluguel> listarTodosAlugueis(){
         return aluguelRepository.listarTodos();
     }
+
+    public List<Aluguel> listarPagina(int inicio, int quantidade){
+        return aluguelRepository.listarPagina(inicio, quantidade);
+    }
+
+    // Ativos que já passaram do prazo, com a multa que seria cobrada na devolução agora
+    public List<DetectorAtrasos.Atraso> listarAtrasados(){
+        return atrasos.listarAtrasados();
+    }
+
+    // Anda o relógio dos prazos até agora; chamado periodicamente
+    public void verificarAtrasos(){
+        atrasos.avancar(System.currentTimeMillis());
+    }
+
+    public DetectorAtrasos getDetectorAtrasos(){
+        return atrasos;
+    }
+
+    // Histórico completo do cliente, incluindo os aluguéis já arquivados
+    public List<Aluguel> listarHistoricoCliente(Cliente cliente){
+        return aluguelRepository.listarPorCliente(cliente);
+    }
 }
@@ -0,0 +1,112 @@
+package services;
+
+import entities.Aluguel;
+import repositories.OuvinteRepositorio;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Resultados de relatório calculados em segundo plano e guardados por chave, com no máximo um
+// cálculo em andamento por chave: vários gerentes atualizando a tela fazem uma varredura só.
+// Cada aluguel criado ou alterado muda a versão. O primeiro pedido depois disso dispara o
+// recálculo, mas quem pede continua recebendo o último resultado pronto, sem esperar, enquanto
+// ele tiver menos de 'limiteDefasagem' (contado do início do cálculo que o produziu). Só espera
+// quem pede sem resultado pronto ou com um mais velho que isso. Sem escritas, o resultado vale
+// indefinidamente.
+public class CacheRelatorios implements OuvinteRepositorio {
+
+    // Relatórios por período geram uma chave por período; passando disso, sai a entrada usada há
+    // mais tempo (recalculada se for pedida de novo). Um cálculo em andamento nela termina e
+    // entrega o resultado a quem já o esperava.
+    private static final int MAXIMO_ENTRADAS = 128;
+
+    private final Executor executor;
+    private final long limiteDefasagemNanos;
+    private final AtomicLong versao = new AtomicLong();
+    // Em ordem de acesso, guardado pelo próprio mapa
+    private final Map<String, Entrada<?>> entradas = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entrada<?>> maisAntiga) {
+            return size() > MAXIMO_ENTRADAS;
+        }
+    };
+
+    public CacheRelatorios(Executor executor, long limiteDefasagemMilis) {
+        this.executor = executor;
+        this.limiteDefasagemNanos = limiteDefasagemMilis * 1_000_000;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> obter(String chave, Supplier<R> calculo) {
+        long agora = System.nanoTime();
+        Entrada<R> entrada;
+        synchronized (entradas) {
+            entrada = (Entrada<R>) entradas.computeIfAbsent(chave, k -> new Entrada<>());
+        }
+        synchronized (entrada) {
+            long versaoAtual = versao.get();
+            if (entrada.pronto != null && entrada.versaoPronto == versaoAtual) {
+                return entrada.pronto;
+            }
+            CompletableFuture<R> emCalculo = entrada.emCalculo;
+            if (emCalculo == null) {
+                emCalculo = calcular(entrada, calculo, versaoAtual, agora);
+            }
+            if (entrada.pronto != null && agora - entrada.inicioPronto <= limiteDefasagemNanos) {
+                return entrada.pronto;
+            }
+            return emCalculo;
+        }
+    }
+
+    // Chamado com o lock da entrada. A versão é a de antes do cálculo: uma escrita durante o
+    // cálculo já deixa o resultado desatualizado. O futuro entregue só completa depois de a entrada
+    // apontar para ele: quem já viu o resultado novo não recebe o anterior no pedido seguinte.
+    private <R> CompletableFuture<R> calcular(Entrada<R> entrada, Supplier<R> calculo, long versaoCalculo, long inicio) {
+        CompletableFuture<R> resultado = new CompletableFuture<>();
+        entrada.emCalculo = resultado;
+        CompletableFuture.supplyAsync(calculo, executor).whenComplete((valor, erro) -> {
+            synchronized (entrada) {
+                entrada.emCalculo = null;
+                if (erro == null) {  // Falha não substitui o último resultado bom
+                    entrada.pronto = resultado;
+                    entrada.versaoPronto = versaoCalculo;
+                    entrada.inicioPronto = inicio;
+                }
+            }
+            if (erro == null) {
+                resultado.complete(valor);
+            } else {
+                resultado.completeExceptionally(erro instanceof CompletionException ? erro.getCause() : erro);
+            }
+        });
+        return resultado;
+    }
+
+    // Os próximos pedidos recalculam (servindo o último resultado dentro do limite de defasagem)
+    public void invalidar() {
+        versao.incrementAndGet();
+    }
+
+    @Override
+    public void aluguelSalvo(Aluguel aluguel) {
+        invalidar();
+    }
+
+    @Override
+    public void aluguelAlterado(Aluguel aluguel) {
+        invalidar();
+    }
+
+    private static final class Entrada<R> {
+        private CompletableFuture<R> pronto;  // Último cálculo concluído com sucesso
+        private long versaoPronto;
+        private long inicioPronto;
+        private CompletableFuture<R> emCalculo;
+    }
+}
@@ -3,22 +3,39 @@ import entities.Cliente;
 import repositories.AluguelRepository;
 import repositories.ClienteRepository;
 
+import java.util.List;
+
 public class ClienteService {
 
     private ClienteRepository clienteRepository;
 
     public ClienteService(){
-        this.clienteRepository = new ClienteRepository();
+        this(new ClienteRepository());
+    }
+
+    public ClienteService(ClienteRepository clienteRepository){
+        this.clienteRepository = clienteRepository;
     }
 
     public void cadastraCliente(String cpf,String nome,String telefone){
-        Cliente cliente = new Cliente (cpf,nome,telefone);
+        Cliente cliente = new Cliente (cpf,telefone,nome);
         clienteRepository.salvar(cliente);
     }
 
+    // Só cadastra se o CPF ainda não existe (sem substituir um cliente que chegou antes);
+    // retorna null se o CPF já estava cadastrado
+    public Cliente cadastrarClienteNovo(String cpf,String nome,String telefone){
+        Cliente cliente = new Cliente (cpf,telefone,nome);
+        return clienteRepository.adicionar(cliente) ? cliente : null;
+    }
+
     public Cliente buscarPorCpf(String cpf){
         return clienteRepository.BuscarPorCpf(cpf);
     }
+    // Busca por nome (prefixo e erros de digitação), os mais parecidos primeiro
+    public List<Cliente> buscarPorNome(String nome, int limite){
+        return clienteRepository.buscarPorNome(nome, limite);
+    }
     public void listarClientes() {
         System.out.println("\n===  TODOS OS CLIENTES ===");
         for (Cliente cliente : clienteRepository.listarTodos()) {
@@ -0,0 +1,281 @@
+package services;
+
+import entities.Aluguel;
+import entities.CalculadoraPreco;
+import entities.StatusAluguel;
+import repositories.AluguelRepository;
+import repositories.IndicePorId;
+import repositories.OuvinteRepositorio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Aluguéis ativos que já passaram da data prevista (dataAluguel + dias), com a multa acumulada
+// até agora, sem varrer os ativos. Cada aluguel ativo tem um temporizador numa roda hierárquica
+// (4 níveis de 64 posições, como os timers do kernel Linux): ao vencer, o aluguel entra no
+// conjunto de atrasados e o temporizador volta para a roda no próximo dia completo de atraso,
+// quando a multa sobe. Avançar um tick só olha a posição daquele tick, então o custo depende
+// de quantos prazos vencem nele, não de quantos aluguéis estão ativos.
+//
+// O relógio é quem chama avancar (Main faz isso a cada minuto). Com ticks de 1 minuto, a roda
+// cobre 64^4 minutos (~31 anos) sem reagendar; prazos mais longos voltam ao nível de cima.
+public class DetectorAtrasos implements OuvinteRepositorio {
+
+    public static final long MILIS_POR_TICK = 60_000;
+
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+    private static final int NIVEIS = 4;
+    private static final long ALCANCE = 1L << (BITS * NIVEIS);  // Ticks cobertos pela roda
+
+    private final long milisPorTick;
+    private final Temporizador[][] rodas = new Temporizador[NIVEIS][POSICOES];
+    private final IndicePorId<Temporizador> porAluguel = new IndicePorId<>();
+    private long agora;  // Tick atual
+
+    // Conjunto de atrasados: lista ligada pelos próprios temporizadores
+    private Temporizador primeiroAtrasado;
+    private volatile int atrasados;
+    private volatile long multasCentavos;
+
+    private DetectorAtrasos(long milisPorTick, long agoraMilis) {
+        this.milisPorTick = milisPorTick;
+        this.agora = Math.floorDiv(agoraMilis, milisPorTick);
+    }
+
+    public static DetectorAtrasos criar(AluguelRepository aluguelRepository) {
+        return criar(aluguelRepository, MILIS_POR_TICK, System.currentTimeMillis());
+    }
+
+    // Registra o detector já construído e só então agenda os ativos que já existem: um aluguel
+    // alterado no meio chega pela notificação, e agendarSeAtivo não agenda o que já saiu de ATIVO
+    public static DetectorAtrasos criar(AluguelRepository aluguelRepository, long milisPorTick, long agoraMilis) {
+        DetectorAtrasos detector = new DetectorAtrasos(milisPorTick, agoraMilis);
+        aluguelRepository.adicionarOuvinte(detector);
+        for (Aluguel aluguel : aluguelRepository.listarPorStatus(StatusAluguel.ATIVO)) {
+            detector.agendarSeAtivo(aluguel);
+        }
+        return detector;
+    }
+
+    // Com o lock do detector: a notificação de uma mudança de status vista aqui vem depois
+    private synchronized void agendarSeAtivo(Aluguel aluguel) {
+        if (aluguel.getStatus() == StatusAluguel.ATIVO && porAluguel.buscar(aluguel.getId()) == null) {
+            agendar(aluguel);
+        }
+    }
+
+    @Override
+    public void aluguelSalvo(Aluguel aluguel) {
+        aluguelAlterado(aluguel);
+    }
+
+    // Só aluguéis ATIVOS correm prazo; reservas começam a contar na retirada
+    @Override
+    public void aluguelAlterado(Aluguel aluguel) {
+        if (aluguel.getStatus() == StatusAluguel.ATIVO) {
+            agendar(aluguel);
+        } else {
+            cancelar(aluguel.getId());
+        }
+    }
+
+    public synchronized void agendar(Aluguel aluguel) {
+        cancelar(aluguel.getId());
+        Temporizador temporizador = new Temporizador(aluguel);
+        porAluguel.colocar(aluguel.getId(), temporizador);
+        temporizador.expira = tickAposInstante(prevista(aluguel));
+        inserir(temporizador);
+    }
+
+    // Tira o aluguel da roda e, se estava atrasado, do conjunto e do total de multas
+    public synchronized void cancelar(int aluguelId) {
+        Temporizador temporizador = porAluguel.remover(aluguelId);
+        if (temporizador == null) {
+            return;
+        }
+        desligar(temporizador);
+        if (temporizador.atrasado) {
+            if (temporizador.anteriorAtrasado == null) {
+                primeiroAtrasado = temporizador.proximoAtrasado;
+            } else {
+                temporizador.anteriorAtrasado.proximoAtrasado = temporizador.proximoAtrasado;
+            }
+            if (temporizador.proximoAtrasado != null) {
+                temporizador.proximoAtrasado.anteriorAtrasado = temporizador.anteriorAtrasado;
+            }
+            atrasados--;
+            multasCentavos -= temporizador.multaCentavos;
+        }
+    }
+
+    // Anda o relógio até o instante dado, disparando os prazos vencidos no caminho
+    public synchronized void avancar(long agoraMilis) {
+        long alvo = Math.floorDiv(agoraMilis, milisPorTick);
+        while (agora < alvo) {
+            if (porAluguel.tamanho() == 0) {
+                agora = alvo;  // Roda vazia: nada a disparar no caminho
+                return;
+            }
+            tick();
+        }
+    }
+
+    private void tick() {
+        agora++;
+        // Ao virar um bloco de um nível, os temporizadores daquela posição descem de nível
+        int nivel = 1;
+        while (nivel < NIVEIS && (agora & ((1L << (BITS * nivel)) - 1)) == 0) {
+            nivel++;
+        }
+        for (int acima = nivel - 1; acima >= 1; acima--) {
+            reinserir(retirarPosicao(acima, (int) ((agora >>> (BITS * acima)) & MASCARA)));
+        }
+        reinserir(retirarPosicao(0, (int) (agora & MASCARA)));
+    }
+
+    private void reinserir(Temporizador temporizador) {
+        while (temporizador != null) {
+            Temporizador proximo = temporizador.proximo;
+            temporizador.anterior = null;
+            temporizador.proximo = null;
+            inserir(temporizador);
+            temporizador = proximo;
+        }
+    }
+
+    private void inserir(Temporizador temporizador) {
+        if (temporizador.expira <= agora) {
+            disparar(temporizador);
+            return;
+        }
+        long distancia = temporizador.expira - agora;
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && distancia >= 1L << (BITS * (nivel + 1))) {
+            nivel++;
+        }
+        // Além do alcance: fica na última volta do nível de cima e é reinserido ao descer
+        long posicaoTick = Math.min(temporizador.expira, agora + ALCANCE - 1);
+        int posicao = (int) ((posicaoTick >>> (BITS * nivel)) & MASCARA);
+        temporizador.nivel = nivel;
+        temporizador.posicao = posicao;
+        temporizador.proximo = rodas[nivel][posicao];
+        if (temporizador.proximo != null) {
+            temporizador.proximo.anterior = temporizador;
+        }
+        rodas[nivel][posicao] = temporizador;
+        temporizador.naRoda = true;
+    }
+
+    private Temporizador retirarPosicao(int nivel, int posicao) {
+        Temporizador primeiro = rodas[nivel][posicao];
+        rodas[nivel][posicao] = null;
+        for (Temporizador t = primeiro; t != null; t = t.proximo) {
+            t.naRoda = false;
+        }
+        return primeiro;
+    }
+
+    private void desligar(Temporizador temporizador) {
+        if (!temporizador.naRoda) {
+            return;
+        }
+        if (temporizador.anterior == null) {
+            rodas[temporizador.nivel][temporizador.posicao] = temporizador.proximo;
+        } else {
+            temporizador.anterior.proximo = temporizador.proximo;
+        }
+        if (temporizador.proximo != null) {
+            temporizador.proximo.anterior = temporizador.anterior;
+        }
+        temporizador.anterior = null;
+        temporizador.proximo = null;
+        temporizador.naRoda = false;
+    }
+
+    // Prazo vencido ou mais um dia de atraso: atualiza a multa (mesma regra da devolução)
+    // e agenda o próximo dia completo
+    private void disparar(Temporizador temporizador) {
+        Aluguel aluguel = temporizador.aluguel;
+        long agoraMilis = agora * milisPorTick;
+        long diasAtraso = CalculadoraPreco.diasAtraso(aluguel.getDataAluguelMilis(), aluguel.getDias(), agoraMilis);
+        if (!temporizador.atrasado) {
+            temporizador.atrasado = true;
+            temporizador.proximoAtrasado = primeiroAtrasado;
+            if (primeiroAtrasado != null) {
+                primeiroAtrasado.anteriorAtrasado = temporizador;
+            }
+            primeiroAtrasado = temporizador;
+            atrasados++;
+        }
+        long multa = CalculadoraPreco.multaCentavos(aluguel.calcularTotalCentavos(), diasAtraso);
+        multasCentavos += multa - temporizador.multaCentavos;
+        temporizador.multaCentavos = multa;
+        temporizador.diasAtraso = diasAtraso;
+        temporizador.expira = tickAposInstante(prevista(aluguel) + diasAtraso * CalculadoraPreco.MILIS_POR_DIA
+                + CalculadoraPreco.MILIS_POR_DIA - 1);
+        inserir(temporizador);
+    }
+
+    private static long prevista(Aluguel aluguel) {
+        return aluguel.getDataAluguelMilis() + aluguel.getDias() * CalculadoraPreco.MILIS_POR_DIA;
+    }
+
+    // Primeiro tick estritamente depois do instante (atraso conta a partir de prevista + 1 ms)
+    private long tickAposInstante(long milis) {
+        return Math.floorDiv(milis, milisPorTick) + 1;
+    }
+
+    // Cópia do conjunto, dos marcados mais recentemente para os mais antigos
+    public synchronized List<Atraso> listarAtrasados() {
+        List<Atraso> lista = new ArrayList<>(atrasados);
+        for (Temporizador t = primeiroAtrasado; t != null; t = t.proximoAtrasado) {
+            lista.add(new Atraso(t.aluguel, t.diasAtraso, t.multaCentavos));
+        }
+        return lista;
+    }
+
+    // Null se o aluguel não está atrasado
+    public synchronized Atraso buscar(int aluguelId) {
+        Temporizador temporizador = porAluguel.buscar(aluguelId);
+        return temporizador == null || !temporizador.atrasado ? null
+                : new Atraso(temporizador.aluguel, temporizador.diasAtraso, temporizador.multaCentavos);
+    }
+
+    public int getQuantidadeAtrasados() {
+        return atrasados;
+    }
+
+    // Soma das multas que seriam cobradas se todos os atrasados fossem devolvidos agora
+    public long getMultasCentavos() {
+        return multasCentavos;
+    }
+
+    public int getAgendados() {
+        return porAluguel.tamanho();
+    }
+
+    public record Atraso(Aluguel aluguel, long diasAtraso, long multaCentavos) {
+    }
+
+    private static final class Temporizador {
+        private final Aluguel aluguel;
+        private long expira;
+        private int nivel;
+        private int posicao;
+        private boolean naRoda;
+        private Temporizador anterior;
+        private Temporizador proximo;
+
+        private boolean atrasado;
+        private long diasAtraso;
+        private long multaCentavos;
+        private Temporizador anteriorAtrasado;
+        private Temporizador proximoAtrasado;
+
+        private Temporizador(Aluguel aluguel) {
+            this.aluguel = aluguel;
+        }
+    }
+}
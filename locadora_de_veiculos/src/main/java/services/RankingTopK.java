@@ -0,0 +1,122 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Ranking dos K itens mais frequentes, atualizado a cada incremento (sem ordenar tudo no relatório).
+// Modo exato: guarda a contagem de todas as chaves, mas só as K maiores ficam ordenadas.
+// Como as contagens só crescem, uma chave só entra no topo no momento em que é incrementada.
+// Modo aproximado (Space-Saving): acompanha no máximo 'capacidade' chaves; quando chega uma nova,
+// ela herda a contagem da menor (que sai). A contagem pode estar superestimada em até 'erro',
+// mas qualquer chave com frequência acima de total/capacidade é garantidamente acompanhada.
+public class RankingTopK<T> {
+
+    private final int k;
+    private final int capacidade;  // Quantas entradas ficam ordenadas
+    private final boolean aproximado;
+    private final Map<Long, Entrada<T>> entradas = new HashMap<>();
+    private final TreeSet<Entrada<T>> ordenadas = new TreeSet<>(RankingTopK::comparar);
+    private long total;
+
+    private RankingTopK(int k, int capacidade, boolean aproximado) {
+        if (k <= 0 || capacidade < k) {
+            throw new IllegalArgumentException("k deve ser positivo e no máximo a capacidade");
+        }
+        this.k = k;
+        this.capacidade = capacidade;
+        this.aproximado = aproximado;
+    }
+
+    public static <T> RankingTopK<T> exato(int k) {
+        return new RankingTopK<>(k, k, false);
+    }
+
+    // Memória fixa: 'capacidade' entradas, independente de quantas chaves existirem
+    public static <T> RankingTopK<T> aproximado(int k, int capacidade) {
+        return new RankingTopK<>(k, capacidade, true);
+    }
+
+    public synchronized void incrementar(long chave, T item) {
+        total++;
+        Entrada<T> entrada = entradas.get(chave);
+        if (entrada != null) {
+            boolean ordenada = entrada.ordenada && ordenadas.remove(entrada);
+            entrada.contagem++;
+            entrada.item = item;
+            if (ordenada) {
+                ordenadas.add(entrada);
+            } else {
+                tentarOrdenar(entrada);
+            }
+            return;
+        }
+        if (aproximado && entradas.size() == capacidade) {
+            // Substitui a menor: a nova chave herda a contagem dela como erro
+            Entrada<T> menor = ordenadas.pollFirst();
+            entradas.remove(menor.chave);
+            entrada = new Entrada<>(chave, item, menor.contagem + 1, menor.contagem);
+        } else {
+            entrada = new Entrada<>(chave, item, 1, 0);
+        }
+        entradas.put(chave, entrada);
+        tentarOrdenar(entrada);
+    }
+
+    private void tentarOrdenar(Entrada<T> entrada) {
+        if (ordenadas.size() < capacidade) {
+            ordenadas.add(entrada);
+            entrada.ordenada = true;
+        } else if (comparar(entrada, ordenadas.first()) > 0) {
+            ordenadas.pollFirst().ordenada = false;
+            ordenadas.add(entrada);
+            entrada.ordenada = true;
+        }
+    }
+
+    // As K maiores, da mais frequente para a menos
+    public synchronized List<Posicao<T>> topo() {
+        List<Posicao<T>> resultado = new ArrayList<>(Math.min(k, ordenadas.size()));
+        Iterator<Entrada<T>> iterador = ordenadas.descendingIterator();
+        while (iterador.hasNext() && resultado.size() < k) {
+            Entrada<T> entrada = iterador.next();
+            resultado.add(new Posicao<>(entrada.chave, entrada.item, entrada.contagem, entrada.erro));
+        }
+        return resultado;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public boolean isAproximado() {
+        return aproximado;
+    }
+
+    // Maior contagem primeiro; empate pela menor chave
+    private static int comparar(Entrada<?> a, Entrada<?> b) {
+        int porContagem = Long.compare(a.contagem, b.contagem);
+        return porContagem != 0 ? porContagem : Long.compare(b.chave, a.chave);
+    }
+
+    private static class Entrada<T> {
+        final long chave;
+        T item;
+        long contagem;
+        final long erro;
+        boolean ordenada;
+
+        Entrada(long chave, T item, long contagem, long erro) {
+            this.chave = chave;
+            this.item = item;
+            this.contagem = contagem;
+            this.erro = erro;
+        }
+    }
+
+    // 'erro' é o quanto a contagem pode estar acima da real (sempre 0 no modo exato)
+    public record Posicao<T>(long chave, T item, long contagem, long erro) {}
+}
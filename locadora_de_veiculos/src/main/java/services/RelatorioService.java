@@ -1,61 +1,305 @@
 package services;
 import entities.Aluguel;
-import entities.ItemAluguel;
+import entities.Cliente;
 import entities.Veiculo;
 import entities.CategoriaVeiculo;
+import entities.CalculadoraPreco;
+import entities.StatusAluguel;
+import eventos.AnelEventos;
+import eventos.Evento;
+import repositories.AgendaReservas;
+import repositories.FaturamentoDiario;
+import repositories.HistoricoColunar;
+import repositories.OuvinteRepositorio;
 import repositories.VeiculoRepository;
 import repositories.AluguelRepository;
-import java.util.HashMap;
-import java.util.Map;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 //ponto importante ver como funciona map e hasmap
 
 //estudar para entender a logica
 public class RelatorioService {
 
+    private static final int TAMANHO_RANKING = 20;
+    private static final long LIMITE_DEFASAGEM_MILIS = 1000;
+    // Cálculos de relatório fora da thread de quem pede; compartilhado por todas as instâncias
+    private static final ExecutorService CALCULO = Executors.newFixedThreadPool(2,
+            Thread.ofPlatform().name("relatorios-", 0).daemon().factory());
+
     private AluguelRepository aluguelRepository;
     private VeiculoRepository veiculoRepository;
+    private final AgregadosRelatorio agregados;
+    private final HistoricoColunar historico = new HistoricoColunar();
+    private final FaturamentoDiario faturamentoDiario = new FaturamentoDiario();
+    private final AnelEventos anel;
+    private final AnelEventos.ProcessadorEventos processador;
+    private final CacheRelatorios cache;
+
+    // Só durante a contagem inicial: etapa (ver etapa()) + 1 em que cada aluguel, por id, já entrou
+    // nos totais; 0 = ainda não contado. Null depois que a contagem termina.
+    private final Object lockContagem = new Object();
+    private byte[] contados = new byte[1024];
+    private volatile boolean contando = true;
 
     public RelatorioService(AluguelRepository aluguelRepo, VeiculoRepository veiculoRepo){
+        this(aluguelRepo, veiculoRepo, false);
+    }
+
+    // rankingAproximado: ranking de clientes com memória fixa (para bases muito grandes)
+    public RelatorioService(AluguelRepository aluguelRepo, VeiculoRepository veiculoRepo, boolean rankingAproximado){
+        this(aluguelRepo, veiculoRepo, rankingAproximado, null);
+    }
+
+    // anel: agregados e histórico passam a ser atualizados por eventos, numa thread própria,
+    // e não mais na thread de quem cria ou devolve o aluguel. Null mantém a atualização direta.
+    public RelatorioService(AluguelRepository aluguelRepo, VeiculoRepository veiculoRepo, boolean rankingAproximado,
+                            AnelEventos anel){
+        this(aluguelRepo, veiculoRepo, rankingAproximado, anel, LIMITE_DEFASAGEM_MILIS);
+    }
+
+    // limiteDefasagemMilis: quanto tempo um resultado já desatualizado por novos aluguéis ainda
+    // pode ser servido do cache (0 = todo aluguel novo força recálculo no próximo pedido)
+    public RelatorioService(AluguelRepository aluguelRepo, VeiculoRepository veiculoRepo, boolean rankingAproximado,
+                            AnelEventos anel, long limiteDefasagemMilis){
+        this.agregados = new AgregadosRelatorio(TAMANHO_RANKING, rankingAproximado);
         this.aluguelRepository = aluguelRepo;
         this.veiculoRepository = veiculoRepo;
+        this.anel = anel;
+        if (anel == null) {
+            // Primeiro passa a ouvir, depois conta o que já existe: um aluguel salvo ou alterado no
+            // meio da contagem chega pelos dois caminhos e contarNaPartida descarta a repetição
+            this.processador = null;
+            aluguelRepository.adicionarOuvinte(new OuvinteRepositorio() {
+                @Override
+                public void aluguelSalvo(Aluguel aluguel) {
+                    salvo(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+                }
+
+                @Override
+                public void aluguelAlterado(Aluguel aluguel) {
+                    alterado(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos());
+                }
+            });
+            contarExistentes();
+        } else {
+            // Mesma ordem com o anel: o consumidor recebe tudo a partir da sequência reservada no
+            // registro e a varredura conta o que veio antes; o que chega pelos dois é deduplicado
+            this.processador = anel.adicionarConsumidor("relatorios", this::aoEvento);
+            contarExistentes();
+        }
+        // Depois dos outros ouvintes (inclusive o publicador do anel): quando a versão muda,
+        // a escrita já está visível para o próximo cálculo
+        this.cache = new CacheRelatorios(CALCULO, limiteDefasagemMilis);
+        aluguelRepository.adicionarOuvinte(cache);
     }
 
-    public void gerarRelatorioFaturamento(){
-        System.out.println("===Faturamento Total===");
+    // Conta o histórico uma vez; daqui em diante os totais andam junto com o repositório.
+    // A barreira garante que toda alteração que a varredura viu já foi notificada (e deduplicada);
+    // as que vierem depois dela a varredura não viu, então não precisam mais de deduplicação.
+    // Com o anel, "notificada" é processada pelo consumidor: o repositório reserva a sequência com
+    // o lock, então depois da barreira basta esperar o consumidor chegar ao último reservado.
+    private void contarExistentes(){
+        aluguelRepository.percorrerTodos(aluguel -> salvo(aluguel, aluguel.getStatus(), aluguel.getMultaCentavos()));
+        aluguelRepository.aguardarAlteracoes();
+        if (processador != null) {
+            processador.aguardar(anel.getReservado());
+        }
+        synchronized (lockContagem) {
+            contando = false;
+            contados = null;
+        }
+    }
 
-        List<Aluguel> todosAlugueis = aluguelRepository.listarTodos();
-        double faturamentoTotal = 0;
-        double multasTotal = 0;
+    private void salvo(Aluguel aluguel, StatusAluguel status, long multaCentavos){
+        if (!contando || !contarNaPartida(aluguel, status, multaCentavos)) {
+            agregados.aluguelSalvo(aluguel, status, multaCentavos);
+            historico.aluguelSalvo(aluguel, status, multaCentavos);
+            faturamentoDiario.aluguelSalvo(aluguel, status, multaCentavos);
+        }
+    }
+
+    private void alterado(Aluguel aluguel, StatusAluguel status, long multaCentavos){
+        if (!contando || !contarNaPartida(aluguel, status, multaCentavos)) {
+            agregados.aluguelAlterado(aluguel, status, multaCentavos);
+            historico.aluguelAlterado(aluguel, status, multaCentavos);
+            faturamentoDiario.aluguelAlterado(aluguel, status, multaCentavos);
+        }
+    }
+
+    // Durante a contagem inicial o mesmo aluguel pode chegar pela varredura e por notificação, em
+    // qualquer ordem: cada chegada só aplica o que avança em relação ao que já foi contado dele
+    // (a criação, depois a retirada, depois a finalização ou o cancelamento). Retorna false se a
+    // contagem já terminou (quem chamou aplica direto).
+    private boolean contarNaPartida(Aluguel aluguel, StatusAluguel status, long multaCentavos){
+        synchronized (lockContagem) {
+            if (!contando) {
+                return false;
+            }
+            int id = aluguel.getId();
+            if (id >= contados.length) {
+                contados = Arrays.copyOf(contados, Math.max(id + 1, contados.length * 2));
+            }
+            int anterior = contados[id] - 1;
+            int atual = etapa(status);
+            if (anterior < 0) {
+                agregados.aluguelSalvo(aluguel, status, multaCentavos);
+                historico.aluguelSalvo(aluguel, status, multaCentavos);
+                faturamentoDiario.aluguelSalvo(aluguel, status, multaCentavos);
+            } else if (atual > anterior) {
+                agregados.aluguelAlterado(aluguel, status, multaCentavos);
+                historico.aluguelAlterado(aluguel, status, multaCentavos);
+                faturamentoDiario.aluguelAlterado(aluguel, status, multaCentavos);
+            } else {
+                return true;
+            }
+            contados[id] = (byte) (atual + 1);
+            return true;
+        }
+    }
+
+    private static int etapa(StatusAluguel status){
+        return switch (status) {
+            case RESERVADO -> 0;
+            case ATIVO -> 1;
+            case FINALIZADO, CANCELADO -> 2;
+        };
+    }
 
-        for(Aluguel aluguel : todosAlugueis){
-            faturamentoTotal += aluguel.calcularTotal();
-            multasTotal += aluguel.getMulta();
+    // Usa o status e a multa copiados no evento: o aluguel pode ter mudado de novo desde então
+    private void aoEvento(Evento evento, long sequencia, boolean fimDoLote){
+        switch (evento.getTipo()) {
+            case ALUGUEL_CRIADO -> salvo(evento.getAluguel(), evento.getStatus(), evento.getMultaCentavos());
+            case ALUGUEL_FINALIZADO, ALUGUEL_ALTERADO ->
+                    alterado(evento.getAluguel(), evento.getStatus(), evento.getMultaCentavos());
+            default -> {}
+        }
+    }
 
+    // Com o anel, espera os eventos já publicados serem aplicados: quem acabou de alugar
+    // vê o próprio aluguel no relatório
+    private void sincronizar(){
+        if (processador != null) {
+            processador.aguardar(anel.getReservado());
         }
+    }
+
+    // Totais e rankings já calculados, para quem precisa dos números e não do texto (API HTTP)
+    public AgregadosRelatorio getAgregados(){
+        sincronizar();
+        return agregados;
+    }
+
+    // Histórico em colunas, para consultas por período que os totais acumulados não respondem
+    public HistoricoColunar getHistorico(){
+        sincronizar();
+        return historico;
+    }
+
+    // Aluguéis iniciados de 'inicio' até 'fim' (inclusive, em dias), varrendo o histórico. Vem do
+    // CacheRelatorios: calculado em segundo plano, uma vez para todos que pedem o mesmo período, e
+    // recalculado depois de aluguéis novos ou alterados.
+    public CompletableFuture<HistoricoColunar.Resumo> resumirPeriodo(Date inicio, Date fim){
+        int primeiroDia = AgendaReservas.dia(inicio.getTime());
+        int ultimoDia = AgendaReservas.dia(fim.getTime());
+        return cache.obter("periodo:" + primeiroDia + ":" + ultimoDia, () -> {
+            sincronizar();
+            return historico.resumir(primeiroDia, ultimoDia + 1);
+        });
+    }
+
+    // Totais, períodos e rankings saem de estruturas mantidas a cada aluguel (custo que não depende
+    // do tamanho do histórico); os valores devolvidos não mudam depois de prontos
+
+    public Faturamento faturamento(){
+        sincronizar();
+        Map<CategoriaVeiculo, Long> porCategoria = new EnumMap<>(CategoriaVeiculo.class);
+        Map<CategoriaVeiculo, Long> multasPorCategoria = new EnumMap<>(CategoriaVeiculo.class);
+        for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+            porCategoria.put(categoria, agregados.getFaturamentoCentavos(categoria));
+            multasPorCategoria.put(categoria, agregados.getMultasCentavos(categoria));
+        }
+        return new Faturamento(agregados.getFaturamentoCentavos(), agregados.getMultasCentavos(),
+                agregados.getTotalAlugueis(), Collections.unmodifiableMap(porCategoria),
+                Collections.unmodifiableMap(multasPorCategoria));
+    }
+
+    // Aluguéis iniciados de 'inicio' até 'fim' (inclusive, em dias), pelas somas diárias do
+    // FaturamentoDiario: O(log dias), então responde direto, sem cache e sem defasagem
+    public Faturamento faturamento(Date inicio, Date fim){
+        sincronizar();
+        return faturamento(faturamentoDiario.resumir(AgendaReservas.dia(inicio.getTime()),
+                AgendaReservas.dia(fim.getTime()) + 1));
+    }
+
+    private static Faturamento faturamento(HistoricoColunar.Resumo resumo){
+        Map<CategoriaVeiculo, Long> porCategoria = new EnumMap<>(CategoriaVeiculo.class);
+        Map<CategoriaVeiculo, Long> multasPorCategoria = new EnumMap<>(CategoriaVeiculo.class);
+        for (CategoriaVeiculo categoria : CategoriaVeiculo.values()) {
+            porCategoria.put(categoria, resumo.getFaturamentoCentavos(categoria));
+            multasPorCategoria.put(categoria, resumo.getMultasCentavos(categoria));
+        }
+        return new Faturamento(resumo.faturamentoCentavos(), resumo.multasCentavos(), resumo.alugueis(),
+                Collections.unmodifiableMap(porCategoria), Collections.unmodifiableMap(multasPorCategoria));
+    }
+
+    public Ranking<Veiculo> veiculosPopulares(){
+        sincronizar();
+        return new Ranking<>(List.copyOf(agregados.getVeiculosPopulares()), false);
+    }
+
+    public Ranking<Cliente> clientesFieis(){
+        sincronizar();
+        return new Ranking<>(List.copyOf(agregados.getClientesFieis()), agregados.isRankingClientesAproximado());
+    }
+
+    public void gerarRelatorioPeriodo(Date inicio, Date fim){
+        Faturamento periodo = faturamento(inicio, fim);
+        System.out.printf("===Faturamento de %tF a %tF===%n", inicio, fim);
+        System.out.printf(" Faturamento com Aluguéis: R$ %.2f%n", CalculadoraPreco.emReais(periodo.alugueisCentavos()));
+        System.out.printf(" Multas Arrecadadas: R$ %.2f%n", CalculadoraPreco.emReais(periodo.multasCentavos()));
+        System.out.printf(" Total de Aluguéis: %d%n", periodo.alugueis());
+        System.out.println("Categoria     | Faturamento | Multas");
+        for(CategoriaVeiculo categoria : CategoriaVeiculo.values()){
+            System.out.printf(" %-13s | R$ %-8.2f | R$ %-8.2f%n", categoria.getDescricao(),
+                    CalculadoraPreco.emReais(periodo.porCategoriaCentavos().get(categoria)),
+                    CalculadoraPreco.emReais(periodo.multasPorCategoriaCentavos().get(categoria)));
+        }
+    }
+
+    public void gerarRelatorioFaturamento(){
+        Faturamento faturamento = faturamento();
+        System.out.println("===Faturamento Total===");
+
+        double faturamentoTotal = CalculadoraPreco.emReais(faturamento.alugueisCentavos());
+        double multasTotal = CalculadoraPreco.emReais(faturamento.multasCentavos());
         System.out.printf(" Faturamento com Aluguéis: R$ %.2f%n", faturamentoTotal);
         System.out.printf(" Multas Arrecadadas: R$ %.2f%n", multasTotal);
         System.out.printf(" Faturamento Líquido: R$ %.2f%n", faturamentoTotal + multasTotal);
-        System.out.printf(" Total de Aluguéis: %d%n", todosAlugueis.size());
+        System.out.printf(" Total de Aluguéis: %d%n", faturamento.alugueis());
     }
 
     public void gerarRelatorioVeiculosPopulares() {
+        Ranking<Veiculo> ranking = veiculosPopulares();
         System.out.println("/n Veiculos mais Populares");
 
-        List<Veiculo> todosVeiculos = veiculoRepository.listarTodos();
-        todosVeiculos.sort((a, b) -> Integer.compare(b.getTotalAlugueis(), a.getTotalAlugueis()));
-
         System.out.println("Posição | Veículo           | Categoria     | Total Aluguéis");
         System.out.println("--------|-------------------|--------------|---------------");
 
         int posicao = 1;
-        for(Veiculo veiculo : todosVeiculos){
-            if(veiculo.getTotalAlugueis() > 0){
-                System.out.printf("%-7d | %-17s | %-12s | %-14d%n",
-                posicao++,veiculo.getModelo(),veiculo.getCategoria().getDescricao(),
-                veiculo.getTotalAlugueis());
-            }
+        for(RankingTopK.Posicao<Veiculo> item : ranking.posicoes()){
+            Veiculo veiculo = item.item();
+            System.out.printf("%-7d | %-17s | %-12s | %-14d%n",
+            posicao++,veiculo.getModelo(),veiculo.getCategoria().getDescricao(),
+            item.contagem());
         }
         if (posicao == 1 ){
             System.out.println("Nenhum veiculo foi alugado ainda");
@@ -63,46 +307,44 @@ public class RelatorioService {
 
     }
     public void gerarRelatorioPorCategoria(){
+        Faturamento faturamento = faturamento();
         System.out.println("Relatorio por categoria");
 
-        Map<CategoriaVeiculo,Double> faturamentoCategoria = new HashMap<>();
-        List<Aluguel> todosAlugueis = aluguelRepository.listarTodos();
-
-        for(Aluguel aluguel : todosAlugueis){
-            for (ItemAluguel item: aluguel.getVeiculos()){
-                Veiculo veiculo = item.getVeiculo();
-                double valor = item.getSubtotal() * aluguel.getDias();
-                faturamentoCategoria.put(veiculo.getCategoria(),
-                        faturamentoCategoria.getOrDefault(veiculo.getCategoria(),0.0)+valor);
-            }
-        }
         System.out.println("Categoria     | Faturamento");
         System.out.println("--------------|-------------");
         for(CategoriaVeiculo categoria : CategoriaVeiculo.values()){
-            double valor = faturamentoCategoria.getOrDefault(categoria,0.0);
+            double valor = CalculadoraPreco.emReais(faturamento.porCategoriaCentavos().get(categoria));
             System.out.printf("%-13s | R$ %-8.2f%n", categoria.getDescricao(), valor);
         }
     }
 
 
     public void gerarRealatorioClienteFies(){
+        Ranking<Cliente> ranking = clientesFieis();
         System.out.println("Clientes mais fies");
 
-        Map<String,Integer> alugueisPorCliente = new HashMap<>();
-        List<Aluguel> todosAlugueis = aluguelRepository.listarTodos();
+        // Modo aproximado: a contagem real fica entre contagem - erro e contagem
+        boolean aproximado = ranking.aproximado();
+        for (RankingTopK.Posicao<Cliente> item : ranking.posicoes()) {
+            if (aproximado && item.erro() > 0) {
+                System.out.printf("%-20s: %d a %d aluguéis%n", item.item().getNome(),
+                        item.contagem() - item.erro(), item.contagem());
+            } else {
+                System.out.printf("%-20s: %d aluguéis%n", item.item().getNome(), item.contagem());
+            }
+        }
+    }
 
-        for(Aluguel aluguel : todosAlugueis) {
-            String cliente = aluguel.getCliente().getNome();
-            alugueisPorCliente.put(cliente,alugueisPorCliente.getOrDefault(cliente,0)+1);
+    // Totais de um conjunto de aluguéis (o histórico inteiro ou um período), em centavos
+    public record Faturamento(long alugueisCentavos, long multasCentavos, long alugueis,
+                              Map<CategoriaVeiculo, Long> porCategoriaCentavos,
+                              Map<CategoriaVeiculo, Long> multasPorCategoriaCentavos) {
 
+        public long liquidoCentavos() {
+            return alugueisCentavos + multasCentavos;
         }
-        alugueisPorCliente.entrySet().stream()
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .forEach(entry -> {
-                    System.out.printf("%-20s: %d aluguéis%n", entry.getKey(), entry.getValue());
-                });
-
     }
-}
-
 
+    // aproximado: as contagens podem ter o erro de cada posição (ranking de memória fixa)
+    public record Ranking<T>(List<RankingTopK.Posicao<T>> posicoes, boolean aproximado) {}
+}
@@ -1,33 +1,80 @@
 package services;
+import entities.Aluguel;
 import entities.CategoriaVeiculo;
+import entities.ItemAluguel;
+import importacao.ImportadorCsv;
+import repositories.AgendaReservas;
+import repositories.ClienteRepository;
+import repositories.TabelaPrecos;
 import repositories.VeiculoRepository;
 import entities.Veiculo;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.util.Date;
 import java.util.List;
 
 public class VeiculoService {
 
 
     private VeiculoRepository veiculoRepository;
+    private final AgendaReservas agenda;
 
     public VeiculoService(){
-        this.veiculoRepository = new VeiculoRepository();
-        inicializarVeiculos();
+        this(new VeiculoRepository());
     }
 
+    // Permite compartilhar o mesmo repositório entre os serviços
+    public VeiculoService(VeiculoRepository veiculoRepository){
+        this.veiculoRepository = veiculoRepository;
+        if (veiculoRepository.tamanho() == 0) {
+            inicializarVeiculos();
+        }
+        this.agenda = new AgendaReservas(veiculoRepository);
+    }
+
+    // Frota de demonstração (frota-inicial.csv), usada quando nenhuma frota foi importada
     private void inicializarVeiculos(){
-        veiculoRepository.salvar(new Veiculo("Fiat Uno", "ABC-1234", 50.00, CategoriaVeiculo.ECONOMICO));
-        veiculoRepository.salvar(new Veiculo("VW Gol", "DEF-5678", 60.00, CategoriaVeiculo.ECONOMICO));
-        veiculoRepository.salvar(new Veiculo("HB20", "GHI-9012", 80.00, CategoriaVeiculo.INTERMEDIARIO));
-        veiculoRepository.salvar(new Veiculo("Onix", "JKL-3456", 90.00, CategoriaVeiculo.INTERMEDIARIO));
-        veiculoRepository.salvar(new Veiculo("Jeep Compass", "MNO-7890", 120.00, CategoriaVeiculo.SUV));
-        veiculoRepository.salvar(new Veiculo("BMW X1", "PQR-1234", 200.00, CategoriaVeiculo.LUXO));
+        try (InputStream csv = VeiculoService.class.getResourceAsStream("/frota-inicial.csv")) {
+            if (csv == null) {
+                throw new IllegalStateException("frota-inicial.csv não encontrado no classpath");
+            }
+            new ImportadorCsv(veiculoRepository, new ClienteRepository()).importarVeiculos(Channels.newChannel(csv));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
     public List<Veiculo> listarDisponiveis(){
         return veiculoRepository.listarDisponiveis();
     }
+    public List<Veiculo> listarDisponiveis(CategoriaVeiculo categoria){
+        return veiculoRepository.listarDisponiveis(categoria);
+    }
+    // Veículos da categoria sem reserva nenhuma de 'inicio' até 'inicio + dias';
+    // IllegalArgumentException se dias fora de 1..DURACAO_MAXIMA_DIAS ou se o início já passou
+    public List<Veiculo> listarDisponiveis(CategoriaVeiculo categoria, Date inicio, int dias){
+        AgendaReservas.validarPeriodo(inicio.getTime(), dias);
+        int primeiroDia = AgendaReservas.dia(inicio.getTime());
+        return agenda.listarLivres(categoria, primeiroDia, primeiroDia + dias);
+    }
     public Veiculo buscarPorId(int id){
         return veiculoRepository.buscarPorId(id);
     }
+    public Veiculo buscarPorPlaca(String placa){
+        return veiculoRepository.buscarPorPlaca(placa);
+    }
+    // Busca por modelo ou placa (prefixo e erros de digitação), os mais parecidos primeiro
+    public List<Veiculo> buscarPorTexto(String texto, int limite){
+        return veiculoRepository.buscarPorTexto(texto, limite);
+    }
+    // Cotação de 'dias' dias para todos os disponíveis da categoria (null = todas); null se dias < 1
+    public TabelaPrecos.Cotacao cotar(CategoriaVeiculo categoria, int dias){
+        if (dias < 1) {
+            return null;
+        }
+        return veiculoRepository.cotar(categoria, dias);
+    }
     public void atualizarDisponibilidade(int veiculoId, boolean disponivel) {
         Veiculo veiculo = veiculoRepository.buscarPorId(veiculoId);
         if (veiculo != null) {
@@ -35,6 +82,51 @@ public class VeiculoService {
         }
     }
 
+    // Reserva todos os veículos ou nenhum. Cada veículo é reservado por CAS, sem lock global,
+    // então atendentes reservando veículos diferentes não se bloqueiam. Se algum já estiver
+    // alugado, os que foram reservados nesta chamada são liberados e retorna false.
+    public boolean reservarTodos(List<ItemAluguel> itens) {
+        for (int i = 0; i < itens.size(); i++) {
+            Veiculo veiculo = veiculoRepository.buscarPorId(itens.get(i).getVeiculo().getId());
+            if (veiculo == null || !veiculo.reservar()) {
+                liberar(itens, i);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void liberarTodos(List<ItemAluguel> itens) {
+        liberar(itens, itens.size());
+    }
+
+    // Reserva o período do aluguel na agenda de todos os veículos, ou de nenhum
+    public boolean reservarPeriodo(Aluguel aluguel, List<ItemAluguel> itens) {
+        return agenda.reservar(aluguel, itens);
+    }
+
+    public void liberarPeriodo(Aluguel aluguel) {
+        agenda.liberar(aluguel);
+    }
+
+    // Solta os bitsets dos dias que já passaram (chamado periodicamente; consultas e reservas
+    // não aceitam início no passado, então ninguém mais olha para eles)
+    public void descartarDiasPassados() {
+        agenda.descartarAntesDe(AgendaReservas.dia(System.currentTimeMillis()));
+    }
+
+    // Libera os 'quantidade' primeiros veículos da lista
+    private void liberar(List<ItemAluguel> itens, int quantidade) {
+        for (int i = quantidade - 1; i >= 0; i--) {
+            veiculoRepository.buscarPorId(itens.get(i).getVeiculo().getId()).liberar();
+        }
+    }
+
+    // Página da frota em ordem de cadastro, sem copiar a lista
+    public List<Veiculo> listarPagina(int inicio, int quantidade) {
+        return veiculoRepository.listarPagina(inicio, quantidade);
+    }
+
     public void listarTodosVeiculos() {
         List<Veiculo> veiculos = veiculoRepository.listarTodos();
 